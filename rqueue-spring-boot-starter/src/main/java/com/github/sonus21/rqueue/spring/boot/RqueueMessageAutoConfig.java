@@ -50,18 +50,29 @@ public class RqueueMessageAutoConfig extends RqueueConfig {
     if (simpleRqueueListenerContainerFactory.getRedisConnectionFactory() == null) {
       simpleRqueueListenerContainerFactory.setRedisConnectionFactory(getRedisConnectionFactory());
     }
+    // container and sender share the message template
+    getMessageTemplate(getRedisConnectionFactory());
     return simpleRqueueListenerContainerFactory.createMessageListenerContainer();
   }
 
   @Bean
   @ConditionalOnMissingBean
   public RqueueMessageSender rqueueMessageSender() {
+    RqueueMessageSender rqueueMessageSender;
     if (simpleRqueueListenerContainerFactory.getMessageConverters() != null) {
-      return new RqueueMessageSender(
-          getMessageTemplate(getRedisConnectionFactory()),
-          simpleRqueueListenerContainerFactory.getMessageConverters());
+      rqueueMessageSender =
+          new RqueueMessageSender(
+              getMessageTemplate(getRedisConnectionFactory()),
+              simpleRqueueListenerContainerFactory.getMessageConverters());
+    } else {
+      rqueueMessageSender =
+          new RqueueMessageSender(getMessageTemplate(getRedisConnectionFactory()));
     }
-    return new RqueueMessageSender(getMessageTemplate(getRedisConnectionFactory()));
+    if (simpleRqueueListenerContainerFactory.getMessageCompressor() != null) {
+      rqueueMessageSender.setMessageCompressor(
+          simpleRqueueListenerContainerFactory.getMessageCompressor());
+    }
+    return rqueueMessageSender;
   }
 
   @Bean
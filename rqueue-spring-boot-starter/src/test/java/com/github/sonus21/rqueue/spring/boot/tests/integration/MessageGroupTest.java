@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.spring.boot.tests.integration;
+
+import static com.github.sonus21.rqueue.utils.RedisUtils.getRedisTemplate;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.sonus21.rqueue.core.IdIndexedRqueueMessageTemplate;
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import com.github.sonus21.rqueue.spring.boot.application.Application;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = Application.class)
+@TestPropertySource(properties = {"spring.redis.port=6386", "mysql.db.name=test6"})
+@SpringBootTest
+@Slf4j
+public class MessageGroupTest {
+  static {
+    System.setProperty("TEST_NAME", MessageGroupTest.class.getSimpleName());
+  }
+
+  private static final List<String> groupKeys = Arrays.asList("user-1", "user-2");
+  private static final int messagesPerGroup = 4;
+  @Autowired private RedisConnectionFactory redisConnectionFactory;
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @PostConstruct
+  public void init() {
+    redisTemplate = getRedisTemplate(redisConnectionFactory);
+  }
+
+  @Test
+  public void messagesOfGroupAreConsumedInOrder() {
+    verifyMessagesOfGroupAreConsumedInOrder(
+        "grouped-queue", new RqueueMessageTemplate(redisConnectionFactory));
+  }
+
+  @Test
+  public void messagesOfGroupAreConsumedInOrderUsingIdIndexedStorage() {
+    verifyMessagesOfGroupAreConsumedInOrder(
+        "id-indexed-grouped-queue", new IdIndexedRqueueMessageTemplate(redisConnectionFactory));
+  }
+
+  // messages of the groups are interleaved, only the head of every group is in the queue
+  private void verifyMessagesOfGroupAreConsumedInOrder(
+      String queueName, RqueueMessageTemplate messageTemplate) {
+    Map<String, List<String>> sent = new HashMap<>();
+    for (int i = 0; i < messagesPerGroup; i++) {
+      for (String groupKey : groupKeys) {
+        RqueueMessage message = new RqueueMessage(queueName, groupKey + "-" + i, null, null);
+        message.setGroupKey(groupKey);
+        messageTemplate.addToGroup(queueName, message);
+        sent.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(message.getMessage());
+      }
+    }
+    assertEquals(Long.valueOf(groupKeys.size()), messageTemplate.getListLength(queueName));
+    String groupSetName = KeyNamingStrategy.PLAIN.getGroupSetName(queueName);
+    assertEquals(Long.valueOf(groupKeys.size()), redisTemplate.opsForSet().size(groupSetName));
+
+    Map<String, List<String>> consumed = new HashMap<>();
+    RqueueMessage message = messageTemplate.pop(queueName, 900000L);
+    while (message != null) {
+      List<String> messages =
+          consumed.computeIfAbsent(message.getGroupKey(), k -> new ArrayList<>());
+      messages.add(message.getMessage());
+      // the next message of the group is moved to the queue
+      assertEquals(
+          messages.size() < messagesPerGroup, messageTemplate.releaseGroup(queueName, message));
+      // a message consumed again does not release its group twice
+      assertFalse(messageTemplate.releaseGroup(queueName, message));
+      messageTemplate.acknowledge(queueName, message);
+      assertTrue(messageTemplate.getListLength(queueName) <= groupKeys.size());
+      message = messageTemplate.pop(queueName, 900000L);
+    }
+    assertEquals(sent, consumed);
+    // idle groups are cleaned up
+    assertFalse(redisTemplate.hasKey(groupSetName));
+    for (String groupKey : groupKeys) {
+      assertFalse(
+          redisTemplate.hasKey(KeyNamingStrategy.PLAIN.getGroupName(queueName, groupKey)));
+    }
+    assertFalse(redisTemplate.hasKey(KeyNamingStrategy.PLAIN.getGroupMessageStoreName(queueName)));
+  }
+}
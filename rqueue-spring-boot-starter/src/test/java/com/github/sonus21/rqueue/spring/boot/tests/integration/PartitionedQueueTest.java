@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.spring.boot.tests.integration;
+
+import static com.github.sonus21.rqueue.utils.RedisUtils.getRedisTemplate;
+import static com.github.sonus21.rqueue.utils.TimeUtils.waitFor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.exception.TimedOutException;
+import com.github.sonus21.rqueue.producer.RqueueMessageSender;
+import com.github.sonus21.rqueue.spring.boot.application.Application;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import rqueue.test.dto.Job;
+import rqueue.test.service.ConsumedMessageService;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = Application.class)
+@TestPropertySource(properties = {"spring.redis.port=6385", "mysql.db.name=test5"})
+@SpringBootTest
+@Slf4j
+public class PartitionedQueueTest {
+  static {
+    System.setProperty("TEST_NAME", PartitionedQueueTest.class.getSimpleName());
+  }
+
+  @Autowired private ConsumedMessageService consumedMessageService;
+  @Autowired private RqueueMessageSender messageSender;
+  @Autowired private RedisConnectionFactory redisConnectionFactory;
+  private RedisTemplate<String, RqueueMessage> redisTemplate;
+
+  @Value("${partitioned.queue.name}")
+  private String partitionedQueue;
+
+  @Value("${partitioned.queue.partitions}")
+  private int partitions;
+
+  @PostConstruct
+  public void init() {
+    redisTemplate = getRedisTemplate(redisConnectionFactory);
+  }
+
+  @Test
+  public void messagesSentUsingDefaultConfigurationAreConsumedFromPartitions()
+      throws TimedOutException {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      Job job = Job.newInstance();
+      ids.add(job.getId());
+      messageSender.put(partitionedQueue, job);
+    }
+    waitFor(
+        () -> consumedMessageService.getMessages(ids, Job.class).size() == ids.size(),
+        "messages of all partitions to be consumed");
+    // messages are never sent to the queue itself, nobody polls it
+    assertFalse(redisTemplate.hasKey(partitionedQueue));
+    for (String partitionName : QueueUtils.getPartitionNames(partitionedQueue, partitions)) {
+      assertEquals(Long.valueOf(0), redisTemplate.opsForList().size(partitionName));
+    }
+  }
+}
@@ -70,4 +70,12 @@ public class MessageListener {
     log.info("Email: {}", email);
     consumedMessageService.save(email);
   }
+
+  @RqueueListener(
+      value = "${partitioned.queue.name}",
+      partitions = "${partitioned.queue.partitions}")
+  public void onPartitionedMessage(Job job) throws Exception {
+    log.info("Partitioned job: {}", job);
+    consumedMessageService.save(job);
+  }
 }
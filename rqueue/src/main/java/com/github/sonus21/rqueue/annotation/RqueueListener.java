@@ -82,4 +82,94 @@ public @interface RqueueListener {
    * @return maxJobExecutionTime total job execution time.
    */
   String maxJobExecutionTime() default "900000";
+
+  /**
+   * Number of workers of this queue(s), it can be a range like "5-50" or an upper limit like "50",
+   * in which case the lower limit is one. By default all queues share the workers of the
+   * container, a queue having concurrency gets its own workers, so a slow queue can not starve
+   * other queues.
+   *
+   * <p>The number of workers is scaled between the lower and the upper limit based on the queue's
+   * backlog, workers above the lower limit are stopped once they have been idle for a minute.
+   *
+   * @return concurrency of this queue(s), -1 to use the workers shared by all queues
+   */
+  String concurrency() default "-1";
+
+  /**
+   * Maximum number of messages delivered to the listener method in a single call, the listener
+   * method must accept a {@link java.util.List} of messages. A batch is acknowledged, retried or
+   * moved to the dead letter queue as a unit.
+   *
+   * @return batch size, -1 if messages are delivered one by one
+   */
+  String batchSize() default "-1";
+
+  /**
+   * Maximum number of milliseconds to wait for a batch to be filled once its first message has been
+   * fetched, a partial batch is delivered once this time has elapsed.
+   *
+   * @return batch timeout in milliseconds
+   */
+  String batchTimeout() default "100";
+
+  /**
+   * Whether a failed batch should be split into single messages, in that case every message of the
+   * failed batch is delivered again as a batch of one, and it's retried or moved to the dead letter
+   * queue on its own.
+   *
+   * @return true/false
+   */
+  String splitFailedBatch() default "false";
+
+  /**
+   * Delay before the first retry of a failed message in milliseconds. By default a failed message
+   * is retried immediately by the same worker, when retry back off is set a failed message is
+   * moved to the delayed queue instead, so the worker can execute other messages until the retry
+   * is due. The delay is multiplied by the retry back off multiplier on every failure.
+   *
+   * <p>NOTE: Messages are moved from the delayed queue by the delayed message scheduler, so a
+   * retry can be delayed by up to the scheduler's polling period.
+   *
+   * @return initial retry delay in milliseconds, -1 to retry immediately
+   */
+  String retryBackOff() default "-1";
+
+  /**
+   * Multiplier applied to the retry delay on every failure, used only when retry back off is set.
+   *
+   * @return retry delay multiplier
+   */
+  String retryBackOffMultiplier() default "2";
+
+  /**
+   * Upper limit of the retry delay in milliseconds, used only when retry back off is set.
+   *
+   * @return maximum retry delay in milliseconds
+   */
+  String maxRetryBackOff() default "600000";
+
+  /**
+   * Fraction of the retry delay that is randomly added to it, this spreads the retries of messages
+   * that have failed at the same time. The delay is still capped at max retry back off. Used only
+   * when retry back off is set.
+   *
+   * @return jitter between 0 and 1
+   */
+  String retryBackOffJitter() default "0.1";
+
+  /**
+   * Number of partitions of this queue(s), a partitioned queue is stored in many Redis keys, so its
+   * throughput is not bound by a single key or a single Redis cluster node. Partitions are polled
+   * fairly and share the workers of the queue, messages are delivered to the same listener method
+   * irrespective of their partition.
+   *
+   * <p>NOTE: The listener container sets the number of partitions on the message sender bean when
+   * it's started, any other producer must use the same number of partitions, see {@link
+   * com.github.sonus21.rqueue.producer.RqueueMessageSender#setPartitions(String, int)}. Messages
+   * of different partitions are not ordered.
+   *
+   * @return number of partitions
+   */
+  String partitions() default "1";
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.compression;
+
+import java.io.IOException;
+
+/**
+ * A compression codec is used to compress large message payloads, name of the codec is stored
+ * along with the message, so that the consumer can find the codec to decompress it. Every codec
+ * used by a producer must be registered with consumers as well.
+ *
+ * @see MessageCompressor
+ */
+public interface CompressionCodec {
+  /** @return unique name of this codec */
+  String getName();
+
+  byte[] compress(byte[] data) throws IOException;
+
+  byte[] decompress(byte[] data) throws IOException;
+}
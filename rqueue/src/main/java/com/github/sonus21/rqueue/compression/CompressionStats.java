@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.compression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Compression statistics of a queue, sizes are lengths of message payloads as stored. */
+public class CompressionStats {
+  private final LongAdder messageCount = new LongAdder();
+  private final LongAdder compressedMessageCount = new LongAdder();
+  private final LongAdder uncompressedSize = new LongAdder();
+  private final LongAdder compressedSize = new LongAdder();
+
+  void recordUncompressed() {
+    messageCount.increment();
+  }
+
+  void recordCompressed(long originalSize, long storedSize) {
+    messageCount.increment();
+    compressedMessageCount.increment();
+    uncompressedSize.add(originalSize);
+    compressedSize.add(storedSize);
+  }
+
+  /** @return number of messages sent */
+  public long getMessageCount() {
+    return messageCount.sum();
+  }
+
+  /** @return number of messages stored compressed */
+  public long getCompressedMessageCount() {
+    return compressedMessageCount.sum();
+  }
+
+  /** @return total size of compressed messages before compression */
+  public long getUncompressedSize() {
+    return uncompressedSize.sum();
+  }
+
+  /** @return total size of compressed messages as stored */
+  public long getCompressedSize() {
+    return compressedSize.sum();
+  }
+
+  /** @return uncompressed size divided by compressed size, 1 if nothing has been compressed */
+  public double getCompressionRatio() {
+    long compressed = getCompressedSize();
+    if (compressed == 0) {
+      return 1.0;
+    }
+    return (double) getUncompressedSize() / compressed;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/** Compression codec using {@link Deflater}, it's always available for decompression. */
+public class DeflateCompressionCodec implements CompressionCodec {
+  public static final String NAME = "deflate";
+  private final int level;
+
+  public DeflateCompressionCodec() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Create a deflate codec
+   *
+   * @param level compression level between 0 and 9, use 1 for fastest compression.
+   */
+  public DeflateCompressionCodec(int level) {
+    this.level = level;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] compress(byte[] data) {
+    Deflater deflater = new Deflater(level);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 4 + 16);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(buffer);
+        outputStream.write(buffer, 0, count);
+      }
+      return outputStream.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public byte[] decompress(byte[] data) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length * 4);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IOException("Truncated deflate data");
+        }
+        outputStream.write(buffer, 0, count);
+      }
+      return outputStream.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
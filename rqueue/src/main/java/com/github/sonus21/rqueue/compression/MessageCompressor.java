@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.compression;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.Assert;
+
+/**
+ * Compresses payloads of messages larger than a threshold, name of the codec is stored in the
+ * message and the payload is stored as Base64 of the compressed bytes. Compression can be
+ * configured for all queues and overridden per queue.
+ *
+ * <p>Consumers decompress a message using the codec having the name stored in the message, {@link
+ * DeflateCompressionCodec} is always available, any other codec has to be added using {@link
+ * #addCodec(CompressionCodec)}.
+ */
+public class MessageCompressor {
+  private static Logger logger = LoggerFactory.getLogger(MessageCompressor.class);
+  private final Map<String, CompressionCodec> codecs = new ConcurrentHashMap<>();
+  private final Map<String, Compression> queueNameToCompression = new ConcurrentHashMap<>();
+  private final Map<String, CompressionStats> queueNameToStats = new ConcurrentHashMap<>();
+  private Compression defaultCompression;
+
+  /** Create a message compressor that does not compress any message unless configured. */
+  public MessageCompressor() {
+    addCodec(new DeflateCompressionCodec());
+  }
+
+  /**
+   * Create a message compressor that compresses messages of all queues.
+   *
+   * @param codec codec used for compression
+   * @param threshold messages with payload longer than this are compressed
+   */
+  public MessageCompressor(CompressionCodec codec, int threshold) {
+    this();
+    addCodec(codec);
+    defaultCompression = new Compression(codec, threshold);
+  }
+
+  /**
+   * Add a codec that can be used to decompress messages.
+   *
+   * @param codec compression codec
+   */
+  public void addCodec(CompressionCodec codec) {
+    Assert.notNull(codec, "codec must not be null");
+    Assert.hasText(codec.getName(), "codec name must not be empty");
+    codecs.put(codec.getName(), codec);
+  }
+
+  /**
+   * Set compression of a queue, this overrides the compression set for all queues.
+   *
+   * @param queueName name of the queue
+   * @param codec codec used for compression
+   * @param threshold messages with payload longer than this are compressed
+   */
+  public void setCompression(String queueName, CompressionCodec codec, int threshold) {
+    Assert.notNull(queueName, "queueName must not be null");
+    addCodec(codec);
+    queueNameToCompression.put(queueName, new Compression(codec, threshold));
+  }
+
+  /**
+   * Disable compression of a queue when compression has been set for all queues.
+   *
+   * @param queueName name of the queue
+   */
+  public void disableCompression(String queueName) {
+    Assert.notNull(queueName, "queueName must not be null");
+    queueNameToCompression.put(queueName, new Compression(null, 0));
+  }
+
+  /**
+   * Compress payload of the given message if its queue has compression and the payload is longer
+   * than the threshold. Payload is left as it is if compression does not reduce its size or fails.
+   *
+   * @param message message to be sent
+   */
+  public void compress(RqueueMessage message) {
+    Compression compression =
+        queueNameToCompression.getOrDefault(message.getQueueName(), defaultCompression);
+    if (compression == null || compression.codec == null || message.getCompression() != null) {
+      return;
+    }
+    CompressionStats stats =
+        queueNameToStats.computeIfAbsent(message.getQueueName(), k -> new CompressionStats());
+    String payload = message.getMessage();
+    if (payload == null || payload.length() <= compression.threshold) {
+      stats.recordUncompressed();
+      return;
+    }
+    try {
+      byte[] compressed = compression.codec.compress(payload.getBytes(StandardCharsets.UTF_8));
+      String encoded = Base64.getEncoder().encodeToString(compressed);
+      if (encoded.length() >= payload.length()) {
+        stats.recordUncompressed();
+        return;
+      }
+      message.setMessage(encoded);
+      message.setCompression(compression.codec.getName());
+      stats.recordCompressed(payload.length(), encoded.length());
+    } catch (IOException | RuntimeException e) {
+      logger.error("Message compression failed, queue: {}", message.getQueueName(), e);
+      stats.recordUncompressed();
+    }
+  }
+
+  /**
+   * Get payload of a message, the payload is decompressed if the message was compressed.
+   *
+   * @param message message read from Redis
+   * @return payload of the message
+   * @throws MessageConversionException when the codec is not available or decompression fails
+   */
+  public String decompress(RqueueMessage message) {
+    if (message.getCompression() == null) {
+      return message.getMessage();
+    }
+    CompressionCodec codec = codecs.get(message.getCompression());
+    if (codec == null) {
+      throw new MessageConversionException(
+          "Compression codec " + message.getCompression() + " is not available");
+    }
+    try {
+      byte[] compressed = Base64.getDecoder().decode(message.getMessage());
+      return new String(codec.decompress(compressed), StandardCharsets.UTF_8);
+    } catch (IOException | RuntimeException e) {
+      throw new MessageConversionException("Message decompression failed", e);
+    }
+  }
+
+  /**
+   * Get compression statistics of a queue
+   *
+   * @param queueName name of the queue
+   * @return statistics or null if no message has been sent to this queue with compression.
+   */
+  public CompressionStats getCompressionStats(String queueName) {
+    return queueNameToStats.get(queueName);
+  }
+
+  private static class Compression {
+    private final CompressionCodec codec;
+    private final int threshold;
+
+    Compression(CompressionCodec codec, int threshold) {
+      this.codec = codec;
+      this.threshold = threshold;
+    }
+  }
+}
@@ -19,8 +19,12 @@ package com.github.sonus21.rqueue.config;
 import static com.github.sonus21.rqueue.utils.RedisUtils.getRedisTemplate;
 
 import com.github.sonus21.rqueue.core.DelayedMessageScheduler;
+import com.github.sonus21.rqueue.core.IdIndexedRqueueMessageTemplate;
+import com.github.sonus21.rqueue.core.MessageScheduler;
 import com.github.sonus21.rqueue.core.ProcessingMessageScheduler;
+import com.github.sonus21.rqueue.core.RqueueMessageSerializer;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -58,6 +62,40 @@ public abstract class RqueueConfig {
   @Value("${rqueue.scheduler.redis.enabled:true}")
   private boolean schedulerRedisEnabled;
 
+  /**
+   * This is used to store messages in a compact binary format instead of JSON. Messages of both
+   * formats are always readable, all applications using the queues must be upgraded to a version
+   * that can read the binary format before enabling it.
+   */
+  @Value("${rqueue.message.binary.format:false}")
+  private boolean binaryMessageFormat;
+
+  /**
+   * This is used to store message bodies in a hash keyed by message id, queues would hold only ids.
+   * Messages stored in one storage can not be read using the other, it should be enabled only for
+   * new or empty queues.
+   */
+  @Value("${rqueue.message.id.indexed.storage:false}")
+  private boolean idIndexedMessageStorage;
+
+  /**
+   * Accuracy in milliseconds with which delayed messages are moved to their queue, a lower value
+   * moves messages closer to their process at time at the cost of more scheduler runs.
+   */
+  @Value("${rqueue.scheduler.delayed.message.accuracy:50}")
+  private long delayedMessageSchedulerAccuracy;
+
+  /**
+   * Lease time in milliseconds of the duty of moving messages of a queue, when it's positive a
+   * queue's messages are moved by the nodes that hold one of its leases instead of by every node.
+   */
+  @Value("${rqueue.scheduler.lease.time:0}")
+  private long schedulerLeaseTime;
+
+  // Number of nodes that can hold the scheduler duty of a queue at the same time
+  @Value("${rqueue.scheduler.lease.owner.count:1}")
+  private int schedulerLeaseOwnerCount;
+
   // Number of threads used to process delayed queue messages by scheduler
   @Value("${rqueue.scheduler.delayed.queue.thread.pool.size:5}")
   private int delayedQueueSchedulerPoolSize;
@@ -66,6 +104,22 @@ public abstract class RqueueConfig {
   @Value("${rqueue.processing.delayed.queue.thread.pool.size:1}")
   private int processingQueueSchedulerPoolSize;
 
+  private KeyNamingStrategy keyNamingStrategy = KeyNamingStrategy.PLAIN;
+
+  /**
+   * Strategy used to name keys and channels of queues, {@link KeyNamingStrategy#HASH_TAGGED} puts
+   * all keys of a queue in the same slot as required by Redis cluster. Existing keys can be renamed
+   * using {@link com.github.sonus21.rqueue.core.KeyNameMigrator}. It's applied to the message
+   * template created by this configuration, a template set on the container factory keeps its own
+   * strategy, schedulers always use the strategy of the message template.
+   *
+   * @param keyNamingStrategy key naming strategy
+   */
+  @Value("${rqueue.key.naming.strategy:PLAIN}")
+  public void setKeyNamingStrategy(KeyNamingStrategy keyNamingStrategy) {
+    this.keyNamingStrategy = keyNamingStrategy;
+  }
+
   /**
    * Get redis connection factory either from listener container factory or from bean factory. 1st
    * priority is given to container factory. This redis connection factory is used to connect to
@@ -93,9 +147,16 @@ public abstract class RqueueConfig {
     if (simpleRqueueListenerContainerFactory.getRqueueMessageTemplate() != null) {
       return simpleRqueueListenerContainerFactory.getRqueueMessageTemplate();
     }
-    simpleRqueueListenerContainerFactory.setRqueueMessageTemplate(
-        new RqueueMessageTemplate(connectionFactory));
-    return simpleRqueueListenerContainerFactory.getRqueueMessageTemplate();
+    RqueueMessageSerializer messageSerializer = new RqueueMessageSerializer(binaryMessageFormat);
+    RqueueMessageTemplate messageTemplate;
+    if (idIndexedMessageStorage) {
+      messageTemplate = new IdIndexedRqueueMessageTemplate(connectionFactory, messageSerializer);
+    } else {
+      messageTemplate = new RqueueMessageTemplate(connectionFactory, messageSerializer);
+    }
+    messageTemplate.setKeyNamingStrategy(keyNamingStrategy);
+    simpleRqueueListenerContainerFactory.setRqueueMessageTemplate(messageTemplate);
+    return messageTemplate;
   }
 
   /**
@@ -106,11 +167,15 @@ public abstract class RqueueConfig {
    */
   @Bean
   public DelayedMessageScheduler delayedMessageScheduler() {
-    return new DelayedMessageScheduler(
-        getRedisTemplate(getRedisConnectionFactory()),
-        delayedQueueSchedulerPoolSize,
-        schedulerAutoStart,
-        schedulerRedisEnabled);
+    DelayedMessageScheduler scheduler =
+        new DelayedMessageScheduler(
+            getRedisTemplate(getRedisConnectionFactory()),
+            delayedQueueSchedulerPoolSize,
+            schedulerAutoStart,
+            schedulerRedisEnabled,
+            delayedMessageSchedulerAccuracy);
+    configureScheduler(scheduler);
+    return scheduler;
   }
 
   /**
@@ -121,10 +186,20 @@ public abstract class RqueueConfig {
    */
   @Bean
   public ProcessingMessageScheduler processingMessageScheduler() {
-    return new ProcessingMessageScheduler(
-        getRedisTemplate(getRedisConnectionFactory()),
-        processingQueueSchedulerPoolSize,
-        schedulerAutoStart,
-        schedulerRedisEnabled);
+    ProcessingMessageScheduler scheduler =
+        new ProcessingMessageScheduler(
+            getRedisTemplate(getRedisConnectionFactory()),
+            processingQueueSchedulerPoolSize,
+            schedulerAutoStart,
+            schedulerRedisEnabled);
+    configureScheduler(scheduler);
+    return scheduler;
+  }
+
+  private void configureScheduler(MessageScheduler scheduler) {
+    scheduler.setLeaseTime(schedulerLeaseTime);
+    scheduler.setLeaseOwnerCount(schedulerLeaseOwnerCount);
+    scheduler.setKeyNamingStrategy(
+        getMessageTemplate(getRedisConnectionFactory()).getKeyNamingStrategy());
   }
 }
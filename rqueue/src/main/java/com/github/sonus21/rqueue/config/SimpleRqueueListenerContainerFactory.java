@@ -16,6 +16,7 @@
 
 package com.github.sonus21.rqueue.config;
 
+import com.github.sonus21.rqueue.compression.MessageCompressor;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.listener.RqueueMessageHandler;
 import com.github.sonus21.rqueue.listener.RqueueMessageListenerContainer;
@@ -49,6 +50,27 @@ public class SimpleRqueueListenerContainerFactory {
   private Long backOffTime;
   // Number of workers requires for execution
   private Integer maxNumWorkers;
+  // Number of messages fetched from a queue in a single Redis call
+  private Integer batchSize;
+  // Whether listeners should wait for a Redis PUB/SUB notification when their queue is empty
+  private boolean messageNotificationEnabled = false;
+  // How long a listener should wait before polling an empty queue again
+  private Long pollingInterval;
+  // Whether listeners and message handlers should run on virtual threads
+  private boolean virtualThreadsEnabled = false;
+  // Maximum number of concurrent executions per queue when virtual threads are enabled
+  private Integer virtualThreadCountPerQueue;
+  // Number of pollers that would fetch messages of all queues
+  private Integer pollerCount;
+  // Maximum back off time of an empty queue when pollers are used
+  private Long maxPollingInterval;
+  // Number of acknowledgements that are removed from the processing queue in a single call
+  private Integer ackBatchSize;
+  // Maximum time an acknowledgement can stay in the buffer
+  private Long ackFlushInterval;
+  // Maximum number of asynchronously completed messages that can be in flight per worker pool
+  private Integer maxInFlightMessages;
+  private MessageCompressor messageCompressor;
   // This message processor would be called whenever a message is discarded due to retry limit
   // exhaustion
   private MessageProcessor discardMessageProcessor = new NoOpMessageProcessor();
@@ -143,6 +165,188 @@ public class SimpleRqueueListenerContainerFactory {
     this.maxNumWorkers = maxNumWorkers;
   }
 
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Number of messages that would be fetched from a queue in a single Redis call. By default one
+   * message is fetched per call, a higher value reduces the number of Redis round trips when a
+   * queue has a large backlog. A call never fetches more messages than the number of free workers.
+   *
+   * @param batchSize number of messages to fetch in one call
+   */
+  public void setBatchSize(int batchSize) {
+    Assert.isTrue(batchSize > 0, "batchSize must be greater than zero");
+    this.batchSize = batchSize;
+  }
+
+  public boolean isMessageNotificationEnabled() {
+    return messageNotificationEnabled;
+  }
+
+  /**
+   * By default a listener sleeps for the polling interval whenever its queue is empty. When message
+   * notification is enabled, the listener waits for a Redis PUB/SUB notification that is published
+   * whenever a message is added to an empty queue, this reduces the pickup latency of idle queues
+   * as well as the number of Redis calls made for empty queues.
+   *
+   * <p>This requires a {@link
+   * org.springframework.data.redis.listener.RedisMessageListenerContainer} bean.
+   *
+   * @param messageNotificationEnabled true/false
+   */
+  public void setMessageNotificationEnabled(boolean messageNotificationEnabled) {
+    this.messageNotificationEnabled = messageNotificationEnabled;
+  }
+
+  public Long getPollingInterval() {
+    return pollingInterval;
+  }
+
+  /**
+   * The number of milliseconds a listener waits before polling its queue again when the queue is
+   * empty. Default value is 200 milliseconds, a higher value can be used along with message
+   * notification since listeners are woken up as soon as a message is available.
+   *
+   * @param pollingInterval in milliseconds
+   */
+  public void setPollingInterval(long pollingInterval) {
+    Assert.isTrue(pollingInterval > 0, "pollingInterval must be greater than zero");
+    this.pollingInterval = pollingInterval;
+  }
+
+  public boolean isVirtualThreadsEnabled() {
+    return virtualThreadsEnabled;
+  }
+
+  /**
+   * Run queue listeners and message handlers on virtual threads instead of a thread pool, this
+   * requires Java 21 or later. Since a virtual thread is cheap, a blocking message handler does
+   * not hold an OS thread, and the number of concurrent executions of a queue is bounded by {@link
+   * #setVirtualThreadCountPerQueue(int)} instead of max number of workers.
+   *
+   * <p>Virtual threads can not be used with a custom task executor.
+   *
+   * @param virtualThreadsEnabled true/false
+   */
+  public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+    this.virtualThreadsEnabled = virtualThreadsEnabled;
+  }
+
+  public Integer getVirtualThreadCountPerQueue() {
+    return virtualThreadCountPerQueue;
+  }
+
+  /**
+   * Maximum number of messages of a queue that can be executed concurrently when virtual threads
+   * are enabled, default value is 100.
+   *
+   * @param virtualThreadCountPerQueue number of concurrent executions per queue
+   */
+  public void setVirtualThreadCountPerQueue(int virtualThreadCountPerQueue) {
+    Assert.isTrue(
+        virtualThreadCountPerQueue > 0, "virtualThreadCountPerQueue must be greater than zero");
+    this.virtualThreadCountPerQueue = virtualThreadCountPerQueue;
+  }
+
+  public Integer getPollerCount() {
+    return pollerCount;
+  }
+
+  /**
+   * By default each queue is polled by its own thread, set poller count to poll all queues using
+   * the given number of threads. A poller fetches messages of all its non-empty queues in a single
+   * Redis call, and an empty queue is polled less frequently until it gets a message, so this
+   * reduces the number of threads and Redis calls for applications having many queues.
+   *
+   * @param pollerCount number of poller threads
+   */
+  public void setPollerCount(int pollerCount) {
+    Assert.isTrue(pollerCount > 0, "pollerCount must be greater than zero");
+    this.pollerCount = pollerCount;
+  }
+
+  public Long getMaxPollingInterval() {
+    return maxPollingInterval;
+  }
+
+  /**
+   * Maximum number of milliseconds a poller waits before polling an empty queue again, the wait
+   * time of an empty queue starts from the polling interval and doubles on every empty poll.
+   * Default value is 2 seconds, it can be increased along with message notification.
+   *
+   * @param maxPollingInterval in milliseconds
+   */
+  public void setMaxPollingInterval(long maxPollingInterval) {
+    Assert.isTrue(maxPollingInterval > 0, "maxPollingInterval must be greater than zero");
+    this.maxPollingInterval = maxPollingInterval;
+  }
+
+  public Integer getAckBatchSize() {
+    return ackBatchSize;
+  }
+
+  /**
+   * Buffer acknowledgements of executed messages, buffered messages are removed from the processing
+   * queue using a single Redis call once the buffer is full or the ack flush interval has elapsed.
+   * By default every message is acknowledged as soon as it has been executed.
+   *
+   * @param ackBatchSize maximum number of acknowledgements in a single Redis call
+   */
+  public void setAckBatchSize(int ackBatchSize) {
+    Assert.isTrue(ackBatchSize > 0, "ackBatchSize must be greater than zero");
+    this.ackBatchSize = ackBatchSize;
+  }
+
+  public Long getAckFlushInterval() {
+    return ackFlushInterval;
+  }
+
+  /**
+   * Maximum number of milliseconds an acknowledgement can stay in the buffer, this bounds the extra
+   * time an executed message stays in the processing queue. Default value is 5 milliseconds.
+   *
+   * @param ackFlushInterval in milliseconds
+   */
+  public void setAckFlushInterval(long ackFlushInterval) {
+    Assert.isTrue(ackFlushInterval > 0, "ackFlushInterval must be greater than zero");
+    this.ackFlushInterval = ackFlushInterval;
+  }
+
+  public Integer getMaxInFlightMessages() {
+    return maxInFlightMessages;
+  }
+
+  /**
+   * Listener methods that return a CompletableFuture, Mono etc or take an acknowledgment argument
+   * release their worker before the message has been completed. This limits the number of messages
+   * per worker pool that are not completed yet, messages are not fetched while the limit is
+   * reached. Default value is 1000.
+   *
+   * @param maxInFlightMessages maximum number of incomplete messages
+   */
+  public void setMaxInFlightMessages(int maxInFlightMessages) {
+    Assert.isTrue(maxInFlightMessages > 0, "maxInFlightMessages must be greater than zero");
+    this.maxInFlightMessages = maxInFlightMessages;
+  }
+
+  public MessageCompressor getMessageCompressor() {
+    return messageCompressor;
+  }
+
+  /**
+   * Message compressor is used by the message sender to compress large messages and by the
+   * listener container to decompress them. Compression is disabled by default, though messages
+   * compressed using deflate are always decompressed.
+   *
+   * @param messageCompressor message compressor
+   */
+  public void setMessageCompressor(MessageCompressor messageCompressor) {
+    Assert.notNull(messageCompressor, "messageCompressor must not be null");
+    this.messageCompressor = messageCompressor;
+  }
+
   /** @return list of configured message converters */
   public List<MessageConverter> getMessageConverters() {
     return messageConverters;
@@ -219,6 +423,35 @@ public class SimpleRqueueListenerContainerFactory {
     if (backOffTime != null) {
       messageListenerContainer.setBackOffTime(backOffTime);
     }
+    if (batchSize != null) {
+      messageListenerContainer.setBatchSize(batchSize);
+    }
+    if (pollingInterval != null) {
+      messageListenerContainer.setPollingInterval(pollingInterval);
+    }
+    messageListenerContainer.setMessageNotificationEnabled(messageNotificationEnabled);
+    if (virtualThreadCountPerQueue != null) {
+      messageListenerContainer.setVirtualThreadCountPerQueue(virtualThreadCountPerQueue);
+    }
+    messageListenerContainer.setVirtualThreadsEnabled(virtualThreadsEnabled);
+    if (pollerCount != null) {
+      messageListenerContainer.setPollerCount(pollerCount);
+    }
+    if (maxPollingInterval != null) {
+      messageListenerContainer.setMaxPollingInterval(maxPollingInterval);
+    }
+    if (ackBatchSize != null) {
+      messageListenerContainer.setAckBatchSize(ackBatchSize);
+    }
+    if (ackFlushInterval != null) {
+      messageListenerContainer.setAckFlushInterval(ackFlushInterval);
+    }
+    if (maxInFlightMessages != null) {
+      messageListenerContainer.setMaxInFlightMessages(maxInFlightMessages);
+    }
+    if (messageCompressor != null) {
+      messageListenerContainer.setMessageCompressor(messageCompressor);
+    }
     return messageListenerContainer;
   }
 
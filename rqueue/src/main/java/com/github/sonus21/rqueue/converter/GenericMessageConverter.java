@@ -16,9 +16,16 @@
 
 package com.github.sonus21.rqueue.converter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
@@ -29,10 +36,21 @@ import org.springframework.messaging.support.GenericMessage;
 /**
  * A converter to turn the payload of a {@link Message} from serialized form to a typed String and
  * vice versa.
+ *
+ * <p>A payload is serialized as <code>{"t":"class name","p":payload}</code>, the payload is
+ * embedded as it is, so a message is parsed in a single pass. Messages serialized by older
+ * versions, <code>{"msg":"escaped payload","name":"class name"}</code>, can still be read.
  */
 public class GenericMessageConverter implements MessageConverter {
+  private static final String TYPE = "t";
+  private static final String PAYLOAD = "p";
+  private static final String LEGACY_TYPE = "name";
+  private static final String LEGACY_PAYLOAD = "msg";
   private static ObjectMapper objectMapper = new ObjectMapper();
   private static Logger logger = LoggerFactory.getLogger(GenericMessageConverter.class);
+  // readers are looked up by class name, this avoids Class.forName call for every message
+  private final Map<String, ObjectReader> typeNameToReader = new ConcurrentHashMap<>();
+  private final Map<Class<?>, ObjectWriter> classToWriter = new ConcurrentHashMap<>();
 
   /**
    * Convert the payload of a {@link Message} from a serialized form to a typed Object of type
@@ -48,9 +66,7 @@ public class GenericMessageConverter implements MessageConverter {
   @Override
   public Object fromMessage(Message<?> message, Class<?> targetClass) {
     try {
-      Msg msg = objectMapper.readValue((String) message.getPayload(), Msg.class);
-      Class<?> c = Class.forName(msg.getName());
-      return objectMapper.readValue(msg.msg, c);
+      return readValue((String) message.getPayload());
     } catch (IOException | ClassCastException | ClassNotFoundException e) {
       logger.warn("Exception", e);
       return null;
@@ -69,42 +85,66 @@ public class GenericMessageConverter implements MessageConverter {
    */
   @Override
   public Message<?> toMessage(Object payload, MessageHeaders headers) {
-    String name = payload.getClass().getName();
-    try {
-      String msg = objectMapper.writeValueAsString(payload);
-      Msg message = new Msg(msg, name);
-      return new GenericMessage<>(objectMapper.writeValueAsString(message));
-    } catch (JsonProcessingException e) {
+    Class<?> clazz = payload.getClass();
+    StringWriter stringWriter = new StringWriter();
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(stringWriter)) {
+      generator.writeStartObject();
+      generator.writeStringField(TYPE, clazz.getName());
+      generator.writeFieldName(PAYLOAD);
+      getWriter(clazz).writeValue(generator, payload);
+      generator.writeEndObject();
+    } catch (IOException e) {
       logger.error("Serialisation failed", e);
       return null;
     }
+    return new GenericMessage<>(stringWriter.toString());
   }
 
-  private static class Msg {
-    private String msg;
-    private String name;
-
-    public Msg() {}
-
-    public Msg(String msg, String name) {
-      this.msg = msg;
-      this.name = name;
-    }
-
-    public String getMsg() {
-      return msg;
-    }
-
-    public void setMsg(String msg) {
-      this.msg = msg;
+  private Object readValue(String payload) throws IOException, ClassNotFoundException {
+    try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      String name = null;
+      String legacyPayload = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case TYPE:
+          case LEGACY_TYPE:
+            name = parser.getValueAsString();
+            break;
+          case PAYLOAD:
+            // type is always written before the payload
+            if (name == null) {
+              return null;
+            }
+            return getReader(name).readValue(parser);
+          case LEGACY_PAYLOAD:
+            legacyPayload = parser.getValueAsString();
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+      if (name == null || legacyPayload == null) {
+        return null;
+      }
+      return getReader(name).readValue(legacyPayload);
     }
+  }
 
-    public String getName() {
-      return name;
+  private ObjectReader getReader(String name) throws ClassNotFoundException {
+    ObjectReader reader = typeNameToReader.get(name);
+    if (reader == null) {
+      reader = objectMapper.readerFor(Class.forName(name));
+      typeNameToReader.put(name, reader);
     }
+    return reader;
+  }
 
-    public void setName(String name) {
-      this.name = name;
-    }
+  private ObjectWriter getWriter(Class<?> clazz) {
+    return classToWriter.computeIfAbsent(clazz, objectMapper::writerFor);
   }
 }
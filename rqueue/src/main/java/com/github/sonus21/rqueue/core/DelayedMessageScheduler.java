@@ -18,26 +18,72 @@ package com.github.sonus21.rqueue.core;
 
 import com.github.sonus21.rqueue.listener.QueueDetail;
 import com.github.sonus21.rqueue.utils.Constants;
-import com.github.sonus21.rqueue.utils.QueueUtils;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.Assert;
 
 public class DelayedMessageScheduler extends MessageScheduler {
   private final Logger logger = LoggerFactory.getLogger(DelayedMessageScheduler.class);
+  private final long accuracy;
+  private final Map<String, LatenessHistogram> queueNameToLateness = new ConcurrentHashMap<>();
 
   public DelayedMessageScheduler(
       RedisTemplate<String, Long> redisTemplate,
       int poolSize,
       boolean scheduleTaskAtStartup,
       boolean redisEnabled) {
+    this(
+        redisTemplate,
+        poolSize,
+        scheduleTaskAtStartup,
+        redisEnabled,
+        Constants.DEFAULT_SCHEDULER_ACCURACY);
+  }
+
+  /**
+   * Create a scheduler that moves delayed messages within the given accuracy of their process at
+   * time, a queue is checked at the score of its head rounded up to a multiple of accuracy.
+   *
+   * @param redisTemplate redis template
+   * @param poolSize number of scheduler threads
+   * @param scheduleTaskAtStartup whether queues should be checked at startup
+   * @param redisEnabled whether redis pub/sub is used to get notified of new messages
+   * @param accuracy accuracy in milliseconds, it must be positive
+   */
+  public DelayedMessageScheduler(
+      RedisTemplate<String, Long> redisTemplate,
+      int poolSize,
+      boolean scheduleTaskAtStartup,
+      boolean redisEnabled,
+      long accuracy) {
     super(redisTemplate, poolSize, scheduleTaskAtStartup, redisEnabled);
+    Assert.isTrue(accuracy > 0, "accuracy must be positive");
+    this.accuracy = accuracy;
   }
 
   @Override
   protected void initializeState(Map<String, QueueDetail> queueDetailMap) {}
 
+  @Override
+  protected void onMessagesMoved(String queueName, long oldestScore, long currentTime) {
+    queueNameToLateness
+        .computeIfAbsent(queueName, k -> new LatenessHistogram())
+        .record(currentTime - oldestScore);
+  }
+
+  /**
+   * Get lateness histogram of a queue
+   *
+   * @param queueName name of the queue
+   * @return histogram or null if no delayed message of this queue has been moved yet.
+   */
+  public LatenessHistogram getLatenessHistogram(String queueName) {
+    return queueNameToLateness.get(queueName);
+  }
+
   @Override
   public Logger getLogger() {
     return logger;
@@ -49,20 +95,23 @@ public class DelayedMessageScheduler extends MessageScheduler {
     if (value == null) {
       return currentTime + Constants.DEFAULT_DELAY;
     }
-    if (value < currentTime) {
+    if (value <= currentTime) {
       return currentTime;
     }
-    return currentTime + Constants.DEFAULT_DELAY;
+    // messages due within one accuracy interval are moved together, the queue is still checked
+    // every default delay in case an event about a new head has been missed
+    long scheduleAt = (value + accuracy - 1) / accuracy * accuracy;
+    return Math.min(scheduleAt, currentTime + Constants.DEFAULT_DELAY);
   }
 
   @Override
   protected String getChannelName(String queueName) {
-    return QueueUtils.getChannelName(queueName);
+    return getKeyNamingStrategy().getChannelName(queueName);
   }
 
   @Override
   protected String getZsetName(String queueName) {
-    return QueueUtils.getTimeQueueName(queueName);
+    return getKeyNamingStrategy().getTimeQueueName(queueName);
   }
 
   @Override
@@ -72,6 +121,7 @@ public class DelayedMessageScheduler extends MessageScheduler {
 
   @Override
   protected boolean isQueueValid(QueueDetail queueDetail) {
-    return queueDetail.isDelayedQueue();
+    // failed messages of a queue with retry back off are retried through the delayed queue
+    return queueDetail.isDelayedQueue() || queueDetail.isRetryBackOffEnabled();
   }
 }
@@ -0,0 +1,484 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static com.github.sonus21.rqueue.utils.QueueUtils.getNotificationName;
+
+import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptType;
+import com.github.sonus21.rqueue.utils.Constants;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Message template that stores message bodies only once per queue. Queue, delayed queue and
+ * processing queue hold message ids, while bodies are kept in a hash keyed by message id, that
+ * makes acknowledgement, retry and dead letter operations independent of the message size, and
+ * messages can be found, deleted or tracked using their id.
+ *
+ * <p>NOTE: Messages stored by {@link RqueueMessageTemplate} can not be read by this template and
+ * vice versa, this storage should be enabled only for new or empty queues.
+ *
+ * @see KeyNamingStrategy#getMessageStoreName(String)
+ */
+@SuppressWarnings("unchecked")
+public class IdIndexedRqueueMessageTemplate extends RqueueMessageTemplate {
+  private final RedisSerializer<Object> argumentSerializer = new ArgumentSerializer();
+
+  public IdIndexedRqueueMessageTemplate(RedisConnectionFactory redisConnectionFactory) {
+    this(redisConnectionFactory, new RqueueMessageSerializer(false));
+  }
+
+  public IdIndexedRqueueMessageTemplate(
+      RedisConnectionFactory redisConnectionFactory, RqueueMessageSerializer messageSerializer) {
+    super(redisConnectionFactory, messageSerializer);
+  }
+
+  private <T> T execute(ScriptType scriptType, List<String> keys, Object... args) {
+    RedisScript<T> script = (RedisScript<T>) RedisScriptFactory.getScript(scriptType);
+    // results are either numbers or messages
+    RedisSerializer<T> resultSerializer =
+        (RedisSerializer<T>) (RedisSerializer<?>) messageSerializer;
+    return scriptExecutor.execute(script, argumentSerializer, resultSerializer, keys, args);
+  }
+
+  private static boolean isPositive(Long value) {
+    return value != null && value > 0;
+  }
+
+  @Override
+  public void add(String queueName, RqueueMessage message) {
+    execute(
+        ScriptType.ENQUEUE_MESSAGE_BY_ID,
+        Arrays.asList(queueName, getQueueChannelName(queueName), getMessageStoreName(queueName)),
+        message.getId(),
+        message);
+  }
+
+  @Override
+  public void addWithDelay(String queueName, RqueueMessage rqueueMessage) {
+    execute(
+        ScriptType.ADD_MESSAGE_BY_ID,
+        Arrays.asList(
+            getTimeQueueName(queueName),
+            getChannelName(queueName),
+            getMessageStoreName(queueName),
+            getNotificationName(getChannelName(queueName))),
+        rqueueMessage.getId(),
+        rqueueMessage,
+        rqueueMessage.getProcessAt(),
+        rqueueMessage.getQueuedTime());
+  }
+
+  @Override
+  void addChunk(String queueName, List<RqueueMessage> messages) {
+    List<Object> args = new ArrayList<>(2 * messages.size());
+    for (RqueueMessage message : messages) {
+      args.add(message.getId());
+      args.add(message);
+    }
+    execute(
+        ScriptType.ENQUEUE_MESSAGES_BY_ID,
+        Arrays.asList(queueName, getQueueChannelName(queueName), getMessageStoreName(queueName)),
+        args.toArray());
+  }
+
+  @Override
+  void addChunkWithDelay(String queueName, List<RqueueMessage> messages) {
+    List<Object> args = new ArrayList<>(3 * messages.size() + 1);
+    args.add(System.currentTimeMillis());
+    for (RqueueMessage message : messages) {
+      args.add(message.getId());
+      args.add(message);
+      args.add(message.getProcessAt());
+    }
+    execute(
+        ScriptType.ADD_MESSAGES_BY_ID,
+        Arrays.asList(
+            getTimeQueueName(queueName),
+            getChannelName(queueName),
+            getMessageStoreName(queueName),
+            getNotificationName(getChannelName(queueName))),
+        args.toArray());
+  }
+
+  @Override
+  public RqueueMessage pop(String queueName, long maxJobExecutionTime) {
+    List<RqueueMessage> messages = pop(queueName, maxJobExecutionTime, 1);
+    if (messages.isEmpty()) {
+      return null;
+    }
+    return messages.get(0);
+  }
+
+  @Override
+  public List<RqueueMessage> pop(String queueName, long maxJobExecutionTime, int count) {
+    long currentTime = System.currentTimeMillis();
+    List<RqueueMessage> messages =
+        execute(
+            ScriptType.POP_MESSAGES_BY_ID,
+            Arrays.asList(
+                queueName,
+                getProcessingQueueName(queueName),
+                getProcessingQueueChannelName(queueName),
+                getMessageStoreName(queueName),
+                getNotificationName(getProcessingQueueChannelName(queueName))),
+            currentTime,
+            QueueUtils.getMessageReEnqueueTimeWithDelay(currentTime, maxJobExecutionTime),
+            count);
+    if (messages == null) {
+      return Collections.emptyList();
+    }
+    return messages;
+  }
+
+  @Override
+  public List<List<RqueueMessage>> pop(
+      List<String> queueNames, List<Long> maxJobExecutionTimes, List<Integer> counts) {
+    if (isCrossSlot(queueNames)) {
+      return popEach(queueNames, maxJobExecutionTimes, counts);
+    }
+    long currentTime = System.currentTimeMillis();
+    List<String> keys = new ArrayList<>();
+    List<Object> args = new ArrayList<>();
+    args.add(currentTime);
+    for (int i = 0; i < queueNames.size(); i++) {
+      String queueName = queueNames.get(i);
+      keys.add(queueName);
+      keys.add(getProcessingQueueName(queueName));
+      keys.add(getProcessingQueueChannelName(queueName));
+      keys.add(getMessageStoreName(queueName));
+      keys.add(getNotificationName(getProcessingQueueChannelName(queueName)));
+      args.add(
+          QueueUtils.getMessageReEnqueueTimeWithDelay(currentTime, maxJobExecutionTimes.get(i)));
+      args.add(counts.get(i));
+    }
+    List<List<RqueueMessage>> messages =
+        execute(ScriptType.POP_MULTI_QUEUE_MESSAGES_BY_ID, keys, args.toArray());
+    if (messages == null) {
+      return Collections.emptyList();
+    }
+    return messages;
+  }
+
+  @Override
+  public Long returnToQueue(String queueName, List<RqueueMessage> messages) {
+    return execute(
+        ScriptType.RETURN_MESSAGES,
+        Arrays.asList(getProcessingQueueName(queueName), queueName),
+        getIds(messages));
+  }
+
+  @Override
+  public void addToGroup(String queueName, RqueueMessage message) {
+    execute(
+        ScriptType.ADD_GROUP_MESSAGE_BY_ID,
+        getGroupKeys(queueName, message.getGroupKey(), getMessageStoreName(queueName)),
+        message.getId(),
+        message);
+  }
+
+  @Override
+  public boolean releaseGroup(String queueName, RqueueMessage message) {
+    Long released =
+        execute(
+            ScriptType.RELEASE_GROUP_MESSAGE_BY_ID,
+            getGroupKeys(queueName, message.getGroupKey(), getMessageStoreName(queueName)),
+            message.getId());
+    return isPositive(released);
+  }
+
+  @Override
+  public void acknowledge(String queueName, RqueueMessage rqueueMessage) {
+    acknowledge(queueName, Collections.singletonList(rqueueMessage));
+  }
+
+  @Override
+  public Long acknowledge(String queueName, List<RqueueMessage> rqueueMessages) {
+    if (rqueueMessages.isEmpty()) {
+      return 0L;
+    }
+    return execute(
+        ScriptType.REMOVE_MESSAGES_BY_ID,
+        Arrays.asList(getProcessingQueueName(queueName), getMessageStoreName(queueName)),
+        getIds(rqueueMessages));
+  }
+
+  @Override
+  public void updateProcessingMessage(String queueName, RqueueMessage src, RqueueMessage tgt) {
+    execute(
+        ScriptType.REPLACE_MESSAGE_BY_ID,
+        Arrays.asList(getProcessingQueueName(queueName), getMessageStoreName(queueName)),
+        src.getId(),
+        tgt);
+  }
+
+  @Override
+  public boolean moveToDeadLetter(
+      String queueName, String deadLetterQueueName, RqueueMessage src, RqueueMessage tgt) {
+    if (isCrossSlot(Arrays.asList(queueName, deadLetterQueueName))) {
+      return moveToDeadLetterAcrossSlots(queueName, deadLetterQueueName, src, tgt);
+    }
+    Long moved =
+        execute(
+            ScriptType.DEAD_LETTER_MESSAGE_BY_ID,
+            Arrays.asList(
+                getProcessingQueueName(queueName),
+                getMessageStoreName(queueName),
+                deadLetterQueueName,
+                getQueueChannelName(deadLetterQueueName),
+                getMessageStoreName(deadLetterQueueName)),
+            src.getId(),
+            tgt);
+    return isPositive(moved);
+  }
+
+  @Override
+  public boolean scheduleRetry(String queueName, RqueueMessage src, RqueueMessage tgt) {
+    Long moved =
+        execute(
+            ScriptType.RETRY_MESSAGE_BY_ID,
+            Arrays.asList(
+                getProcessingQueueName(queueName),
+                getTimeQueueName(queueName),
+                getChannelName(queueName),
+                getMessageStoreName(queueName),
+                getNotificationName(getChannelName(queueName))),
+            src.getId(),
+            tgt,
+            tgt.getProcessAt(),
+            System.currentTimeMillis());
+    return isPositive(moved);
+  }
+
+  @Override
+  public boolean discard(String queueName, RqueueMessage rqueueMessage) {
+    return isPositive(acknowledge(queueName, Collections.singletonList(rqueueMessage)));
+  }
+
+  /**
+   * Remove a message from a sorted set, sorted sets hold message ids so the message is removed
+   * using its id. The message body is kept, use {@link #acknowledge(String, RqueueMessage)} to
+   * remove it as well.
+   */
+  @Override
+  public void removeFromZset(String zsetName, RqueueMessage rqueueMessage) {
+    removeAllFromZset(zsetName, Collections.singletonList(rqueueMessage));
+  }
+
+  /**
+   * Remove messages from a sorted set using their ids. The message bodies are kept, use {@link
+   * #acknowledge(String, List)} to remove them as well.
+   */
+  @Override
+  public Long removeAllFromZset(String zsetName, List<RqueueMessage> rqueueMessages) {
+    if (rqueueMessages.isEmpty()) {
+      return 0L;
+    }
+    byte[][] ids = new byte[rqueueMessages.size()][];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = toBytes(rqueueMessages.get(i).getId());
+    }
+    return redisTemplate.execute(
+        (RedisCallback<Long>) connection -> connection.zRem(toBytes(zsetName), ids));
+  }
+
+  /**
+   * Replace a message of a sorted set keeping its score, sorted sets hold message ids so only the
+   * id is replaced. The message body is not changed, use {@link #updateProcessingMessage(String,
+   * RqueueMessage, RqueueMessage)} to update it as well.
+   */
+  @Override
+  public void replaceMessage(String zsetName, RqueueMessage src, RqueueMessage tgt) {
+    if (src.getId().equals(tgt.getId())) {
+      return;
+    }
+    execute(
+        ScriptType.REPLACE_MESSAGE, Collections.singletonList(zsetName), src.getId(), tgt.getId());
+  }
+
+  @Override
+  public List<RqueueMessage> getAllMessages(String queueName) {
+    byte[] storeName = toBytes(getMessageStoreName(queueName));
+    List<byte[]> bodies =
+        redisTemplate.execute(
+            (RedisCallback<List<byte[]>>)
+                connection -> {
+                  List<byte[]> ids = new ArrayList<>();
+                  addAll(ids, connection.lRange(toBytes(queueName), 0, -1));
+                  addAll(ids, connection.zRange(toBytes(getTimeQueueName(queueName)), 0, -1));
+                  addAll(
+                      ids, connection.zRange(toBytes(getProcessingQueueName(queueName)), 0, -1));
+                  if (ids.isEmpty()) {
+                    return Collections.emptyList();
+                  }
+                  return connection.hMGet(storeName, ids.toArray(new byte[0][]));
+                });
+    List<RqueueMessage> messages = new ArrayList<>();
+    if (bodies != null) {
+      for (byte[] body : bodies) {
+        // body is missing when the message has been deleted
+        if (body != null) {
+          messages.add((RqueueMessage) messageSerializer.deserialize(body));
+        }
+      }
+    }
+    return messages;
+  }
+
+  @Override
+  public boolean moveMessage(String srcQueueName, String dstQueueName, int maxMessage) {
+    if (isCrossSlot(Arrays.asList(srcQueueName, dstQueueName))) {
+      return moveMessageAcrossSlots(srcQueueName, dstQueueName, maxMessage);
+    }
+    List<String> keys =
+        Arrays.asList(
+            srcQueueName,
+            dstQueueName,
+            getMessageStoreName(srcQueueName),
+            getMessageStoreName(dstQueueName));
+    int offset = Constants.MAX_MESSAGES;
+    while (true) {
+      Long remainingMessages =
+          execute(ScriptType.MOVE_MESSAGE_BY_ID, keys, Constants.MAX_MESSAGES);
+      if (remainingMessages == null || remainingMessages <= 0 || offset >= maxMessage) {
+        break;
+      }
+      offset += Constants.MAX_MESSAGES;
+    }
+    return true;
+  }
+
+  /**
+   * Keys of both queues can not be used in a single script, every message is added to the front of
+   * the destination queue along with its body before it's removed from the source queue, so a crash
+   * in between can not lose it but it may be found in both queues.
+   */
+  private boolean moveMessageAcrossSlots(String srcQueueName, String dstQueueName, int maxMessage) {
+    List<String> keys = Arrays.asList(srcQueueName, getMessageStoreName(srcQueueName));
+    byte[] dstQueue = toBytes(dstQueueName);
+    byte[] dstStore = toBytes(getMessageStoreName(dstQueueName));
+    for (int i = 0; i < maxMessage; i++) {
+      RqueueMessage message = execute(ScriptType.PEEK_MESSAGE_BY_ID, keys);
+      if (message == null) {
+        break;
+      }
+      byte[] id = toBytes(message.getId());
+      byte[] body = messageSerializer.serialize(message);
+      // body is stored first, so the id is never seen without its body
+      redisTemplate.execute(
+          (RedisCallback<Long>)
+              connection -> {
+                connection.hSet(dstStore, id, body);
+                return connection.lPush(dstQueue, id);
+              });
+      execute(ScriptType.REMOVE_LIST_MESSAGE_BY_ID, keys, message.getId());
+    }
+    return true;
+  }
+
+  @Override
+  public RqueueMessage getMessage(String queueName, String id) {
+    byte[] storeName = toBytes(getMessageStoreName(queueName));
+    byte[] body =
+        redisTemplate.execute(
+            (RedisCallback<byte[]>) connection -> connection.hGet(storeName, toBytes(id)));
+    return (RqueueMessage) messageSerializer.deserialize(body);
+  }
+
+  @Override
+  public boolean deleteMessage(String queueName, String id) {
+    Long deleted =
+        execute(
+            ScriptType.DELETE_MESSAGE_BY_ID,
+            Arrays.asList(
+                getTimeQueueName(queueName),
+                getProcessingQueueName(queueName),
+                getMessageStoreName(queueName)),
+            id);
+    return isPositive(deleted);
+  }
+
+  @Override
+  public MessageStatus getMessageStatus(String queueName, String id) {
+    Long status =
+        execute(
+            ScriptType.MESSAGE_STATUS_BY_ID,
+            Arrays.asList(
+                getTimeQueueName(queueName),
+                getProcessingQueueName(queueName),
+                getMessageStoreName(queueName)),
+            id);
+    if (status == null) {
+      return MessageStatus.NOT_FOUND;
+    }
+    switch (status.intValue()) {
+      case 1:
+        return MessageStatus.ENQUEUED;
+      case 2:
+        return MessageStatus.DELAYED;
+      case 3:
+        return MessageStatus.PROCESSING;
+      default:
+        return MessageStatus.NOT_FOUND;
+    }
+  }
+
+  private static Object[] getIds(List<RqueueMessage> messages) {
+    Object[] ids = new Object[messages.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = messages.get(i).getId();
+    }
+    return ids;
+  }
+
+  private static void addAll(List<byte[]> ids, Iterable<byte[]> values) {
+    if (values != null) {
+      for (byte[] value : values) {
+        ids.add(value);
+      }
+    }
+  }
+
+  // ids are stored as plain strings, message bodies are written using the message serializer
+  private class ArgumentSerializer implements RedisSerializer<Object> {
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+      if (value instanceof RqueueMessage) {
+        return messageSerializer.serialize(value);
+      }
+      return toBytes(String.valueOf(value));
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+      if (bytes == null) {
+        return null;
+      }
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+}
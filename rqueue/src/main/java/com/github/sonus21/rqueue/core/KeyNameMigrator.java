@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.RedisUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Renames keys of queues from names of one key naming strategy to names of another, it's used to
+ * switch existing queues to {@link KeyNamingStrategy#HASH_TAGGED} names before using Redis
+ * cluster. Queues themselves are not renamed, only their delayed queue, processing queue, message
+ * store and notification keys are.
+ *
+ * <p>Keys are copied using DUMP and RESTORE one by one, so it works across slots of Redis cluster,
+ * if a key exists already under the new name then both are merged. Applications using the queues
+ * should be stopped while keys are migrated.
+ */
+public class KeyNameMigrator {
+  private final Logger logger = LoggerFactory.getLogger(KeyNameMigrator.class);
+  private RedisTemplate<String, Object> redisTemplate;
+
+  public KeyNameMigrator(RedisConnectionFactory redisConnectionFactory) {
+    redisTemplate = RedisUtils.getRedisTemplate(redisConnectionFactory);
+  }
+
+  /**
+   * Migrate keys of the given queues from plain names to hash tagged names.
+   *
+   * @param queueNames name of the queues
+   * @return number of keys that have been migrated
+   */
+  public int migrate(Collection<String> queueNames) {
+    return migrate(queueNames, KeyNamingStrategy.PLAIN, KeyNamingStrategy.HASH_TAGGED);
+  }
+
+  /**
+   * Migrate keys of the given queues from names of one strategy to names of another.
+   *
+   * @param queueNames name of the queues
+   * @param from strategy keys are currently named with
+   * @param to strategy keys should be named with
+   * @return number of keys that have been migrated
+   */
+  public int migrate(Collection<String> queueNames, KeyNamingStrategy from, KeyNamingStrategy to) {
+    int count = 0;
+    for (String queueName : queueNames) {
+      List<String> srcKeys = from.getKeyNames(queueName);
+      List<String> dstKeys = to.getKeyNames(queueName);
+      for (int i = 0; i < srcKeys.size(); i++) {
+        if (!srcKeys.get(i).equals(dstKeys.get(i)) && migrateKey(srcKeys.get(i), dstKeys.get(i))) {
+          count += 1;
+        }
+      }
+    }
+    return count;
+  }
+
+  private boolean migrateKey(String srcKey, String dstKey) {
+    byte[] src = srcKey.getBytes(StandardCharsets.UTF_8);
+    byte[] dst = dstKey.getBytes(StandardCharsets.UTF_8);
+    Boolean migrated =
+        redisTemplate.execute(
+            (RedisCallback<Boolean>)
+                connection -> {
+                  byte[] value = connection.dump(src);
+                  if (value == null) {
+                    return false;
+                  }
+                  if (Boolean.TRUE.equals(connection.exists(dst))) {
+                    if (!merge(connection, src, dst)) {
+                      logger.warn("Key {} can not be merged into {}", srcKey, dstKey);
+                      return false;
+                    }
+                  } else {
+                    Long ttl = connection.pTtl(src);
+                    connection.restore(dst, ttl == null || ttl < 0 ? 0 : ttl, value);
+                  }
+                  connection.del(src);
+                  return true;
+                });
+    if (Boolean.TRUE.equals(migrated)) {
+      logger.info("Key {} has been migrated to {}", srcKey, dstKey);
+      return true;
+    }
+    return false;
+  }
+
+  private boolean merge(RedisConnection connection, byte[] src, byte[] dst) {
+    DataType type = connection.type(src);
+    if (type != connection.type(dst)) {
+      return false;
+    }
+    if (type == DataType.ZSET) {
+      Set<Tuple> tuples = connection.zRangeWithScores(src, 0, -1);
+      if (tuples != null && !tuples.isEmpty()) {
+        connection.zAdd(dst, tuples);
+      }
+      return true;
+    }
+    if (type == DataType.HASH) {
+      Map<byte[], byte[]> entries = connection.hGetAll(src);
+      if (entries != null) {
+        for (Entry<byte[], byte[]> entry : entries.entrySet()) {
+          connection.hSetNX(dst, entry.getKey(), entry.getValue());
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of how late delayed messages of a queue have been moved to the queue, lateness is the
+ * time between the message's process at time and the time it was moved. Each run of the scheduler
+ * records the lateness of the most overdue message it has moved.
+ */
+public class LatenessHistogram {
+  private static final long[] BUCKET_BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+  private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalLateness = new LongAdder();
+  private final LongAccumulator maxLateness = new LongAccumulator(Long::max, 0);
+
+  LatenessHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  void record(long lateness) {
+    long value = Math.max(lateness, 0);
+    int i = 0;
+    while (i < BUCKET_BOUNDS.length && value > BUCKET_BOUNDS[i]) {
+      i++;
+    }
+    buckets[i].increment();
+    count.increment();
+    totalLateness.add(value);
+    maxLateness.accumulate(value);
+  }
+
+  /** @return upper bounds in milliseconds of all buckets but the last one, which is unbounded */
+  public long[] getBucketBounds() {
+    return BUCKET_BOUNDS.clone();
+  }
+
+  /** @return number of recorded values per bucket, one more than the number of bounds */
+  public long[] getBucketCounts() {
+    long[] counts = new long[buckets.length];
+    for (int i = 0; i < buckets.length; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return counts;
+  }
+
+  /** @return number of recorded values */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /** @return mean lateness in milliseconds, 0 if nothing has been recorded */
+  public double getMean() {
+    long n = getCount();
+    if (n == 0) {
+      return 0;
+    }
+    return (double) totalLateness.sum() / n;
+  }
+
+  /** @return maximum lateness in milliseconds */
+  public long getMax() {
+    return maxLateness.get();
+  }
+
+  /**
+   * Get an upper bound of a percentile of lateness.
+   *
+   * @param percentile percentile between 0 and 100
+   * @return bound of the bucket the percentile falls in, max lateness for the last bucket
+   */
+  public long getPercentile(double percentile) {
+    long[] counts = getBucketCounts();
+    long total = 0;
+    for (long c : counts) {
+      total += c;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return BUCKET_BOUNDS[i];
+      }
+    }
+    return getMax();
+  }
+}
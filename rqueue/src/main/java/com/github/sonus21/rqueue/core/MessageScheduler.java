@@ -24,24 +24,21 @@ import static java.lang.Math.min;
 import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptType;
 import com.github.sonus21.rqueue.event.QueueInitializationEvent;
 import com.github.sonus21.rqueue.listener.QueueDetail;
-import com.github.sonus21.rqueue.utils.Constants;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
 import com.github.sonus21.rqueue.utils.SchedulerFactory;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
@@ -59,7 +56,7 @@ public abstract class MessageScheduler
   private final int poolSize;
   private final boolean scheduleTaskAtStartup;
   private final boolean redisEnabled;
-  private RedisScript<Long> redisScript;
+  private RedisScript<List<Long>> redisScript;
   private MessageSchedulerListener messageSchedulerListener;
   private RedisTemplate<String, Long> redisTemplate;
   private DefaultScriptExecutor<String> defaultScriptExecutor;
@@ -68,8 +65,11 @@ public abstract class MessageScheduler
   private Map<String, ScheduledTaskDetail> queueNameToScheduledTask;
   private Map<String, String> channelNameToQueueName;
   private Map<String, String> queueNameToZsetName;
-  private Map<String, Long> queueNameToLastMessageSeenTime;
   private ThreadPoolTaskScheduler scheduler;
+  private long leaseTime;
+  private int leaseOwnerCount = 1;
+  private KeyNamingStrategy keyNamingStrategy = KeyNamingStrategy.PLAIN;
+  private SchedulerLease schedulerLease;
   @Autowired private RedisMessageListenerContainer redisMessageListenerContainer;
 
   public MessageScheduler(
@@ -95,8 +95,55 @@ public abstract class MessageScheduler
 
   protected abstract String getThreadNamePrefix();
 
+  /**
+   * Share the duty of moving messages of a queue among nodes using Redis leases, a queue's messages
+   * are moved only by the nodes holding one of its leases. A lease is renewed by its owner once
+   * half of the lease time has elapsed, it fails over to another node once it has expired. By
+   * default every node moves messages of every queue.
+   *
+   * @param leaseTime lease time in milliseconds, 0 disables leases
+   */
+  public void setLeaseTime(long leaseTime) {
+    Assert.isTrue(leaseTime >= 0, "leaseTime must be non-negative");
+    this.leaseTime = leaseTime;
+  }
+
+  /**
+   * Set number of nodes that can own the duty of moving messages of a queue at the same time.
+   *
+   * @param leaseOwnerCount number of owners, default is 1
+   */
+  public void setLeaseOwnerCount(int leaseOwnerCount) {
+    Assert.isTrue(leaseOwnerCount > 0, "leaseOwnerCount must be positive");
+    this.leaseOwnerCount = leaseOwnerCount;
+  }
+
+  /**
+   * Set the strategy used to name keys and channels of queues, it must be the same as the one used
+   * by the message template.
+   *
+   * @param keyNamingStrategy key naming strategy, default is {@link KeyNamingStrategy#PLAIN}
+   */
+  public void setKeyNamingStrategy(KeyNamingStrategy keyNamingStrategy) {
+    Assert.notNull(keyNamingStrategy, "keyNamingStrategy cannot be null");
+    this.keyNamingStrategy = keyNamingStrategy;
+  }
+
+  protected KeyNamingStrategy getKeyNamingStrategy() {
+    return keyNamingStrategy;
+  }
+
   protected abstract boolean isQueueValid(QueueDetail queueDetail);
 
+  /**
+   * Called after a run of the mover task has moved messages of a queue.
+   *
+   * @param queueName name of the queue
+   * @param oldestScore score of the most overdue message that has been moved
+   * @param currentTime time at which the messages have been moved
+   */
+  protected void onMessagesMoved(String queueName, long oldestScore, long currentTime) {}
+
   private void doStart() {
     for (String queueName : queueRunningState.keySet()) {
       startQueue(queueName);
@@ -131,6 +178,18 @@ public abstract class MessageScheduler
     }
     waitForRunningQueuesToStop();
     queueNameToScheduledTask.clear();
+    releaseLeases();
+  }
+
+  private void releaseLeases() {
+    if (schedulerLease == null) {
+      return;
+    }
+    try {
+      schedulerLease.release();
+    } catch (Exception e) {
+      getLogger().warn("Leases could not be released", e);
+    }
   }
 
   private void waitForRunningQueuesToStop() {
@@ -138,11 +197,7 @@ public abstract class MessageScheduler
       String queueName = runningState.getKey();
       ScheduledTaskDetail scheduledTaskDetail = queueNameToScheduledTask.get(queueName);
       if (scheduledTaskDetail != null) {
-        Future<?> future = scheduledTaskDetail.getFuture();
-        boolean completedOrCancelled = future.isCancelled() || future.isDone();
-        if (!completedOrCancelled) {
-          scheduledTaskDetail.getFuture().cancel(true);
-        }
+        scheduledTaskDetail.cancel();
       }
     }
   }
@@ -187,59 +242,70 @@ public abstract class MessageScheduler
     return val;
   }
 
-  protected synchronized void schedule(
+  /**
+   * Arm the mover task of a queue to run at the given time. The task is armed once per queue, an
+   * armed task is replaced only when the given time is earlier, so events can only bring the next
+   * run closer. A task keeps its entry until it has finished, events received while it's running
+   * are remembered and the queue is woken up once it has finished, so runs of a queue never
+   * overlap. This never blocks on a running task.
+   *
+   * @param queueName name of the queue
+   * @param zsetName name of the sorted set messages are moved from
+   * @param startTime time at which the task should run
+   * @param forceSchedule whether this is called by the running task to arm its next run, it
+   *     replaces the task's entry irrespective of the start time
+   */
+  protected void schedule(
       String queueName, String zsetName, Long startTime, boolean forceSchedule) {
-    boolean isQueueActive = isQueueActive(queueName);
-    if (!isQueueActive || scheduler == null) {
+    if (!isQueueActive(queueName) || scheduler == null) {
       return;
     }
-    long lastSeenTime = queueNameToLastMessageSeenTime.getOrDefault(queueName, 0L);
-    long currentTime = System.currentTimeMillis();
-    // ignore too frequents events
-    if (!forceSchedule && currentTime - lastSeenTime < MIN_DELAY) {
+    long taskStartTime = max(System.currentTimeMillis(), startTime);
+    ScheduledTaskDetail scheduledTaskDetail = new ScheduledTaskDetail(taskStartTime, null);
+    ScheduledTaskDetail[] replacedTask = new ScheduledTaskDetail[1];
+    ScheduledTaskDetail installedTask =
+        queueNameToScheduledTask.compute(
+            queueName,
+            (key, existing) -> {
+              if (existing == null) {
+                return scheduledTaskDetail;
+              }
+              if (existing.isRunning()) {
+                if (!forceSchedule) {
+                  existing.wakeUp(taskStartTime);
+                  return existing;
+                }
+                scheduledTaskDetail.setStartTime(min(taskStartTime, existing.getWakeUpTime()));
+                return scheduledTaskDetail;
+              }
+              // armed to run earlier
+              if (existing.getStartTime() <= taskStartTime) {
+                return existing;
+              }
+              replacedTask[0] = existing;
+              return scheduledTaskDetail;
+            });
+    if (installedTask != scheduledTaskDetail) {
       return;
     }
-    queueNameToLastMessageSeenTime.put(queueName, currentTime);
-
-    ScheduledTaskDetail scheduledTaskDetail = queueNameToScheduledTask.get(queueName);
-    if (scheduledTaskDetail == null || forceSchedule) {
-      long requiredDelay = max(1, startTime - currentTime);
-      long taskStartTime = startTime;
-      MessageMoverTask timerTask = new MessageMoverTask(queueName, zsetName);
-      Future<?> future;
-      if (requiredDelay < MIN_DELAY) {
-        future = scheduler.submit(timerTask);
-        taskStartTime = currentTime;
-      } else {
-        future = scheduler.schedule(timerTask, Instant.ofEpochMilli(currentTime + requiredDelay));
-      }
-      scheduledTaskDetail = new ScheduledTaskDetail(taskStartTime, future);
-      queueNameToScheduledTask.put(timerTask.getQueueName(), scheduledTaskDetail);
-      return;
+    if (replacedTask[0] != null) {
+      replacedTask[0].cancel();
     }
-    // run existing tasks continue
-    long existingDelay = scheduledTaskDetail.getStartTime() - currentTime;
-    Future<?> submittedTask = scheduledTaskDetail.getFuture();
-    boolean completedOrCancelled = submittedTask.isDone() || submittedTask.isCancelled();
-    // tasks older than TASK_ALIVE_TIME are considered dead
-    if (!completedOrCancelled
-        && existingDelay < MIN_DELAY
-        && existingDelay > Constants.TASK_ALIVE_TIME) {
-      try {
-        submittedTask.get(Constants.DEFAULT_SCRIPT_EXECUTION_TIME, TimeUnit.MILLISECONDS);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-      } catch (ExecutionException | TimeoutException | CancellationException e) {
-        getLogger().debug("{} task failed", scheduledTaskDetail, e);
-      }
+    getLogger()
+        .debug(
+            "Queue: {} {} scheduled at {}",
+            queueName,
+            forceSchedule ? "next run" : "wake up",
+            scheduledTaskDetail.getStartTime());
+    try {
+      scheduledTaskDetail.setFuture(
+          scheduler.schedule(
+              new MessageMoverTask(queueName, zsetName, scheduledTaskDetail),
+              Instant.ofEpochMilli(scheduledTaskDetail.getStartTime())));
+    } catch (TaskRejectedException e) {
+      // scheduler is shutting down
+      queueNameToScheduledTask.remove(queueName, scheduledTaskDetail);
     }
-    // Run was succeeded or cancelled submit new one
-    MessageMoverTask timerTask = new MessageMoverTask(queueName, zsetName);
-    Future<?> future =
-        scheduler.schedule(
-            timerTask, Instant.ofEpochMilli(getNextScheduleTime(queueName, startTime)));
-    queueNameToScheduledTask.put(
-        timerTask.getQueueName(), new ScheduledTaskDetail(startTime, future));
   }
 
   @SuppressWarnings("unchecked")
@@ -253,13 +319,15 @@ public abstract class MessageScheduler
       }
     }
     defaultScriptExecutor = new DefaultScriptExecutor<>(redisTemplate);
-    redisScript = (RedisScript<Long>) RedisScriptFactory.getScript(ScriptType.PUSH_MESSAGE);
+    redisScript = (RedisScript<List<Long>>) RedisScriptFactory.getScript(ScriptType.PUSH_MESSAGE);
     queueRunningState = new ConcurrentHashMap<>(queueNames.size());
     queueNameToScheduledTask = new ConcurrentHashMap<>(queueNames.size());
     channelNameToQueueName = new ConcurrentHashMap<>(queueNames.size());
     queueNameToZsetName = new ConcurrentHashMap<>(queueNames.size());
-    queueNameToLastMessageSeenTime = new ConcurrentHashMap<>(queueNames.size());
     createScheduler(queueNames.size());
+    if (leaseTime > 0) {
+      schedulerLease = new SchedulerLease(redisTemplate, leaseTime, leaseOwnerCount);
+    }
     if (isRedisEnabled()) {
       messageSchedulerListener = new MessageSchedulerListener();
     }
@@ -284,31 +352,78 @@ public abstract class MessageScheduler
   private class MessageMoverTask implements Runnable {
     private final String queueName;
     private final String zsetName;
+    private final ScheduledTaskDetail scheduledTaskDetail;
 
-    MessageMoverTask(String queueName, String zsetName) {
+    MessageMoverTask(String queueName, String zsetName, ScheduledTaskDetail scheduledTaskDetail) {
       this.queueName = queueName;
       this.zsetName = zsetName;
+      this.scheduledTaskDetail = scheduledTaskDetail;
     }
 
-    String getQueueName() {
-      return queueName;
+    private boolean start() {
+      ScheduledTaskDetail current =
+          queueNameToScheduledTask.computeIfPresent(
+              queueName,
+              (key, existing) -> {
+                if (existing == scheduledTaskDetail) {
+                  existing.setRunning();
+                }
+                return existing;
+              });
+      return current == scheduledTaskDetail;
+    }
+
+    // the next run has not been armed, release the entry and honour events received meanwhile
+    private void finish() {
+      if (queueNameToScheduledTask.remove(queueName, scheduledTaskDetail)) {
+        long wakeUpTime = scheduledTaskDetail.getWakeUpTime();
+        if (wakeUpTime != Long.MAX_VALUE) {
+          schedule(queueName, zsetName, wakeUpTime, false);
+        }
+      }
     }
 
     @Override
     public void run() {
+      // this task has been replaced by an earlier one or the queue has been stopped
+      if (!start()) {
+        return;
+      }
       try {
         if (isQueueActive(queueName)) {
           long currentTime = System.currentTimeMillis();
-          Long value =
+          // another node owns the duty, check again once its lease could have expired
+          if (schedulerLease != null && !schedulerLease.acquire(zsetName, currentTime)) {
+            schedule(queueName, zsetName, schedulerLease.getNextCheckTime(zsetName), true);
+            return;
+          }
+          List<Long> scores =
               defaultScriptExecutor.execute(
-                  redisScript, Arrays.asList(queueName, zsetName), currentTime, MAX_MESSAGES);
-          long nextExecutionTime = getNextScheduleTime(queueName, value);
+                  redisScript,
+                  Arrays.asList(
+                      queueName, zsetName, keyNamingStrategy.getQueueChannelName(queueName)),
+                  currentTime,
+                  MAX_MESSAGES);
+          Long headScore = null;
+          if (scores != null && scores.size() == 2) {
+            if (scores.get(1) >= 0) {
+              onMessagesMoved(queueName, scores.get(1), currentTime);
+            }
+            headScore = scores.get(0) >= 0 ? scores.get(0) : null;
+          }
+          long nextExecutionTime = getNextScheduleTime(queueName, headScore);
+          if (schedulerLease != null) {
+            // run in time to renew the lease
+            nextExecutionTime = min(nextExecutionTime, schedulerLease.getNextCheckTime(zsetName));
+          }
           schedule(queueName, zsetName, nextExecutionTime, true);
         }
       } catch (RedisSystemException e) {
         // no op
       } catch (Exception e) {
         getLogger().warn("Task execution failed for queue: {}", queueName, e);
+      } finally {
+        finish();
       }
     }
   }
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+/** Status of a message looked up using its id. */
+public enum MessageStatus {
+  /** Message is in the queue, waiting to be consumed. */
+  ENQUEUED,
+  /** Message is in the delayed queue, it would be moved to the queue at its process at time. */
+  DELAYED,
+  /** Message has been consumed and is being processed. */
+  PROCESSING,
+  /** Message has been processed, deleted, discarded or moved to the dead letter queue. */
+  NOT_FOUND
+}
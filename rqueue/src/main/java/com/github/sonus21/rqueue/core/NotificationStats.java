@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+/**
+ * Counters of head change notifications published to the schedulers of a queue. A notification is
+ * suppressed when the head it would announce has already been announced.
+ */
+public class NotificationStats {
+  private final long delayedSent;
+  private final long delayedSuppressed;
+  private final long processingSent;
+  private final long processingSuppressed;
+
+  NotificationStats(
+      long delayedSent, long delayedSuppressed, long processingSent, long processingSuppressed) {
+    this.delayedSent = delayedSent;
+    this.delayedSuppressed = delayedSuppressed;
+    this.processingSent = processingSent;
+    this.processingSuppressed = processingSuppressed;
+  }
+
+  /** @return number of notifications published to the delayed message scheduler */
+  public long getDelayedSent() {
+    return delayedSent;
+  }
+
+  /** @return number of notifications to the delayed message scheduler that were suppressed */
+  public long getDelayedSuppressed() {
+    return delayedSuppressed;
+  }
+
+  /** @return number of notifications published to the processing message scheduler */
+  public long getProcessingSent() {
+    return processingSent;
+  }
+
+  /** @return number of notifications to the processing message scheduler that were suppressed */
+  public long getProcessingSuppressed() {
+    return processingSuppressed;
+  }
+}
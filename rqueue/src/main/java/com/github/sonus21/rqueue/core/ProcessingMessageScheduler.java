@@ -52,12 +52,12 @@ public class ProcessingMessageScheduler extends MessageScheduler {
 
   @Override
   protected String getChannelName(String queueName) {
-    return QueueUtils.getProcessingQueueChannelName(queueName);
+    return getKeyNamingStrategy().getProcessingQueueChannelName(queueName);
   }
 
   @Override
   protected String getZsetName(String queueName) {
-    return QueueUtils.getProcessingQueueName(queueName);
+    return getKeyNamingStrategy().getProcessingQueueName(queueName);
   }
 
   @Override
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static com.github.sonus21.rqueue.core.RedisScriptFactory.getScript;
+import static com.github.sonus21.rqueue.utils.QueueUtils.getNotificationName;
+
+import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptType;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RqueueMessageTemplate}, it runs the same Lua scripts using
+ * {@link ReactiveRedisTemplate}, and messages are serialized the same way, so both templates can be
+ * used with the same queues.
+ *
+ * <p>NOTE: This requires reactor-core on the classpath.
+ */
+@SuppressWarnings("unchecked")
+public class ReactiveRqueueMessageTemplate {
+  private ReactiveRedisTemplate<String, RqueueMessage> redisTemplate;
+  private KeyNamingStrategy keyNamingStrategy = KeyNamingStrategy.PLAIN;
+
+  public ReactiveRqueueMessageTemplate(ReactiveRedisConnectionFactory redisConnectionFactory) {
+    this(redisConnectionFactory, new RqueueMessageSerializer(false));
+  }
+
+  public ReactiveRqueueMessageTemplate(
+      ReactiveRedisConnectionFactory redisConnectionFactory,
+      RqueueMessageSerializer messageSerializer) {
+    Assert.notNull(redisConnectionFactory, "redisConnectionFactory can not be null");
+    Assert.notNull(messageSerializer, "messageSerializer can not be null");
+    RedisSerializer<?> valueSerializer = messageSerializer;
+    redisTemplate =
+        createRedisTemplate(
+            redisConnectionFactory, (RedisSerializer<RqueueMessage>) valueSerializer);
+  }
+
+  public KeyNamingStrategy getKeyNamingStrategy() {
+    return keyNamingStrategy;
+  }
+
+  /**
+   * Set the strategy used to name keys and channels of queues, it must be the same as the one used
+   * by {@link RqueueMessageTemplate}.
+   *
+   * @param keyNamingStrategy key naming strategy
+   */
+  public void setKeyNamingStrategy(KeyNamingStrategy keyNamingStrategy) {
+    Assert.notNull(keyNamingStrategy, "keyNamingStrategy cannot be null");
+    this.keyNamingStrategy = keyNamingStrategy;
+  }
+
+  private static ReactiveRedisTemplate<String, RqueueMessage> createRedisTemplate(
+      ReactiveRedisConnectionFactory redisConnectionFactory,
+      RedisSerializer<RqueueMessage> valueSerializer) {
+    RedisSerializer<String> keySerializer = new StringRedisSerializer();
+    RedisSerializationContext<String, RqueueMessage> serializationContext =
+        RedisSerializationContext.<String, RqueueMessage>newSerializationContext()
+            .key(keySerializer)
+            .value(valueSerializer)
+            .hashKey(keySerializer)
+            .hashValue(valueSerializer)
+            .build();
+    return new ReactiveRedisTemplate<>(redisConnectionFactory, serializationContext);
+  }
+
+  public Mono<Long> add(String queueName, RqueueMessage message) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ENQUEUE_MESSAGE);
+    return redisTemplate
+        .execute(
+            script,
+            Arrays.asList(queueName, keyNamingStrategy.getQueueChannelName(queueName)),
+            Arrays.asList(message))
+        .next();
+  }
+
+  /**
+   * Add a message to the group given by its group key.
+   *
+   * @param queueName name of the queue
+   * @param message message having a group key
+   * @return number of messages in the group
+   * @see RqueueMessageTemplate#addToGroup(String, RqueueMessage)
+   */
+  public Mono<Long> addToGroup(String queueName, RqueueMessage message) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ADD_GROUP_MESSAGE);
+    return redisTemplate
+        .execute(
+            script,
+            RqueueMessageTemplate.getGroupKeys(
+                keyNamingStrategy,
+                queueName,
+                message.getGroupKey(),
+                keyNamingStrategy.getGroupMessageStoreName(queueName)),
+            Arrays.asList(message.getId(), message))
+        .next();
+  }
+
+  public Mono<Long> addWithDelay(String queueName, RqueueMessage message) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ADD_MESSAGE);
+    return redisTemplate
+        .execute(
+            script,
+            Arrays.asList(
+                keyNamingStrategy.getTimeQueueName(queueName),
+                keyNamingStrategy.getChannelName(queueName),
+                getNotificationName(keyNamingStrategy.getChannelName(queueName))),
+            Arrays.asList(message, message.getProcessAt(), message.getQueuedTime()))
+        .next();
+  }
+
+  /**
+   * Pop at most count messages, popped messages are moved to the processing queue, they must be
+   * acknowledged within max job execution time otherwise they would be consumed again.
+   *
+   * @param queueName name of the queue
+   * @param maxJobExecutionTime max job execution time of the queue
+   * @param count maximum number of messages to pop
+   * @return popped messages
+   */
+  public Mono<List<RqueueMessage>> pop(String queueName, long maxJobExecutionTime, int count) {
+    long currentTime = System.currentTimeMillis();
+    RedisScript<Object> script = (RedisScript<Object>) getScript(ScriptType.POP_MESSAGES);
+    return redisTemplate
+        .execute(
+            script,
+            Arrays.asList(
+                queueName,
+                keyNamingStrategy.getProcessingQueueName(queueName),
+                keyNamingStrategy.getProcessingQueueChannelName(queueName),
+                getNotificationName(keyNamingStrategy.getProcessingQueueChannelName(queueName))),
+            Arrays.asList(
+                currentTime,
+                QueueUtils.getMessageReEnqueueTimeWithDelay(currentTime, maxJobExecutionTime),
+                count))
+        // depending on the driver a list is emitted as a single element or element by element
+        .flatMapIterable(
+            result ->
+                result instanceof List
+                    ? (List<RqueueMessage>) result
+                    : Arrays.asList((RqueueMessage) result))
+        .collectList();
+  }
+
+  /**
+   * Remove a consumed message from the processing queue.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param message consumed message
+   * @return true if the message was removed, false if it was not in the processing queue
+   */
+  public Mono<Boolean> acknowledge(String queueName, RqueueMessage message) {
+    return redisTemplate
+        .opsForZSet()
+        .remove(keyNamingStrategy.getProcessingQueueName(queueName), message)
+        .map(removed -> removed > 0);
+  }
+
+  /**
+   * Consume messages of a queue as they are requested, a Redis call fetches at most as many
+   * messages as have been requested by the subscriber, capped at batch size. Nothing is fetched
+   * while there is no outstanding demand, and an empty queue is polled again after the polling
+   * interval. Every received message must be acknowledged using {@link #acknowledge(String,
+   * RqueueMessage)} within max job execution time.
+   *
+   * @param queueName name of the queue
+   * @param maxJobExecutionTime max job execution time of the queue
+   * @param batchSize maximum number of messages fetched in a single call
+   * @param pollingInterval wait time before polling an empty queue again
+   * @return messages of the queue
+   */
+  public Flux<RqueueMessage> receive(
+      String queueName, long maxJobExecutionTime, int batchSize, Duration pollingInterval) {
+    Assert.isTrue(batchSize > 0, "batchSize must be greater than zero");
+    return Flux.create(
+        sink ->
+            new DemandDrivenReceiver(
+                sink, queueName, maxJobExecutionTime, batchSize, pollingInterval));
+  }
+
+  private class DemandDrivenReceiver {
+    private final FluxSink<RqueueMessage> sink;
+    private final String queueName;
+    private final long maxJobExecutionTime;
+    private final int batchSize;
+    private final Duration pollingInterval;
+    private final AtomicBoolean fetching = new AtomicBoolean(false);
+    private volatile Disposable pendingFetch;
+
+    DemandDrivenReceiver(
+        FluxSink<RqueueMessage> sink,
+        String queueName,
+        long maxJobExecutionTime,
+        int batchSize,
+        Duration pollingInterval) {
+      this.sink = sink;
+      this.queueName = queueName;
+      this.maxJobExecutionTime = maxJobExecutionTime;
+      this.batchSize = batchSize;
+      this.pollingInterval = pollingInterval;
+      sink.onRequest(n -> fetch());
+      sink.onDispose(this::dispose);
+    }
+
+    // only one fetch runs at a time, a completed fetch checks for the demand received meanwhile
+    private void fetch() {
+      if (sink.isCancelled() || !fetching.compareAndSet(false, true)) {
+        return;
+      }
+      long demand = sink.requestedFromDownstream();
+      if (demand <= 0) {
+        fetching.set(false);
+        // demand could have arrived while the flag was set
+        if (sink.requestedFromDownstream() > 0) {
+          fetch();
+        }
+        return;
+      }
+      int count = (int) Math.min(demand, batchSize);
+      pendingFetch =
+          pop(queueName, maxJobExecutionTime, count)
+              .subscribe(
+                  messages -> {
+                    for (RqueueMessage message : messages) {
+                      sink.next(message);
+                    }
+                    fetching.set(false);
+                    if (messages.isEmpty()) {
+                      pendingFetch = Mono.delay(pollingInterval).subscribe(v -> fetch());
+                    } else {
+                      fetch();
+                    }
+                  },
+                  sink::error);
+    }
+
+    private void dispose() {
+      Disposable disposable = pendingFetch;
+      if (disposable != null) {
+        disposable.dispose();
+      }
+    }
+  }
+}
@@ -16,46 +16,165 @@
 
 package com.github.sonus21.rqueue.core;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.StreamUtils;
 
 @SuppressWarnings("unchecked")
 class RedisScriptFactory {
+  private static final Map<ScriptType, String> scriptTexts = new ConcurrentHashMap<>();
+
   static RedisScript getScript(ScriptType type) {
-    Resource resource = new ClassPathResource(type.getPath());
     DefaultRedisScript script = new DefaultRedisScript();
-    script.setLocation(resource);
+    if (type.getFunctions().length > 0) {
+      script.setScriptText(scriptTexts.computeIfAbsent(type, RedisScriptFactory::readScript));
+    } else {
+      Resource resource = new ClassPathResource(type.getPath());
+      script.setLocation(resource);
+    }
     switch (type) {
       case ADD_MESSAGE:
+      case ENQUEUE_MESSAGE:
       case MOVE_MESSAGE:
       case REPLACE_MESSAGE:
-      case PUSH_MESSAGE:
+      case RETURN_MESSAGES:
+      case DEAD_LETTER_MESSAGE:
+      case RETRY_MESSAGE:
+      case ENQUEUE_MESSAGE_BY_ID:
+      case ADD_MESSAGE_BY_ID:
+      case REMOVE_MESSAGES_BY_ID:
+      case REPLACE_MESSAGE_BY_ID:
+      case DEAD_LETTER_MESSAGE_BY_ID:
+      case RETRY_MESSAGE_BY_ID:
+      case MOVE_MESSAGE_BY_ID:
+      case REMOVE_LIST_MESSAGE_BY_ID:
+      case DELETE_MESSAGE_BY_ID:
+      case MESSAGE_STATUS_BY_ID:
+      case ENQUEUE_MESSAGES:
+      case ADD_MESSAGES:
+      case ENQUEUE_MESSAGES_BY_ID:
+      case ADD_MESSAGES_BY_ID:
+      case ACQUIRE_LEASE:
+      case RELEASE_LEASE:
+      case ADD_GROUP_MESSAGE:
+      case ADD_GROUP_MESSAGE_BY_ID:
+      case RELEASE_GROUP_MESSAGE:
+      case RELEASE_GROUP_MESSAGE_BY_ID:
         script.setResultType(Long.class);
         return script;
       case REMOVE_MESSAGE:
+      case PEEK_MESSAGE_BY_ID:
         script.setResultType(RqueueMessage.class);
         return script;
+      case PUSH_MESSAGE:
+      case POP_MESSAGES:
+      case POP_MULTI_QUEUE_MESSAGES:
+      case POP_MESSAGES_BY_ID:
+      case POP_MULTI_QUEUE_MESSAGES_BY_ID:
+        script.setResultType(List.class);
+        return script;
     }
     return null;
   }
 
+  // shared functions are defined ahead of the script using them
+  private static String readScript(ScriptType type) {
+    try {
+      StringBuilder text = new StringBuilder();
+      for (ScriptFunction function : type.getFunctions()) {
+        text.append(read(function.getPath())).append('\n');
+      }
+      return text.append(read(type.getPath())).toString();
+    } catch (IOException e) {
+      throw new IllegalStateException("Script could not be read, path: " + type.getPath(), e);
+    }
+  }
+
+  private static String read(String path) throws IOException {
+    return StreamUtils.copyToString(
+        new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8);
+  }
+
+  enum ScriptFunction {
+    // notifyHead, used by the scripts that change the head of a sorted set
+    NOTIFY_HEAD("scripts/notify-head.lua"),
+    // pushToQueue, addToGroup and releaseGroup, used by the scripts of message groups
+    GROUP("scripts/group-message.lua");
+
+    private String path;
+
+    ScriptFunction(String path) {
+      this.path = path;
+    }
+
+    public String getPath() {
+      return path;
+    }
+  }
+
   enum ScriptType {
-    ADD_MESSAGE("scripts/add-message.lua"),
-    REMOVE_MESSAGE("scripts/remove-message.lua"),
+    ADD_MESSAGE("scripts/add-message.lua", ScriptFunction.NOTIFY_HEAD),
+    ENQUEUE_MESSAGE("scripts/enqueue-message.lua"),
+    REMOVE_MESSAGE("scripts/remove-message.lua", ScriptFunction.NOTIFY_HEAD),
+    POP_MESSAGES("scripts/pop-messages.lua", ScriptFunction.NOTIFY_HEAD),
+    POP_MULTI_QUEUE_MESSAGES("scripts/pop-multi-queue-messages.lua", ScriptFunction.NOTIFY_HEAD),
     REPLACE_MESSAGE("scripts/replace-message.lua"),
     MOVE_MESSAGE("scripts/move-message.lua"),
-    PUSH_MESSAGE("scripts/push-message.lua");
+    PUSH_MESSAGE("scripts/push-message.lua"),
+    RETURN_MESSAGES("scripts/return-messages.lua"),
+    DEAD_LETTER_MESSAGE("scripts/dead-letter-message.lua"),
+    RETRY_MESSAGE("scripts/retry-message.lua", ScriptFunction.NOTIFY_HEAD),
+    ENQUEUE_MESSAGE_BY_ID("scripts/enqueue-message-by-id.lua"),
+    ADD_MESSAGE_BY_ID("scripts/add-message-by-id.lua", ScriptFunction.NOTIFY_HEAD),
+    POP_MESSAGES_BY_ID("scripts/pop-messages-by-id.lua", ScriptFunction.NOTIFY_HEAD),
+    POP_MULTI_QUEUE_MESSAGES_BY_ID(
+        "scripts/pop-multi-queue-messages-by-id.lua", ScriptFunction.NOTIFY_HEAD),
+    REMOVE_MESSAGES_BY_ID("scripts/remove-messages-by-id.lua"),
+    REPLACE_MESSAGE_BY_ID("scripts/replace-message-by-id.lua"),
+    DEAD_LETTER_MESSAGE_BY_ID("scripts/dead-letter-message-by-id.lua"),
+    RETRY_MESSAGE_BY_ID("scripts/retry-message-by-id.lua", ScriptFunction.NOTIFY_HEAD),
+    MOVE_MESSAGE_BY_ID("scripts/move-message-by-id.lua"),
+    PEEK_MESSAGE_BY_ID("scripts/peek-message-by-id.lua"),
+    REMOVE_LIST_MESSAGE_BY_ID("scripts/remove-list-message-by-id.lua"),
+    DELETE_MESSAGE_BY_ID("scripts/delete-message-by-id.lua"),
+    MESSAGE_STATUS_BY_ID("scripts/message-status-by-id.lua"),
+    ENQUEUE_MESSAGES("scripts/enqueue-messages.lua"),
+    ADD_MESSAGES("scripts/add-messages.lua", ScriptFunction.NOTIFY_HEAD),
+    ENQUEUE_MESSAGES_BY_ID("scripts/enqueue-messages-by-id.lua"),
+    ADD_MESSAGES_BY_ID("scripts/add-messages-by-id.lua", ScriptFunction.NOTIFY_HEAD),
+    ACQUIRE_LEASE("scripts/acquire-lease.lua"),
+    RELEASE_LEASE("scripts/release-lease.lua"),
+    ADD_GROUP_MESSAGE("scripts/add-group-message.lua", ScriptFunction.GROUP),
+    ADD_GROUP_MESSAGE_BY_ID("scripts/add-group-message-by-id.lua", ScriptFunction.GROUP),
+    RELEASE_GROUP_MESSAGE("scripts/release-group-message.lua", ScriptFunction.GROUP),
+    RELEASE_GROUP_MESSAGE_BY_ID("scripts/release-group-message-by-id.lua", ScriptFunction.GROUP);
 
     private String path;
+    private ScriptFunction[] functions;
 
-    ScriptType(String path) {
+    ScriptType(String path, ScriptFunction... functions) {
       this.path = path;
+      this.functions = functions;
     }
 
     public String getPath() {
       return path;
     }
+
+    ScriptFunction[] getFunctions() {
+      return functions;
+    }
+
+    boolean isNotifyingHead() {
+      return Arrays.asList(functions).contains(ScriptFunction.NOTIFY_HEAD);
+    }
   }
 }
@@ -17,6 +17,8 @@
 package com.github.sonus21.rqueue.core;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import java.io.Serializable;
 import java.util.UUID;
 
@@ -32,6 +34,16 @@ public class RqueueMessage implements Serializable, Cloneable {
   private long processAt;
   private Long reEnqueuedAt;
   private int failureCount;
+  // name of the codec used to compress message, null when message is not compressed
+  @JsonInclude(Include.NON_NULL)
+  private String compression;
+  // messages having the same group key are consumed one by one in the order they were sent
+  @JsonInclude(Include.NON_NULL)
+  private String groupKey;
+  // format in which this message was read from Redis, null for new messages
+  private transient Boolean binaryEncoded;
+  // version of the binary layout this message was read in, zero for the current layout
+  private transient byte binaryVersion;
 
   public RqueueMessage() {}
 
@@ -143,6 +155,38 @@ public class RqueueMessage implements Serializable, Cloneable {
     this.failureCount = failureCount;
   }
 
+  public String getCompression() {
+    return compression;
+  }
+
+  public void setCompression(String compression) {
+    this.compression = compression;
+  }
+
+  Boolean binaryEncoded() {
+    return binaryEncoded;
+  }
+
+  void binaryEncoded(Boolean binaryEncoded) {
+    this.binaryEncoded = binaryEncoded;
+  }
+
+  byte binaryVersion() {
+    return binaryVersion;
+  }
+
+  void binaryVersion(byte binaryVersion) {
+    this.binaryVersion = binaryVersion;
+  }
+
+  public String getGroupKey() {
+    return groupKey;
+  }
+
+  public void setGroupKey(String groupKey) {
+    this.groupKey = groupKey;
+  }
+
   public String getId() {
     return id;
   }
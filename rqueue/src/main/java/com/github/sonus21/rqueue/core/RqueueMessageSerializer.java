@@ -0,0 +1,364 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Serializer of {@link RqueueMessage}, messages are written either as JSON, same as {@link
+ * GenericJackson2JsonRedisSerializer}, or using a compact binary layout. Both formats are always
+ * readable, so the format can be switched once all applications are able to read the binary format.
+ *
+ * <p>Messages are removed from sorted sets by value, so a message is always written back in the
+ * format it was read in, irrespective of the configured format.
+ *
+ * <p>Values other than messages, like script arguments, are always written as JSON.
+ *
+ * <p>Binary layout: magic byte, version, flags, queue name, id, message, compression, retry count,
+ * queued time, process at, re-enqueued at, failure count and group key. Strings are UTF-8 bytes
+ * prefixed by their length, numbers are variable length integers and timestamps other than queued
+ * time are stored relative to queued time. The queue name is not repeated in the id, and a random
+ * UUID id suffix is stored in 16 bytes.
+ *
+ * <p>Version 1 of the layout stored flags in a single byte, and it did not have compression and
+ * group key. Such messages are still read, and written back in the same layout.
+ */
+public class RqueueMessageSerializer implements RedisSerializer<Object> {
+  // JSON always starts with '{'
+  private static final byte MAGIC = (byte) 0xB1;
+  private static final byte VERSION = 2;
+  // flags are stored in a single byte
+  private static final byte VERSION_1 = 1;
+  private static final int QUEUE_NAME = 1;
+  private static final int ID = 1 << 1;
+  private static final int ID_PREFIXED_WITH_QUEUE_NAME = 1 << 2;
+  private static final int UUID_ID = 1 << 3;
+  private static final int MESSAGE = 1 << 4;
+  private static final int RETRY_COUNT = 1 << 5;
+  private static final int PROCESS_AT = 1 << 6;
+  private static final int RE_ENQUEUED_AT = 1 << 7;
+  private static final int COMPRESSION = 1 << 8;
+  // written at the end, so messages without it can be read by older versions
+  private static final int GROUP_KEY = 1 << 9;
+  private static final byte[] EMPTY_ARRAY = new byte[0];
+  private final GenericJackson2JsonRedisSerializer jsonSerializer =
+      new GenericJackson2JsonRedisSerializer();
+  private final boolean binary;
+
+  /**
+   * Create a message serializer
+   *
+   * @param binary whether new messages should be written in the binary format
+   */
+  public RqueueMessageSerializer(boolean binary) {
+    this.binary = binary;
+  }
+
+  public boolean isBinary() {
+    return binary;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return EMPTY_ARRAY;
+    }
+    if (!(value instanceof RqueueMessage)) {
+      return jsonSerializer.serialize(value);
+    }
+    RqueueMessage message = (RqueueMessage) value;
+    Boolean binaryEncoded = message.binaryEncoded();
+    if (binaryEncoded == null ? binary : binaryEncoded) {
+      return writeBinary(message);
+    }
+    return jsonSerializer.serialize(message);
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] == MAGIC) {
+      RqueueMessage message = readBinary(bytes);
+      message.binaryEncoded(true);
+      return message;
+    }
+    Object value = jsonSerializer.deserialize(bytes);
+    if (value instanceof RqueueMessage) {
+      ((RqueueMessage) value).binaryEncoded(false);
+    }
+    return value;
+  }
+
+  private static byte[] writeBinary(RqueueMessage message) {
+    String queueName = message.getQueueName();
+    String id = message.getId();
+    int flags = 0;
+    if (queueName != null) {
+      flags |= QUEUE_NAME;
+    }
+    UUID uuid = null;
+    if (id != null) {
+      flags |= ID;
+      if (queueName != null && id.startsWith(queueName)) {
+        flags |= ID_PREFIXED_WITH_QUEUE_NAME;
+        id = id.substring(queueName.length());
+      }
+      uuid = toUuid(id);
+      if (uuid != null) {
+        flags |= UUID_ID;
+      }
+    }
+    if (message.getMessage() != null) {
+      flags |= MESSAGE;
+    }
+    if (message.getCompression() != null) {
+      flags |= COMPRESSION;
+    }
+    if (message.getRetryCount() != null) {
+      flags |= RETRY_COUNT;
+    }
+    if (message.getProcessAt() != 0) {
+      flags |= PROCESS_AT;
+    }
+    if (message.getReEnqueuedAt() != null) {
+      flags |= RE_ENQUEUED_AT;
+    }
+    if (message.getGroupKey() != null) {
+      flags |= GROUP_KEY;
+    }
+    String payload = message.getMessage();
+    Output output = new Output(64 + (payload == null ? 0 : payload.length()));
+    output.write(MAGIC);
+    if (message.binaryVersion() == VERSION_1 && flags <= 0xFF) {
+      output.write(VERSION_1);
+      output.write((byte) flags);
+    } else {
+      output.write(VERSION);
+      output.writeVarLong(flags);
+    }
+    if (queueName != null) {
+      output.writeString(queueName);
+    }
+    if (uuid != null) {
+      output.writeLong(uuid.getMostSignificantBits());
+      output.writeLong(uuid.getLeastSignificantBits());
+    } else if (id != null) {
+      output.writeString(id);
+    }
+    if (payload != null) {
+      output.writeString(payload);
+    }
+    if (message.getCompression() != null) {
+      output.writeString(message.getCompression());
+    }
+    if (message.getRetryCount() != null) {
+      output.writeSignedVarLong(message.getRetryCount());
+    }
+    long queuedTime = message.getQueuedTime();
+    output.writeSignedVarLong(queuedTime);
+    if (message.getProcessAt() != 0) {
+      output.writeSignedVarLong(message.getProcessAt() - queuedTime);
+    }
+    if (message.getReEnqueuedAt() != null) {
+      output.writeSignedVarLong(message.getReEnqueuedAt() - queuedTime);
+    }
+    output.writeSignedVarLong(message.getFailureCount());
+    if (message.getGroupKey() != null) {
+      output.writeString(message.getGroupKey());
+    }
+    return output.toByteArray();
+  }
+
+  private static RqueueMessage readBinary(byte[] bytes) {
+    Input input = new Input(bytes);
+    input.read();
+    byte version = input.read();
+    long flags;
+    if (version == VERSION) {
+      flags = input.readVarLong();
+    } else if (version == VERSION_1) {
+      flags = input.read() & 0xFF;
+    } else {
+      throw new SerializationException("Unsupported message version " + version);
+    }
+    RqueueMessage message = new RqueueMessage();
+    if (version != VERSION) {
+      message.binaryVersion(version);
+    }
+    String queueName = null;
+    if ((flags & QUEUE_NAME) != 0) {
+      queueName = input.readString();
+      message.setQueueName(queueName);
+    }
+    if ((flags & ID) != 0) {
+      String id;
+      if ((flags & UUID_ID) != 0) {
+        id = new UUID(input.readLong(), input.readLong()).toString();
+      } else {
+        id = input.readString();
+      }
+      if ((flags & ID_PREFIXED_WITH_QUEUE_NAME) != 0) {
+        id = queueName + id;
+      }
+      message.setId(id);
+    }
+    if ((flags & MESSAGE) != 0) {
+      message.setMessage(input.readString());
+    }
+    if ((flags & COMPRESSION) != 0) {
+      message.setCompression(input.readString());
+    }
+    if ((flags & RETRY_COUNT) != 0) {
+      message.setRetryCount((int) input.readSignedVarLong());
+    }
+    long queuedTime = input.readSignedVarLong();
+    message.setQueuedTime(queuedTime);
+    if ((flags & PROCESS_AT) != 0) {
+      message.setProcessAt(queuedTime + input.readSignedVarLong());
+    }
+    if ((flags & RE_ENQUEUED_AT) != 0) {
+      message.setReEnqueuedAt(queuedTime + input.readSignedVarLong());
+    }
+    message.setFailureCount((int) input.readSignedVarLong());
+    if ((flags & GROUP_KEY) != 0) {
+      message.setGroupKey(input.readString());
+    }
+    return message;
+  }
+
+  // only canonical UUIDs are stored in binary, others would not be read back as it is
+  private static UUID toUuid(String id) {
+    if (id.length() != 36) {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(id);
+      return uuid.toString().equals(id) ? uuid : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static class Output {
+    private byte[] buffer;
+    private int size;
+
+    Output(int capacity) {
+      buffer = new byte[capacity];
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+      }
+    }
+
+    void write(byte value) {
+      ensureCapacity(1);
+      buffer[size++] = value;
+    }
+
+    void writeLong(long value) {
+      for (int i = 56; i >= 0; i -= 8) {
+        write((byte) (value >>> i));
+      }
+    }
+
+    // zig-zag encoding, small negative values are stored in a few bytes as well
+    void writeSignedVarLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeVarLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        write((byte) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      write((byte) value);
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  private static class Input {
+    private final byte[] buffer;
+    private int position;
+
+    Input(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    byte read() {
+      if (position >= buffer.length) {
+        throw new SerializationException("Truncated message");
+      }
+      return buffer[position++];
+    }
+
+    long readLong() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value = (value << 8) | (read() & 0xFF);
+      }
+      return value;
+    }
+
+    long readSignedVarLong() {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = read();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new SerializationException("Malformed variable length integer");
+    }
+
+    String readString() {
+      long length = readVarLong();
+      if (length < 0 || length > buffer.length - position) {
+        throw new SerializationException("Truncated message");
+      }
+      String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+      position += (int) length;
+      return value;
+    }
+  }
+}
@@ -17,36 +17,65 @@
 package com.github.sonus21.rqueue.core;
 
 import static com.github.sonus21.rqueue.core.RedisScriptFactory.getScript;
-import static com.github.sonus21.rqueue.utils.QueueUtils.getChannelName;
-import static com.github.sonus21.rqueue.utils.QueueUtils.getProcessingQueueChannelName;
-import static com.github.sonus21.rqueue.utils.QueueUtils.getProcessingQueueName;
-import static com.github.sonus21.rqueue.utils.QueueUtils.getTimeQueueName;
+import static com.github.sonus21.rqueue.utils.QueueUtils.getNotificationName;
 
 import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptType;
 import com.github.sonus21.rqueue.utils.Constants;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
 import com.github.sonus21.rqueue.utils.QueueUtils;
 import com.github.sonus21.rqueue.utils.RqueueRedisTemplate;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.script.DefaultScriptExecutor;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 @SuppressWarnings("unchecked")
 public class RqueueMessageTemplate extends RqueueRedisTemplate<RqueueMessage> {
-  private DefaultScriptExecutor<String> scriptExecutor;
+  final RqueueMessageSerializer messageSerializer;
+  DefaultScriptExecutor<String> scriptExecutor;
+  private KeyNamingStrategy keyNamingStrategy = KeyNamingStrategy.PLAIN;
 
   public RqueueMessageTemplate(RedisConnectionFactory redisConnectionFactory) {
-    super(redisConnectionFactory);
+    this(redisConnectionFactory, new RqueueMessageSerializer(false));
+  }
+
+  public RqueueMessageTemplate(
+      RedisConnectionFactory redisConnectionFactory, RqueueMessageSerializer messageSerializer) {
+    super(redisConnectionFactory, messageSerializer);
+    this.messageSerializer = messageSerializer;
     scriptExecutor = new DefaultScriptExecutor<>(redisTemplate);
   }
 
+  public KeyNamingStrategy getKeyNamingStrategy() {
+    return keyNamingStrategy;
+  }
+
+  /**
+   * Set the strategy used to name keys and channels of queues, {@link
+   * KeyNamingStrategy#HASH_TAGGED} puts all keys of a queue in the same slot as required by Redis
+   * cluster. All applications using the queues must use the same strategy, default is {@link
+   * KeyNamingStrategy#PLAIN}.
+   *
+   * @param keyNamingStrategy key naming strategy
+   */
+  public void setKeyNamingStrategy(KeyNamingStrategy keyNamingStrategy) {
+    Assert.notNull(keyNamingStrategy, "keyNamingStrategy cannot be null");
+    this.keyNamingStrategy = keyNamingStrategy;
+  }
+
   public void add(String queueName, RqueueMessage message) {
-    redisTemplate.opsForList().rightPush(queueName, message);
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ENQUEUE_MESSAGE);
+    scriptExecutor.execute(
+        script, Arrays.asList(queueName, getQueueChannelName(queueName)), message);
   }
 
   public RqueueMessage pop(String queueName, long maxJobExecutionTime) {
@@ -56,26 +85,359 @@ public class RqueueMessageTemplate extends RqueueRedisTemplate<RqueueMessage> {
     return scriptExecutor.execute(
         script,
         Arrays.asList(
-            queueName, getProcessingQueueName(queueName), getProcessingQueueChannelName(queueName)),
+            queueName,
+            getProcessingQueueName(queueName),
+            getProcessingQueueChannelName(queueName),
+            getNotificationName(getProcessingQueueChannelName(queueName))),
         currentTime,
         QueueUtils.getMessageReEnqueueTimeWithDelay(currentTime, maxJobExecutionTime));
   }
 
+  public List<RqueueMessage> pop(String queueName, long maxJobExecutionTime, int count) {
+    long currentTime = System.currentTimeMillis();
+    RedisScript<List<RqueueMessage>> script =
+        (RedisScript<List<RqueueMessage>>) getScript(ScriptType.POP_MESSAGES);
+    List<RqueueMessage> messages =
+        scriptExecutor.execute(
+            script,
+            Arrays.asList(
+                queueName,
+                getProcessingQueueName(queueName),
+                getProcessingQueueChannelName(queueName),
+                getNotificationName(getProcessingQueueChannelName(queueName))),
+            currentTime,
+            QueueUtils.getMessageReEnqueueTimeWithDelay(currentTime, maxJobExecutionTime),
+            count);
+    if (messages == null) {
+      return Collections.emptyList();
+    }
+    return messages;
+  }
+
+  /**
+   * Pop messages from multiple queues in a single Redis call.
+   *
+   * @param queueNames name of the queues
+   * @param maxJobExecutionTimes max job execution time of each queue
+   * @param counts maximum number of messages to pop from each queue
+   * @return messages of each queue in the same order as queue names
+   */
+  public List<List<RqueueMessage>> pop(
+      List<String> queueNames, List<Long> maxJobExecutionTimes, List<Integer> counts) {
+    if (isCrossSlot(queueNames)) {
+      return popEach(queueNames, maxJobExecutionTimes, counts);
+    }
+    long currentTime = System.currentTimeMillis();
+    RedisScript<List<List<RqueueMessage>>> script =
+        (RedisScript<List<List<RqueueMessage>>>) getScript(ScriptType.POP_MULTI_QUEUE_MESSAGES);
+    List<String> keys = new ArrayList<>();
+    List<Object> args = new ArrayList<>();
+    args.add(currentTime);
+    for (int i = 0; i < queueNames.size(); i++) {
+      String queueName = queueNames.get(i);
+      keys.add(queueName);
+      keys.add(getProcessingQueueName(queueName));
+      keys.add(getProcessingQueueChannelName(queueName));
+      keys.add(getNotificationName(getProcessingQueueChannelName(queueName)));
+      args.add(
+          QueueUtils.getMessageReEnqueueTimeWithDelay(currentTime, maxJobExecutionTimes.get(i)));
+      args.add(counts.get(i));
+    }
+    List<List<RqueueMessage>> messages = scriptExecutor.execute(script, keys, args.toArray());
+    if (messages == null) {
+      return Collections.emptyList();
+    }
+    return messages;
+  }
+
+  // queues in different slots of Redis cluster can not be popped using a single script
+  List<List<RqueueMessage>> popEach(
+      List<String> queueNames, List<Long> maxJobExecutionTimes, List<Integer> counts) {
+    List<List<RqueueMessage>> messages = new ArrayList<>(queueNames.size());
+    for (int i = 0; i < queueNames.size(); i++) {
+      messages.add(pop(queueNames.get(i), maxJobExecutionTimes.get(i), counts.get(i)));
+    }
+    return messages;
+  }
+
+  public Long returnToQueue(String queueName, List<RqueueMessage> messages) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.RETURN_MESSAGES);
+    return scriptExecutor.execute(
+        script,
+        Arrays.asList(getProcessingQueueName(queueName), queueName),
+        messages.toArray());
+  }
+
   public void addWithDelay(String queueName, RqueueMessage rqueueMessage) {
     long queuedTime = rqueueMessage.getQueuedTime();
     RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ADD_MESSAGE);
     scriptExecutor.execute(
         script,
-        Arrays.asList(getTimeQueueName(queueName), getChannelName(queueName)),
+        Arrays.asList(
+            getTimeQueueName(queueName),
+            getChannelName(queueName),
+            getNotificationName(getChannelName(queueName))),
         rqueueMessage,
         rqueueMessage.getProcessAt(),
         queuedTime);
   }
 
+  /**
+   * Add messages to the queue, messages are sent in chunks of {@link
+   * Constants#MAX_MESSAGES_PER_CALL} using a single variadic RPUSH per chunk. Chunks are not added
+   * atomically, if a call fails then messages of the previous chunks remain in the queue.
+   *
+   * @param queueName name of the queue
+   * @param messages messages to be added
+   */
+  public void addAll(String queueName, List<RqueueMessage> messages) {
+    for (int i = 0; i < messages.size(); i += Constants.MAX_MESSAGES_PER_CALL) {
+      addChunk(
+          queueName,
+          messages.subList(i, Math.min(messages.size(), i + Constants.MAX_MESSAGES_PER_CALL)));
+    }
+  }
+
+  void addChunk(String queueName, List<RqueueMessage> messages) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ENQUEUE_MESSAGES);
+    scriptExecutor.execute(
+        script, Arrays.asList(queueName, getQueueChannelName(queueName)), messages.toArray());
+  }
+
+  /**
+   * Add messages to the delayed queue, each message is scored using its process at time. Messages
+   * are sent in chunks of {@link Constants#MAX_MESSAGES_PER_CALL}, all messages of a chunk are
+   * added using a single ZADD and at most one notification is published per chunk.
+   *
+   * @param queueName name of the queue
+   * @param messages messages to be added
+   */
+  public void addAllWithDelay(String queueName, List<RqueueMessage> messages) {
+    for (int i = 0; i < messages.size(); i += Constants.MAX_MESSAGES_PER_CALL) {
+      addChunkWithDelay(
+          queueName,
+          messages.subList(i, Math.min(messages.size(), i + Constants.MAX_MESSAGES_PER_CALL)));
+    }
+  }
+
+  void addChunkWithDelay(String queueName, List<RqueueMessage> messages) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ADD_MESSAGES);
+    List<Object> args = new ArrayList<>(2 * messages.size() + 1);
+    args.add(System.currentTimeMillis());
+    for (RqueueMessage message : messages) {
+      args.add(message.getProcessAt());
+      args.add(message);
+    }
+    scriptExecutor.execute(
+        script,
+        Arrays.asList(
+            getTimeQueueName(queueName),
+            getChannelName(queueName),
+            getNotificationName(getChannelName(queueName))),
+        args.toArray());
+  }
+
   public void removeFromZset(String zsetName, RqueueMessage rqueueMessage) {
     redisTemplate.opsForZSet().remove(zsetName, rqueueMessage);
   }
 
+  /**
+   * Remove all the given messages from a sorted set using a single variadic ZREM call.
+   *
+   * @param zsetName name of the sorted set
+   * @param rqueueMessages messages to remove
+   * @return number of messages removed from the sorted set
+   */
+  public Long removeAllFromZset(String zsetName, List<RqueueMessage> rqueueMessages) {
+    if (rqueueMessages.isEmpty()) {
+      return 0L;
+    }
+    return redisTemplate.opsForZSet().remove(zsetName, rqueueMessages.toArray());
+  }
+
+  /**
+   * Acknowledge a message consumed from the given queue, it's removed from the processing queue.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param rqueueMessage message as it's stored in the processing queue
+   */
+  public void acknowledge(String queueName, RqueueMessage rqueueMessage) {
+    removeFromZset(getProcessingQueueName(queueName), rqueueMessage);
+  }
+
+  /**
+   * Acknowledge all the given messages consumed from the given queue in a single Redis call.
+   *
+   * @param queueName name of the queue the messages were consumed from
+   * @param rqueueMessages messages as they're stored in the processing queue
+   * @return number of messages removed from the processing queue
+   */
+  public Long acknowledge(String queueName, List<RqueueMessage> rqueueMessages) {
+    return removeAllFromZset(getProcessingQueueName(queueName), rqueueMessages);
+  }
+
+  /**
+   * Add a message to the group given by its group key. Messages of a group are moved to the queue
+   * one by one in the order they were added, the next message of a group is moved once the current
+   * one has been released.
+   *
+   * @param queueName name of the queue
+   * @param message message having a group key
+   * @see #releaseGroup(String, RqueueMessage)
+   */
+  public void addToGroup(String queueName, RqueueMessage message) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.ADD_GROUP_MESSAGE);
+    scriptExecutor.execute(
+        script,
+        getGroupKeys(queueName, message.getGroupKey(), getGroupMessageStoreName(queueName)),
+        message.getId(),
+        message);
+  }
+
+  /**
+   * Release the group of a consumed message, the next message of the group is moved to the queue.
+   * Nothing is done unless the message is the current message of its group, so a message consumed
+   * more than once releases its group only once.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param message consumed message having a group key
+   * @return whether the next message of the group has been moved to the queue
+   */
+  public boolean releaseGroup(String queueName, RqueueMessage message) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.RELEASE_GROUP_MESSAGE);
+    Long released =
+        scriptExecutor.execute(
+            script,
+            getGroupKeys(queueName, message.getGroupKey(), getGroupMessageStoreName(queueName)),
+            message.getId());
+    return released != null && released == 1;
+  }
+
+  List<String> getGroupKeys(String queueName, String groupKey, String storeName) {
+    return getGroupKeys(keyNamingStrategy, queueName, groupKey, storeName);
+  }
+
+  static List<String> getGroupKeys(
+      KeyNamingStrategy keyNamingStrategy, String queueName, String groupKey, String storeName) {
+    return Arrays.asList(
+        queueName,
+        keyNamingStrategy.getQueueChannelName(queueName),
+        keyNamingStrategy.getGroupName(queueName, groupKey),
+        keyNamingStrategy.getGroupSetName(queueName),
+        storeName);
+  }
+
+  /**
+   * Delete all groups of a queue along with their waiting messages.
+   *
+   * @param queueName name of the queue
+   */
+  public void deleteGroups(String queueName) {
+    byte[] groupSet = toBytes(getGroupSetName(queueName));
+    byte[] groupStore = toBytes(getGroupMessageStoreName(queueName));
+    redisTemplate.execute(
+        (RedisCallback<Long>)
+            connection -> {
+              Set<byte[]> groups = connection.sMembers(groupSet);
+              if (!CollectionUtils.isEmpty(groups)) {
+                connection.del(groups.toArray(new byte[0][]));
+              }
+              return connection.del(groupSet, groupStore);
+            });
+  }
+
+  /**
+   * Replace a message of the processing queue with its updated copy, nothing is done if the message
+   * is not in the processing queue anymore.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param src message as it's stored in the processing queue
+   * @param tgt updated message
+   */
+  public void updateProcessingMessage(String queueName, RqueueMessage src, RqueueMessage tgt) {
+    replaceMessage(getProcessingQueueName(queueName), src, tgt);
+  }
+
+  /**
+   * Move a message from the processing queue to the dead letter queue, the message is removed from
+   * the processing queue and added to the dead letter queue in a single atomic Redis call.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param deadLetterQueueName name of the dead letter queue
+   * @param src message as it's stored in the processing queue
+   * @param tgt message to be added to the dead letter queue
+   * @return true if the message was moved, false if it was not in the processing queue
+   */
+  public boolean moveToDeadLetter(
+      String queueName, String deadLetterQueueName, RqueueMessage src, RqueueMessage tgt) {
+    if (isCrossSlot(Arrays.asList(queueName, deadLetterQueueName))) {
+      return moveToDeadLetterAcrossSlots(queueName, deadLetterQueueName, src, tgt);
+    }
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.DEAD_LETTER_MESSAGE);
+    Long moved =
+        scriptExecutor.execute(
+            script,
+            Arrays.asList(
+                getProcessingQueueName(queueName),
+                deadLetterQueueName,
+                getQueueChannelName(deadLetterQueueName)),
+            src,
+            tgt);
+    return moved != null && moved > 0;
+  }
+
+  /**
+   * Keys of both queues can not be used in a single script, the message is added to the dead
+   * letter queue before it's removed from the processing queue, so a crash in between can not lose
+   * it but it may be found in both queues. A dead letter queue named like {@code {job}-dlq} is in
+   * the same slot as the queue {@code job} and is moved atomically.
+   */
+  boolean moveToDeadLetterAcrossSlots(
+      String queueName, String deadLetterQueueName, RqueueMessage src, RqueueMessage tgt) {
+    add(deadLetterQueueName, tgt);
+    Long removed = acknowledge(queueName, Collections.singletonList(src));
+    return removed != null && removed > 0;
+  }
+
+  /**
+   * Move a failed message from the processing queue to the delayed queue, it would be moved back to
+   * the queue at its process at time. Both are done in a single atomic Redis call.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param src message as it's stored in the processing queue
+   * @param tgt message to be retried, its process at time is used as the score
+   * @return true if the retry was scheduled, false if the message was not in the processing queue
+   */
+  public boolean scheduleRetry(String queueName, RqueueMessage src, RqueueMessage tgt) {
+    RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.RETRY_MESSAGE);
+    Long moved =
+        scriptExecutor.execute(
+            script,
+            Arrays.asList(
+                getProcessingQueueName(queueName),
+                getTimeQueueName(queueName),
+                getChannelName(queueName),
+                getNotificationName(getChannelName(queueName))),
+            src,
+            tgt,
+            tgt.getProcessAt(),
+            System.currentTimeMillis());
+    return moved != null && moved > 0;
+  }
+
+  /**
+   * Discard a message consumed from the given queue, it's removed from the processing queue.
+   *
+   * @param queueName name of the queue the message was consumed from
+   * @param rqueueMessage message as it's stored in the processing queue
+   * @return true if the message was removed, false if it was not in the processing queue
+   */
+  public boolean discard(String queueName, RqueueMessage rqueueMessage) {
+    Long removed =
+        redisTemplate.opsForZSet().remove(getProcessingQueueName(queueName), rqueueMessage);
+    return removed != null && removed > 0;
+  }
+
   public void replaceMessage(String zsetName, RqueueMessage src, RqueueMessage tgt) {
     RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.REPLACE_MESSAGE);
     scriptExecutor.execute(script, Collections.singletonList(zsetName), src, tgt);
@@ -87,12 +449,12 @@ public class RqueueMessageTemplate extends RqueueRedisTemplate<RqueueMessage> {
       messages = new ArrayList<>();
     }
     Set<RqueueMessage> messagesFromZset =
-        redisTemplate.opsForZSet().range(QueueUtils.getTimeQueueName(queueName), 0, -1);
+        redisTemplate.opsForZSet().range(getTimeQueueName(queueName), 0, -1);
     if (!CollectionUtils.isEmpty(messagesFromZset)) {
       messages.addAll(messagesFromZset);
     }
     Set<RqueueMessage> messagesInProcessingQueue =
-        redisTemplate.opsForZSet().range(QueueUtils.getProcessingQueueName(queueName), 0, -1);
+        redisTemplate.opsForZSet().range(getProcessingQueueName(queueName), 0, -1);
     if (!CollectionUtils.isEmpty(messagesInProcessingQueue)) {
       messages.addAll(messagesInProcessingQueue);
     }
@@ -108,6 +470,19 @@ public class RqueueMessageTemplate extends RqueueRedisTemplate<RqueueMessage> {
   }
 
   public boolean moveMessage(String srcQueueName, String dstQueueName, int maxMessage) {
+    if (isCrossSlot(Arrays.asList(srcQueueName, dstQueueName))) {
+      // keys of both queues can not be used in a single script, messages are moved one by one,
+      // every message is added to the destination before it's removed from the source
+      for (int i = 0; i < maxMessage; i++) {
+        RqueueMessage message = redisTemplate.opsForList().index(srcQueueName, 0);
+        if (message == null) {
+          break;
+        }
+        redisTemplate.opsForList().leftPush(dstQueueName, message);
+        redisTemplate.opsForList().remove(srcQueueName, 1, message);
+      }
+      return true;
+    }
     RedisScript<Long> script = (RedisScript<Long>) getScript(ScriptType.MOVE_MESSAGE);
     int offset = Constants.MAX_MESSAGES;
     while (true) {
@@ -122,7 +497,174 @@ public class RqueueMessageTemplate extends RqueueRedisTemplate<RqueueMessage> {
     return true;
   }
 
+  /**
+   * Find a message using its id. Messages are stored inline, so the queue, delayed queue and
+   * processing queue are scanned, id indexed storage finds a message in constant time.
+   *
+   * @param queueName name of the queue
+   * @param id id of the message
+   * @return the message or null if it's not found
+   * @see IdIndexedRqueueMessageTemplate
+   */
+  public RqueueMessage getMessage(String queueName, String id) {
+    return findMessage(getAllMessages(queueName), id);
+  }
+
+  /**
+   * Delete a message using its id, a message being processed can not be consumed again once it's
+   * deleted. Messages are stored inline, so the queue, delayed queue and processing queue are
+   * scanned.
+   *
+   * @param queueName name of the queue
+   * @param id id of the message
+   * @return true if the message was deleted, false if it was not found
+   * @see IdIndexedRqueueMessageTemplate
+   */
+  public boolean deleteMessage(String queueName, String id) {
+    RqueueMessage message = findMessage(redisTemplate.opsForList().range(queueName, 0, -1), id);
+    if (message != null) {
+      Long removed = redisTemplate.opsForList().remove(queueName, 1, message);
+      return removed != null && removed > 0;
+    }
+    for (String zsetName :
+        Arrays.asList(getTimeQueueName(queueName), getProcessingQueueName(queueName))) {
+      message = findMessage(redisTemplate.opsForZSet().range(zsetName, 0, -1), id);
+      if (message != null) {
+        Long removed = redisTemplate.opsForZSet().remove(zsetName, message);
+        return removed != null && removed > 0;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Find the status of a message using its id. Messages are stored inline, so the queue, delayed
+   * queue and processing queue are scanned.
+   *
+   * @param queueName name of the queue
+   * @param id id of the message
+   * @return status of the message
+   * @see IdIndexedRqueueMessageTemplate
+   */
+  public MessageStatus getMessageStatus(String queueName, String id) {
+    if (findMessage(redisTemplate.opsForList().range(queueName, 0, -1), id) != null) {
+      return MessageStatus.ENQUEUED;
+    }
+    if (findMessage(redisTemplate.opsForZSet().range(getTimeQueueName(queueName), 0, -1), id)
+        != null) {
+      return MessageStatus.DELAYED;
+    }
+    if (findMessage(
+            redisTemplate.opsForZSet().range(getProcessingQueueName(queueName), 0, -1), id)
+        != null) {
+      return MessageStatus.PROCESSING;
+    }
+    return MessageStatus.NOT_FOUND;
+  }
+
+  private static RqueueMessage findMessage(Collection<RqueueMessage> messages, String id) {
+    if (messages != null) {
+      for (RqueueMessage message : messages) {
+        if (id.equals(message.getId())) {
+          return message;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get counters of head change notifications of a queue, the scripts that add messages to the
+   * delayed or processing queue publish the new head only when it has changed since the last
+   * notification.
+   *
+   * @param queueName name of the queue
+   * @return notification counters, counters are zero if nothing has been published yet
+   */
+  public NotificationStats getNotificationStats(String queueName) {
+    byte[] delayed = toBytes(getNotificationName(getChannelName(queueName)));
+    byte[] processing = toBytes(getNotificationName(getProcessingQueueChannelName(queueName)));
+    byte[][] fields = {toBytes("sent"), toBytes("suppressed")};
+    List<List<byte[]>> counters =
+        redisTemplate.execute(
+            (RedisCallback<List<List<byte[]>>>)
+                connection ->
+                    Arrays.asList(
+                        connection.hMGet(delayed, fields), connection.hMGet(processing, fields)));
+    if (counters == null) {
+      return new NotificationStats(0, 0, 0, 0);
+    }
+    return new NotificationStats(
+        getCounter(counters.get(0), 0),
+        getCounter(counters.get(0), 1),
+        getCounter(counters.get(1), 0),
+        getCounter(counters.get(1), 1));
+  }
+
+  private static long getCounter(List<byte[]> values, int index) {
+    if (values == null || values.size() <= index || values.get(index) == null) {
+      return 0;
+    }
+    return Long.parseLong(new String(values.get(index), StandardCharsets.UTF_8));
+  }
+
+  String getTimeQueueName(String queueName) {
+    return keyNamingStrategy.getTimeQueueName(queueName);
+  }
+
+  String getChannelName(String queueName) {
+    return keyNamingStrategy.getChannelName(queueName);
+  }
+
+  String getProcessingQueueName(String queueName) {
+    return keyNamingStrategy.getProcessingQueueName(queueName);
+  }
+
+  String getProcessingQueueChannelName(String queueName) {
+    return keyNamingStrategy.getProcessingQueueChannelName(queueName);
+  }
+
+  String getQueueChannelName(String queueName) {
+    return keyNamingStrategy.getQueueChannelName(queueName);
+  }
+
+  String getMessageStoreName(String queueName) {
+    return keyNamingStrategy.getMessageStoreName(queueName);
+  }
+
+  String getGroupSetName(String queueName) {
+    return keyNamingStrategy.getGroupSetName(queueName);
+  }
+
+  String getGroupMessageStoreName(String queueName) {
+    return keyNamingStrategy.getGroupMessageStoreName(queueName);
+  }
+
+  boolean isCrossSlot(Collection<String> queueNames) {
+    return keyNamingStrategy.isCrossSlot(queueNames);
+  }
+
+  static byte[] toBytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
   public void deleteKey(String key) {
     redisTemplate.delete(key);
   }
+
+  /**
+   * Delete a queue along with its delayed queue, processing queue, message store, notification
+   * markers and groups.
+   *
+   * @param queueName name of the queue
+   */
+  public void deleteQueue(String queueName) {
+    deleteKey(queueName);
+    deleteKey(getProcessingQueueName(queueName));
+    deleteKey(getTimeQueueName(queueName));
+    deleteKey(getMessageStoreName(queueName));
+    deleteKey(getNotificationName(getChannelName(queueName)));
+    deleteKey(getNotificationName(getProcessingQueueChannelName(queueName)));
+    deleteGroups(queueName);
+  }
 }
@@ -22,8 +22,12 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 class ScheduledTaskDetail {
-  private Future<?> future;
-  private long startTime;
+  private volatile Future<?> future;
+  private volatile boolean cancelled;
+  private volatile boolean running;
+  // earliest wake up requested while the task was running
+  private volatile long wakeUpTime = Long.MAX_VALUE;
+  private volatile long startTime;
   private String id;
 
   ScheduledTaskDetail(long startTime, Future<?> future) {
@@ -38,6 +42,34 @@ class ScheduledTaskDetail {
 
   void setFuture(Future<?> future) {
     this.future = future;
+    // cancelled before its task was scheduled
+    if (cancelled) {
+      future.cancel(false);
+    }
+  }
+
+  void cancel() {
+    cancelled = true;
+    Future<?> scheduledFuture = future;
+    if (scheduledFuture != null) {
+      scheduledFuture.cancel(false);
+    }
+  }
+
+  boolean isRunning() {
+    return running;
+  }
+
+  void setRunning() {
+    running = true;
+  }
+
+  long getWakeUpTime() {
+    return wakeUpTime;
+  }
+
+  void wakeUp(long time) {
+    wakeUpTime = Math.min(wakeUpTime, time);
   }
 
   long getStartTime() {
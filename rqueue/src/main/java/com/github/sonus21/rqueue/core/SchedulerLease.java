@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptType;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultScriptExecutor;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Leases of the mover duty of sorted sets, a node moves messages of a sorted set only while it
+ * holds one of its lease slots. A slot is taken using SET NX PX and renewed by its owner once half
+ * of the lease time has elapsed, the duty of a dead node fails over once its lease has expired.
+ * Nodes that do not own a lease do not call Redis again until a slot could be free.
+ */
+class SchedulerLease {
+  private final String nodeId = UUID.randomUUID().toString();
+  private final DefaultScriptExecutor<String> scriptExecutor;
+  private final RedisScript<Long> acquireScript;
+  private final RedisScript<Long> releaseScript;
+  private final long leaseTime;
+  private final int ownerCount;
+  private final Map<String, LeaseState> zsetNameToLeaseState = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  SchedulerLease(RedisTemplate<String, Long> redisTemplate, long leaseTime, int ownerCount) {
+    this.scriptExecutor = new DefaultScriptExecutor<>(redisTemplate);
+    this.acquireScript =
+        (RedisScript<Long>) RedisScriptFactory.getScript(ScriptType.ACQUIRE_LEASE);
+    this.releaseScript =
+        (RedisScript<Long>) RedisScriptFactory.getScript(ScriptType.RELEASE_LEASE);
+    this.leaseTime = leaseTime;
+    this.ownerCount = ownerCount;
+  }
+
+  private List<String> getLeaseNames(String zsetName) {
+    List<String> leaseNames = new ArrayList<>(ownerCount);
+    for (int slot = 0; slot < ownerCount; slot++) {
+      leaseNames.add(QueueUtils.getLeaseName(zsetName, slot));
+    }
+    return leaseNames;
+  }
+
+  /**
+   * Acquire or renew the lease of a sorted set, Redis is called only once the time returned by
+   * {@link #getNextCheckTime(String)} has passed.
+   *
+   * @param zsetName name of the sorted set
+   * @param currentTime current time
+   * @return whether this node owns the lease
+   */
+  boolean acquire(String zsetName, long currentTime) {
+    LeaseState leaseState = zsetNameToLeaseState.get(zsetName);
+    if (leaseState != null && currentTime < leaseState.nextCheckTime) {
+      return leaseState.owned;
+    }
+    Long ttl = scriptExecutor.execute(acquireScript, getLeaseNames(zsetName), nodeId, leaseTime);
+    if (ttl != null && ttl == 0) {
+      leaseState = new LeaseState(true, currentTime + leaseTime / 2);
+    } else {
+      leaseState = new LeaseState(false, currentTime + (ttl == null ? leaseTime : ttl));
+    }
+    zsetNameToLeaseState.put(zsetName, leaseState);
+    return leaseState.owned;
+  }
+
+  /**
+   * @param zsetName name of the sorted set
+   * @return time at which the owner should renew the lease or others should check it again
+   */
+  long getNextCheckTime(String zsetName) {
+    LeaseState leaseState = zsetNameToLeaseState.get(zsetName);
+    if (leaseState == null) {
+      return System.currentTimeMillis();
+    }
+    return leaseState.nextCheckTime;
+  }
+
+  /**
+   * Release all leases owned by this node, so their duty fails over without waiting for expiry.
+   */
+  void release() {
+    for (Map.Entry<String, LeaseState> entry : zsetNameToLeaseState.entrySet()) {
+      if (entry.getValue().owned) {
+        scriptExecutor.execute(releaseScript, getLeaseNames(entry.getKey()), nodeId);
+      }
+    }
+    zsetNameToLeaseState.clear();
+  }
+
+  private static class LeaseState {
+    private final boolean owned;
+    private final long nextCheckTime;
+
+    LeaseState(boolean owned, long nextCheckTime) {
+      this.owned = owned;
+      this.nextCheckTime = nextCheckTime;
+    }
+  }
+}
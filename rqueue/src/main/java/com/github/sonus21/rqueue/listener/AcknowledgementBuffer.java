@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the acknowledgements of a queue, executed messages are removed from the processing queue
+ * using a single ZREM call once the buffer is full or the container flushes it on the flush
+ * interval. A buffered message stays in the processing queue until it has been flushed, this is
+ * harmless since a message is moved back to the queue only after max job execution time.
+ */
+class AcknowledgementBuffer extends MessageContainerBase {
+  private final String queueName;
+  private final int maxSize;
+  private List<RqueueMessage> messages;
+
+  AcknowledgementBuffer(RqueueMessageListenerContainer container, String queueName, int maxSize) {
+    super(container);
+    this.queueName = queueName;
+    this.maxSize = maxSize;
+    this.messages = new ArrayList<>(maxSize);
+  }
+
+  void add(RqueueMessage message) {
+    List<RqueueMessage> messagesToRemove = null;
+    synchronized (this) {
+      messages.add(message);
+      if (messages.size() >= maxSize) {
+        messagesToRemove = drain();
+      }
+    }
+    if (messagesToRemove != null) {
+      remove(messagesToRemove);
+    }
+  }
+
+  void flush() {
+    List<RqueueMessage> messagesToRemove;
+    synchronized (this) {
+      if (messages.isEmpty()) {
+        return;
+      }
+      messagesToRemove = drain();
+    }
+    remove(messagesToRemove);
+  }
+
+  synchronized int size() {
+    return messages.size();
+  }
+
+  private List<RqueueMessage> drain() {
+    List<RqueueMessage> drained = messages;
+    messages = new ArrayList<>(maxSize);
+    return drained;
+  }
+
+  private void remove(List<RqueueMessage> messagesToRemove) {
+    getLogger().debug("Queue: {} acknowledging {} messages", queueName, messagesToRemove.size());
+    try {
+      getRqueueMessageTemplate().acknowledge(queueName, messagesToRemove);
+    } catch (Exception e) {
+      // these messages would be consumed again once max job execution time has elapsed
+      getLogger()
+          .error(
+              "Acknowledgement of {} messages of the queue {} failed",
+              messagesToRemove.size(),
+              queueName,
+              e);
+    }
+  }
+}
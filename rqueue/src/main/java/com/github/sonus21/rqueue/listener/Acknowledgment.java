@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+/**
+ * Acknowledgment of a message, a listener method can declare a parameter of this type to
+ * acknowledge the message once it has been processed, for example from a callback of a non-blocking
+ * call. The worker is released as soon as the listener method returns, and the message stays in
+ * the processing queue until either of the methods is called. Only the first call is considered.
+ *
+ * <p>NOTE: A message that is neither acknowledged nor rejected would be consumed again once its
+ * max job execution time has elapsed.
+ */
+public interface Acknowledgment {
+  /** The message has been consumed successfully, it would be removed from the processing queue. */
+  void acknowledge();
+
+  /**
+   * The message could not be consumed, it would be retried or moved to the dead letter queue as per
+   * the listener configuration.
+   */
+  void nack();
+}
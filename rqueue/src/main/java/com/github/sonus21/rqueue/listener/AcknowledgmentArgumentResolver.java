@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
+
+/** Resolves {@link Acknowledgment} parameter of a listener method. */
+class AcknowledgmentArgumentResolver implements HandlerMethodArgumentResolver {
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return Acknowledgment.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, Message<?> message) {
+    Object acknowledgment = message.getHeaders().get(MessageAcknowledgment.HEADER_NAME);
+    if (!(acknowledgment instanceof MessageAcknowledgment)) {
+      throw new MessageHandlingException(
+          message, "Acknowledgment is not available, batch listeners can not use it");
+    }
+    // the listener method would acknowledge the message on its own
+    ((MessageAcknowledgment) acknowledgment).markAsync();
+    return acknowledgment;
+  }
+}
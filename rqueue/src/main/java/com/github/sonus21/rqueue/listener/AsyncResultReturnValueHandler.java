@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.core.MethodParameter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.invocation.HandlerMethodReturnValueHandler;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Handles {@link CompletionStage} and {@link Publisher} return values of listener methods, for
+ * example CompletableFuture, Mono or Flux. The message is acknowledged once the future has
+ * completed or the publisher has terminated, and it's rejected if either of them fails. The worker
+ * is not blocked in the meantime, except for batch listeners that wait for the result.
+ */
+class AsyncResultReturnValueHandler implements HandlerMethodReturnValueHandler {
+  private static final boolean publisherPresent =
+      ClassUtils.isPresent(
+          "org.reactivestreams.Publisher", AsyncResultReturnValueHandler.class.getClassLoader());
+
+  @Override
+  public boolean supportsReturnType(MethodParameter returnType) {
+    Class<?> type = returnType.getParameterType();
+    return CompletionStage.class.isAssignableFrom(type)
+        || (publisherPresent && PublisherAdapter.isPublisher(type));
+  }
+
+  @Override
+  public void handleReturnValue(Object returnValue, MethodParameter returnType, Message<?> message)
+      throws Exception {
+    if (returnValue == null) {
+      return;
+    }
+    CompletableFuture<?> future;
+    if (returnValue instanceof CompletionStage) {
+      future = ((CompletionStage<?>) returnValue).toCompletableFuture();
+    } else {
+      future = PublisherAdapter.toCompletableFuture(returnValue);
+    }
+    Object acknowledgment = message.getHeaders().get(MessageAcknowledgment.HEADER_NAME);
+    if (!(acknowledgment instanceof MessageAcknowledgment)) {
+      waitForResult(future);
+      return;
+    }
+    MessageAcknowledgment messageAcknowledgment = (MessageAcknowledgment) acknowledgment;
+    messageAcknowledgment.markAsync();
+    future.whenComplete(
+        (result, throwable) -> {
+          if (throwable == null) {
+            messageAcknowledgment.acknowledge();
+          } else {
+            messageAcknowledgment.nack();
+          }
+        });
+  }
+
+  private void waitForResult(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  // reactive streams is an optional dependency
+  private static class PublisherAdapter {
+    static boolean isPublisher(Class<?> type) {
+      return Publisher.class.isAssignableFrom(type);
+    }
+
+    static CompletableFuture<Void> toCompletableFuture(Object publisher) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      ((Publisher<?>) publisher)
+          .subscribe(
+              new Subscriber<Object>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                  subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(Object o) {}
+
+                @Override
+                public void onError(Throwable throwable) {
+                  future.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                  future.complete(null);
+                }
+              });
+      return future;
+    }
+  }
+}
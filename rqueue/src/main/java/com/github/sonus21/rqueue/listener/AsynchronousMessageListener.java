@@ -17,7 +17,8 @@
 package com.github.sonus21.rqueue.listener;
 
 import com.github.sonus21.rqueue.core.RqueueMessage;
-import java.util.concurrent.Executor;
+import java.util.ArrayList;
+import java.util.List;
 
 class AsynchronousMessageListener extends MessageContainerBase implements Runnable {
   private final String queueName;
@@ -30,27 +31,48 @@ class AsynchronousMessageListener extends MessageContainerBase implements Runnab
     this.queueDetail = value;
   }
 
-  private RqueueMessage getMessage() {
-    return getRqueueMessageTemplate().pop(queueName, queueDetail.getMaxJobExecutionTime());
+  private List<RqueueMessage> getMessages(int count) {
+    return getRqueueMessageTemplate().pop(queueName, queueDetail.getMaxJobExecutionTime(), count);
   }
 
   @Override
   public void run() {
     getLogger().debug("Running Queue {}", queueName);
+    QueueThreadPool queueThreadPool = getQueueThreadPool();
     while (isQueueActive(queueName)) {
+      int permits = 0;
       try {
-        RqueueMessage message = getMessage();
-        getLogger().debug("Queue: {} Fetched Msg {}", queueName, message);
-        if (message != null) {
-          getTaskExecutor().execute(new MessageExecutor(message, queueDetail, container));
-        } else {
-          try {
-            Thread.sleep(getPollingInterval());
-          } catch (InterruptedException ex) {
-            ex.printStackTrace();
+        if (queueDetail.isBatchListener()) {
+          // a batch is executed by a single worker
+          permits = queueThreadPool.acquire(1, getPollingInterval());
+          if (permits > 0) {
+            permits = 0;
+            pollBatch(queueThreadPool);
           }
+          continue;
         }
+        // never fetch more messages than the number of free workers
+        permits = queueThreadPool.acquire(getBatchSize(), getPollingInterval());
+        if (permits == 0) {
+          continue;
+        }
+        List<RqueueMessage> messages = getMessages(permits);
+        getLogger().debug("Queue: {} Fetched Msgs {}", queueName, messages);
+        int fetched = messages == null ? 0 : messages.size();
+        queueThreadPool.release(permits - fetched);
+        permits = 0;
+        if (fetched > 0) {
+          executeMessages(queueThreadPool, queueDetail, messages);
+        } else if (!waitForMessage(getPollingInterval())) {
+          return;
+        }
+      } catch (InterruptedException e) {
+        queueThreadPool.release(permits);
+        getLogger().warn("Message listener of the queue {} has been interrupted", queueName);
+        Thread.currentThread().interrupt();
+        return;
       } catch (Exception e) {
+        queueThreadPool.release(permits);
         getLogger()
             .warn(
                 "Message listener failed for the queue {}, it will be retried in {} Ms",
@@ -60,21 +82,91 @@ class AsynchronousMessageListener extends MessageContainerBase implements Runnab
         try {
           Thread.sleep(getBackOffTime());
         } catch (InterruptedException ex) {
-          ex.printStackTrace();
+          Thread.currentThread().interrupt();
+          return;
         }
       }
     }
   }
 
+  // the permit of the batch worker has been acquired already
+  private void pollBatch(QueueThreadPool queueThreadPool) {
+    List<RqueueMessage> messages;
+    try {
+      messages = getBatch();
+    } catch (RuntimeException e) {
+      queueThreadPool.release();
+      throw e;
+    }
+    if (messages.isEmpty()) {
+      queueThreadPool.release();
+      waitForMessage(getPollingInterval());
+    } else {
+      executeBatch(queueThreadPool, queueDetail, messages);
+    }
+  }
+
+  // collect messages until the batch is full or the batch timeout has elapsed since the first one
+  private List<RqueueMessage> getBatch() {
+    int batchSize = queueDetail.getBatchSize();
+    List<RqueueMessage> messages = new ArrayList<>(getMessages(batchSize));
+    if (messages.isEmpty()) {
+      return messages;
+    }
+    long endTime = System.currentTimeMillis() + queueDetail.getBatchTimeout();
+    while (messages.size() < batchSize && isQueueActive(queueName)) {
+      long remainingTime = endTime - System.currentTimeMillis();
+      if (remainingTime <= 0) {
+        break;
+      }
+      List<RqueueMessage> newMessages = getMessages(batchSize - messages.size());
+      if (newMessages.isEmpty()) {
+        // execute the messages fetched so far, the listener stops once they have been submitted
+        if (!waitForMessage(Math.min(remainingTime, getPollingInterval()))) {
+          break;
+        }
+      } else {
+        messages.addAll(newMessages);
+      }
+    }
+    getLogger().debug("Queue: {} Fetched batch {}", queueName, messages);
+    return messages;
+  }
+
+  // returns false if the listener has been interrupted, the interrupt flag is restored
+  private boolean waitForMessage(long waitTime) {
+    QueueSignal queueSignal = getQueueSignal();
+    try {
+      if (queueSignal == null) {
+        Thread.sleep(waitTime);
+      } else {
+        queueSignal.await(waitTime);
+      }
+      return true;
+    } catch (InterruptedException ex) {
+      getLogger().warn("Message listener of the queue {} has been interrupted", queueName);
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private QueueSignal getQueueSignal() {
+    return container.get().getQueueSignal(queueName);
+  }
+
   private long getPollingInterval() {
     return container.get().getPollingInterval();
   }
 
+  private int getBatchSize() {
+    return container.get().getBatchSize();
+  }
+
   private long getBackOffTime() {
     return container.get().getBackOffTime();
   }
 
-  private Executor getTaskExecutor() {
-    return container.get().getTaskExecutor();
+  private QueueThreadPool getQueueThreadPool() {
+    return container.get().getQueueThreadPool(queueName);
   }
 }
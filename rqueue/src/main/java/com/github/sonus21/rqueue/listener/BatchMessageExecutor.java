@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static com.github.sonus21.rqueue.utils.Constants.DELTA_BETWEEN_RE_ENQUEUE_TIME;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.metrics.RqueueCounter;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Executes a batch listener, the listener method is called once with all messages of the batch.
+ * The batch is retried as a unit, once retries are exhausted every message is handled like a
+ * failed single message, i.e. it's moved to dead letter queue, discarded or retried later based on
+ * its own retry count. When split failed batch is enabled, the batch is not retried as a unit but
+ * every message is executed again on its own. When retry back off is enabled, a failed batch is
+ * not retried by the worker, every message is retried through the delayed queue instead.
+ */
+class BatchMessageExecutor extends MessageContainerBase implements Runnable {
+  private final List<RqueueMessage> rqueueMessages;
+  private final QueueDetail queueDetail;
+  private final QueueThreadPool queueThreadPool;
+
+  BatchMessageExecutor(
+      List<RqueueMessage> messages,
+      QueueDetail queueDetail,
+      WeakReference<RqueueMessageListenerContainer> container,
+      QueueThreadPool queueThreadPool) {
+    super(container);
+    this.rqueueMessages = messages;
+    this.queueDetail = queueDetail;
+    this.queueThreadPool = queueThreadPool;
+  }
+
+  @Override
+  public void run() {
+    try {
+      execute(rqueueMessages, 0);
+    } finally {
+      // this worker is free now, let the listener fetch another batch
+      queueThreadPool.release();
+    }
+  }
+
+  private void execute(List<RqueueMessage> messages, int previousFailureCount) {
+    boolean split = queueDetail.isSplitFailedBatch() && messages.size() > 1;
+    List<MessageExecutor> messageExecutors = new ArrayList<>(messages.size());
+    List<String> payloads = new ArrayList<>(messages.size());
+    int maxAttempts = Integer.MAX_VALUE;
+    for (RqueueMessage message : messages) {
+      MessageExecutor messageExecutor =
+          new MessageExecutor(message, queueDetail, container, queueThreadPool);
+      messageExecutors.add(messageExecutor);
+      payloads.add(messageExecutor.getPayloadString());
+      int remainingAttempts =
+          messageExecutor.getMaxRetryCount() - message.getFailureCount() - previousFailureCount;
+      maxAttempts = Math.min(maxAttempts, remainingAttempts);
+    }
+    // every batch is executed at least once
+    maxAttempts = split || queueDetail.isRetryBackOffEnabled() ? 1 : Math.max(maxAttempts, 1);
+    Message<List<String>> message =
+        new GenericMessage<>(
+            payloads, QueueUtils.getQueueHeaders(queueDetail.getLogicalQueueName()));
+    boolean executed = false;
+    int failureCount = 0;
+    long maxRetryTime = getMaxProcessingTime();
+    do {
+      if (!isQueueActive(queueDetail.getQueueName())) {
+        return;
+      }
+      try {
+        updateCounter(false, messages.size());
+        getMessageHandler().handleMessage(message);
+        executed = true;
+      } catch (Exception e) {
+        updateCounter(true, messages.size());
+        failureCount += 1;
+      }
+    } while (failureCount < maxAttempts
+        && !executed
+        && System.currentTimeMillis() < maxRetryTime);
+    if (!executed && split) {
+      getLogger()
+          .debug(
+              "Splitting failed batch of {} messages queue: {}",
+              messages.size(),
+              queueDetail.getQueueName());
+      for (RqueueMessage rqueueMessage : messages) {
+        execute(Collections.singletonList(rqueueMessage), previousFailureCount + failureCount);
+      }
+      return;
+    }
+    for (int i = 0; i < messages.size(); i++) {
+      MessageExecutor messageExecutor = messageExecutors.get(i);
+      messageExecutor.handleResult(
+          executed,
+          messages.get(i).getFailureCount() + previousFailureCount + failureCount,
+          messageExecutor.getMaxRetryCount());
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private void updateCounter(boolean failOrExecution, int count) {
+    RqueueCounter rqueueCounter = container.get().rqueueCounter;
+    if (rqueueCounter == null) {
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      if (failOrExecution) {
+        rqueueCounter.updateFailureCount(queueDetail.getLogicalQueueName());
+      } else {
+        rqueueCounter.updateExecutionCount(queueDetail.getLogicalQueueName());
+      }
+    }
+  }
+
+  private long getMaxProcessingTime() {
+    return System.currentTimeMillis()
+        + queueDetail.getMaxJobExecutionTime()
+        - DELTA_BETWEEN_RE_ENQUEUE_TIME;
+  }
+}
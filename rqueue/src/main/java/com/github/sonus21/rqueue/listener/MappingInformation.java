@@ -29,18 +29,36 @@ class MappingInformation implements Comparable<MappingInformation> {
   private final boolean delayedQueue;
   private final String deadLetterQueueName;
   private final long maxJobExecutionTime;
+  private final ThreadCount concurrency;
+  private final int batchSize;
+  private final long batchTimeout;
+  private final boolean splitFailedBatch;
+  private final RetryBackOff retryBackOff;
+  private final int partitions;
 
   MappingInformation(
       Set<String> queueNames,
       boolean delayedQueue,
       int numRetries,
       String deadLetterQueueName,
-      long maxJobExecutionTime) {
+      long maxJobExecutionTime,
+      ThreadCount concurrency,
+      int batchSize,
+      long batchTimeout,
+      boolean splitFailedBatch,
+      RetryBackOff retryBackOff,
+      int partitions) {
     this.queueNames = Collections.unmodifiableSet(queueNames);
     this.delayedQueue = delayedQueue;
     this.numRetries = numRetries;
     this.deadLetterQueueName = deadLetterQueueName;
     this.maxJobExecutionTime = maxJobExecutionTime;
+    this.concurrency = concurrency;
+    this.batchSize = batchSize;
+    this.batchTimeout = batchTimeout;
+    this.splitFailedBatch = splitFailedBatch;
+    this.retryBackOff = retryBackOff;
+    this.partitions = partitions;
   }
 
   Set<String> getQueueNames() {
@@ -71,10 +89,41 @@ class MappingInformation implements Comparable<MappingInformation> {
 
   boolean isValid() {
     return getQueueNames().size() > 0
-        && maxJobExecutionTime > MIN_EXECUTION_TIME + DELTA_BETWEEN_RE_ENQUEUE_TIME;
+        && maxJobExecutionTime > MIN_EXECUTION_TIME + DELTA_BETWEEN_RE_ENQUEUE_TIME
+        && (concurrency == null
+            || (concurrency.getCorePoolSize() > 0
+                && concurrency.getMaxPoolSize() >= concurrency.getCorePoolSize()))
+        && (batchSize == -1 || batchSize > 0)
+        && batchTimeout >= 0
+        && (retryBackOff == null || retryBackOff.isValid())
+        && partitions > 0;
   }
 
   public long getMaxJobExecutionTime() {
     return maxJobExecutionTime;
   }
+
+  ThreadCount getConcurrency() {
+    return concurrency;
+  }
+
+  int getBatchSize() {
+    return batchSize;
+  }
+
+  long getBatchTimeout() {
+    return batchTimeout;
+  }
+
+  boolean isSplitFailedBatch() {
+    return splitFailedBatch;
+  }
+
+  RetryBackOff getRetryBackOff() {
+    return retryBackOff;
+  }
+
+  int getPartitions() {
+    return partitions;
+  }
 }
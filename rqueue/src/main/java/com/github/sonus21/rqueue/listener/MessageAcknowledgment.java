@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Acknowledgment of a single delivery of a message. A delivery is completed asynchronously when the
+ * listener method takes the acknowledgment as an argument or returns an asynchronous result, in
+ * that case the message executor post processes the message once the result is available.
+ */
+class MessageAcknowledgment implements Acknowledgment {
+  static final String HEADER_NAME = "RQUEUE_ACKNOWLEDGMENT";
+  private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+  private volatile boolean async = false;
+
+  @Override
+  public void acknowledge() {
+    result.complete(true);
+  }
+
+  @Override
+  public void nack() {
+    result.complete(false);
+  }
+
+  /**
+   * Nack this delivery unless it has been completed already.
+   *
+   * @return whether this call has completed the delivery
+   */
+  boolean expire() {
+    return result.complete(false);
+  }
+
+  void markAsync() {
+    async = true;
+  }
+
+  boolean isAsync() {
+    return async;
+  }
+
+  CompletableFuture<Boolean> getResult() {
+    return result;
+  }
+}
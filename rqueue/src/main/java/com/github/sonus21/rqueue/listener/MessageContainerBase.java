@@ -16,13 +16,17 @@
 
 package com.github.sonus21.rqueue.listener;
 
+import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import java.lang.ref.WeakReference;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import org.slf4j.Logger;
 import org.springframework.messaging.converter.MessageConverter;
 
 public class MessageContainerBase {
+  private static final int MAX_SUBMIT_ATTEMPTS = 10;
+  private static final long SUBMIT_RETRY_DELAY = 5L;
   protected final WeakReference<RqueueMessageListenerContainer> container;
 
   MessageContainerBase(RqueueMessageListenerContainer container) {
@@ -56,4 +60,71 @@ public class MessageContainerBase {
   boolean isQueueActive(String queueName) {
     return container.get().isQueueActive(queueName);
   }
+
+  /**
+   * Hand over fetched messages to the workers, a message that can not be handed over is returned to
+   * the head of its queue.
+   */
+  void executeMessages(
+      QueueThreadPool queueThreadPool, QueueDetail queueDetail, List<RqueueMessage> messages) {
+    String queueName = queueDetail.getQueueName();
+    for (int i = 0; i < messages.size(); i++) {
+      MessageExecutor messageExecutor =
+          new MessageExecutor(messages.get(i), queueDetail, container, queueThreadPool);
+      if (!submit(queueThreadPool, messageExecutor)) {
+        // return this and all remaining messages to the head of the queue, otherwise they would
+        // be stuck in the processing queue until maxJobExecutionTime has elapsed.
+        List<RqueueMessage> rejectedMessages = messages.subList(i, messages.size());
+        queueThreadPool.release(rejectedMessages.size());
+        getLogger()
+            .warn(
+                "Task executor rejected {} messages of the queue {}, returning them to the queue",
+                rejectedMessages.size(),
+                queueName);
+        getRqueueMessageTemplate().returnToQueue(queueName, rejectedMessages);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Hand over a batch of messages to a single worker, the batch is returned to the head of its
+   * queue if it can not be handed over.
+   */
+  void executeBatch(
+      QueueThreadPool queueThreadPool, QueueDetail queueDetail, List<RqueueMessage> messages) {
+    BatchMessageExecutor batchMessageExecutor =
+        new BatchMessageExecutor(messages, queueDetail, container, queueThreadPool);
+    if (!submit(queueThreadPool, batchMessageExecutor)) {
+      queueThreadPool.release();
+      getLogger()
+          .warn(
+              "Task executor rejected a batch of {} messages of the queue {}, returning it to the"
+                  + " queue",
+              messages.size(),
+              queueDetail.getQueueName());
+      getRqueueMessageTemplate().returnToQueue(queueDetail.getQueueName(), messages);
+    }
+  }
+
+  // A worker gives its permit back just before its thread becomes idle, so for a moment the task
+  // executor can reject a task even though a permit has been acquired.
+  private boolean submit(QueueThreadPool queueThreadPool, Runnable task) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        queueThreadPool.execute(task);
+        return true;
+      } catch (RejectedExecutionException e) {
+        if (attempt == MAX_SUBMIT_ATTEMPTS) {
+          return false;
+        }
+      }
+      try {
+        Thread.sleep(SUBMIT_RETRY_DELAY);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
 }
@@ -24,7 +24,12 @@ import com.github.sonus21.rqueue.processor.MessageProcessor;
 import com.github.sonus21.rqueue.utils.MessageUtils;
 import com.github.sonus21.rqueue.utils.QueueUtils;
 import java.lang.ref.WeakReference;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.support.GenericMessage;
 
 class MessageExecutor extends MessageContainerBase implements Runnable {
@@ -32,20 +37,41 @@ class MessageExecutor extends MessageContainerBase implements Runnable {
   private final QueueDetail queueDetail;
   private final Message<String> message;
   private final RqueueMessage rqueueMessage;
+  private final QueueThreadPool queueThreadPool;
 
   MessageExecutor(
       RqueueMessage message,
       QueueDetail queueDetail,
-      WeakReference<RqueueMessageListenerContainer> container) {
+      WeakReference<RqueueMessageListenerContainer> container,
+      QueueThreadPool queueThreadPool) {
     super(container);
     rqueueMessage = message;
     this.queueDetail = queueDetail;
+    this.queueThreadPool = queueThreadPool;
     this.message =
         new GenericMessage<>(
-            message.getMessage(), QueueUtils.getQueueHeaders(queueDetail.getQueueName()));
+            decompress(message), QueueUtils.getQueueHeaders(queueDetail.getLogicalQueueName()));
   }
 
-  private int getMaxRetryCount() {
+  // a message that can not be decompressed fails like a message that can not be converted
+  @SuppressWarnings("ConstantConditions")
+  private String decompress(RqueueMessage message) {
+    if (message.getCompression() == null) {
+      return message.getMessage();
+    }
+    try {
+      return container.get().getMessageCompressor().decompress(message);
+    } catch (MessageConversionException e) {
+      getLogger().error("Message decompression failed {}", message, e);
+      return message.getMessage();
+    }
+  }
+
+  String getPayloadString() {
+    return message.getPayload();
+  }
+
+  int getMaxRetryCount() {
     int maxRetryCount =
         rqueueMessage.getRetryCount() == null
             ? queueDetail.getNumRetries()
@@ -57,6 +83,13 @@ class MessageExecutor extends MessageContainerBase implements Runnable {
     return maxRetryCount;
   }
 
+  // every delivery attempt gets its own acknowledgment
+  private Message<String> getMessage(MessageAcknowledgment acknowledgment) {
+    Map<String, Object> headers = new HashMap<>(message.getHeaders());
+    headers.put(MessageAcknowledgment.HEADER_NAME, acknowledgment);
+    return new GenericMessage<>(message.getPayload(), headers);
+  }
+
   private Object getPayload() {
     return MessageUtils.convertMessageToObject(message, getMessageConverters());
   }
@@ -86,18 +119,18 @@ class MessageExecutor extends MessageContainerBase implements Runnable {
       return;
     }
     if (failOrExecution) {
-      rqueueCounter.updateFailureCount(queueDetail.getQueueName());
+      rqueueCounter.updateFailureCount(queueDetail.getLogicalQueueName());
     } else {
-      rqueueCounter.updateExecutionCount(queueDetail.getQueueName());
+      rqueueCounter.updateExecutionCount(queueDetail.getLogicalQueueName());
     }
   }
 
-  private void handlePostProcessing(boolean executed, int currentFailureCount, int maxRetryCount) {
+  @SuppressWarnings("ConstantConditions")
+  void handlePostProcessing(boolean executed, int currentFailureCount, int maxRetryCount) {
     if (!isQueueActive(queueDetail.getQueueName())) {
       return;
     }
     try {
-      String processingQueueName = QueueUtils.getProcessingQueueName(queueDetail.getQueueName());
       if (!executed) {
         // move to DLQ
         if (queueDetail.isDlqSet()) {
@@ -105,16 +138,18 @@ class MessageExecutor extends MessageContainerBase implements Runnable {
           newMessage.setFailureCount(currentFailureCount);
           newMessage.updateReEnqueuedAt();
           callMessageProcessor(false, newMessage);
-          // No transaction??
-          getRqueueMessageTemplate().add(queueDetail.getDlqName(), newMessage);
-          getRqueueMessageTemplate().removeFromZset(processingQueueName, rqueueMessage);
+          releaseGroup();
+          getRqueueMessageTemplate()
+              .moveToDeadLetter(
+                  queueDetail.getQueueName(), queueDetail.getDlqName(), rqueueMessage, newMessage);
         } else if (currentFailureCount < maxRetryCount) {
           // replace the existing message with the update message
           // this will reflect new retry count
           RqueueMessage newMessage = rqueueMessage.clone();
           newMessage.setFailureCount(currentFailureCount);
           newMessage.updateReEnqueuedAt();
-          getRqueueMessageTemplate().replaceMessage(processingQueueName, rqueueMessage, newMessage);
+          getRqueueMessageTemplate()
+              .updateProcessingMessage(queueDetail.getQueueName(), rqueueMessage, newMessage);
         } else {
           // discard this message
           getLogger()
@@ -122,32 +157,68 @@ class MessageExecutor extends MessageContainerBase implements Runnable {
                   "Message {} discarded due to retry limit queue: {}",
                   getPayload(),
                   queueDetail.getQueueName());
-          getRqueueMessageTemplate().removeFromZset(processingQueueName, rqueueMessage);
+          releaseGroup();
+          getRqueueMessageTemplate().discard(queueDetail.getQueueName(), rqueueMessage);
           callMessageProcessor(true, rqueueMessage);
         }
       } else {
-        getLogger().debug("Delete Queue: {} message: {}", processingQueueName, rqueueMessage);
+        getLogger()
+            .debug("Delete Queue: {} message: {}", queueDetail.getQueueName(), rqueueMessage);
+        releaseGroup();
         // delete it from processing queue
-        getRqueueMessageTemplate().removeFromZset(processingQueueName, rqueueMessage);
+        AcknowledgementBuffer acknowledgementBuffer =
+            container.get().getAcknowledgementBuffer(queueDetail.getQueueName());
+        if (acknowledgementBuffer != null) {
+          acknowledgementBuffer.add(rqueueMessage);
+        } else {
+          getRqueueMessageTemplate().acknowledge(queueDetail.getQueueName(), rqueueMessage);
+        }
       }
     } catch (Exception e) {
       getLogger().error("Error occurred in post processing", e);
     }
   }
 
+  // the group is released before this message is removed from the processing queue, if it fails
+  // in between then the message would be consumed again instead of blocking its group forever
+  private void releaseGroup() {
+    if (rqueueMessage.getGroupKey() != null) {
+      getRqueueMessageTemplate().releaseGroup(queueDetail.getQueueName(), rqueueMessage);
+    }
+  }
+
   @Override
   public void run() {
+    boolean completedAsynchronously = false;
+    try {
+      completedAsynchronously = execute();
+    } finally {
+      // this worker is free now, let the listener fetch another message
+      queueThreadPool.releaseWorker();
+      if (!completedAsynchronously) {
+        queueThreadPool.releaseInFlight();
+      }
+    }
+  }
+
+  // returns true if the message would be completed asynchronously
+  private boolean execute() {
     boolean executed = false;
     int currentFailureCount = rqueueMessage.getFailureCount();
     int maxRetryCount = getMaxRetryCount();
     long maxRetryTime = getMaxProcessingTime();
     do {
       if (!isQueueActive(queueDetail.getQueueName())) {
-        return;
+        return false;
       }
       try {
         updateCounter(false);
-        getMessageHandler().handleMessage(message);
+        MessageAcknowledgment acknowledgment = new MessageAcknowledgment();
+        getMessageHandler().handleMessage(getMessage(acknowledgment));
+        if (acknowledgment.isAsync()) {
+          completeAsynchronously(acknowledgment, currentFailureCount, maxRetryCount);
+          return true;
+        }
         executed = true;
       } catch (Exception e) {
         updateCounter(true);
@@ -155,10 +226,114 @@ class MessageExecutor extends MessageContainerBase implements Runnable {
       }
     } while (currentFailureCount < maxRetryCount
         && !executed
+        && !queueDetail.isRetryBackOffEnabled()
         && System.currentTimeMillis() < maxRetryTime);
+    handleResult(executed, currentFailureCount, maxRetryCount);
+    return false;
+  }
+
+  // a failed message that has retries left is retried once its back off delay has elapsed
+  void handleResult(boolean executed, int currentFailureCount, int maxRetryCount) {
+    if (!executed && queueDetail.isRetryBackOffEnabled() && currentFailureCount < maxRetryCount) {
+      scheduleRetry(currentFailureCount);
+      return;
+    }
     handlePostProcessing(executed, currentFailureCount, maxRetryCount);
   }
 
+  // the worker is released once this has returned, the message is post processed on completion,
+  // a delivery that has not been completed within max job execution time is treated as a nack. The
+  // in flight permit acquired before the message was fetched is released on completion.
+  @SuppressWarnings("ConstantConditions")
+  private void completeAsynchronously(
+      MessageAcknowledgment acknowledgment, int currentFailureCount, int maxRetryCount) {
+    long maxJobExecutionTime = queueDetail.getMaxJobExecutionTime();
+    ScheduledFuture<?> timeout =
+        container
+            .get()
+            .getCompletionTimeoutScheduler()
+            .schedule(
+                () -> {
+                  if (acknowledgment.expire()) {
+                    getLogger()
+                        .warn(
+                            "Queue: {} message {} was not acknowledged within {} Ms",
+                            queueDetail.getQueueName(),
+                            rqueueMessage,
+                            maxJobExecutionTime);
+                  }
+                },
+                new Date(System.currentTimeMillis() + maxJobExecutionTime));
+    acknowledgment
+        .getResult()
+        .whenCompleteAsync(
+            (acknowledged, throwable) -> {
+              timeout.cancel(false);
+              try {
+                onCompletion(Boolean.TRUE.equals(acknowledged), currentFailureCount, maxRetryCount);
+              } finally {
+                queueThreadPool.releaseInFlight();
+              }
+            },
+            container.get().getCompletionExecutor());
+  }
+
+  private void onCompletion(boolean acknowledged, int failureCount, int maxRetryCount) {
+    if (acknowledged) {
+      handlePostProcessing(true, failureCount, maxRetryCount);
+      return;
+    }
+    updateCounter(true);
+    int currentFailureCount = failureCount + 1;
+    if (currentFailureCount >= maxRetryCount) {
+      handlePostProcessing(false, currentFailureCount, maxRetryCount);
+    } else if (queueDetail.isRetryBackOffEnabled()) {
+      scheduleRetry(currentFailureCount);
+    } else {
+      retryLater(currentFailureCount);
+    }
+  }
+
+  // the message would be consumed again once max job execution time has elapsed
+  private void retryLater(int currentFailureCount) {
+    if (!isQueueActive(queueDetail.getQueueName())) {
+      return;
+    }
+    try {
+      RqueueMessage newMessage = rqueueMessage.clone();
+      newMessage.setFailureCount(currentFailureCount);
+      newMessage.updateReEnqueuedAt();
+      getRqueueMessageTemplate()
+          .updateProcessingMessage(queueDetail.getQueueName(), rqueueMessage, newMessage);
+    } catch (Exception e) {
+      getLogger().error("Error occurred while updating failure count", e);
+    }
+  }
+
+  // release this worker, the message would be retried once its back off delay has elapsed
+  private void scheduleRetry(int currentFailureCount) {
+    if (!isQueueActive(queueDetail.getQueueName())) {
+      return;
+    }
+    try {
+      RqueueMessage newMessage = rqueueMessage.clone();
+      newMessage.setFailureCount(currentFailureCount);
+      newMessage.updateReEnqueuedAt();
+      long delay = queueDetail.getRetryBackOff().getDelay(currentFailureCount);
+      newMessage.setProcessAt(System.currentTimeMillis() + delay);
+      getLogger()
+          .debug(
+              "Queue: {} retrying message {} in {} Ms",
+              queueDetail.getQueueName(),
+              rqueueMessage,
+              delay);
+      getRqueueMessageTemplate()
+          .scheduleRetry(queueDetail.getQueueName(), rqueueMessage, newMessage);
+    } catch (Exception e) {
+      getLogger().error("Error occurred while scheduling retry", e);
+    }
+  }
+
   private long getMaxProcessingTime() {
     return System.currentTimeMillis() + queueDetail.getMaxJobExecutionTime() - DELTA_BETWEEN_RE_ENQUEUE_TIME;
   }
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A poller fetches messages of many queues using a single thread, messages of all queues that are
+ * ready to be polled are fetched in a single Redis call. A queue that has returned messages is
+ * polled again immediately, while an empty queue is polled after a back off time that doubles on
+ * every empty poll up to the max polling interval. A message notification resets the back off time
+ * of the notified queue.
+ *
+ * <p>Queues sharing workers, like partitions of a queue, get free workers in turns, since every
+ * poll starts from the queue next to the one the previous poll has started from.
+ */
+class MultiQueuePoller extends MessageContainerBase implements Runnable {
+  // how long a poller should wait when all ready queues are waiting for a free worker
+  private static final long WORKER_WAIT_TIME = 5L;
+  private final Map<String, QueueState> queueStateByName = new LinkedHashMap<>();
+  private final List<QueueState> queueStates = new ArrayList<>();
+  private final QueueSignal queueSignal = new QueueSignal();
+  private int startIndex;
+
+  MultiQueuePoller(RqueueMessageListenerContainer container, List<QueueDetail> queueDetails) {
+    super(container);
+    for (QueueDetail queueDetail : queueDetails) {
+      QueueState queueState = new QueueState(queueDetail);
+      queueStateByName.put(queueDetail.getQueueName(), queueState);
+      queueStates.add(queueState);
+    }
+  }
+
+  List<String> getQueueNames() {
+    return new ArrayList<>(queueStateByName.keySet());
+  }
+
+  /**
+   * Wake up this poller, the notified queue would be polled immediately.
+   *
+   * @param queueName name of the queue that has got new messages
+   */
+  void wakeUp(String queueName) {
+    QueueState queueState = queueStateByName.get(queueName);
+    if (queueState != null) {
+      queueState.notified.set(true);
+      queueSignal.signal();
+    }
+  }
+
+  void wakeUp() {
+    queueSignal.signal();
+  }
+
+  private boolean isActive() {
+    for (String queueName : queueStateByName.keySet()) {
+      if (isQueueActive(queueName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void run() {
+    getLogger().debug("Running poller for queues {}", queueStateByName.keySet());
+    while (isActive()) {
+      try {
+        poll();
+      } catch (InterruptedException e) {
+        getLogger().warn("Poller of the queues {} has been interrupted", queueStateByName.keySet());
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        getLogger()
+            .warn(
+                "Poller failed for the queues {}, it will be retried in {} Ms",
+                queueStateByName.keySet(),
+                getBackOffTime(),
+                e);
+        try {
+          Thread.sleep(getBackOffTime());
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void poll() throws InterruptedException {
+    long currentTime = System.currentTimeMillis();
+    long nextPollTime = currentTime + getMaxPollingInterval();
+    boolean waitingForWorker = false;
+    List<QueueState> readyQueues = new ArrayList<>();
+    int queueCount = queueStates.size();
+    startIndex = (startIndex + 1) % queueCount;
+    for (int i = 0; i < queueCount; i++) {
+      QueueState queueState = queueStates.get((startIndex + i) % queueCount);
+      if (queueState.notified.getAndSet(false)) {
+        queueState.resetBackOff();
+      }
+      if (!isQueueActive(queueState.queueName)) {
+        continue;
+      }
+      if (queueState.nextPollTime > currentTime) {
+        nextPollTime = Math.min(nextPollTime, queueState.nextPollTime);
+        continue;
+      }
+      // never fetch more messages than the number of free workers
+      queueState.permits = queueState.getQueueThreadPool().tryAcquire(getBatchSize());
+      if (queueState.permits == 0) {
+        waitingForWorker = true;
+      } else {
+        readyQueues.add(queueState);
+      }
+    }
+    if (readyQueues.isEmpty()) {
+      long waitTime = waitingForWorker ? WORKER_WAIT_TIME : nextPollTime - currentTime;
+      queueSignal.await(Math.max(waitTime, 1L));
+      return;
+    }
+    List<List<RqueueMessage>> messages = getMessages(readyQueues);
+    for (int i = 0; i < readyQueues.size(); i++) {
+      QueueState queueState = readyQueues.get(i);
+      List<RqueueMessage> queueMessages =
+          i < messages.size() && messages.get(i) != null
+              ? messages.get(i)
+              : Collections.emptyList();
+      QueueThreadPool queueThreadPool = queueState.getQueueThreadPool();
+      queueThreadPool.release(queueState.permits - queueMessages.size());
+      queueState.permits = 0;
+      if (queueMessages.isEmpty()) {
+        queueState.backOff(currentTime);
+      } else {
+        queueState.resetBackOff();
+        executeMessages(queueThreadPool, queueState.queueDetail, queueMessages);
+      }
+    }
+  }
+
+  private List<List<RqueueMessage>> getMessages(List<QueueState> readyQueues) {
+    List<String> queueNames = new ArrayList<>();
+    List<Long> maxJobExecutionTimes = new ArrayList<>();
+    List<Integer> counts = new ArrayList<>();
+    for (QueueState queueState : readyQueues) {
+      queueNames.add(queueState.queueName);
+      maxJobExecutionTimes.add(queueState.queueDetail.getMaxJobExecutionTime());
+      counts.add(queueState.permits);
+    }
+    try {
+      List<List<RqueueMessage>> messages =
+          getRqueueMessageTemplate().pop(queueNames, maxJobExecutionTimes, counts);
+      getLogger().debug("Queues: {} Fetched Msgs {}", queueNames, messages);
+      return messages;
+    } catch (RuntimeException e) {
+      for (QueueState queueState : readyQueues) {
+        queueState.getQueueThreadPool().release(queueState.permits);
+        queueState.permits = 0;
+      }
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private long getPollingInterval() {
+    return container.get().getPollingInterval();
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private long getMaxPollingInterval() {
+    return Math.max(getPollingInterval(), container.get().getMaxPollingInterval());
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private int getBatchSize() {
+    return container.get().getBatchSize();
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private long getBackOffTime() {
+    return container.get().getBackOffTime();
+  }
+
+  private class QueueState {
+    private final String queueName;
+    private final QueueDetail queueDetail;
+    private final AtomicBoolean notified = new AtomicBoolean(false);
+    private long nextPollTime;
+    private long backOffTime;
+    private int permits;
+
+    private QueueState(QueueDetail queueDetail) {
+      this.queueName = queueDetail.getQueueName();
+      this.queueDetail = queueDetail;
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private QueueThreadPool getQueueThreadPool() {
+      return container.get().getQueueThreadPool(queueName);
+    }
+
+    private void backOff(long currentTime) {
+      if (backOffTime == 0) {
+        backOffTime = getPollingInterval();
+      } else {
+        backOffTime = Math.min(2 * backOffTime, getMaxPollingInterval());
+      }
+      nextPollTime = currentTime + backOffTime;
+    }
+
+    private void resetBackOff() {
+      backOffTime = 0;
+      nextPollTime = 0;
+    }
+  }
+}
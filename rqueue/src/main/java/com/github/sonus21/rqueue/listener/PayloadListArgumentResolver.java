@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Resolves the payload of a batch listener, the payload of a batch is the list of serialized
+ * messages and each of them is converted to the element type of the list parameter. Any other
+ * payload is resolved by the delegate.
+ */
+class PayloadListArgumentResolver implements HandlerMethodArgumentResolver {
+  private final MessageConverter messageConverter;
+  private final HandlerMethodArgumentResolver delegate;
+
+  PayloadListArgumentResolver(
+      MessageConverter messageConverter, HandlerMethodArgumentResolver delegate) {
+    this.messageConverter = messageConverter;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return delegate.supportsParameter(parameter);
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, Message<?> message) throws Exception {
+    if (!(message.getPayload() instanceof List)
+        || !List.class.isAssignableFrom(parameter.getParameterType())) {
+      return delegate.resolveArgument(parameter, message);
+    }
+    Class<?> elementType =
+        ResolvableType.forMethodParameter(parameter).asCollection().resolveGeneric(0);
+    if (elementType == null) {
+      elementType = Object.class;
+    }
+    List<?> payloads = (List<?>) message.getPayload();
+    List<Object> result = new ArrayList<>(payloads.size());
+    for (Object payload : payloads) {
+      // same as the payload argument resolver, no conversion is required
+      if (elementType.isInstance(payload) && elementType != Object.class) {
+        result.add(payload);
+        continue;
+      }
+      Object value =
+          messageConverter.fromMessage(
+              new GenericMessage<>(payload, message.getHeaders()), elementType);
+      if (value == null) {
+        throw new MessageConversionException(
+            message, "Cannot convert " + payload + " to " + elementType.getName());
+      }
+      result.add(value);
+    }
+    return result;
+  }
+}
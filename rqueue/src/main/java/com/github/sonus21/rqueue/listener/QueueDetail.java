@@ -16,12 +16,21 @@
 
 package com.github.sonus21.rqueue.listener;
 
+import com.github.sonus21.rqueue.utils.QueueUtils;
+
 public class QueueDetail {
   private final String queueName;
   private final boolean delayedQueue;
   private final String dlqName;
   private final int numRetries;
   private final long maxJobExecutionTime;
+  private final ThreadCount concurrency;
+  private final int batchSize;
+  private final long batchTimeout;
+  private final boolean splitFailedBatch;
+  private final RetryBackOff retryBackOff;
+  private final String logicalQueueName;
+  private final int partitions;
 
   public QueueDetail(
       String queueName,
@@ -29,11 +38,72 @@ public class QueueDetail {
       String deadLetterQueueName,
       boolean delayedQueue,
       long maxJobExecutionTime) {
+    this(
+        queueName,
+        numRetries,
+        deadLetterQueueName,
+        delayedQueue,
+        maxJobExecutionTime,
+        null,
+        -1,
+        0,
+        false,
+        null,
+        1);
+  }
+
+  QueueDetail(
+      String queueName,
+      int numRetries,
+      String deadLetterQueueName,
+      boolean delayedQueue,
+      long maxJobExecutionTime,
+      ThreadCount concurrency,
+      int batchSize,
+      long batchTimeout,
+      boolean splitFailedBatch,
+      RetryBackOff retryBackOff,
+      int partitions) {
+    this(
+        queueName,
+        queueName,
+        partitions,
+        numRetries,
+        deadLetterQueueName,
+        delayedQueue,
+        maxJobExecutionTime,
+        concurrency,
+        batchSize,
+        batchTimeout,
+        splitFailedBatch,
+        retryBackOff);
+  }
+
+  private QueueDetail(
+      String queueName,
+      String logicalQueueName,
+      int partitions,
+      int numRetries,
+      String deadLetterQueueName,
+      boolean delayedQueue,
+      long maxJobExecutionTime,
+      ThreadCount concurrency,
+      int batchSize,
+      long batchTimeout,
+      boolean splitFailedBatch,
+      RetryBackOff retryBackOff) {
     this.queueName = queueName;
+    this.logicalQueueName = logicalQueueName;
+    this.partitions = partitions;
     this.numRetries = numRetries;
     this.delayedQueue = delayedQueue;
     this.dlqName = deadLetterQueueName;
     this.maxJobExecutionTime = maxJobExecutionTime;
+    this.concurrency = concurrency;
+    this.batchSize = batchSize;
+    this.batchTimeout = batchTimeout;
+    this.splitFailedBatch = splitFailedBatch;
+    this.retryBackOff = retryBackOff;
   }
 
   public String getQueueName() {
@@ -59,4 +129,71 @@ public class QueueDetail {
   public long getMaxJobExecutionTime() {
     return maxJobExecutionTime;
   }
+
+  /** @return min and max number of workers of this queue, null if it uses the shared workers */
+  ThreadCount getConcurrency() {
+    return concurrency;
+  }
+
+  /** @return whether the listener of this queue receives a list of messages */
+  public boolean isBatchListener() {
+    return batchSize > 0;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public long getBatchTimeout() {
+    return batchTimeout;
+  }
+
+  public boolean isSplitFailedBatch() {
+    return splitFailedBatch;
+  }
+
+  /** @return whether a failed message is retried through the delayed queue */
+  public boolean isRetryBackOffEnabled() {
+    return retryBackOff != null;
+  }
+
+  RetryBackOff getRetryBackOff() {
+    return retryBackOff;
+  }
+
+  /**
+   * @return name of the queue used by the listener and the metrics, this is different from the
+   *     queue name only for a partition of a partitioned queue
+   */
+  public String getLogicalQueueName() {
+    return logicalQueueName;
+  }
+
+  /** @return number of partitions of the logical queue */
+  public int getPartitions() {
+    return partitions;
+  }
+
+  /**
+   * Create details of a partition of this queue, all partitions share the configuration of this
+   * queue.
+   *
+   * @param partition partition number
+   * @return details of the partition
+   */
+  public QueueDetail getPartition(int partition) {
+    return new QueueDetail(
+        QueueUtils.getPartitionName(queueName, partition),
+        queueName,
+        partitions,
+        numRetries,
+        dlqName,
+        delayedQueue,
+        maxJobExecutionTime,
+        concurrency,
+        batchSize,
+        batchTimeout,
+        splitFailedBatch,
+        retryBackOff);
+  }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A signal used to park a queue listener while its queue is empty. A signal raised before the
+ * listener starts waiting is not lost, the next wait returns immediately.
+ */
+class QueueSignal {
+  private final Lock lock = new ReentrantLock();
+  private final Condition condition = lock.newCondition();
+  private boolean signalled = false;
+
+  void signal() {
+    lock.lock();
+    try {
+      signalled = true;
+      condition.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait until this signal is raised or the timeout has elapsed.
+   *
+   * @param timeoutInMilliSecs maximum time to wait
+   * @return true if the signal was raised, false on timeout
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  boolean await(long timeoutInMilliSecs) throws InterruptedException {
+    lock.lock();
+    try {
+      long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMilliSecs);
+      while (!signalled && nanos > 0) {
+        nanos = condition.awaitNanos(nanos);
+      }
+      boolean result = signalled;
+      signalled = false;
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
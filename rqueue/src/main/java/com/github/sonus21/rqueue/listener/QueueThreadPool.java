@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static com.github.sonus21.rqueue.utils.Constants.DEFAULT_MAX_IN_FLIGHT_MESSAGES;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * A task executor along with the number of workers available to run tasks. A queue listener
+ * acquires a permit before fetching a message and the permit is released once the message has been
+ * executed, so a message is never moved to the processing queue unless a worker can run it.
+ *
+ * <p>A permit is made of a worker and an in flight message. A message that is completed
+ * asynchronously gives its worker back as soon as the listener method returns, but it holds its in
+ * flight message until it has been completed, so no message is fetched while the in flight limit
+ * has been reached.
+ */
+class QueueThreadPool {
+  private final AsyncTaskExecutor taskExecutor;
+  private final Semaphore semaphore;
+  private final Semaphore inFlightSemaphore;
+
+  QueueThreadPool(AsyncTaskExecutor taskExecutor, int maxWorkers) {
+    this(taskExecutor, maxWorkers, DEFAULT_MAX_IN_FLIGHT_MESSAGES);
+  }
+
+  QueueThreadPool(AsyncTaskExecutor taskExecutor, int maxWorkers, int maxInFlightMessages) {
+    this.taskExecutor = taskExecutor;
+    this.semaphore = new Semaphore(maxWorkers);
+    this.inFlightSemaphore = new Semaphore(maxInFlightMessages);
+  }
+
+  /**
+   * Acquire permits for at most maxPermits messages, it waits for the first permit until the
+   * timeout has elapsed while the remaining permits are acquired only if they are available.
+   *
+   * @param maxPermits maximum number of permits to acquire
+   * @param timeoutInMilliSecs maximum time to wait for the first permit
+   * @return number of acquired permits, zero if no worker became available or too many messages
+   *     are in flight
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  int acquire(int maxPermits, long timeoutInMilliSecs) throws InterruptedException {
+    long endTime = System.currentTimeMillis() + timeoutInMilliSecs;
+    if (!inFlightSemaphore.tryAcquire(timeoutInMilliSecs, TimeUnit.MILLISECONDS)) {
+      return 0;
+    }
+    long remainingTime = Math.max(endTime - System.currentTimeMillis(), 0L);
+    boolean acquired = false;
+    try {
+      acquired = semaphore.tryAcquire(remainingTime, TimeUnit.MILLISECONDS);
+    } finally {
+      if (!acquired) {
+        inFlightSemaphore.release();
+      }
+    }
+    if (!acquired) {
+      return 0;
+    }
+    return 1 + tryAcquire(maxPermits - 1);
+  }
+
+  /**
+   * Acquire permits for at most maxPermits messages without waiting.
+   *
+   * @param maxPermits maximum number of permits to acquire
+   * @return number of acquired permits
+   */
+  int tryAcquire(int maxPermits) {
+    int acquired = 0;
+    while (acquired < maxPermits && inFlightSemaphore.tryAcquire()) {
+      if (!semaphore.tryAcquire()) {
+        inFlightSemaphore.release();
+        break;
+      }
+      acquired += 1;
+    }
+    return acquired;
+  }
+
+  /** Release an unused permit, the message has not been fetched or could not be executed. */
+  void release() {
+    release(1);
+  }
+
+  void release(int permits) {
+    if (permits > 0) {
+      semaphore.release(permits);
+      inFlightSemaphore.release(permits);
+    }
+  }
+
+  // the worker is free, its message might still be in flight
+  void releaseWorker() {
+    semaphore.release();
+  }
+
+  // the message has been completed
+  void releaseInFlight() {
+    inFlightSemaphore.release();
+  }
+
+  int availablePermits() {
+    return semaphore.availablePermits();
+  }
+
+  int availableInFlightPermits() {
+    return inFlightSemaphore.availablePermits();
+  }
+
+  void execute(Runnable task) {
+    taskExecutor.execute(task);
+  }
+}
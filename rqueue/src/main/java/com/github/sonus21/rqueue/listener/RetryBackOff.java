@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential back off of a failed message, the delay before the nth retry is initial delay *
+ * multiplier^(n-1) capped at max delay. Jitter randomly increases the delay by up to the given
+ * fraction, still capped at max delay, so that messages failed together are not retried together.
+ */
+class RetryBackOff {
+  private final long initialDelay;
+  private final double multiplier;
+  private final long maxDelay;
+  private final double jitter;
+
+  RetryBackOff(long initialDelay, double multiplier, long maxDelay, double jitter) {
+    this.initialDelay = initialDelay;
+    this.multiplier = multiplier;
+    this.maxDelay = maxDelay;
+    this.jitter = jitter;
+  }
+
+  long getInitialDelay() {
+    return initialDelay;
+  }
+
+  double getMultiplier() {
+    return multiplier;
+  }
+
+  long getMaxDelay() {
+    return maxDelay;
+  }
+
+  double getJitter() {
+    return jitter;
+  }
+
+  boolean isValid() {
+    return initialDelay > 0
+        && multiplier >= 1
+        && maxDelay >= initialDelay
+        && jitter >= 0
+        && jitter <= 1;
+  }
+
+  /**
+   * @param failureCount number of times the message has failed so far
+   * @return delay in milliseconds before the message should be retried
+   */
+  long getDelay(int failureCount) {
+    double delay = initialDelay * Math.pow(multiplier, Math.max(0, failureCount - 1));
+    delay = Math.min(delay, maxDelay);
+    if (jitter > 0) {
+      delay = Math.min(delay + delay * jitter * ThreadLocalRandom.current().nextDouble(), maxDelay);
+    }
+    return Math.max(1, (long) delay);
+  }
+
+  @Override
+  public String toString() {
+    return initialDelay + " " + multiplier + " " + maxDelay + " " + jitter;
+  }
+}
@@ -64,13 +64,19 @@ public class RqueueMessageHandler extends AbstractMethodMessageHandler<MappingIn
     List<HandlerMethodArgumentResolver> resolvers = new ArrayList<>(getCustomArgumentResolvers());
     CompositeMessageConverter compositeMessageConverter =
         new CompositeMessageConverter(getMessageConverters());
-    resolvers.add(new PayloadArgumentResolver(compositeMessageConverter));
+    resolvers.add(new AcknowledgmentArgumentResolver());
+    resolvers.add(
+        new PayloadListArgumentResolver(
+            compositeMessageConverter, new PayloadArgumentResolver(compositeMessageConverter)));
     return resolvers;
   }
 
   @Override
   protected List<? extends HandlerMethodReturnValueHandler> initReturnValueHandlers() {
-    return new ArrayList<>(getCustomReturnValueHandlers());
+    List<HandlerMethodReturnValueHandler> handlers =
+        new ArrayList<>(getCustomReturnValueHandlers());
+    handlers.add(new AsyncResultReturnValueHandler());
+    return handlers;
   }
 
   @Override
@@ -91,8 +97,19 @@ public class RqueueMessageHandler extends AbstractMethodMessageHandler<MappingIn
                   getApplicationContext(), rqueueListener.numRetries()),
               resolveDelayedQueue(rqueueListener.deadLetterQueue()),
               ValueResolver.resolveValueToLong(
-                  getApplicationContext(), rqueueListener.maxJobExecutionTime()));
+                  getApplicationContext(), rqueueListener.maxJobExecutionTime()),
+              resolveConcurrency(rqueueListener.concurrency()),
+              ValueResolver.resolveValueToInteger(
+                  getApplicationContext(), rqueueListener.batchSize()),
+              ValueResolver.resolveValueToLong(
+                  getApplicationContext(), rqueueListener.batchTimeout()),
+              ValueResolver.resolveToBoolean(
+                  getApplicationContext(), rqueueListener.splitFailedBatch()),
+              resolveRetryBackOff(rqueueListener),
+              ValueResolver.resolveValueToInteger(
+                  getApplicationContext(), rqueueListener.partitions()));
       if (mappingInformation.isValid()) {
+        validateBatchListener(method, mappingInformation);
         return mappingInformation;
       }
       logger.warn("Queue '" + mappingInformation + "' not configured properly");
@@ -100,6 +117,21 @@ public class RqueueMessageHandler extends AbstractMethodMessageHandler<MappingIn
     return null;
   }
 
+  // messages of a batch are delivered as a list, a method without a list parameter would fail with
+  // a conversion error on every batch
+  private void validateBatchListener(Method method, MappingInformation mappingInformation) {
+    if (mappingInformation.getBatchSize() <= 0) {
+      return;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (List.class.isAssignableFrom(parameterType)) {
+        return;
+      }
+    }
+    throw new IllegalStateException(
+        "Batch listener method '" + method + "' must accept a List of messages");
+  }
+
   private String resolveDelayedQueue(String dlqName) {
     String[] resolvedValues =
         ValueResolver.resolveValueToArrayOfStrings(getApplicationContext(), dlqName);
@@ -110,6 +142,44 @@ public class RqueueMessageHandler extends AbstractMethodMessageHandler<MappingIn
         "more than one dead letter queue can not be configure '" + dlqName + "'");
   }
 
+  private ThreadCount resolveConcurrency(String concurrency) {
+    String[] resolvedValues =
+        ValueResolver.resolveValueToArrayOfStrings(getApplicationContext(), concurrency);
+    if (resolvedValues.length != 1) {
+      throw new IllegalStateException("Invalid concurrency '" + concurrency + "'");
+    }
+    String value = resolvedValues[0].trim();
+    if (value.equals("-1")) {
+      return null;
+    }
+    try {
+      int index = value.indexOf('-');
+      if (index == -1) {
+        return new ThreadCount(1, Integer.parseInt(value));
+      }
+      return new ThreadCount(
+          Integer.parseInt(value.substring(0, index).trim()),
+          Integer.parseInt(value.substring(index + 1).trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("Invalid concurrency '" + concurrency + "'", e);
+    }
+  }
+
+  private RetryBackOff resolveRetryBackOff(RqueueListener rqueueListener) {
+    long initialDelay =
+        ValueResolver.resolveValueToLong(getApplicationContext(), rqueueListener.retryBackOff());
+    if (initialDelay == -1) {
+      return null;
+    }
+    return new RetryBackOff(
+        initialDelay,
+        ValueResolver.resolveValueToDouble(
+            getApplicationContext(), rqueueListener.retryBackOffMultiplier()),
+        ValueResolver.resolveValueToLong(getApplicationContext(), rqueueListener.maxRetryBackOff()),
+        ValueResolver.resolveValueToDouble(
+            getApplicationContext(), rqueueListener.retryBackOffJitter()));
+  }
+
   private Set<String> resolveQueueNames(String[] queueNames) {
     Set<String> result = new HashSet<>(queueNames.length);
     for (String queueName : queueNames) {
@@ -16,18 +16,31 @@
 
 package com.github.sonus21.rqueue.listener;
 
+import static com.github.sonus21.rqueue.utils.Constants.DEFAULT_MAX_IN_FLIGHT_MESSAGES;
+import static com.github.sonus21.rqueue.utils.Constants.DEFAULT_VIRTUAL_THREAD_COUNT_PER_QUEUE;
 import static com.github.sonus21.rqueue.utils.Constants.DEFAULT_WORKER_COUNT_PER_QUEUE;
 
+import com.github.sonus21.rqueue.compression.MessageCompressor;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.event.QueueInitializationEvent;
 import com.github.sonus21.rqueue.metrics.RqueueCounter;
 import com.github.sonus21.rqueue.processor.MessageProcessor;
+import com.github.sonus21.rqueue.producer.RqueueMessageSender;
 import com.github.sonus21.rqueue.utils.Constants;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.SchedulerFactory;
+import com.github.sonus21.rqueue.utils.ThreadUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
@@ -39,7 +52,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.SmartLifecycle;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
@@ -57,6 +78,12 @@ public class RqueueMessageListenerContainer
   @Autowired(required = false)
   RqueueCounter rqueueCounter;
 
+  @Autowired(required = false)
+  private RedisMessageListenerContainer redisMessageListenerContainer;
+
+  @Autowired(required = false)
+  private RqueueMessageSender rqueueMessageSender;
+
   private Integer maxNumWorkers;
   private String beanName;
   private boolean defaultTaskExecutor = false;
@@ -70,6 +97,29 @@ public class RqueueMessageListenerContainer
   private long backOffTime = 5 * Constants.ONE_MILLI;
   private long maxWorkerWaitTime = 20 * Constants.ONE_MILLI;
   private long pollingInterval = 200L;
+  private int batchSize = 1;
+  private boolean messageNotificationEnabled = false;
+  private Map<String, String> channelNameToQueueName = new ConcurrentHashMap<>();
+  private Map<String, QueueSignal> queueNameToQueueSignal = new ConcurrentHashMap<>();
+  private MessageListener queueNotificationListener = new QueueNotificationListener();
+  private Map<String, QueueThreadPool> queueNameToQueueThreadPool = new ConcurrentHashMap<>();
+  private Map<String, ThreadPoolTaskExecutor> queueNameToTaskExecutor = new ConcurrentHashMap<>();
+  private boolean virtualThreadsEnabled = false;
+  private int virtualThreadCountPerQueue = DEFAULT_VIRTUAL_THREAD_COUNT_PER_QUEUE;
+  private ExecutorService virtualThreadExecutor;
+  private Integer pollerCount;
+  private long maxPollingInterval = 2 * Constants.ONE_MILLI;
+  private List<MultiQueuePoller> pollers = new ArrayList<>();
+  private Map<String, MultiQueuePoller> queueNameToPoller = new ConcurrentHashMap<>();
+  private Integer ackBatchSize;
+  private long ackFlushInterval = 5L;
+  private Map<String, AcknowledgementBuffer> queueNameToAckBuffer = new ConcurrentHashMap<>();
+  private ThreadPoolTaskScheduler ackFlushScheduler;
+  private ScheduledFuture<?> ackFlushFuture;
+  private int maxInFlightMessages = DEFAULT_MAX_IN_FLIGHT_MESSAGES;
+  private ThreadPoolTaskExecutor completionExecutor;
+  private ThreadPoolTaskScheduler completionTimeoutScheduler;
+  private MessageCompressor messageCompressor = new MessageCompressor();
   private int phase = Integer.MAX_VALUE;
   @Autowired private ApplicationEventPublisher applicationEventPublisher;
 
@@ -121,6 +171,36 @@ public class RqueueMessageListenerContainer
     this.maxNumWorkers = maxNumWorkers;
   }
 
+  public boolean isVirtualThreadsEnabled() {
+    return virtualThreadsEnabled;
+  }
+
+  /**
+   * Run queue listeners and message handlers on virtual threads, this requires Java 21 or later.
+   * Worker count is no longer bounded by a thread pool, instead each queue can run at most
+   * {@link #setVirtualThreadCountPerQueue(int)} messages concurrently. This mode can not be used
+   * along with a custom task executor.
+   *
+   * @param virtualThreadsEnabled whether virtual threads should be used or not
+   */
+  public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+    this.virtualThreadsEnabled = virtualThreadsEnabled;
+  }
+
+  public int getVirtualThreadCountPerQueue() {
+    return virtualThreadCountPerQueue;
+  }
+
+  /**
+   * Maximum number of messages of a queue that can be executed concurrently when virtual threads
+   * are enabled.
+   *
+   * @param virtualThreadCountPerQueue number of concurrent executions per queue
+   */
+  public void setVirtualThreadCountPerQueue(int virtualThreadCountPerQueue) {
+    this.virtualThreadCountPerQueue = virtualThreadCountPerQueue;
+  }
+
   public long getBackOffTime() {
     return backOffTime;
   }
@@ -138,12 +218,27 @@ public class RqueueMessageListenerContainer
   }
 
   protected void doDestroy() {
+    if (completionExecutor != null) {
+      completionExecutor.destroy();
+    }
+    if (completionTimeoutScheduler != null) {
+      completionTimeoutScheduler.destroy();
+    }
+    if (ackFlushScheduler != null) {
+      ackFlushScheduler.destroy();
+    }
+    if (virtualThreadExecutor != null) {
+      virtualThreadExecutor.shutdownNow();
+    }
     if (defaultTaskExecutor && taskExecutor != null) {
       ((ThreadPoolTaskExecutor) taskExecutor).destroy();
     }
     if (spinningTaskExecutor != null) {
       ((ThreadPoolTaskExecutor) spinningTaskExecutor).destroy();
     }
+    for (ThreadPoolTaskExecutor queueTaskExecutor : queueNameToTaskExecutor.values()) {
+      queueTaskExecutor.destroy();
+    }
   }
 
   @Override
@@ -186,19 +281,44 @@ public class RqueueMessageListenerContainer
           rqueueMessageHandler.getHandlerMethods().keySet()) {
         for (String queue : mappingInformation.getQueueNames()) {
           QueueDetail queueDetail = getQueueDetail(queue, mappingInformation);
-          registeredQueues.put(queue, queueDetail);
+          if (queueDetail.getPartitions() == 1) {
+            checkDeadLetterQueue(queueDetail);
+            registeredQueues.put(queue, queueDetail);
+            continue;
+          }
+          // every partition is polled and scheduled like a queue of its own
+          for (int partition = 0; partition < queueDetail.getPartitions(); partition++) {
+            QueueDetail partitionDetail = queueDetail.getPartition(partition);
+            registeredQueues.put(partitionDetail.getQueueName(), partitionDetail);
+          }
         }
       }
       registeredQueues = Collections.unmodifiableMap(registeredQueues);
       lifecycleMgr.notifyAll();
     }
-    if (taskExecutor == null) {
+    if (pollerCount != null) {
+      initializePollers();
+    }
+    if (messageNotificationEnabled) {
+      initializeQueueSignals();
+    }
+    if (virtualThreadsEnabled) {
+      createVirtualThreadTaskExecutor();
+    } else if (taskExecutor == null) {
       defaultTaskExecutor = true;
       taskExecutor = createDefaultTaskExecutor();
     } else {
       spinningTaskExecutor = createSpinningTaskExecutor();
     }
+    initializeQueueThreadPools();
     initializeRunningQueueState();
+    completionExecutor = createCompletionExecutor();
+    completionTimeoutScheduler =
+        SchedulerFactory.createThreadPoolTaskScheduler(
+            1, getThreadNamePrefix() + "completionTimeout-", 60);
+    if (ackBatchSize != null) {
+      initializeAcknowledgementBuffers();
+    }
   }
 
   protected AsyncTaskExecutor getSpinningTaskExecutor() {
@@ -213,6 +333,157 @@ public class RqueueMessageListenerContainer
     return registeredQueues;
   }
 
+  private void initializeQueueSignals() {
+    KeyNamingStrategy keyNamingStrategy = getRqueueMessageTemplate().getKeyNamingStrategy();
+    for (String queue : getRegisteredQueues().keySet()) {
+      channelNameToQueueName.put(keyNamingStrategy.getQueueChannelName(queue), queue);
+      // pollers are woken up by the queue name
+      if (!queueNameToPoller.containsKey(queue)) {
+        queueNameToQueueSignal.put(queue, new QueueSignal());
+      }
+    }
+  }
+
+  private void initializePollers() {
+    List<QueueDetail> queueDetails = new ArrayList<>();
+    for (QueueDetail queueDetail : getRegisteredQueues().values()) {
+      // a batch has to be collected over multiple polls, so batch queues have their own listener
+      if (!queueDetail.isBatchListener()) {
+        queueDetails.add(queueDetail);
+      }
+    }
+    int numPollers = Math.min(pollerCount, queueDetails.size());
+    // distribute queues among pollers in round robin manner
+    for (int i = 0; i < numPollers; i++) {
+      List<QueueDetail> pollerQueueDetails = new ArrayList<>();
+      for (int j = i; j < queueDetails.size(); j += numPollers) {
+        pollerQueueDetails.add(queueDetails.get(j));
+      }
+      MultiQueuePoller poller = new MultiQueuePoller(this, pollerQueueDetails);
+      pollers.add(poller);
+      for (QueueDetail queueDetail : pollerQueueDetails) {
+        queueNameToPoller.put(queueDetail.getQueueName(), poller);
+      }
+    }
+  }
+
+  private void initializeAcknowledgementBuffers() {
+    for (String queue : getRegisteredQueues().keySet()) {
+      queueNameToAckBuffer.put(queue, new AcknowledgementBuffer(this, queue, ackBatchSize));
+    }
+    ackFlushScheduler =
+        SchedulerFactory.createThreadPoolTaskScheduler(
+            1, getThreadNamePrefix() + "ackFlusher-", 60);
+  }
+
+  private void flushAcknowledgementBuffers() {
+    for (AcknowledgementBuffer acknowledgementBuffer : queueNameToAckBuffer.values()) {
+      acknowledgementBuffer.flush();
+    }
+  }
+
+  AcknowledgementBuffer getAcknowledgementBuffer(String queueName) {
+    return queueNameToAckBuffer.get(queueName);
+  }
+
+  private void createVirtualThreadTaskExecutor() {
+    if (taskExecutor != null) {
+      throw new IllegalStateException("Virtual threads can not be used with a task executor");
+    }
+    virtualThreadExecutor = ThreadUtils.newVirtualThreadPerTaskExecutor(getThreadNamePrefix());
+    // listeners and message executors, both are run on virtual threads
+    taskExecutor = new ConcurrentTaskExecutor(virtualThreadExecutor);
+  }
+
+  private void initializeQueueThreadPools() {
+    QueueThreadPool sharedQueueThreadPool = null;
+    // partitions of a queue share the workers of the queue
+    Map<String, QueueThreadPool> logicalQueueNameToQueueThreadPool = new HashMap<>();
+    for (QueueDetail queueDetail : getRegisteredQueues().values()) {
+      String queue = queueDetail.getQueueName();
+      ThreadCount concurrency = queueDetail.getConcurrency();
+      QueueThreadPool queueThreadPool =
+          logicalQueueNameToQueueThreadPool.get(queueDetail.getLogicalQueueName());
+      if (queueThreadPool != null) {
+        queueNameToQueueThreadPool.put(queue, queueThreadPool);
+        continue;
+      }
+      if (virtualThreadsEnabled) {
+        int workerCount =
+            concurrency == null ? virtualThreadCountPerQueue : concurrency.getMaxPoolSize();
+        queueThreadPool = new QueueThreadPool(taskExecutor, workerCount, maxInFlightMessages);
+      } else if (concurrency != null) {
+        queueThreadPool =
+            new QueueThreadPool(
+                createQueueTaskExecutor(queueDetail.getLogicalQueueName(), concurrency),
+                concurrency.getMaxPoolSize(),
+                maxInFlightMessages);
+      } else {
+        if (sharedQueueThreadPool == null) {
+          sharedQueueThreadPool =
+              new QueueThreadPool(taskExecutor, getWorkerCount(), maxInFlightMessages);
+        }
+        queueThreadPool = sharedQueueThreadPool;
+      }
+      logicalQueueNameToQueueThreadPool.put(queueDetail.getLogicalQueueName(), queueThreadPool);
+      queueNameToQueueThreadPool.put(queue, queueThreadPool);
+    }
+  }
+
+  // threads above the lower limit are terminated once they have been idle for keep alive seconds
+  private AsyncTaskExecutor createQueueTaskExecutor(String queueName, ThreadCount concurrency) {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setThreadNamePrefix(getThreadNamePrefix() + queueName + "-");
+    threadPoolTaskExecutor.setCorePoolSize(concurrency.getCorePoolSize());
+    threadPoolTaskExecutor.setMaxPoolSize(concurrency.getMaxPoolSize());
+    threadPoolTaskExecutor.setQueueCapacity(0);
+    threadPoolTaskExecutor.afterPropertiesSet();
+    queueNameToTaskExecutor.put(queueName, threadPoolTaskExecutor);
+    return threadPoolTaskExecutor;
+  }
+
+  // asynchronously completed messages are post processed here, since a future can be completed by
+  // a thread that must not be blocked by Redis calls
+  private ThreadPoolTaskExecutor createCompletionExecutor() {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setThreadNamePrefix(getThreadNamePrefix() + "completion-");
+    threadPoolTaskExecutor.setCorePoolSize(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    threadPoolTaskExecutor.afterPropertiesSet();
+    return threadPoolTaskExecutor;
+  }
+
+  AsyncTaskExecutor getCompletionExecutor() {
+    return completionExecutor;
+  }
+
+  TaskScheduler getCompletionTimeoutScheduler() {
+    return completionTimeoutScheduler;
+  }
+
+  // number of queues that do not have their own workers
+  private int getSharedQueueCount() {
+    int count = 0;
+    for (QueueDetail queueDetail : getRegisteredQueues().values()) {
+      if (queueDetail.getConcurrency() == null) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  private int getWorkerCount() {
+    if (getMaxNumWorkers() != null) {
+      return getMaxNumWorkers();
+    }
+    if (defaultTaskExecutor) {
+      return getSharedQueueCount() * DEFAULT_WORKER_COUNT_PER_QUEUE;
+    }
+    if (taskExecutor instanceof ThreadPoolTaskExecutor) {
+      return ((ThreadPoolTaskExecutor) taskExecutor).getMaxPoolSize();
+    }
+    return Integer.MAX_VALUE;
+  }
+
   private void initializeRunningQueueState() {
     for (String queue : getRegisteredQueues().keySet()) {
       queueRunningState.put(queue, false);
@@ -221,22 +492,27 @@ public class RqueueMessageListenerContainer
 
   private ThreadCount getThreadCount(boolean onlySpinning) {
     int queueSize = getRegisteredQueues().size();
-    int corePoolSize = onlySpinning ? queueSize : queueSize + queueSize;
+    int sharedQueueCount = getSharedQueueCount();
+    int spinningThreadCount = queueSize - queueNameToPoller.size() + pollers.size();
+    int corePoolSize = onlySpinning ? spinningThreadCount : spinningThreadCount + sharedQueueCount;
     int maxPoolSize =
         onlySpinning
-            ? queueSize
-            : queueSize
+            ? spinningThreadCount
+            : spinningThreadCount
                 + (getMaxNumWorkers() == null
-                    ? queueSize * DEFAULT_WORKER_COUNT_PER_QUEUE
+                    ? sharedQueueCount * DEFAULT_WORKER_COUNT_PER_QUEUE
                     : getMaxNumWorkers());
     return new ThreadCount(corePoolSize, maxPoolSize);
   }
 
-  private AsyncTaskExecutor createTaskExecutor(boolean onlySpinningThread) {
+  private String getThreadNamePrefix() {
     String name = getBeanName();
+    return name != null ? name + "-" : DEFAULT_THREAD_NAME_PREFIX;
+  }
+
+  private AsyncTaskExecutor createTaskExecutor(boolean onlySpinningThread) {
     ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
-    threadPoolTaskExecutor.setThreadNamePrefix(
-        name != null ? name + "-" : DEFAULT_THREAD_NAME_PREFIX);
+    threadPoolTaskExecutor.setThreadNamePrefix(getThreadNamePrefix());
     ThreadCount threadCount = getThreadCount(onlySpinningThread);
     if (threadCount.getCorePoolSize() > 0) {
       threadPoolTaskExecutor.setCorePoolSize(threadCount.getCorePoolSize());
@@ -251,13 +527,38 @@ public class RqueueMessageListenerContainer
     return createTaskExecutor(false);
   }
 
+  // messages are moved to a dead letter queue in another slot in two steps and can be in both
+  private void checkDeadLetterQueue(QueueDetail queueDetail) {
+    if (!queueDetail.isDlqSet()) {
+      return;
+    }
+    String queueName = queueDetail.getQueueName();
+    if (getRqueueMessageTemplate()
+        .getKeyNamingStrategy()
+        .isCrossSlot(Arrays.asList(queueName, queueDetail.getDlqName()))) {
+      logger.warn(
+          "Dead letter queue '{}' of the queue '{}' is in another slot of Redis cluster, a message"
+              + " is added to it before it's removed from the queue. Use a name like '{}' to"
+              + " keep them in the same slot.",
+          queueDetail.getDlqName(),
+          queueName,
+          "{" + queueName + "}-dlq");
+    }
+  }
+
   private QueueDetail getQueueDetail(String queue, MappingInformation mappingInformation) {
     return new QueueDetail(
         queue,
         mappingInformation.getNumRetries(),
         mappingInformation.getDeadLetterQueueName(),
         mappingInformation.isDelayedQueue(),
-        mappingInformation.getMaxJobExecutionTime());
+        mappingInformation.getMaxJobExecutionTime(),
+        mappingInformation.getConcurrency(),
+        mappingInformation.getBatchSize(),
+        mappingInformation.getBatchTimeout(),
+        mappingInformation.isSplitFailedBatch(),
+        mappingInformation.getRetryBackOff(),
+        mappingInformation.getPartitions());
   }
 
   @Override
@@ -265,6 +566,7 @@ public class RqueueMessageListenerContainer
     logger.info("Starting Rqueue Message container");
     synchronized (lifecycleMgr) {
       running = true;
+      initializeSenderPartitions();
       doStart();
       applicationEventPublisher.publishEvent(
           new QueueInitializationEvent("Container", registeredQueues, true));
@@ -272,8 +574,32 @@ public class RqueueMessageListenerContainer
     }
   }
 
+  // messages of a partitioned queue are sent to the partitions polled by this container
+  private void initializeSenderPartitions() {
+    if (rqueueMessageSender == null) {
+      return;
+    }
+    Map<String, Integer> queueNameToPartitions = new HashMap<>();
+    for (QueueDetail queueDetail : registeredQueues.values()) {
+      if (queueDetail.getPartitions() > 1) {
+        queueNameToPartitions.put(queueDetail.getLogicalQueueName(), queueDetail.getPartitions());
+      }
+    }
+    queueNameToPartitions.forEach(rqueueMessageSender::setPartitions);
+  }
+
   protected void doStart() {
+    subscribeToQueueNotifications();
+    if (ackFlushScheduler != null) {
+      ackFlushFuture =
+          ackFlushScheduler.scheduleAtFixedRate(
+              this::flushAcknowledgementBuffers, ackFlushInterval);
+    }
+    startPollers();
     for (Map.Entry<String, QueueDetail> registeredQueue : getRegisteredQueues().entrySet()) {
+      if (queueNameToPoller.containsKey(registeredQueue.getKey())) {
+        continue;
+      }
       QueueDetail queueDetail = registeredQueue.getValue();
       startQueue(registeredQueue.getKey(), queueDetail);
     }
@@ -295,6 +621,63 @@ public class RqueueMessageListenerContainer
     scheduledFutureByQueue.put(queueName, future);
   }
 
+  private void startPollers() {
+    for (MultiQueuePoller poller : pollers) {
+      List<String> queueNames = poller.getQueueNames();
+      for (String queueName : queueNames) {
+        queueRunningState.put(queueName, true);
+      }
+      Future<?> future;
+      if (spinningTaskExecutor == null) {
+        future = getTaskExecutor().submit(poller);
+      } else {
+        future = spinningTaskExecutor.submit(poller);
+      }
+      for (String queueName : queueNames) {
+        scheduledFutureByQueue.put(queueName, future);
+      }
+    }
+  }
+
+  private void subscribeToQueueNotifications() {
+    if (channelNameToQueueName.isEmpty()) {
+      return;
+    }
+    if (redisMessageListenerContainer == null) {
+      logger.warn(
+          "Message notification is enabled but RedisMessageListenerContainer is not available, "
+              + "queues would be polled at every {} Ms",
+          getPollingInterval());
+      return;
+    }
+    List<Topic> topics = new ArrayList<>();
+    for (String channelName : channelNameToQueueName.keySet()) {
+      topics.add(new ChannelTopic(channelName));
+    }
+    redisMessageListenerContainer.addMessageListener(queueNotificationListener, topics);
+  }
+
+  private void unsubscribeFromQueueNotifications() {
+    if (!channelNameToQueueName.isEmpty() && redisMessageListenerContainer != null) {
+      redisMessageListenerContainer.removeMessageListener(queueNotificationListener);
+    }
+    // wake up all waiting listeners, so that they can see the updated state
+    for (QueueSignal queueSignal : queueNameToQueueSignal.values()) {
+      queueSignal.signal();
+    }
+    for (MultiQueuePoller poller : pollers) {
+      poller.wakeUp();
+    }
+  }
+
+  QueueSignal getQueueSignal(String queueName) {
+    return queueNameToQueueSignal.get(queueName);
+  }
+
+  QueueThreadPool getQueueThreadPool(String queueName) {
+    return queueNameToQueueThreadPool.get(queueName);
+  }
+
   boolean isQueueActive(String queueName) {
     return queueRunningState.getOrDefault(queueName, false);
   }
@@ -325,7 +708,14 @@ public class RqueueMessageListenerContainer
         stopQueue(runningStateByQueue.getKey());
       }
     }
+    unsubscribeFromQueueNotifications();
     waitForRunningQueuesToStop();
+    if (ackFlushFuture != null) {
+      ackFlushFuture.cancel(false);
+      ackFlushFuture = null;
+    }
+    // acknowledge whatever has been executed so far
+    flushAcknowledgementBuffers();
   }
 
   private void waitForRunningQueuesToStop() {
@@ -369,6 +759,145 @@ public class RqueueMessageListenerContainer
     this.pollingInterval = pollingInterval;
   }
 
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Maximum number of messages fetched from a queue in a single Redis call. A listener never
+   * fetches more messages than the number of free workers, so a call can return fewer messages
+   * than the batch size when most of the workers are busy.
+   *
+   * @param batchSize number of messages to fetch in one call
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public boolean isMessageNotificationEnabled() {
+    return messageNotificationEnabled;
+  }
+
+  /**
+   * Enable message notification, a listener waits for a notification instead of sleeping for the
+   * polling interval whenever its queue is empty. Notifications are published by Redis PUB/SUB
+   * whenever a message is added to an empty queue or moved from delayed/processing queue. Polling
+   * interval is still used as the maximum wait time, so that a missed notification can not stall
+   * the queue.
+   *
+   * @param messageNotificationEnabled true/false
+   */
+  public void setMessageNotificationEnabled(boolean messageNotificationEnabled) {
+    this.messageNotificationEnabled = messageNotificationEnabled;
+  }
+
+  public Integer getPollerCount() {
+    return pollerCount;
+  }
+
+  /**
+   * By default every queue has its own listener thread that polls the queue. When poller count is
+   * set, queues are distributed among the given number of pollers, a poller fetches messages of
+   * all its ready queues in a single Redis call and backs off empty queues individually. This
+   * reduces the number of threads and Redis calls when a container has many queues.
+   *
+   * @param pollerCount number of poller threads
+   */
+  public void setPollerCount(int pollerCount) {
+    this.pollerCount = pollerCount;
+  }
+
+  public long getMaxPollingInterval() {
+    return maxPollingInterval;
+  }
+
+  /**
+   * Used by pollers only, the polling interval of an empty queue is doubled on every empty poll up
+   * to this value, a message notification resets it back to zero.
+   *
+   * @param maxPollingInterval in milliseconds
+   */
+  public void setMaxPollingInterval(long maxPollingInterval) {
+    this.maxPollingInterval = maxPollingInterval;
+  }
+
+  public Integer getAckBatchSize() {
+    return ackBatchSize;
+  }
+
+  /**
+   * By default an executed message is removed from the processing queue using one Redis call per
+   * message. When ack batch size is set, acknowledgements of a queue are buffered and removed using
+   * a single ZREM call once the given number of messages have been executed or the ack flush
+   * interval has elapsed, whichever happens first.
+   *
+   * @param ackBatchSize maximum number of acknowledgements in a single Redis call
+   */
+  public void setAckBatchSize(int ackBatchSize) {
+    this.ackBatchSize = ackBatchSize;
+  }
+
+  public long getAckFlushInterval() {
+    return ackFlushInterval;
+  }
+
+  /**
+   * Used only when ack batch size is set, this is the maximum time an executed message stays in
+   * the processing queue before its acknowledgement is flushed. Default value is 5 milliseconds.
+   *
+   * @param ackFlushInterval in milliseconds
+   */
+  public void setAckFlushInterval(long ackFlushInterval) {
+    this.ackFlushInterval = ackFlushInterval;
+  }
+
+  public int getMaxInFlightMessages() {
+    return maxInFlightMessages;
+  }
+
+  /**
+   * A message is completed asynchronously when its listener method takes an {@link Acknowledgment}
+   * argument or returns a CompletableFuture, Mono etc, such a message releases its worker as soon
+   * as the listener method has returned. This limits the number of messages of a worker pool that
+   * are being processed or not yet completed, no message is fetched from Redis while the limit is
+   * reached. Default value is 1000.
+   *
+   * @param maxInFlightMessages maximum number of incomplete messages
+   */
+  public void setMaxInFlightMessages(int maxInFlightMessages) {
+    this.maxInFlightMessages = maxInFlightMessages;
+  }
+
+  public MessageCompressor getMessageCompressor() {
+    return messageCompressor;
+  }
+
+  /**
+   * Message compressor used to decompress compressed messages, it must have all the codecs used by
+   * producers of the queues. By default only deflate compressed messages can be decompressed.
+   *
+   * @param messageCompressor message compressor
+   */
+  public void setMessageCompressor(MessageCompressor messageCompressor) {
+    this.messageCompressor = messageCompressor;
+  }
+
+  public RqueueMessageSender getRqueueMessageSender() {
+    return rqueueMessageSender;
+  }
+
+  /**
+   * Message sender of the queues of this container, the number of partitions of every partitioned
+   * queue is set on the sender when the container is started, so messages sent by the sender are
+   * spread across the polled partitions. A sender bean is used by default.
+   *
+   * @param rqueueMessageSender message sender
+   * @see RqueueMessageSender#setPartitions(String, int)
+   */
+  public void setRqueueMessageSender(RqueueMessageSender rqueueMessageSender) {
+    this.rqueueMessageSender = rqueueMessageSender;
+  }
+
   public MessageProcessor getDiscardMessageProcessor() {
     return discardMessageProcessor;
   }
@@ -376,4 +905,24 @@ public class RqueueMessageListenerContainer
   public MessageProcessor getDlqMessageProcessor() {
     return dlqMessageProcessor;
   }
+
+  private class QueueNotificationListener implements MessageListener {
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+      String channel = new String(message.getChannel());
+      String queueName = channelNameToQueueName.get(channel);
+      if (queueName == null) {
+        logger.warn("Unknown channel name {}", channel);
+        return;
+      }
+      QueueSignal queueSignal = queueNameToQueueSignal.get(queueName);
+      if (queueSignal != null) {
+        queueSignal.signal();
+      }
+      MultiQueuePoller poller = queueNameToPoller.get(queueName);
+      if (poller != null) {
+        poller.wakeUp(queueName);
+      }
+    }
+  }
 }
@@ -18,13 +18,17 @@ package com.github.sonus21.rqueue.metrics;
 
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.listener.QueueDetail;
-import com.github.sonus21.rqueue.utils.QueueUtils;
 import com.github.sonus21.rqueue.event.QueueInitializationEvent;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Gauge.Builder;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import org.springframework.context.ApplicationListener;
 
 /**
@@ -32,6 +36,9 @@ import org.springframework.context.ApplicationListener;
  * queue.size, processing.queue.size and other two depends on the queue configurations. For delayed
  * queue messages can be in delayed queue because time has not reached. Some messages can be in dead
  * letter queue if dead letter queue is configured.
+ *
+ * <p>Metrics of a partitioned queue are the sum of its partitions, they are tagged with the queue
+ * name.
  */
 public class RqueueMetrics implements ApplicationListener<QueueInitializationEvent> {
   private static final String QUEUE_SIZE = "queue.size";
@@ -67,27 +74,53 @@ public class RqueueMetrics implements ApplicationListener<QueueInitializationEve
     return val;
   }
 
-  private void monitor(Map<String, QueueDetail> queueDetailMap) {
+  private long size(List<String> names, boolean isZset) {
+    long size = 0;
+    for (String name : names) {
+      size += size(name, isZset);
+    }
+    return size;
+  }
+
+  // partitions of a queue are reported as a single queue
+  private Map<String, List<QueueDetail>> groupByLogicalQueueName(
+      Map<String, QueueDetail> queueDetailMap) {
+    Map<String, List<QueueDetail>> queueDetailsByName = new LinkedHashMap<>();
     for (QueueDetail queueDetail : queueDetailMap.values()) {
-      Tags queueTags =
-          Tags.concat(metricsProperties.getMetricTags(), "queue", queueDetail.getQueueName());
-      Gauge.builder(QUEUE_SIZE, queueDetail, c -> size(queueDetail.getQueueName(), false))
+      queueDetailsByName
+          .computeIfAbsent(queueDetail.getLogicalQueueName(), k -> new ArrayList<>())
+          .add(queueDetail);
+    }
+    return queueDetailsByName;
+  }
+
+  private void monitor(Map<String, QueueDetail> queueDetailMap) {
+    KeyNamingStrategy keyNamingStrategy = rqueueMessageTemplate.getKeyNamingStrategy();
+    for (Entry<String, List<QueueDetail>> entry :
+        groupByLogicalQueueName(queueDetailMap).entrySet()) {
+      String queueName = entry.getKey();
+      QueueDetail queueDetail = entry.getValue().get(0);
+      List<String> queueNames = new ArrayList<>();
+      List<String> processingQueueNames = new ArrayList<>();
+      List<String> delayedQueueNames = new ArrayList<>();
+      for (QueueDetail partition : entry.getValue()) {
+        queueNames.add(partition.getQueueName());
+        processingQueueNames.add(
+            keyNamingStrategy.getProcessingQueueName(partition.getQueueName()));
+        delayedQueueNames.add(keyNamingStrategy.getTimeQueueName(partition.getQueueName()));
+      }
+      Tags queueTags = Tags.concat(metricsProperties.getMetricTags(), "queue", queueName);
+      Gauge.builder(QUEUE_SIZE, queueDetail, c -> size(queueNames, false))
           .tags(queueTags)
           .description("The number of entries in this queue")
           .register(meterRegistry);
-      Gauge.builder(
-              PROCESSING_QUEUE_SIZE,
-              queueDetail,
-              c -> size(QueueUtils.getProcessingQueueName(queueDetail.getQueueName()), true))
+      Gauge.builder(PROCESSING_QUEUE_SIZE, queueDetail, c -> size(processingQueueNames, true))
           .tags(queueTags)
           .description("The number of entries in the processing queue")
           .register(meterRegistry);
 
       if (queueDetail.isDelayedQueue()) {
-        Gauge.builder(
-                DELAYED_QUEUE_SIZE,
-                queueDetail,
-                c -> size(QueueUtils.getTimeQueueName(queueDetail.getQueueName()), true))
+        Gauge.builder(DELAYED_QUEUE_SIZE, queueDetail, c -> size(delayedQueueNames, true))
             .tags(queueTags)
             .description("The number of entries waiting in the delayed queue")
             .register(meterRegistry);
@@ -100,8 +133,7 @@ public class RqueueMetrics implements ApplicationListener<QueueInitializationEve
         builder.description("The number of entries in the dead letter queue");
         builder.register(meterRegistry);
       }
-      queueCounter.registerQueue(
-          metricsProperties, queueTags, meterRegistry, queueDetail.getQueueName());
+      queueCounter.registerQueue(metricsProperties, queueTags, meterRegistry, queueName);
     }
   }
 
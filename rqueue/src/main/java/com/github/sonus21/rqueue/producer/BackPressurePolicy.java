@@ -0,0 +1,28 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.producer;
+
+/** Decides what happens when a message is sent asynchronously and the send buffer is full. */
+public enum BackPressurePolicy {
+  /** Calling thread waits till buffered messages have been sent and there is space again. */
+  BLOCK,
+  /**
+   * Returned future is completed exceptionally with a {@link
+   * java.util.concurrent.RejectedExecutionException}.
+   */
+  REJECT
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.producer;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import com.github.sonus21.rqueue.utils.SchedulerFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Accumulates messages sent asynchronously, messages of a queue are added to Redis using a single
+ * bulk call once the batch is full or the linger time of the batch has elapsed. Batches are sent by
+ * a single background thread, so callers never wait for Redis, except when the buffer is full and
+ * back pressure policy is {@link BackPressurePolicy#BLOCK}.
+ *
+ * <p>Futures are completed on the background thread, messages added after the accumulator has
+ * been closed are failed with {@link IllegalStateException}.
+ */
+class MessageAccumulator {
+  private static Logger logger = LoggerFactory.getLogger(MessageAccumulator.class);
+  private final RqueueMessageTemplate messageTemplate;
+  private final int batchSize;
+  private final long lingerTime;
+  private final BackPressurePolicy backPressurePolicy;
+  private final Semaphore bufferPermits;
+  private final ThreadPoolTaskScheduler scheduler;
+  private final Map<String, Batch> immediateBatches = new HashMap<>();
+  private final Map<String, Batch> delayedBatches = new HashMap<>();
+  private volatile boolean closed;
+
+  MessageAccumulator(
+      RqueueMessageTemplate messageTemplate,
+      int batchSize,
+      long lingerTime,
+      int bufferSize,
+      BackPressurePolicy backPressurePolicy) {
+    this.messageTemplate = messageTemplate;
+    this.batchSize = batchSize;
+    this.lingerTime = lingerTime;
+    this.backPressurePolicy = backPressurePolicy;
+    bufferPermits = new Semaphore(bufferSize);
+    scheduler = SchedulerFactory.createThreadPoolTaskScheduler(1, "rqueueMessageSender-", 60);
+    // buffered messages must be sent on close
+    scheduler.setWaitForTasksToCompleteOnShutdown(true);
+  }
+
+  CompletableFuture<String> add(String queueName, RqueueMessage message, boolean delayed) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    if (closed) {
+      future.completeExceptionally(new IllegalStateException("Message sender has been closed"));
+      return future;
+    }
+    if (!acquire()) {
+      future.completeExceptionally(
+          new RejectedExecutionException("Send buffer is full, queue: " + queueName));
+      return future;
+    }
+    // tasks are scheduled holding the lock, close can not shut the scheduler down in between
+    synchronized (this) {
+      if (closed) {
+        bufferPermits.release();
+        future.completeExceptionally(new IllegalStateException("Message sender has been closed"));
+        return future;
+      }
+      Map<String, Batch> batches = delayed ? delayedBatches : immediateBatches;
+      Batch batch = batches.get(queueName);
+      if (batch == null) {
+        batch = new Batch(queueName, delayed);
+        Batch lingering = batch;
+        try {
+          batch.lingerTask =
+              scheduler.schedule(
+                  () -> flush(lingering), new Date(System.currentTimeMillis() + lingerTime));
+        } catch (RejectedExecutionException e) {
+          bufferPermits.release();
+          future.completeExceptionally(e);
+          return future;
+        }
+        batches.put(queueName, batch);
+      }
+      batch.messages.add(message);
+      batch.futures.add(future);
+      if (batch.messages.size() >= batchSize) {
+        batches.remove(queueName);
+        batch.lingerTask.cancel(false);
+        submit(batch);
+      }
+    }
+    return future;
+  }
+
+  private void submit(Batch batch) {
+    try {
+      scheduler.execute(() -> send(batch));
+    } catch (RejectedExecutionException e) {
+      fail(batch, e);
+    }
+  }
+
+  private void fail(Batch batch, Exception e) {
+    for (CompletableFuture<String> future : batch.futures) {
+      future.completeExceptionally(e);
+    }
+    bufferPermits.release(batch.messages.size());
+  }
+
+  private boolean acquire() {
+    if (backPressurePolicy == BackPressurePolicy.REJECT) {
+      return bufferPermits.tryAcquire();
+    }
+    try {
+      bufferPermits.acquire();
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  // linger time of this batch has elapsed, it's sent unless it was full and has been sent already
+  private void flush(Batch batch) {
+    synchronized (this) {
+      Map<String, Batch> batches = batch.delayed ? delayedBatches : immediateBatches;
+      if (batches.get(batch.queueName) != batch) {
+        return;
+      }
+      batches.remove(batch.queueName);
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    try {
+      if (batch.delayed) {
+        messageTemplate.addAllWithDelay(batch.queueName, batch.messages);
+      } else {
+        messageTemplate.addAll(batch.queueName, batch.messages);
+      }
+      for (int i = 0; i < batch.messages.size(); i++) {
+        batch.futures.get(i).complete(batch.messages.get(i).getId());
+      }
+      bufferPermits.release(batch.messages.size());
+    } catch (Exception e) {
+      logger.error(
+          "{} messages could not be pushed, queue: {}", batch.messages.size(), batch.queueName, e);
+      fail(batch, e);
+    }
+  }
+
+  /** Send all the buffered messages and stop the background thread. */
+  void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      List<Batch> batches = new ArrayList<>(immediateBatches.values());
+      batches.addAll(delayedBatches.values());
+      immediateBatches.clear();
+      delayedBatches.clear();
+      for (Batch batch : batches) {
+        batch.lingerTask.cancel(false);
+        submit(batch);
+      }
+    }
+    scheduler.destroy();
+  }
+
+  private static class Batch {
+    private final String queueName;
+    private final boolean delayed;
+    private final List<RqueueMessage> messages = new ArrayList<>();
+    private final List<CompletableFuture<String>> futures = new ArrayList<>();
+    private ScheduledFuture<?> lingerTask;
+
+    Batch(String queueName, boolean delayed) {
+      this.queueName = queueName;
+      this.delayed = delayed;
+    }
+  }
+}
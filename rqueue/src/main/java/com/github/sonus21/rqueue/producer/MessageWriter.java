@@ -18,8 +18,12 @@ package com.github.sonus21.rqueue.producer;
 
 import static com.github.sonus21.rqueue.utils.Constants.MIN_DELAY;
 
+import com.github.sonus21.rqueue.compression.MessageCompressor;
 import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import com.github.sonus21.rqueue.converter.GenericMessageConverter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,12 +31,14 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.messaging.support.GenericMessage;
 
 class MessageWriter {
   private static Logger logger = LoggerFactory.getLogger(RqueueMessageSender.class);
   private RqueueMessageTemplate rqueueMessageTemplate;
   private CompositeMessageConverter messageConverter;
+  private MessageCompressor messageCompressor = new MessageCompressor();
 
   MessageWriter(
       RqueueMessageTemplate rqueueMessageTemplate, List<MessageConverter> messageConverters) {
@@ -46,13 +52,40 @@ class MessageWriter {
     messageConverter = compositeMessageConverter;
   }
 
+  static List<MessageConverter> getMessageConverters(
+      boolean addDefault, List<MessageConverter> messageConverters) {
+    List<MessageConverter> messageConverterList = new ArrayList<>();
+    StringMessageConverter stringMessageConverter = new StringMessageConverter();
+    stringMessageConverter.setSerializedPayloadClass(String.class);
+    messageConverterList.add(stringMessageConverter);
+    if (addDefault) {
+      messageConverterList.add(new GenericMessageConverter());
+    }
+    messageConverterList.addAll(messageConverters);
+    return messageConverterList;
+  }
+
+  static boolean isDelayed(Long delayInMilliSecs) {
+    return delayInMilliSecs != null && delayInMilliSecs > MIN_DELAY;
+  }
+
   boolean pushMessage(String queueName, Object message, Integer retryCount, Long delayInMilliSecs) {
+    return pushMessage(queueName, queueName, message, retryCount, delayInMilliSecs);
+  }
+
+  // a message is built for the queue and stored in the given partition of the queue
+  boolean pushMessage(
+      String queueName,
+      String partitionName,
+      Object message,
+      Integer retryCount,
+      Long delayInMilliSecs) {
     RqueueMessage rqueueMessage = buildMessage(queueName, message, retryCount, delayInMilliSecs);
     try {
-      if (delayInMilliSecs == null || delayInMilliSecs <= MIN_DELAY) {
-        rqueueMessageTemplate.add(queueName, rqueueMessage);
+      if (isDelayed(delayInMilliSecs)) {
+        rqueueMessageTemplate.addWithDelay(partitionName, rqueueMessage);
       } else {
-        rqueueMessageTemplate.addWithDelay(queueName, rqueueMessage);
+        rqueueMessageTemplate.add(partitionName, rqueueMessage);
       }
     } catch (Exception e) {
       logger.error("Message could not be pushed ", e);
@@ -61,17 +94,78 @@ class MessageWriter {
     return true;
   }
 
-  private RqueueMessage buildMessage(
+  // the message is consumed once all earlier messages of its group have been consumed
+  boolean pushGroupMessage(
+      String queueName, String partitionName, Object message, String groupKey) {
+    RqueueMessage rqueueMessage = buildMessage(queueName, message, null, null);
+    rqueueMessage.setGroupKey(groupKey);
+    try {
+      rqueueMessageTemplate.addToGroup(partitionName, rqueueMessage);
+    } catch (Exception e) {
+      logger.error("Message could not be pushed ", e);
+      return false;
+    }
+    return true;
+  }
+
+  boolean pushMessages(
+      String queueName, Collection<?> messages, Integer retryCount, Long delayInMilliSecs) {
+    return pushMessages(queueName, queueName, messages, retryCount, delayInMilliSecs);
+  }
+
+  boolean pushMessages(
+      String queueName,
+      String partitionName,
+      Collection<?> messages,
+      Integer retryCount,
+      Long delayInMilliSecs) {
+    List<RqueueMessage> rqueueMessages = new ArrayList<>(messages.size());
+    for (Object message : messages) {
+      rqueueMessages.add(buildMessage(queueName, message, retryCount, delayInMilliSecs));
+    }
+    try {
+      if (isDelayed(delayInMilliSecs)) {
+        rqueueMessageTemplate.addAllWithDelay(partitionName, rqueueMessages);
+      } else {
+        rqueueMessageTemplate.addAll(partitionName, rqueueMessages);
+      }
+    } catch (Exception e) {
+      logger.error("Messages could not be pushed ", e);
+      return false;
+    }
+    return true;
+  }
+
+  RqueueMessage buildMessage(
       String queueName, Object message, Integer retryCount, Long delayInMilliSecs) {
+    return buildMessage(
+        messageConverter, messageCompressor, queueName, message, retryCount, delayInMilliSecs);
+  }
+
+  static RqueueMessage buildMessage(
+      MessageConverter messageConverter,
+      MessageCompressor messageCompressor,
+      String queueName,
+      Object message,
+      Integer retryCount,
+      Long delayInMilliSecs) {
     Message<?> msg = messageConverter.toMessage(message, null);
     if (msg == null) {
       throw new MessageConversionException("Message could not be build (null)");
     }
-    return new RqueueMessage(queueName, (String) msg.getPayload(), retryCount, delayInMilliSecs);
+    RqueueMessage rqueueMessage =
+        new RqueueMessage(queueName, (String) msg.getPayload(), retryCount, delayInMilliSecs);
+    messageCompressor.compress(rqueueMessage);
+    return rqueueMessage;
   }
 
   Object convertMessageToObject(RqueueMessage message) {
-    return messageConverter.fromMessage(new GenericMessage<>(message.getMessage()), null);
+    return messageConverter.fromMessage(
+        new GenericMessage<>(messageCompressor.decompress(message)), null);
+  }
+
+  void setMessageCompressor(MessageCompressor messageCompressor) {
+    this.messageCompressor = messageCompressor;
   }
 
   List<MessageConverter> getMessageConverters() {
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.producer;
+
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.util.Assert;
+
+/**
+ * Queue partitioner finds the partition a message has to be sent to. A message having a key is
+ * always sent to the same partition, other messages are sent to the partitions in round robin
+ * manner.
+ */
+class QueuePartitioner {
+  private final Map<String, Integer> queueNameToPartitions = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> queueNameToCounter = new ConcurrentHashMap<>();
+
+  void setPartitions(String queueName, int partitions) {
+    Assert.notNull(queueName, "queueName must not be null");
+    Assert.isTrue(partitions > 0, "partitions must be greater than zero");
+    queueNameToPartitions.put(queueName, partitions);
+  }
+
+  int getPartitions(String queueName) {
+    return queueNameToPartitions.getOrDefault(queueName, 1);
+  }
+
+  List<String> getPartitionNames(String queueName) {
+    return QueueUtils.getPartitionNames(queueName, getPartitions(queueName));
+  }
+
+  String getPartitionName(String queueName) {
+    return getPartitionName(queueName, null);
+  }
+
+  String getPartitionName(String queueName, String key) {
+    int partitions = getPartitions(queueName);
+    if (partitions == 1) {
+      return queueName;
+    }
+    int partition;
+    if (key == null) {
+      AtomicInteger counter =
+          queueNameToCounter.computeIfAbsent(queueName, k -> new AtomicInteger());
+      partition = Math.floorMod(counter.getAndIncrement(), partitions);
+    } else {
+      partition = Math.floorMod(key.hashCode(), partitions);
+    }
+    return QueueUtils.getPartitionName(queueName, partition);
+  }
+}
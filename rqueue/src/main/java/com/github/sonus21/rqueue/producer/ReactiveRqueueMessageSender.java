@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.producer;
+
+import com.github.sonus21.rqueue.compression.MessageCompressor;
+import com.github.sonus21.rqueue.converter.GenericMessageConverter;
+import com.github.sonus21.rqueue.core.ReactiveRqueueMessageTemplate;
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.utils.Validator;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RqueueMessageSender}, messages are enqueued when the returned
+ * {@link Mono} is subscribed. Messages are converted and stored the same way as {@link
+ * RqueueMessageSender}, so they are consumed by the same listeners.
+ *
+ * <p>NOTE: This requires reactor-core on the classpath.
+ */
+public class ReactiveRqueueMessageSender {
+  private static Logger logger = LoggerFactory.getLogger(ReactiveRqueueMessageSender.class);
+  private final QueuePartitioner queuePartitioner = new QueuePartitioner();
+  private ReactiveRqueueMessageTemplate messageTemplate;
+  private CompositeMessageConverter messageConverter;
+  private MessageCompressor messageCompressor = new MessageCompressor();
+
+  private ReactiveRqueueMessageSender(
+      ReactiveRqueueMessageTemplate messageTemplate,
+      List<MessageConverter> messageConverters,
+      boolean addDefault) {
+    Assert.notNull(messageTemplate, "messageTemplate can not be null");
+    Assert.notEmpty(messageConverters, "messageConverters can  not be empty");
+    this.messageTemplate = messageTemplate;
+    messageConverter =
+        new CompositeMessageConverter(
+            MessageWriter.getMessageConverters(addDefault, messageConverters));
+  }
+
+  public ReactiveRqueueMessageSender(ReactiveRqueueMessageTemplate messageTemplate) {
+    this(messageTemplate, Collections.singletonList(new GenericMessageConverter()), false);
+  }
+
+  public ReactiveRqueueMessageSender(
+      ReactiveRqueueMessageTemplate messageTemplate, List<MessageConverter> messageConverters) {
+    this(messageTemplate, messageConverters, true);
+  }
+
+  /**
+   * Submit a message on given queue without any delay.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @return message was submitted successfully or failed.
+   * @see RqueueMessageSender#put(String, Object)
+   */
+  public Mono<Boolean> put(String queueName, Object message) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    return pushMessage(queueName, null, message, null, null);
+  }
+
+  /**
+   * Submit a message on given queue without any delay, messages having the same key are sent to
+   * the same partition of a partitioned queue.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param key key of the message, messages without key are spread across the partitions
+   * @return message was submitted successfully or failed.
+   * @see RqueueMessageSender#put(String, Object, String)
+   */
+  public Mono<Boolean> put(String queueName, Object message, String key) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    return pushMessage(queueName, key, message, null, null);
+  }
+
+  /**
+   * Submit a message to the group given by its key, messages of a group are consumed one by one in
+   * the order they were sent.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param groupKey key of the group
+   * @return message was submitted successfully or failed.
+   * @see RqueueMessageSender#putInGroup(String, Object, String)
+   */
+  public Mono<Boolean> putInGroup(String queueName, Object message, String groupKey) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    Validator.validateGroupKey(groupKey);
+    RqueueMessage rqueueMessage = buildMessage(queueName, message, null, null);
+    rqueueMessage.setGroupKey(groupKey);
+    return toResult(
+        messageTemplate.addToGroup(
+            queuePartitioner.getPartitionName(queueName, groupKey), rqueueMessage));
+  }
+
+  /**
+   * Submit a message on given queue with the given retry count.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param retryCount how many times a message would be retried
+   * @return message was submitted successfully or failed.
+   * @see RqueueMessageSender#put(String, Object, int)
+   */
+  public Mono<Boolean> put(String queueName, Object message, int retryCount) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    Validator.validateRetryCount(retryCount);
+    return pushMessage(queueName, null, message, retryCount, null);
+  }
+
+  /**
+   * Submit a message on given queue, it would be visible to the listener once the delay has
+   * elapsed.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param delayInMilliSecs delay in milli seconds
+   * @return message was submitted successfully or failed.
+   * @see RqueueMessageSender#put(String, Object, long)
+   */
+  public Mono<Boolean> put(String queueName, Object message, long delayInMilliSecs) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    Validator.validateDelay(delayInMilliSecs);
+    return pushMessage(queueName, null, message, null, delayInMilliSecs);
+  }
+
+  /**
+   * Submit a message on given queue with the given retry count and delay.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param retryCount how many times a message would be retried
+   * @param delayInMilliSecs delay in milli seconds
+   * @return message was submitted successfully or failed.
+   * @see RqueueMessageSender#put(String, Object, int, long)
+   */
+  public Mono<Boolean> put(
+      String queueName, Object message, int retryCount, long delayInMilliSecs) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    Validator.validateRetryCount(retryCount);
+    Validator.validateDelay(delayInMilliSecs);
+    return pushMessage(queueName, null, message, retryCount, delayInMilliSecs);
+  }
+
+  /**
+   * Set message compressor, messages having payload larger than the configured threshold are
+   * compressed before sending.
+   *
+   * @param messageCompressor message compressor
+   * @see RqueueMessageSender#setMessageCompressor(MessageCompressor)
+   */
+  public void setMessageCompressor(MessageCompressor messageCompressor) {
+    Assert.notNull(messageCompressor, "messageCompressor must not be null");
+    this.messageCompressor = messageCompressor;
+  }
+
+  /**
+   * Set number of partitions of a queue.
+   *
+   * @param queueName queue name
+   * @param partitions number of partitions
+   * @see RqueueMessageSender#setPartitions(String, int)
+   */
+  public void setPartitions(String queueName, int partitions) {
+    queuePartitioner.setPartitions(queueName, partitions);
+  }
+
+  public List<MessageConverter> getMessageConverters() {
+    return messageConverter.getConverters();
+  }
+
+  private RqueueMessage buildMessage(
+      String queueName, Object message, Integer retryCount, Long delayInMilliSecs) {
+    return MessageWriter.buildMessage(
+        messageConverter, messageCompressor, queueName, message, retryCount, delayInMilliSecs);
+  }
+
+  private Mono<Boolean> pushMessage(
+      String queueName, String key, Object message, Integer retryCount, Long delayInMilliSecs) {
+    RqueueMessage rqueueMessage = buildMessage(queueName, message, retryCount, delayInMilliSecs);
+    String partitionName = queuePartitioner.getPartitionName(queueName, key);
+    Mono<Long> result;
+    if (MessageWriter.isDelayed(delayInMilliSecs)) {
+      result = messageTemplate.addWithDelay(partitionName, rqueueMessage);
+    } else {
+      result = messageTemplate.add(partitionName, rqueueMessage);
+    }
+    return toResult(result);
+  }
+
+  private Mono<Boolean> toResult(Mono<Long> result) {
+    return result
+        .map(count -> true)
+        .defaultIfEmpty(true)
+        .onErrorResume(
+            e -> {
+              logger.error("Message could not be pushed ", e);
+              return Mono.just(false);
+            });
+  }
+}
@@ -17,17 +17,22 @@
 package com.github.sonus21.rqueue.producer;
 
 import com.github.sonus21.rqueue.annotation.RqueueListener;
+import com.github.sonus21.rqueue.compression.MessageCompressor;
 import com.github.sonus21.rqueue.converter.GenericMessageConverter;
+import com.github.sonus21.rqueue.core.IdIndexedRqueueMessageTemplate;
+import com.github.sonus21.rqueue.core.MessageStatus;
+import com.github.sonus21.rqueue.core.NotificationStats;
 import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.utils.Constants;
-import com.github.sonus21.rqueue.utils.QueueUtils;
 import com.github.sonus21.rqueue.utils.Validator;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.messaging.converter.MessageConverter;
-import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.util.Assert;
 
 /**
@@ -37,9 +42,15 @@ import org.springframework.util.Assert;
  *
  * @author Sonu Kumar
  */
-public class RqueueMessageSender {
+public class RqueueMessageSender implements DisposableBean {
+  private final QueuePartitioner queuePartitioner = new QueuePartitioner();
   private MessageWriter messageWriter;
   private RqueueMessageTemplate messageTemplate;
+  private volatile MessageAccumulator messageAccumulator;
+  private int asyncBatchSize = Constants.MAX_MESSAGES;
+  private long asyncLingerTime = Constants.DEFAULT_LINGER_TIME;
+  private int asyncBufferSize = Constants.DEFAULT_SEND_BUFFER_SIZE;
+  private BackPressurePolicy backPressurePolicy = BackPressurePolicy.BLOCK;
 
   private RqueueMessageSender(
       RqueueMessageTemplate messageTemplate,
@@ -49,7 +60,8 @@ public class RqueueMessageSender {
     Assert.notEmpty(messageConverters, "messageConverters can  not be empty");
     this.messageTemplate = messageTemplate;
     messageWriter =
-        new MessageWriter(messageTemplate, getMessageConverters(addDefault, messageConverters));
+        new MessageWriter(
+            messageTemplate, MessageWriter.getMessageConverters(addDefault, messageConverters));
   }
 
   public RqueueMessageSender(RqueueMessageTemplate messageTemplate) {
@@ -61,19 +73,6 @@ public class RqueueMessageSender {
     this(messageTemplate, messageConverters, true);
   }
 
-  private List<MessageConverter> getMessageConverters(
-      boolean addDefault, List<MessageConverter> messageConverters) {
-    List<MessageConverter> messageConverterList = new ArrayList<>();
-    StringMessageConverter stringMessageConverter = new StringMessageConverter();
-    stringMessageConverter.setSerializedPayloadClass(String.class);
-    messageConverterList.add(stringMessageConverter);
-    if (addDefault) {
-      messageConverterList.add(new GenericMessageConverter());
-    }
-    messageConverterList.addAll(messageConverters);
-    return messageConverterList;
-  }
-
   /**
    * Submit a message on given queue without any delay, listener would try to consume this message
    * immediately but due to heavy load message consumption can be delayed if message producer rate
@@ -85,7 +84,50 @@ public class RqueueMessageSender {
    */
   public boolean put(String queueName, Object message) {
     Validator.validateQueueNameAndMessage(queueName, message);
-    return messageWriter.pushMessage(queueName, message, null, null);
+    return messageWriter.pushMessage(
+        queueName, queuePartitioner.getPartitionName(queueName), message, null, null);
+  }
+
+  /**
+   * This is an extension to the method {@link #put(String, Object)}, messages having the same key
+   * are sent to the same partition of a partitioned queue, other messages are sent to the
+   * partitions in round robin manner.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param key key of the message, messages without key are spread across the partitions
+   * @return message was submitted successfully or failed.
+   * @see #setPartitions(String, int)
+   * @see #putInGroup(String, Object, String)
+   */
+  public boolean put(String queueName, Object message, String key) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    return messageWriter.pushMessage(
+        queueName, queuePartitioner.getPartitionName(queueName, key), message, null, null);
+  }
+
+  /**
+   * Submit a message to the group given by its key, messages of a group are consumed one by one in
+   * the order they were sent, while messages of different groups are consumed in parallel. The
+   * group key is used as the key of the message, so messages of a group are sent to the same
+   * partition of a partitioned queue.
+   *
+   * <p>Only the oldest message of a group is in the queue, other messages of the group wait until
+   * it has been consumed. Waiting messages are not counted in the queue size and metrics, they are
+   * not returned by {@link #getAllMessages(String)} or {@link #getMessage(String, String)}, and
+   * they stay in their group when messages of the queue are moved to another queue.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param groupKey key of the group
+   * @return message was submitted successfully or failed.
+   * @see #put(String, Object, String)
+   */
+  public boolean putInGroup(String queueName, Object message, String groupKey) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    Validator.validateGroupKey(groupKey);
+    return messageWriter.pushGroupMessage(
+        queueName, queuePartitioner.getPartitionName(queueName, groupKey), message, groupKey);
   }
 
   /**
@@ -103,7 +145,8 @@ public class RqueueMessageSender {
   public boolean put(String queueName, Object message, int retryCount) {
     Validator.validateQueueNameAndMessage(queueName, message);
     Validator.validateRetryCount(retryCount);
-    return messageWriter.pushMessage(queueName, message, retryCount, null);
+    return messageWriter.pushMessage(
+        queueName, queuePartitioner.getPartitionName(queueName), message, retryCount, null);
   }
 
   /**
@@ -119,7 +162,214 @@ public class RqueueMessageSender {
   public boolean put(String queueName, Object message, long delayInMilliSecs) {
     Validator.validateQueueNameAndMessage(queueName, message);
     Validator.validateDelay(delayInMilliSecs);
-    return messageWriter.pushMessage(queueName, message, null, delayInMilliSecs);
+    return messageWriter.pushMessage(
+        queueName, queuePartitioner.getPartitionName(queueName), message, null, delayInMilliSecs);
+  }
+
+  /**
+   * Submit a message on given queue without waiting for Redis, messages are buffered and sent by a
+   * background thread using a single Redis call per queue once {@link #setAsyncBatchSize(int)}
+   * messages have been buffered or {@link #setAsyncLingerTime(long)} has elapsed. The returned
+   * future is completed with the message id once the message has been stored in Redis, its
+   * dependent actions are executed on the background thread.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @return future of the message id, it's completed exceptionally if sending failed or the message
+   *     was rejected by the {@link BackPressurePolicy}.
+   */
+  public CompletableFuture<String> putAsync(String queueName, Object message) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    return getMessageAccumulator()
+        .add(
+            queuePartitioner.getPartitionName(queueName),
+            messageWriter.buildMessage(queueName, message, null, null),
+            false);
+  }
+
+  /**
+   * This is the extension to the method {@link #putAsync(String, Object)}, in this we can specify
+   * when this message would be visible to the consumer.
+   *
+   * @param queueName on which queue message has to be send
+   * @param message message object it could be any arbitrary object.
+   * @param delayInMilliSecs delay in milli seconds, this message would be only visible to the
+   *     listener when number of millisecond has elapsed.
+   * @return future of the message id, it's completed exceptionally if sending failed or the message
+   *     was rejected by the {@link BackPressurePolicy}.
+   */
+  public CompletableFuture<String> putAsync(
+      String queueName, Object message, long delayInMilliSecs) {
+    Validator.validateQueueNameAndMessage(queueName, message);
+    Validator.validateDelay(delayInMilliSecs);
+    RqueueMessage rqueueMessage =
+        messageWriter.buildMessage(queueName, message, null, delayInMilliSecs);
+    return getMessageAccumulator()
+        .add(
+            queuePartitioner.getPartitionName(queueName),
+            rqueueMessage,
+            MessageWriter.isDelayed(delayInMilliSecs));
+  }
+
+  private MessageAccumulator getMessageAccumulator() {
+    MessageAccumulator accumulator = messageAccumulator;
+    if (accumulator != null) {
+      return accumulator;
+    }
+    synchronized (this) {
+      if (messageAccumulator == null) {
+        messageAccumulator =
+            new MessageAccumulator(
+                messageTemplate,
+                asyncBatchSize,
+                asyncLingerTime,
+                asyncBufferSize,
+                backPressurePolicy);
+      }
+      return messageAccumulator;
+    }
+  }
+
+  /**
+   * Maximum number of messages of a queue sent together by {@link #putAsync(String, Object)}, this
+   * must be set before sending any message asynchronously.
+   *
+   * @param asyncBatchSize batch size
+   */
+  public synchronized void setAsyncBatchSize(int asyncBatchSize) {
+    Assert.isTrue(asyncBatchSize > 0, "asyncBatchSize must be greater than zero");
+    Assert.state(messageAccumulator == null, "Messages have been sent asynchronously");
+    this.asyncBatchSize = asyncBatchSize;
+  }
+
+  /**
+   * Maximum time in milliseconds a message sent by {@link #putAsync(String, Object)} waits for
+   * other messages of its queue before sending, this must be set before sending any message
+   * asynchronously.
+   *
+   * @param asyncLingerTime linger time in milliseconds
+   */
+  public synchronized void setAsyncLingerTime(long asyncLingerTime) {
+    Assert.isTrue(asyncLingerTime >= 0, "asyncLingerTime must be non negative");
+    Assert.state(messageAccumulator == null, "Messages have been sent asynchronously");
+    this.asyncLingerTime = asyncLingerTime;
+  }
+
+  /**
+   * Maximum number of messages sent asynchronously that have not been stored in Redis yet, this
+   * bounds the memory used by buffered messages. This must be set before sending any message
+   * asynchronously.
+   *
+   * @param asyncBufferSize buffer size
+   * @see #setBackPressurePolicy(BackPressurePolicy)
+   */
+  public synchronized void setAsyncBufferSize(int asyncBufferSize) {
+    Assert.isTrue(asyncBufferSize > 0, "asyncBufferSize must be greater than zero");
+    Assert.state(messageAccumulator == null, "Messages have been sent asynchronously");
+    this.asyncBufferSize = asyncBufferSize;
+  }
+
+  /**
+   * What happens when a message is sent asynchronously and the buffer is full, by default the
+   * calling thread waits. This must be set before sending any message asynchronously.
+   *
+   * @param backPressurePolicy back pressure policy
+   */
+  public synchronized void setBackPressurePolicy(BackPressurePolicy backPressurePolicy) {
+    Assert.notNull(backPressurePolicy, "backPressurePolicy must not be null");
+    Assert.state(messageAccumulator == null, "Messages have been sent asynchronously");
+    this.backPressurePolicy = backPressurePolicy;
+  }
+
+  /**
+   * Set number of partitions of a queue, it must be the same as the number of partitions of the
+   * queue listener set using {@link RqueueListener#partitions()}. Messages of a partitioned queue
+   * are spread across the partitions, unless they are sent with a key.
+   *
+   * <p>The listener container sets the partitions of its queues on the sender bean when it's
+   * started, this has to be called only when messages are sent before that or by a sender that is
+   * not a bean of the application having the listeners.
+   *
+   * @param queueName queue name
+   * @param partitions number of partitions
+   * @see #put(String, Object, String)
+   */
+  public void setPartitions(String queueName, int partitions) {
+    queuePartitioner.setPartitions(queueName, partitions);
+  }
+
+  /** Send the messages buffered by {@link #putAsync(String, Object)} and stop sending. */
+  @Override
+  public synchronized void destroy() {
+    if (messageAccumulator != null) {
+      messageAccumulator.close();
+    }
+  }
+
+  /**
+   * Submit many messages on given queue without any delay, messages are serialized before sending
+   * and sent using a single Redis call per {@link Constants#MAX_MESSAGES_PER_CALL} messages, this
+   * is much faster than calling {@link #put(String, Object)} for every message. Messages are not
+   * submitted atomically, if a call fails then messages sent by the previous calls remain in the
+   * queue. Messages of a partitioned queue are split into chunks that are sent to its partitions in
+   * round robin manner.
+   *
+   * @param queueName on which queue messages have to be send
+   * @param messages collection of message objects, they could be any arbitrary objects.
+   * @return messages were submitted successfully or failed.
+   */
+  public boolean putAll(String queueName, Collection<?> messages) {
+    Validator.validateQueueNameAndMessages(queueName, messages);
+    return pushMessages(queueName, messages, null);
+  }
+
+  /**
+   * This is the extension to the method {@link #putAll(String, Collection)}, in this we can specify
+   * when these messages would be visible to the consumer. Messages are added to the delayed queue
+   * using a single Redis call per {@link Constants#MAX_MESSAGES_PER_CALL} messages.
+   *
+   * @param queueName on which queue messages have to be send
+   * @param messages collection of message objects, they could be any arbitrary objects.
+   * @param delayInMilliSecs delay in milli seconds, these messages would be only visible to the
+   *     listener when number of millisecond has elapsed.
+   * @return messages were submitted successfully or failed.
+   */
+  public boolean putAllWithDelay(String queueName, Collection<?> messages, long delayInMilliSecs) {
+    Validator.validateQueueNameAndMessages(queueName, messages);
+    Validator.validateDelay(delayInMilliSecs);
+    return pushMessages(queueName, messages, delayInMilliSecs);
+  }
+
+  // every partition gets a chunk of the messages, chunks are not larger than a single Redis call
+  private boolean pushMessages(String queueName, Collection<?> messages, Long delayInMilliSecs) {
+    int partitions = queuePartitioner.getPartitions(queueName);
+    if (partitions == 1) {
+      return messageWriter.pushMessages(queueName, queueName, messages, null, delayInMilliSecs);
+    }
+    List<?> messageList = new ArrayList<>(messages);
+    int chunkSize =
+        Math.min(
+            Constants.MAX_MESSAGES_PER_CALL, (messageList.size() + partitions - 1) / partitions);
+    for (int i = 0; i < messageList.size(); i += chunkSize) {
+      List<?> chunk = messageList.subList(i, Math.min(messageList.size(), i + chunkSize));
+      if (!messageWriter.pushMessages(
+          queueName, queuePartitioner.getPartitionName(queueName), chunk, null, delayInMilliSecs)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Set message compressor, messages having payload larger than the configured threshold are
+   * compressed before sending. Consumers must be able to decompress these messages, so the same
+   * codecs must be available in the listener container.
+   *
+   * @param messageCompressor message compressor
+   */
+  public void setMessageCompressor(MessageCompressor messageCompressor) {
+    Assert.notNull(messageCompressor, "messageCompressor must not be null");
+    messageWriter.setMessageCompressor(messageCompressor);
   }
 
   /**
@@ -131,8 +381,10 @@ public class RqueueMessageSender {
    */
   public List<Object> getAllMessages(String queueName) {
     List<Object> messages = new ArrayList<>();
-    for (RqueueMessage message : messageTemplate.getAllMessages(queueName)) {
-      messages.add(messageWriter.convertMessageToObject(message));
+    for (String partitionName : queuePartitioner.getPartitionNames(queueName)) {
+      for (RqueueMessage message : messageTemplate.getAllMessages(partitionName)) {
+        messages.add(messageWriter.convertMessageToObject(message));
+      }
     }
     return messages;
   }
@@ -153,7 +405,12 @@ public class RqueueMessageSender {
     Validator.validateQueueNameAndMessage(queueName, message);
     Validator.validateRetryCount(retryCount);
     Validator.validateDelay(delayInMilliSecs);
-    return messageWriter.pushMessage(queueName, message, retryCount, delayInMilliSecs);
+    return messageWriter.pushMessage(
+        queueName,
+        queuePartitioner.getPartitionName(queueName),
+        message,
+        retryCount,
+        delayInMilliSecs);
   }
 
   public List<MessageConverter> getMessageConverters() {
@@ -181,7 +438,8 @@ public class RqueueMessageSender {
       maxMessages = Constants.MAX_MESSAGES;
     }
     Assert.isTrue(maxMessages > 0, "maxMessage must be greater than zero");
-    return messageTemplate.moveMessage(deadLetterQueueName, queueName, maxMessages);
+    return messageTemplate.moveMessage(
+        deadLetterQueueName, queuePartitioner.getPartitionName(queueName), maxMessages);
   }
 
   /**
@@ -201,8 +459,76 @@ public class RqueueMessageSender {
    * @param queueName queue name
    */
   public void deleteAllMessages(String queueName) {
-    messageTemplate.deleteKey(queueName);
-    messageTemplate.deleteKey(QueueUtils.getProcessingQueueName(queueName));
-    messageTemplate.deleteKey(QueueUtils.getTimeQueueName(queueName));
+    for (String partitionName : queuePartitioner.getPartitionNames(queueName)) {
+      messageTemplate.deleteQueue(partitionName);
+    }
+  }
+
+  /**
+   * Find a message using its id. With inline storage the queue is scanned, id indexed storage does
+   * it in constant time.
+   *
+   * @param queueName queue name
+   * @param messageId id of the message
+   * @return the message object or null if it's not found
+   * @see IdIndexedRqueueMessageTemplate
+   */
+  public Object getMessage(String queueName, String messageId) {
+    for (String partitionName : queuePartitioner.getPartitionNames(queueName)) {
+      RqueueMessage message = messageTemplate.getMessage(partitionName, messageId);
+      if (message != null) {
+        return messageWriter.convertMessageToObject(message);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Cancel a message using its id, a message being processed can not be consumed again once it's
+   * deleted. With inline storage the queue is scanned, id indexed storage does it in constant
+   * time.
+   *
+   * @param queueName queue name
+   * @param messageId id of the message
+   * @return true if the message was deleted, false if it was not found
+   * @see IdIndexedRqueueMessageTemplate
+   */
+  public boolean deleteMessage(String queueName, String messageId) {
+    for (String partitionName : queuePartitioner.getPartitionNames(queueName)) {
+      if (messageTemplate.deleteMessage(partitionName, messageId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Find the status of a message using its id. With inline storage the queue is scanned, id
+   * indexed storage does it in constant time.
+   *
+   * @param queueName queue name
+   * @param messageId id of the message
+   * @return status of the message
+   * @see IdIndexedRqueueMessageTemplate
+   */
+  public MessageStatus getMessageStatus(String queueName, String messageId) {
+    MessageStatus messageStatus = MessageStatus.NOT_FOUND;
+    for (String partitionName : queuePartitioner.getPartitionNames(queueName)) {
+      messageStatus = messageTemplate.getMessageStatus(partitionName, messageId);
+      if (messageStatus != MessageStatus.NOT_FOUND) {
+        return messageStatus;
+      }
+    }
+    return messageStatus;
+  }
+
+  /**
+   * Get counters of notifications published to the schedulers of a queue.
+   *
+   * @param queueName queue name, name of a partition for a partitioned queue
+   * @return notification counters
+   */
+  public NotificationStats getNotificationStats(String queueName) {
+    return messageTemplate.getNotificationStats(queueName);
   }
 }
@@ -29,5 +29,11 @@ public class Constants {
   public static final long DELTA_BETWEEN_RE_ENQUEUE_TIME = 5 * MIN_DELAY;
   public static final long TASK_ALIVE_TIME = -30 * Constants.ONE_MILLI;
   public static final int MAX_MESSAGES = 100;
+  public static final int MAX_MESSAGES_PER_CALL = 1000;
+  public static final long DEFAULT_LINGER_TIME = 5L;
+  public static final long DEFAULT_SCHEDULER_ACCURACY = 50L;
+  public static final int DEFAULT_SEND_BUFFER_SIZE = 10000;
   public static final int DEFAULT_WORKER_COUNT_PER_QUEUE = 2;
+  public static final int DEFAULT_VIRTUAL_THREAD_COUNT_PER_QUEUE = 100;
+  public static final int DEFAULT_MAX_IN_FLIGHT_MESSAGES = 1000;
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Decides how names of keys and channels of a queue are derived from the queue name. A strategy is
+ * configured on every message template and scheduler, all applications using the queues must use
+ * the same strategy.
+ */
+public enum KeyNamingStrategy {
+  /** Names are prefix followed by the queue name, e.g. rqueue-delay::job-queue */
+  PLAIN {
+    @Override
+    String getName(String prefix, String queueName) {
+      return prefix + queueName;
+    }
+
+    @Override
+    String getSlotTag(String queueName) {
+      return null;
+    }
+  },
+  /**
+   * Names carry the queue name as a hash tag, e.g. rqueue-delay::{job-queue}, so all keys and
+   * channels of a queue are in the same slot of Redis cluster as the queue itself. A queue name
+   * that has a hash tag already is used as is.
+   */
+  HASH_TAGGED {
+    @Override
+    String getName(String prefix, String queueName) {
+      if (getHashTag(queueName) != null) {
+        return prefix + queueName;
+      }
+      return prefix + "{" + queueName + "}";
+    }
+
+    @Override
+    String getSlotTag(String queueName) {
+      String hashTag = getHashTag(queueName);
+      return hashTag == null ? queueName : hashTag;
+    }
+  };
+
+  private static final String DELAYED_QUEUE_PREFIX = "rqueue-delay::";
+  private static final String CHANNEL_PREFIX = "rqueue-channel::";
+  private static final String PROCESSING_PREFIX = "rqueue-processing::";
+  private static final String PROCESSING_CHANNEL_PREFIX = "rqueue-processing-channel::";
+  private static final String QUEUE_CHANNEL_PREFIX = "rqueue-queue-channel::";
+  private static final String MESSAGE_STORE_PREFIX = "rqueue-message::";
+  private static final String GROUP_PREFIX = "rqueue-group::";
+  private static final String GROUPS_PREFIX = "rqueue-groups::";
+  private static final String GROUP_MESSAGE_PREFIX = "rqueue-group-message::";
+
+  abstract String getName(String prefix, String queueName);
+
+  public String getTimeQueueName(String queueName) {
+    return getName(DELAYED_QUEUE_PREFIX, queueName);
+  }
+
+  public String getChannelName(String queueName) {
+    return getName(CHANNEL_PREFIX, queueName);
+  }
+
+  public String getProcessingQueueName(String queueName) {
+    return getName(PROCESSING_PREFIX, queueName);
+  }
+
+  public String getProcessingQueueChannelName(String queueName) {
+    return getName(PROCESSING_CHANNEL_PREFIX, queueName);
+  }
+
+  public String getQueueChannelName(String queueName) {
+    return getName(QUEUE_CHANNEL_PREFIX, queueName);
+  }
+
+  public String getMessageStoreName(String queueName) {
+    return getName(MESSAGE_STORE_PREFIX, queueName);
+  }
+
+  /**
+   * Get name of the list holding messages of a group, it's in the same slot as the queue.
+   *
+   * @param queueName name of the queue
+   * @param groupKey group key of the messages
+   * @return name of the group list
+   */
+  public String getGroupName(String queueName, String groupKey) {
+    return getName(GROUP_PREFIX, queueName) + "::" + groupKey;
+  }
+
+  public String getGroupSetName(String queueName) {
+    return getName(GROUPS_PREFIX, queueName);
+  }
+
+  public String getGroupMessageStoreName(String queueName) {
+    return getName(GROUP_MESSAGE_PREFIX, queueName);
+  }
+
+  /**
+   * Get names of the keys a queue stores data in apart from the queue itself.
+   *
+   * @param queueName name of the queue
+   * @return names of delayed queue, processing queue, message store and notification keys
+   */
+  public List<String> getKeyNames(String queueName) {
+    return Arrays.asList(
+        getTimeQueueName(queueName),
+        getProcessingQueueName(queueName),
+        getMessageStoreName(queueName),
+        QueueUtils.getNotificationName(getChannelName(queueName)),
+        QueueUtils.getNotificationName(getProcessingQueueChannelName(queueName)));
+  }
+
+  /**
+   * Check whether keys of the given queues could be in different slots of Redis cluster, a script
+   * must not touch keys of such queues at once.
+   *
+   * @param queueNames name of the queues
+   * @return true if this strategy places the queues in different slots
+   */
+  public boolean isCrossSlot(Collection<String> queueNames) {
+    String slotTag = null;
+    for (String queueName : queueNames) {
+      String tag = getSlotTag(queueName);
+      if (tag == null) {
+        return false;
+      }
+      if (slotTag != null && !slotTag.equals(tag)) {
+        return true;
+      }
+      slotTag = tag;
+    }
+    return false;
+  }
+
+  /**
+   * @param queueName name of the queue
+   * @return part of the name that decides the slot of the queue's keys, null if keys of a queue
+   *     are not guaranteed to be in the same slot.
+   */
+  abstract String getSlotTag(String queueName);
+
+  // content of the first non empty {...} section, it's what Redis cluster hashes when present
+  private static String getHashTag(String key) {
+    int start = key.indexOf('{');
+    if (start == -1) {
+      return null;
+    }
+    int end = key.indexOf('}', start + 1);
+    if (end == -1 || end == start + 1) {
+      return null;
+    }
+    return key.substring(start + 1, end);
+  }
+}
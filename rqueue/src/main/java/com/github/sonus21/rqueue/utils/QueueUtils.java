@@ -16,15 +16,20 @@
 
 package com.github.sonus21.rqueue.utils;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Names of keys and channels of a queue are derived using {@link KeyNamingStrategy#PLAIN}, use the
+ * strategy configured on the message template to name keys of other strategies.
+ */
 public class QueueUtils {
   public static final String QUEUE_NAME = "QUEUE_NAME";
-  private static final String DELAYED_QUEUE_PREFIX = "rqueue-delay::";
-  private static final String CHANNEL_PREFIX = "rqueue-channel::";
-  private static final String PROCESSING_PREFIX = "rqueue-processing::";
-  private static final String PROCESSING_CHANNEL_PREFIX = "rqueue-processing-channel::";
+  private static final String LEASE_PREFIX = "rqueue-lease::";
+  private static final String NOTIFICATION_PREFIX = "rqueue-notification::";
+  private static final String PARTITION_SEPARATOR = "#";
 
   private QueueUtils() {}
 
@@ -33,19 +38,76 @@ public class QueueUtils {
   }
 
   public static String getTimeQueueName(String queueName) {
-    return DELAYED_QUEUE_PREFIX + queueName;
+    return KeyNamingStrategy.PLAIN.getTimeQueueName(queueName);
   }
 
   public static String getChannelName(String queueName) {
-    return CHANNEL_PREFIX + queueName;
+    return KeyNamingStrategy.PLAIN.getChannelName(queueName);
   }
 
   public static String getProcessingQueueName(String queueName) {
-    return PROCESSING_PREFIX + queueName;
+    return KeyNamingStrategy.PLAIN.getProcessingQueueName(queueName);
   }
 
   public static String getProcessingQueueChannelName(String queueName) {
-    return PROCESSING_CHANNEL_PREFIX + queueName;
+    return KeyNamingStrategy.PLAIN.getProcessingQueueChannelName(queueName);
+  }
+
+  public static String getQueueChannelName(String queueName) {
+    return KeyNamingStrategy.PLAIN.getQueueChannelName(queueName);
+  }
+
+  public static String getMessageStoreName(String queueName) {
+    return KeyNamingStrategy.PLAIN.getMessageStoreName(queueName);
+  }
+
+  public static String getNotificationName(String channelName) {
+    return NOTIFICATION_PREFIX + channelName;
+  }
+
+  public static String getLeaseName(String zsetName, int slot) {
+    return LEASE_PREFIX + zsetName + "::" + slot;
+  }
+
+  public static String getGroupName(String queueName, String groupKey) {
+    return KeyNamingStrategy.PLAIN.getGroupName(queueName, groupKey);
+  }
+
+  public static String getGroupSetName(String queueName) {
+    return KeyNamingStrategy.PLAIN.getGroupSetName(queueName);
+  }
+
+  public static String getGroupMessageStoreName(String queueName) {
+    return KeyNamingStrategy.PLAIN.getGroupMessageStoreName(queueName);
+  }
+
+  /**
+   * Get name of a partition of the given queue, every partition is stored in its own set of keys.
+   *
+   * @param queueName name of the partitioned queue
+   * @param partition partition number starting from zero
+   * @return name of the partition
+   */
+  public static String getPartitionName(String queueName, int partition) {
+    return queueName + PARTITION_SEPARATOR + partition;
+  }
+
+  /**
+   * Get names of all partitions of the given queue.
+   *
+   * @param queueName name of the queue
+   * @param partitions number of partitions of the queue
+   * @return name of the partitions, the queue name itself if the queue has a single partition
+   */
+  public static List<String> getPartitionNames(String queueName, int partitions) {
+    if (partitions <= 1) {
+      return Collections.singletonList(queueName);
+    }
+    List<String> partitionNames = new ArrayList<>(partitions);
+    for (int partition = 0; partition < partitions; partition++) {
+      partitionNames.add(getPartitionName(queueName, partition));
+    }
+    return partitionNames;
   }
 
   public static long getMessageReEnqueueTimeWithDelay(long currentTime, long maxDelay) {
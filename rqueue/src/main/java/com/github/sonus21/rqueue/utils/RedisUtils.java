@@ -19,6 +19,7 @@ package com.github.sonus21.rqueue.utils;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 public class RedisUtils {
@@ -26,10 +27,15 @@ public class RedisUtils {
 
   public static <T> RedisTemplate<String, T> getRedisTemplate(
       RedisConnectionFactory redisConnectionFactory) {
+    return getRedisTemplate(redisConnectionFactory, new GenericJackson2JsonRedisSerializer());
+  }
+
+  public static <T> RedisTemplate<String, T> getRedisTemplate(
+      RedisConnectionFactory redisConnectionFactory, RedisSerializer<?> valueSerializer) {
     RedisTemplate<String, T> redisTemplate = new RedisTemplate<>();
     redisTemplate.setConnectionFactory(redisConnectionFactory);
     redisTemplate.setKeySerializer(new StringRedisSerializer());
-    redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+    redisTemplate.setValueSerializer(valueSerializer);
     redisTemplate.setHashKeySerializer(new StringRedisSerializer());
     redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
     redisTemplate.afterPropertiesSet();
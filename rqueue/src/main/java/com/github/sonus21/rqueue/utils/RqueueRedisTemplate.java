@@ -21,6 +21,7 @@ import static com.github.sonus21.rqueue.utils.RedisUtils.getRedisTemplate;
 import java.io.Serializable;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 public abstract class RqueueRedisTemplate<V extends Serializable> {
   protected RedisTemplate<String, V> redisTemplate;
@@ -28,4 +29,9 @@ public abstract class RqueueRedisTemplate<V extends Serializable> {
   public RqueueRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
     redisTemplate = getRedisTemplate(redisConnectionFactory);
   }
+
+  public RqueueRedisTemplate(
+      RedisConnectionFactory redisConnectionFactory, RedisSerializer<?> valueSerializer) {
+    redisTemplate = getRedisTemplate(redisConnectionFactory, valueSerializer);
+  }
 }
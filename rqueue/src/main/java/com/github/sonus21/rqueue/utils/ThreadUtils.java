@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads are available from Java 21 only, while this library is compiled for Java 8, so
+ * they are created using reflection.
+ */
+public class ThreadUtils {
+  private ThreadUtils() {}
+
+  public static boolean isVirtualThreadSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Create an executor that starts a new virtual thread for each task.
+   *
+   * @param threadNamePrefix prefix of the thread names, a counter is appended to the prefix
+   * @return executor service backed by virtual threads
+   * @throws IllegalStateException if the running JVM does not support virtual threads
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+    if (!isVirtualThreadSupported()) {
+      throw new IllegalStateException(
+          "Virtual threads are not supported by this JVM, Java 21 or later is required");
+    }
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Method name = builderClass.getMethod("name", String.class, long.class);
+      builder = name.invoke(builder, threadNamePrefix, 0L);
+      ThreadFactory threadFactory =
+          (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      return (ExecutorService)
+          Executors.class
+              .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+              .invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual thread executor could not be created", e);
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.github.sonus21.rqueue.utils;
 
+import java.util.Collection;
 import org.springframework.util.Assert;
 
 public class Validator {
@@ -26,6 +27,18 @@ public class Validator {
     Assert.notNull(message, "message cannot be null");
   }
 
+  public static void validateQueueNameAndMessages(String queueName, Collection<?> messages) {
+    Assert.notNull(queueName, "queueName cannot be null");
+    Assert.notNull(messages, "messages cannot be null");
+    for (Object message : messages) {
+      Assert.notNull(message, "message cannot be null");
+    }
+  }
+
+  public static void validateGroupKey(String groupKey) {
+    Assert.notNull(groupKey, "groupKey cannot be null");
+  }
+
   public static void validateRetryCount(int retryCount) {
     if (retryCount < 0) {
       throw new IllegalArgumentException("retryCount must be positive");
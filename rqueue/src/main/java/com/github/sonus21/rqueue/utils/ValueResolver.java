@@ -47,6 +47,17 @@ public class ValueResolver {
     return Integer.parseInt(tmpVal);
   }
 
+  public static Double parseStringToDouble(String val) {
+    if (val == null) {
+      return null;
+    }
+    String tmpVal = val.trim();
+    if (tmpVal.equals("null")) {
+      return null;
+    }
+    return Double.parseDouble(tmpVal);
+  }
+
   public static boolean convertToBoolean(String s) {
     String tmpString = s.trim();
     if (tmpString.equalsIgnoreCase("true")) {
@@ -131,6 +142,28 @@ public class ValueResolver {
     return parseStringToLong(name);
   }
 
+  public static Double resolveValueToDouble(ApplicationContext applicationContext, String name) {
+    if (applicationContext instanceof ConfigurableApplicationContext) {
+      ConfigurableBeanFactory configurableBeanFactory =
+          ((ConfigurableApplicationContext) applicationContext).getBeanFactory();
+      String placeholdersResolved = configurableBeanFactory.resolveEmbeddedValue(name);
+      BeanExpressionResolver exprResolver = configurableBeanFactory.getBeanExpressionResolver();
+      if (exprResolver == null) {
+        return parseStringToDouble(name);
+      }
+      Object result =
+          exprResolver.evaluate(
+              placeholdersResolved, new BeanExpressionContext(configurableBeanFactory, null));
+      if (result instanceof Number) {
+        return ((Number) result).doubleValue();
+      } else if (result instanceof String) {
+        return parseStringToDouble((String) result);
+      }
+      throw new IllegalArgumentException(result + " can not be converted to double");
+    }
+    return parseStringToDouble(name);
+  }
+
   public static boolean resolveToBoolean(ApplicationContext applicationContext, String name) {
     if (applicationContext instanceof ConfigurableApplicationContext) {
       ConfigurableBeanFactory configurableBeanFactory =
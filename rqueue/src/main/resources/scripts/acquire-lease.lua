@@ -0,0 +1,22 @@
+-- renew the lease if this node holds one of the slots
+for i, key in ipairs(KEYS) do
+    if redis.call('GET', key) == ARGV[1] then
+        redis.call('PEXPIRE', key, ARGV[2]);
+        return 0;
+    end;
+end;
+-- take a free slot, otherwise return the time after which a slot could be free
+local minTtl = -1;
+for i, key in ipairs(KEYS) do
+    if redis.call('SET', key, ARGV[1], 'NX', 'PX', ARGV[2]) then
+        return 0;
+    end;
+    local ttl = redis.call('PTTL', key);
+    if ttl > 0 and (minTtl < 0 or ttl < minTtl) then
+        minTtl = ttl;
+    end;
+end;
+if minTtl < 0 then
+    return tonumber(ARGV[2]);
+end;
+return minTtl;
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- message body is stored in the hash, queue and group list hold only the message id
+redis.call('HSET', KEYS[5], ARGV[1], ARGV[2]);
+local count = addToGroup(KEYS[3], KEYS[4], ARGV[1]);
+if count == 1 then
+    pushToQueue(KEYS[1], KEYS[2], ARGV[1]);
+end
+return count;
\ No newline at end of file
@@ -0,0 +1,7 @@
+local count = addToGroup(KEYS[3], KEYS[4], ARGV[1]);
+if count == 1 then
+    pushToQueue(KEYS[1], KEYS[2], ARGV[2]);
+else
+    redis.call('HSET', KEYS[5], ARGV[1], ARGV[2]);
+end
+return count;
\ No newline at end of file
@@ -0,0 +1,6 @@
+-- message body is stored in the hash, delayed queue holds only the message id
+redis.call('HSET', KEYS[3], ARGV[1], ARGV[2]);
+local count = redis.call('ZADD', KEYS[1], ARGV[3], ARGV[1]);
+-- notify the scheduler of the head of the delayed queue
+notifyHead(KEYS[1], KEYS[2], KEYS[4], tonumber(ARGV[4]));
+return count;
\ No newline at end of file
@@ -1,7 +1,4 @@
 local count = redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]);
---if elements with lower priority are on head
-local v = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES');
-if v[1] ~= nil and tonumber(v[2]) < tonumber(ARGV[3]) then
-    redis.call('PUBLISH', KEYS[2], v[2]);
-end
+-- notify the scheduler of the head of the delayed queue
+notifyHead(KEYS[1], KEYS[2], KEYS[3], tonumber(ARGV[3]));
 return count;
\ No newline at end of file
@@ -0,0 +1,14 @@
+-- ARGV[1] is the current time, followed by id, message body and score of every message
+local bodies = {};
+local members = {};
+for i = 2, #ARGV, 3 do
+    bodies[#bodies + 1] = ARGV[i];
+    bodies[#bodies + 1] = ARGV[i + 1];
+    members[#members + 1] = ARGV[i + 2];
+    members[#members + 1] = ARGV[i];
+end
+redis.call('HMSET', KEYS[3], unpack(bodies));
+local count = redis.call('ZADD', KEYS[1], unpack(members));
+-- notify the scheduler of the head of the delayed queue
+notifyHead(KEYS[1], KEYS[2], KEYS[4], tonumber(ARGV[1]));
+return count;
\ No newline at end of file
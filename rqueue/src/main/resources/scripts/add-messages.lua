@@ -0,0 +1,5 @@
+-- ARGV[1] is the current time, followed by score and message pairs
+local count = redis.call('ZADD', KEYS[1], unpack(ARGV, 2));
+-- notify the scheduler of the head of the delayed queue
+notifyHead(KEYS[1], KEYS[2], KEYS[3], tonumber(ARGV[1]));
+return count;
\ No newline at end of file
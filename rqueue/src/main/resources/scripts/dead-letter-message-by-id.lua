@@ -0,0 +1,13 @@
+-- move to the dead letter queue only if this message was still in the processing queue,
+-- otherwise it has been moved back to the queue and can be consumed again
+if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then
+    return 0;
+end
+redis.call('HDEL', KEYS[2], ARGV[1]);
+redis.call('HSET', KEYS[5], ARGV[1], ARGV[2]);
+local count = redis.call('RPUSH', KEYS[3], ARGV[1]);
+-- dead letter queue was empty, listeners might be waiting for a message
+if count == 1 then
+    redis.call('PUBLISH', KEYS[4], count);
+end
+return 1;
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- id is left in the queue if it's there, it's skipped when popped
+redis.call('ZREM', KEYS[1], ARGV[1]);
+redis.call('ZREM', KEYS[2], ARGV[1]);
+return redis.call('HDEL', KEYS[3], ARGV[1]);
\ No newline at end of file
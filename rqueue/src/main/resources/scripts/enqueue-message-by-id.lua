@@ -0,0 +1,8 @@
+-- message body is stored in the hash, queue holds only the message id
+redis.call('HSET', KEYS[3], ARGV[1], ARGV[2]);
+local count = redis.call('RPUSH', KEYS[1], ARGV[1]);
+-- queue was empty, listeners might be waiting for a message
+if count == 1 then
+    redis.call('PUBLISH', KEYS[2], count);
+end
+return count;
\ No newline at end of file
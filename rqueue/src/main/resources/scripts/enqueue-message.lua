@@ -0,0 +1,6 @@
+local count = redis.call('RPUSH', KEYS[1], ARGV[1]);
+-- queue was empty, listeners might be waiting for a message
+if count == 1 then
+    redis.call('PUBLISH', KEYS[2], count);
+end
+return count;
\ No newline at end of file
@@ -0,0 +1,12 @@
+-- ARGV has id and message body pairs, bodies are stored in the hash and queue holds only ids
+local ids = {};
+for i = 1, #ARGV, 2 do
+    ids[#ids + 1] = ARGV[i];
+end
+redis.call('HMSET', KEYS[3], unpack(ARGV));
+local count = redis.call('RPUSH', KEYS[1], unpack(ids));
+-- queue was empty, listeners might be waiting for a message
+if count == #ids then
+    redis.call('PUBLISH', KEYS[2], count);
+end
+return count;
\ No newline at end of file
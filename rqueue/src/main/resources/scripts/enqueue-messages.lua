@@ -0,0 +1,6 @@
+local count = redis.call('RPUSH', KEYS[1], unpack(ARGV));
+-- queue was empty, listeners might be waiting for a message
+if count == #ARGV then
+    redis.call('PUBLISH', KEYS[2], count);
+end
+return count;
\ No newline at end of file
@@ -0,0 +1,42 @@
+-- messages of a group wait in the group list, only the head of the group is in the queue. Lists
+-- hold message ids, a queue holds either the message or its id.
+
+-- push a message to the queue, listeners might be waiting for a message when the queue was empty
+local function pushToQueue(queue, channel, value)
+    local size = redis.call('RPUSH', queue, value);
+    if size == 1 then
+        redis.call('PUBLISH', channel, size);
+    end
+end
+
+-- add a message to its group, the returned size of the group is 1 when the message has to be
+-- pushed to the queue
+local function addToGroup(group, groupSet, id)
+    local count = redis.call('RPUSH', group, id);
+    if count == 1 then
+        redis.call('SADD', groupSet, group);
+    end
+    return count;
+end
+
+-- remove the consumed head of a group and return the id of the next message, messages missing
+-- from the store have been deleted while waiting and are skipped. Only the head of a group
+-- releases the group, a message consumed again after its group has moved on must not release the
+-- next message.
+local function releaseGroup(group, groupSet, store, id)
+    if redis.call('LINDEX', group, 0) ~= id then
+        return nil;
+    end
+    redis.call('LPOP', group);
+    local nextId = redis.call('LINDEX', group, 0);
+    while nextId and redis.call('HEXISTS', store, nextId) == 0 do
+        redis.call('LPOP', group);
+        nextId = redis.call('LINDEX', group, 0);
+    end
+    if not nextId then
+        -- group is idle, its list has been removed by Redis
+        redis.call('SREM', groupSet, group);
+        return nil;
+    end
+    return nextId;
+end
\ No newline at end of file
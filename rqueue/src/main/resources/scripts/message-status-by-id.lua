@@ -0,0 +1,11 @@
+-- 0: not found, 1: enqueued, 2: delayed, 3: processing
+if redis.call('HEXISTS', KEYS[3], ARGV[1]) == 0 then
+    return 0;
+end
+if redis.call('ZSCORE', KEYS[2], ARGV[1]) then
+    return 3;
+end
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    return 2;
+end
+return 1;
\ No newline at end of file
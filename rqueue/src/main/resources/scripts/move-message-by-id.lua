@@ -0,0 +1,15 @@
+-- move ids from the head of source queue to the front of destination queue along with bodies
+for i = 1, tonumber(ARGV[1]) do
+    local id = redis.call('LPOP', KEYS[1]);
+    if not id then
+        break;
+    end
+    local body = redis.call('HGET', KEYS[3], id);
+    -- body is missing when the message has been deleted
+    if body then
+        redis.call('HSET', KEYS[4], id, body);
+        redis.call('HDEL', KEYS[3], id);
+        redis.call('LPUSH', KEYS[2], id);
+    end
+end
+return redis.call('LLEN', KEYS[1]);
\ No newline at end of file
@@ -0,0 +1,25 @@
+-- notify the scheduler of the head of a sorted set only when it has changed since the last
+-- notification, a head that has not been moved is notified again a second after its score. The
+-- marker hash holding the last notified head and counters expires an hour after it's no longer
+-- needed, so markers of removed queues do not pile up.
+local function notifyHead(zset, channel, marker, now, expiredOnly)
+    local v = redis.call('ZRANGE', zset, 0, 0, 'WITHSCORES');
+    if v[1] == nil then
+        return;
+    end
+    local head = tonumber(v[2]);
+    if expiredOnly and head >= now then
+        return;
+    end
+    local notified = redis.call('HMGET', marker, 'head', 'expiresAt');
+    local expiresAt = tonumber(notified[2]) or 0;
+    if tonumber(notified[1]) ~= head or expiresAt < now then
+        expiresAt = math.max(head, now) + 1000;
+        redis.call('PUBLISH', channel, v[2]);
+        redis.call('HMSET', marker, 'head', head, 'expiresAt', expiresAt);
+        redis.call('HINCRBY', marker, 'sent', 1);
+    else
+        redis.call('HINCRBY', marker, 'suppressed', 1);
+    end
+    redis.call('PEXPIRE', marker, expiresAt - now + 3600000);
+end
\ No newline at end of file
@@ -0,0 +1,13 @@
+-- get body of the message at the head of the queue without removing it, ids of deleted
+-- messages are removed from the head
+while true do
+    local id = redis.call('LINDEX', KEYS[1], 0);
+    if not id then
+        return nil;
+    end
+    local body = redis.call('HGET', KEYS[2], id);
+    if body then
+        return body;
+    end
+    redis.call('LPOP', KEYS[1]);
+end
\ No newline at end of file
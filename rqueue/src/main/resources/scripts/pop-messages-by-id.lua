@@ -0,0 +1,18 @@
+-- get ids from the head of the queue
+local ids = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[3]) - 1);
+local values = {};
+if #ids > 0 then
+    -- remove from the queue
+    redis.call('LTRIM', KEYS[1], #ids, -1);
+    local bodies = redis.call('HMGET', KEYS[4], unpack(ids));
+    for i, id in ipairs(ids) do
+        -- body is missing when the message has been deleted
+        if bodies[i] then
+            redis.call('ZADD', KEYS[2], ARGV[2], id);
+            values[#values + 1] = bodies[i];
+        end
+    end
+end
+-- notify the scheduler of an expired head of the processing queue
+notifyHead(KEYS[2], KEYS[3], KEYS[5], tonumber(ARGV[1]), true);
+return values;
\ No newline at end of file
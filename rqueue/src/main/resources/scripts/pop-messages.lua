@@ -0,0 +1,14 @@
+-- get head of the queue
+local values = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[3]) - 1);
+
+-- push to processing set
+if #values > 0 then
+    for _, value in ipairs(values) do
+        redis.call('ZADD', KEYS[2], ARGV[2], value);
+    end
+    -- remove from the queue
+    redis.call('LTRIM', KEYS[1], #values, -1);
+end
+-- notify the scheduler of an expired head of the processing queue
+notifyHead(KEYS[2], KEYS[3], KEYS[4], tonumber(ARGV[1]), true);
+return values;
\ No newline at end of file
@@ -0,0 +1,25 @@
+-- ARGV[1] is the current time, followed by re-enqueue time and count of every queue
+local result = {};
+for i = 1, #KEYS / 5 do
+    local queue = KEYS[5 * i - 4];
+    local processingQueue = KEYS[5 * i - 3];
+    local store = KEYS[5 * i - 1];
+    local ids = redis.call('LRANGE', queue, 0, tonumber(ARGV[2 * i + 1]) - 1);
+    local values = {};
+    if #ids > 0 then
+        -- remove from the queue
+        redis.call('LTRIM', queue, #ids, -1);
+        local bodies = redis.call('HMGET', store, unpack(ids));
+        for j, id in ipairs(ids) do
+            -- body is missing when the message has been deleted
+            if bodies[j] then
+                redis.call('ZADD', processingQueue, ARGV[2 * i], id);
+                values[#values + 1] = bodies[j];
+            end
+        end
+    end
+    -- notify the scheduler of an expired head of the processing queue
+    notifyHead(processingQueue, KEYS[5 * i - 2], KEYS[5 * i], tonumber(ARGV[1]), true);
+    result[i] = values;
+end
+return result;
\ No newline at end of file
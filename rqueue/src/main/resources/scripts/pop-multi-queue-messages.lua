@@ -0,0 +1,19 @@
+-- ARGV[1] is the current time, followed by re-enqueue time and count of every queue
+local result = {};
+for i = 1, #KEYS / 4 do
+    local queue = KEYS[4 * i - 3];
+    local processingQueue = KEYS[4 * i - 2];
+    local values = redis.call('LRANGE', queue, 0, tonumber(ARGV[2 * i + 1]) - 1);
+    -- push to processing set
+    if #values > 0 then
+        for _, value in ipairs(values) do
+            redis.call('ZADD', processingQueue, ARGV[2 * i], value);
+        end
+        -- remove from the queue
+        redis.call('LTRIM', queue, #values, -1);
+    end
+    -- notify the scheduler of an expired head of the processing queue
+    notifyHead(processingQueue, KEYS[4 * i - 1], KEYS[4 * i], tonumber(ARGV[1]), true);
+    result[i] = values;
+end
+return result;
\ No newline at end of file
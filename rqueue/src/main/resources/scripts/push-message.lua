@@ -1,13 +1,21 @@
-local expiredValues = redis.call('ZRANGEBYSCORE', KEYS[2], 0, ARGV[1], 'LIMIT', 0, ARGV[2]);
+local expiredValues = redis.call('ZRANGEBYSCORE', KEYS[2], 0, ARGV[1], 'WITHSCORES', 'LIMIT', 0, ARGV[2]);
+local oldestScore = -1;
 if #expiredValues > 0 then
-    for i, v in ipairs(expiredValues) do
-        redis.call('RPUSH', KEYS[1], v);
+    local values = {};
+    for i = 1, #expiredValues, 2 do
+        redis.call('RPUSH', KEYS[1], expiredValues[i]);
+        values[#values + 1] = expiredValues[i];
     end;
-    redis.call('ZREM', KEYS[2], unpack(expiredValues));
+    oldestScore = tonumber(expiredValues[2]);
+    redis.call('ZREM', KEYS[2], unpack(values));
+    -- wake up listeners waiting for a message
+    redis.call('PUBLISH', KEYS[3], #values);
 end;
 -- check head of the queue
+local headScore = -1;
 local v = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES');
 if v[1] ~= nil then
-    return tonumber(v[2]);
+    headScore = tonumber(v[2]);
 end
-return nil;
\ No newline at end of file
+-- scores of the head and of the most overdue message moved, -1 if there is none
+return {headScore, oldestScore};
\ No newline at end of file
@@ -0,0 +1,6 @@
+local id = releaseGroup(KEYS[3], KEYS[4], KEYS[5], ARGV[1]);
+if not id then
+    return 0;
+end
+pushToQueue(KEYS[1], KEYS[2], id);
+return 1;
\ No newline at end of file
@@ -0,0 +1,8 @@
+local id = releaseGroup(KEYS[3], KEYS[4], KEYS[5], ARGV[1]);
+if not id then
+    return 0;
+end
+local message = redis.call('HGET', KEYS[5], id);
+redis.call('HDEL', KEYS[5], id);
+pushToQueue(KEYS[1], KEYS[2], message);
+return 1;
\ No newline at end of file
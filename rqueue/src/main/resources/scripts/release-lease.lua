@@ -0,0 +1,7 @@
+for i, key in ipairs(KEYS) do
+    if redis.call('GET', key) == ARGV[1] then
+        redis.call('DEL', key);
+        return 1;
+    end;
+end;
+return 0;
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- remove a message from the queue along with its body, the body is kept if the message is
+-- not in the queue
+if redis.call('LREM', KEYS[1], 1, ARGV[1]) == 1 then
+    redis.call('HDEL', KEYS[2], ARGV[1]);
+    return 1;
+end
+return 0;
\ No newline at end of file
@@ -0,0 +1,10 @@
+-- delete body only if this message was still in the processing queue, otherwise it has been
+-- moved back to the queue and would be consumed again
+local count = 0;
+for _, id in ipairs(ARGV) do
+    if redis.call('ZREM', KEYS[1], id) == 1 then
+        redis.call('HDEL', KEYS[2], id);
+        count = count + 1;
+    end
+end
+return count;
\ No newline at end of file
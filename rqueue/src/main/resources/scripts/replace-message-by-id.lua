@@ -0,0 +1,6 @@
+-- update body only if this message is still in the processing queue
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]);
+    return 1;
+end
+return 0;
\ No newline at end of file
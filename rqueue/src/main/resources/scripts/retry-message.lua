@@ -0,0 +1,9 @@
+-- schedule a retry only if this message was still in the processing queue, otherwise it has been
+-- moved back to the queue and can be consumed again
+if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then
+    return 0;
+end
+redis.call('ZADD', KEYS[2], ARGV[3], ARGV[2]);
+-- notify the scheduler of the head of the delayed queue
+notifyHead(KEYS[2], KEYS[3], KEYS[4], tonumber(ARGV[4]));
+return 1;
\ No newline at end of file
@@ -0,0 +1,9 @@
+-- push back in the reverse order, so that the first message is on the head of the queue
+local count = 0;
+for i = #ARGV, 1, -1 do
+    if redis.call('ZREM', KEYS[1], ARGV[i]) == 1 then
+        redis.call('LPUSH', KEYS[2], ARGV[i]);
+        count = count + 1;
+    end
+end
+return count;
\ No newline at end of file
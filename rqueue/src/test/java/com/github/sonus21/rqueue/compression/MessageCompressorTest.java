@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.compression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.converter.MessageConversionException;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class MessageCompressorTest {
+  @Rule public ExpectedException expectedException = ExpectedException.none();
+  private String payload =
+      String.join(",", Collections.nCopies(100, "{\"id\":\"1234\",\"report\":\"monthly\"}"));
+  private MessageCompressor messageCompressor =
+      new MessageCompressor(new DeflateCompressionCodec(), 1024);
+
+  @Test
+  public void messageLargerThanThresholdIsCompressed() {
+    RqueueMessage message = new RqueueMessage("report-queue", payload, null, null);
+    messageCompressor.compress(message);
+    assertEquals(DeflateCompressionCodec.NAME, message.getCompression());
+    assertTrue(message.getMessage().length() < payload.length());
+    assertEquals(payload, new MessageCompressor().decompress(message));
+
+    CompressionStats stats = messageCompressor.getCompressionStats("report-queue");
+    assertEquals(1, stats.getCompressedMessageCount());
+    assertEquals(payload.length(), stats.getUncompressedSize());
+    assertTrue(stats.getCompressionRatio() > 5);
+  }
+
+  @Test
+  public void smallMessageIsNotCompressed() {
+    RqueueMessage message = new RqueueMessage("report-queue", "small", null, null);
+    messageCompressor.compress(message);
+    assertNull(message.getCompression());
+    assertEquals("small", messageCompressor.decompress(message));
+    assertEquals(1, messageCompressor.getCompressionStats("report-queue").getMessageCount());
+  }
+
+  @Test
+  public void queueCompression() {
+    messageCompressor.disableCompression("report-queue");
+    messageCompressor.setCompression("audit-queue", new DeflateCompressionCodec(1), 10);
+    RqueueMessage message = new RqueueMessage("report-queue", payload, null, null);
+    messageCompressor.compress(message);
+    assertNull(message.getCompression());
+    assertNull(messageCompressor.getCompressionStats("report-queue"));
+
+    RqueueMessage message2 = new RqueueMessage("audit-queue", payload, null, null);
+    messageCompressor.compress(message2);
+    assertEquals(DeflateCompressionCodec.NAME, message2.getCompression());
+  }
+
+  @Test
+  public void unknownCodec() {
+    RqueueMessage message = new RqueueMessage("report-queue", "abcd", null, null);
+    message.setCompression("lz4");
+    expectedException.expect(MessageConversionException.class);
+    messageCompressor.decompress(message);
+  }
+
+  @Test
+  public void corruptedMessage() {
+    RqueueMessage message = new RqueueMessage("report-queue", payload, null, null);
+    messageCompressor.compress(message);
+    message.setMessage(message.getMessage().substring(0, 20));
+    expectedException.expect(MessageConversionException.class);
+    messageCompressor.decompress(message);
+  }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import com.github.sonus21.rqueue.compression.MessageCompressor;
 import com.github.sonus21.rqueue.converter.GenericMessageConverter;
 import com.github.sonus21.rqueue.listener.RqueueMessageHandler;
 import com.github.sonus21.rqueue.listener.RqueueMessageListenerContainer;
@@ -98,6 +99,119 @@ public class SimpleRqueueListenerContainerFactoryTest {
     assertEquals(maxWorkers, simpleRqueueListenerContainerFactory.getMaxNumWorkers());
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void setBatchSizeZero() {
+    simpleRqueueListenerContainerFactory.setBatchSize(0);
+  }
+
+  @Test
+  public void setBatchSize() {
+    simpleRqueueListenerContainerFactory.setBatchSize(10);
+    assertEquals(Integer.valueOf(10), simpleRqueueListenerContainerFactory.getBatchSize());
+    simpleRqueueListenerContainerFactory.setRedisConnectionFactory(new LettuceConnectionFactory());
+    simpleRqueueListenerContainerFactory.setRqueueMessageHandler(new RqueueMessageHandler());
+    RqueueMessageListenerContainer container =
+        simpleRqueueListenerContainerFactory.createMessageListenerContainer();
+    assertEquals(10, container.getBatchSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setPollingIntervalZero() {
+    simpleRqueueListenerContainerFactory.setPollingInterval(0L);
+  }
+
+  @Test
+  public void setMessageNotificationEnabled() {
+    assertFalse(simpleRqueueListenerContainerFactory.isMessageNotificationEnabled());
+    simpleRqueueListenerContainerFactory.setMessageNotificationEnabled(true);
+    simpleRqueueListenerContainerFactory.setPollingInterval(5000L);
+    simpleRqueueListenerContainerFactory.setRedisConnectionFactory(new LettuceConnectionFactory());
+    simpleRqueueListenerContainerFactory.setRqueueMessageHandler(new RqueueMessageHandler());
+    RqueueMessageListenerContainer container =
+        simpleRqueueListenerContainerFactory.createMessageListenerContainer();
+    assertTrue(container.isMessageNotificationEnabled());
+    assertEquals(5000L, container.getPollingInterval());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setVirtualThreadCountPerQueueZero() {
+    simpleRqueueListenerContainerFactory.setVirtualThreadCountPerQueue(0);
+  }
+
+  @Test
+  public void setVirtualThreadsEnabled() {
+    assertFalse(simpleRqueueListenerContainerFactory.isVirtualThreadsEnabled());
+    simpleRqueueListenerContainerFactory.setVirtualThreadsEnabled(true);
+    simpleRqueueListenerContainerFactory.setVirtualThreadCountPerQueue(1000);
+    simpleRqueueListenerContainerFactory.setRedisConnectionFactory(new LettuceConnectionFactory());
+    simpleRqueueListenerContainerFactory.setRqueueMessageHandler(new RqueueMessageHandler());
+    RqueueMessageListenerContainer container =
+        simpleRqueueListenerContainerFactory.createMessageListenerContainer();
+    assertTrue(container.isVirtualThreadsEnabled());
+    assertEquals(1000, container.getVirtualThreadCountPerQueue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setPollerCountZero() {
+    simpleRqueueListenerContainerFactory.setPollerCount(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxPollingIntervalZero() {
+    simpleRqueueListenerContainerFactory.setMaxPollingInterval(0L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setAckBatchSizeZero() {
+    simpleRqueueListenerContainerFactory.setAckBatchSize(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setAckFlushIntervalZero() {
+    simpleRqueueListenerContainerFactory.setAckFlushInterval(0L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxInFlightMessagesZero() {
+    simpleRqueueListenerContainerFactory.setMaxInFlightMessages(0);
+  }
+
+  @Test
+  public void setAckBatchSize() {
+    simpleRqueueListenerContainerFactory.setAckBatchSize(50);
+    simpleRqueueListenerContainerFactory.setAckFlushInterval(10L);
+    simpleRqueueListenerContainerFactory.setRedisConnectionFactory(new LettuceConnectionFactory());
+    simpleRqueueListenerContainerFactory.setRqueueMessageHandler(new RqueueMessageHandler());
+    RqueueMessageListenerContainer container =
+        simpleRqueueListenerContainerFactory.createMessageListenerContainer();
+    assertEquals(Integer.valueOf(50), container.getAckBatchSize());
+    assertEquals(10L, container.getAckFlushInterval());
+  }
+
+  @Test
+  public void setPollerCount() {
+    assertNull(simpleRqueueListenerContainerFactory.getPollerCount());
+    simpleRqueueListenerContainerFactory.setPollerCount(2);
+    simpleRqueueListenerContainerFactory.setMaxPollingInterval(10000L);
+    simpleRqueueListenerContainerFactory.setRedisConnectionFactory(new LettuceConnectionFactory());
+    simpleRqueueListenerContainerFactory.setRqueueMessageHandler(new RqueueMessageHandler());
+    RqueueMessageListenerContainer container =
+        simpleRqueueListenerContainerFactory.createMessageListenerContainer();
+    assertEquals(Integer.valueOf(2), container.getPollerCount());
+    assertEquals(10000L, container.getMaxPollingInterval());
+  }
+
+  @Test
+  public void setMessageCompressor() {
+    MessageCompressor messageCompressor = new MessageCompressor();
+    simpleRqueueListenerContainerFactory.setMessageCompressor(messageCompressor);
+    simpleRqueueListenerContainerFactory.setRedisConnectionFactory(new LettuceConnectionFactory());
+    simpleRqueueListenerContainerFactory.setRqueueMessageHandler(new RqueueMessageHandler());
+    RqueueMessageListenerContainer container =
+        simpleRqueueListenerContainerFactory.createMessageListenerContainer();
+    assertEquals(messageCompressor, container.getMessageCompressor());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void setMessageConverters() {
     simpleRqueueListenerContainerFactory.setMessageConverters(null);
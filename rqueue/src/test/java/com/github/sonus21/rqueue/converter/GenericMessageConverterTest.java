@@ -19,6 +19,9 @@ package com.github.sonus21.rqueue.converter;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
@@ -68,6 +71,36 @@ public class GenericMessageConverterTest {
     assertEquals(testData, t2);
   }
 
+  @Test
+  public void toMessageEmbedsPayloadWithoutEscaping() {
+    Message<String> m = (Message<String>) genericMessageConverter.toMessage(testData, null);
+    assertEquals(
+        "{\"t\":\""
+            + TestData.class.getName()
+            + "\",\"p\":{\"id\":\""
+            + testData.getId()
+            + "\",\"message\":\"This is test\"}}",
+        m.getPayload());
+  }
+
+  @Test
+  public void fromMessageLegacyFormat() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    Map<String, String> legacy = new LinkedHashMap<>();
+    legacy.put("msg", objectMapper.writeValueAsString(testData));
+    legacy.put("name", TestData.class.getName());
+    Message<String> message = new GenericMessage<>(objectMapper.writeValueAsString(legacy));
+    assertEquals(testData, genericMessageConverter.fromMessage(message, null));
+    // same type is read using the cached reader
+    assertEquals(testData, genericMessageConverter.fromMessage(message, null));
+  }
+
+  @Test
+  public void fromMessageWithoutType() {
+    Message<String> message = new GenericMessage<>("{\"p\":{\"id\":\"1\"}}");
+    assertNull(genericMessageConverter.fromMessage(message, null));
+  }
+
   @Data
   @AllArgsConstructor
   @NoArgsConstructor
@@ -20,9 +20,13 @@ import static com.github.sonus21.rqueue.utils.TimeUtils.sleep;
 import static com.github.sonus21.rqueue.utils.TimeUtils.waitFor;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -34,13 +38,16 @@ import com.github.sonus21.rqueue.listener.QueueDetail;
 import com.github.sonus21.rqueue.utils.QueueUtils;
 import com.github.sonus21.rqueue.utils.SchedulerFactory;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.Before;
@@ -111,9 +118,77 @@ public class DelayedMessageSchedulerTest {
     assertThat(
         messageScheduler.getNextScheduleTime(slowQueue, null),
         greaterThanOrEqualTo(currentTime + 5000L));
+    long headScore = currentTime + 1001L;
+    long nextScheduleTime = messageScheduler.getNextScheduleTime(fastQueue, headScore);
+    assertThat(nextScheduleTime, greaterThanOrEqualTo(headScore));
+    assertThat(nextScheduleTime, lessThanOrEqualTo(headScore + 50L));
+    assertEquals(0, nextScheduleTime % 50);
     assertThat(
-        messageScheduler.getNextScheduleTime(fastQueue, currentTime + 1000L),
-        greaterThanOrEqualTo(currentTime + 5000L));
+        messageScheduler.getNextScheduleTime(fastQueue, currentTime - 1000L),
+        greaterThanOrEqualTo(currentTime));
+  }
+
+  @Test
+  public void getNextScheduleTimeIsCappedAtDefaultDelay() {
+    long currentTime = System.currentTimeMillis();
+    long nextScheduleTime =
+        messageScheduler.getNextScheduleTime(fastQueue, currentTime + 60000L);
+    assertThat(nextScheduleTime, greaterThanOrEqualTo(currentTime + 5000L));
+    assertThat(nextScheduleTime, lessThanOrEqualTo(System.currentTimeMillis() + 5000L));
+  }
+
+  @Test
+  public void getNextScheduleTimeWithAccuracy() {
+    DelayedMessageScheduler scheduler =
+        new DelayedMessageScheduler(redisTemplate, poolSize, true, true, 1000L);
+    long currentTime = System.currentTimeMillis();
+    long nextScheduleTime = scheduler.getNextScheduleTime(fastQueue, currentTime + 10L);
+    assertEquals(0, nextScheduleTime % 1000);
+    assertThat(nextScheduleTime, greaterThanOrEqualTo(currentTime + 10L));
+  }
+
+  @Test
+  public void messagesAreNotMovedWithoutLease() throws Exception {
+    AtomicInteger counter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              counter.incrementAndGet();
+              return 60000L;
+            })
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+    messageScheduler.setLeaseTime(10000L);
+    messageScheduler.onApplicationEvent(
+        new QueueInitializationEvent("Test", queueNameToQueueDetail, true));
+    waitFor(() -> counter.get() >= 1, "lease is checked");
+    sleep(200);
+    // only the lease has been checked, the next check is due once the lease could have expired
+    assertEquals(1, counter.get());
+    Map<String, ScheduledTaskDetail> queueNameToScheduledTask =
+        (Map<String, ScheduledTaskDetail>)
+            FieldUtils.readField(messageScheduler, "queueNameToScheduledTask", true);
+    assertThat(
+        queueNameToScheduledTask.get(slowQueue).getStartTime(),
+        greaterThanOrEqualTo(System.currentTimeMillis() + 50000L));
+    messageScheduler.destroy();
+  }
+
+  @Test
+  public void latenessOfMovedMessagesIsRecorded() throws Exception {
+    long oldestScore = System.currentTimeMillis() - 300L;
+    doAnswer(invocation -> Arrays.asList(-1L, oldestScore))
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+    messageScheduler.onApplicationEvent(
+        new QueueInitializationEvent("Test", queueNameToQueueDetail, true));
+    waitFor(
+        () -> messageScheduler.getLatenessHistogram(slowQueue) != null,
+        "lateness is recorded");
+    messageScheduler.destroy();
+    LatenessHistogram histogram = messageScheduler.getLatenessHistogram(slowQueue);
+    assertThat(histogram.getCount(), greaterThanOrEqualTo(1L));
+    assertThat(histogram.getMax(), greaterThanOrEqualTo(300L));
+    assertNull(messageScheduler.getLatenessHistogram(fastQueue));
   }
 
   @Test
@@ -125,7 +200,6 @@ public class DelayedMessageSchedulerTest {
     assertNull(FieldUtils.readField(messageScheduler, "queueNameToScheduledTask", true));
     assertNull(FieldUtils.readField(messageScheduler, "channelNameToQueueName", true));
     assertNull(FieldUtils.readField(messageScheduler, "queueNameToZsetName", true));
-    assertNull(FieldUtils.readField(messageScheduler, "queueNameToLastMessageSeenTime", true));
   }
 
   @Test
@@ -297,6 +371,78 @@ public class DelayedMessageSchedulerTest {
     messageScheduler.destroy();
   }
 
+  @Test
+  public void onlyEarlierEventReplacesArmedTask() throws Exception {
+    TestMessageScheduler messageScheduler =
+        new TestMessageScheduler(redisTemplate, poolSize, false, true);
+    FieldUtils.writeField(
+        messageScheduler, "redisMessageListenerContainer", redisMessageListenerContainer, true);
+    messageScheduler.onApplicationEvent(
+        new QueueInitializationEvent("Test", queueNameToQueueDetail, true));
+    Map<String, ScheduledTaskDetail> queueNameToScheduledTask =
+        (Map<String, ScheduledTaskDetail>)
+            FieldUtils.readField(messageScheduler, "queueNameToScheduledTask", true);
+    assertTrue(queueNameToScheduledTask.isEmpty());
+    String zsetName = QueueUtils.getTimeQueueName(slowQueue);
+    long currentTime = System.currentTimeMillis();
+    messageScheduler.schedule(slowQueue, zsetName, currentTime + 60000L, false);
+    ScheduledTaskDetail laterTask = queueNameToScheduledTask.get(slowQueue);
+    assertNotNull(laterTask);
+
+    messageScheduler.schedule(slowQueue, zsetName, currentTime + 30000L, false);
+    ScheduledTaskDetail earlierTask = queueNameToScheduledTask.get(slowQueue);
+    assertNotSame(laterTask, earlierTask);
+    assertEquals(currentTime + 30000L, earlierTask.getStartTime());
+    assertTrue(laterTask.getFuture().isCancelled());
+
+    messageScheduler.schedule(slowQueue, zsetName, currentTime + 45000L, false);
+    assertSame(earlierTask, queueNameToScheduledTask.get(slowQueue));
+    assertFalse(earlierTask.getFuture().isCancelled());
+    messageScheduler.destroy();
+    assertTrue(earlierTask.getFuture().isCancelled());
+  }
+
+  @Test
+  public void eventReceivedWhileTaskIsRunningIsHonouredOnceItHasFinished() throws Exception {
+    CountDownLatch taskStarted = new CountDownLatch(1);
+    CountDownLatch taskFinished = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              taskStarted.countDown();
+              taskFinished.await();
+              return null;
+            })
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+    TestMessageScheduler messageScheduler =
+        new TestMessageScheduler(redisTemplate, poolSize, false, true);
+    FieldUtils.writeField(
+        messageScheduler, "redisMessageListenerContainer", redisMessageListenerContainer, true);
+    messageScheduler.onApplicationEvent(
+        new QueueInitializationEvent("Test", queueNameToQueueDetail, true));
+    Map<String, ScheduledTaskDetail> queueNameToScheduledTask =
+        (Map<String, ScheduledTaskDetail>)
+            FieldUtils.readField(messageScheduler, "queueNameToScheduledTask", true);
+    String zsetName = QueueUtils.getTimeQueueName(slowQueue);
+    messageScheduler.schedule(slowQueue, zsetName, System.currentTimeMillis(), false);
+    assertTrue(taskStarted.await(5, TimeUnit.SECONDS));
+    ScheduledTaskDetail runningTask = queueNameToScheduledTask.get(slowQueue);
+    assertTrue(runningTask.isRunning());
+
+    // running task keeps its entry, so no other run of the queue is armed
+    long wakeUpTime = System.currentTimeMillis() + 1000L;
+    messageScheduler.schedule(slowQueue, zsetName, wakeUpTime, false);
+    assertSame(runningTask, queueNameToScheduledTask.get(slowQueue));
+    assertEquals(wakeUpTime, runningTask.getWakeUpTime());
+
+    taskFinished.countDown();
+    waitFor(() -> queueNameToScheduledTask.get(slowQueue) != runningTask, "next run to be armed");
+    ScheduledTaskDetail nextTask = queueNameToScheduledTask.get(slowQueue);
+    assertFalse(nextTask.isRunning());
+    assertEquals(wakeUpTime, nextTask.getStartTime());
+    messageScheduler.destroy();
+  }
+
   static class TestTaskScheduler extends ThreadPoolTaskScheduler {
 
     private static final long serialVersionUID = 3617860362304703358L;
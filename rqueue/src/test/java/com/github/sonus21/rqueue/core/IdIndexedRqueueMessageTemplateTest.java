@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultScriptExecutor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class IdIndexedRqueueMessageTemplateTest {
+  private RedisConnectionFactory redisConnectionFactory = mock(RedisConnectionFactory.class);
+  private RedisTemplate<String, RqueueMessage> redisTemplate = mock(RedisTemplate.class);
+  private DefaultScriptExecutor<String> scriptExecutor = mock(DefaultScriptExecutor.class);
+  private RqueueMessageSerializer messageSerializer = new RqueueMessageSerializer(false);
+  private IdIndexedRqueueMessageTemplate messageTemplate =
+      new IdIndexedRqueueMessageTemplate(redisConnectionFactory, messageSerializer);
+  private String queueName = "test-queue";
+  private String storeName = QueueUtils.getMessageStoreName(queueName);
+  private String processingQueueName = QueueUtils.getProcessingQueueName(queueName);
+  private RqueueMessage message = new RqueueMessage(queueName, "This is a message", null, null);
+  private RqueueMessage message2 = new RqueueMessage(queueName, "Another message", null, null);
+
+  @Before
+  public void init() throws Exception {
+    FieldUtils.writeField(messageTemplate, "redisTemplate", redisTemplate, true);
+    FieldUtils.writeField(messageTemplate, "scriptExecutor", scriptExecutor, true);
+  }
+
+  @Test
+  public void addStoresBodyAndEnqueuesId() {
+    messageTemplate.add(queueName, message);
+    ArgumentCaptor<RedisSerializer<Object>> argumentCaptor =
+        ArgumentCaptor.forClass(RedisSerializer.class);
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            argumentCaptor.capture(),
+            any(),
+            eq(Arrays.asList(queueName, QueueUtils.getQueueChannelName(queueName), storeName)),
+            eq(message.getId()),
+            eq(message));
+    RedisSerializer<Object> argumentSerializer = argumentCaptor.getValue();
+    assertArrayEquals(
+        message.getId().getBytes(StandardCharsets.UTF_8),
+        argumentSerializer.serialize(message.getId()));
+    assertArrayEquals(
+        messageSerializer.serialize(message), argumentSerializer.serialize(message));
+    assertArrayEquals("10".getBytes(StandardCharsets.UTF_8), argumentSerializer.serialize(10));
+  }
+
+  @Test
+  public void pop() {
+    doReturn(Collections.singletonList(message))
+        .when(scriptExecutor)
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            any(),
+            any(),
+            any(),
+            eq(1));
+    assertEquals(message, messageTemplate.pop(queueName, 900000L));
+  }
+
+  @Test
+  public void popWhenQueueIsEmpty() {
+    assertNull(messageTemplate.pop(queueName, 900000L));
+    assertTrue(messageTemplate.pop(queueName, 900000L, 10).isEmpty());
+  }
+
+  @Test
+  public void acknowledgeRemovesIds() {
+    doReturn(2L)
+        .when(scriptExecutor)
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            eq(Arrays.asList(processingQueueName, storeName)),
+            eq(message.getId()),
+            eq(message2.getId()));
+    assertEquals(
+        Long.valueOf(2), messageTemplate.acknowledge(queueName, Arrays.asList(message, message2)));
+    assertEquals(Long.valueOf(0), messageTemplate.acknowledge(queueName, Collections.emptyList()));
+  }
+
+  @Test
+  public void moveToDeadLetter() throws Exception {
+    RqueueMessage newMessage = message.clone();
+    newMessage.setFailureCount(3);
+    doReturn(1L)
+        .when(scriptExecutor)
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            eq(
+                Arrays.asList(
+                    processingQueueName,
+                    storeName,
+                    "dlq",
+                    QueueUtils.getQueueChannelName("dlq"),
+                    QueueUtils.getMessageStoreName("dlq"))),
+            eq(message.getId()),
+            eq(newMessage));
+    assertTrue(messageTemplate.moveToDeadLetter(queueName, "dlq", message, newMessage));
+  }
+
+  @Test
+  public void getMessageStatus() {
+    doReturn(3L, 2L, 1L, 0L)
+        .when(scriptExecutor)
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            any(),
+            eq(message.getId()));
+    assertEquals(
+        MessageStatus.PROCESSING, messageTemplate.getMessageStatus(queueName, message.getId()));
+    assertEquals(
+        MessageStatus.DELAYED, messageTemplate.getMessageStatus(queueName, message.getId()));
+    assertEquals(
+        MessageStatus.ENQUEUED, messageTemplate.getMessageStatus(queueName, message.getId()));
+    assertEquals(
+        MessageStatus.NOT_FOUND, messageTemplate.getMessageStatus(queueName, message.getId()));
+  }
+
+  @Test
+  public void deleteMessage() {
+    doReturn(1L)
+        .when(scriptExecutor)
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            eq(
+                Arrays.asList(
+                    QueueUtils.getTimeQueueName(queueName), processingQueueName, storeName)),
+            eq(message.getId()));
+    assertTrue(messageTemplate.deleteMessage(queueName, message.getId()));
+    assertFalse(messageTemplate.deleteMessage(queueName, message2.getId()));
+  }
+
+  @Test
+  public void getAllMessagesSkipsDeletedMessages() {
+    doReturn(Arrays.asList(messageSerializer.serialize(message), null))
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+    assertEquals(Collections.singletonList(message), messageTemplate.getAllMessages(queueName));
+  }
+
+  @Test
+  public void getMessage() {
+    doReturn(messageSerializer.serialize(message))
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+    assertEquals(message, messageTemplate.getMessage(queueName, message.getId()));
+  }
+
+  @Test
+  public void messagesAreRemovedFromZsetUsingId() {
+    doReturn(2L).when(redisTemplate).execute(any(RedisCallback.class));
+    assertEquals(
+        Long.valueOf(2),
+        messageTemplate.removeAllFromZset(processingQueueName, Arrays.asList(message, message2)));
+    assertEquals(
+        Long.valueOf(0),
+        messageTemplate.removeAllFromZset(processingQueueName, Collections.emptyList()));
+    verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+  }
+
+  @Test
+  public void replaceMessageReplacesId() {
+    messageTemplate.replaceMessage(processingQueueName, message, message2);
+    messageTemplate.replaceMessage(processingQueueName, message, message);
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            eq(Collections.singletonList(processingQueueName)),
+            eq(message.getId()),
+            eq(message2.getId()));
+  }
+
+  @Test
+  public void moveMessageAcrossSlots() {
+    messageTemplate.setKeyNamingStrategy(KeyNamingStrategy.HASH_TAGGED);
+    List<String> keys =
+        Arrays.asList(queueName, KeyNamingStrategy.HASH_TAGGED.getMessageStoreName(queueName));
+    doReturn(message, message2, null)
+        .when(scriptExecutor)
+        .execute(any(), any(RedisSerializer.class), any(RedisSerializer.class), eq(keys));
+    assertTrue(messageTemplate.moveMessage(queueName, "dlq", 10));
+    verify(scriptExecutor, times(3))
+        .execute(any(), any(RedisSerializer.class), any(RedisSerializer.class), eq(keys));
+    // every message is added to the destination before it's removed from the source
+    InOrder inOrder = inOrder(redisTemplate, scriptExecutor);
+    for (RqueueMessage moved : Arrays.asList(message, message2)) {
+      inOrder.verify(redisTemplate).execute(any(RedisCallback.class));
+      inOrder
+          .verify(scriptExecutor)
+          .execute(
+              any(),
+              any(RedisSerializer.class),
+              any(RedisSerializer.class),
+              eq(keys),
+              eq(moved.getId()));
+    }
+  }
+
+  @Test
+  public void moveMessageAcrossSlotsStopsAtMaxMessage() {
+    messageTemplate.setKeyNamingStrategy(KeyNamingStrategy.HASH_TAGGED);
+    doReturn(message)
+        .when(scriptExecutor)
+        .execute(any(), any(RedisSerializer.class), any(RedisSerializer.class), any());
+    assertTrue(messageTemplate.moveMessage(queueName, "dlq", 3));
+    verify(redisTemplate, times(3)).execute(any(RedisCallback.class));
+    verify(scriptExecutor, times(3))
+        .execute(
+            any(),
+            any(RedisSerializer.class),
+            any(RedisSerializer.class),
+            any(),
+            eq(message.getId()));
+  }
+
+  @Test
+  public void discardIsAcknowledgement() {
+    assertFalse(messageTemplate.discard(queueName, message));
+    verify(redisTemplate, never()).opsForZSet();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class KeyNameMigratorTest {
+  @Mock private RedisConnectionFactory redisConnectionFactory;
+  @Mock private RedisTemplate<String, Object> redisTemplate;
+  @Mock private RedisConnection connection;
+  private KeyNameMigrator keyNameMigrator;
+  private byte[] plainDelayedQueue = toBytes("rqueue-delay::job");
+  private byte[] taggedDelayedQueue = toBytes("rqueue-delay::{job}");
+
+  private static byte[] toBytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Before
+  public void init() throws Exception {
+    keyNameMigrator = new KeyNameMigrator(redisConnectionFactory);
+    FieldUtils.writeField(keyNameMigrator, "redisTemplate", redisTemplate, true);
+    doAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection))
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+  }
+
+  @Test
+  public void keyIsRestoredUnderNewName() {
+    byte[] dump = toBytes("dump");
+    doReturn(dump).when(connection).dump(plainDelayedQueue);
+    doReturn(false).when(connection).exists(taggedDelayedQueue);
+    doReturn(-1L).when(connection).pTtl(plainDelayedQueue);
+    assertEquals(1, keyNameMigrator.migrate(Collections.singletonList("job")));
+    verify(connection).restore(taggedDelayedQueue, 0, dump);
+    verify(connection).del(plainDelayedQueue);
+  }
+
+  @Test
+  public void sortedSetIsMergedIntoExistingKey() {
+    doReturn(toBytes("dump")).when(connection).dump(plainDelayedQueue);
+    doReturn(true).when(connection).exists(taggedDelayedQueue);
+    doReturn(DataType.ZSET).when(connection).type(plainDelayedQueue);
+    doReturn(DataType.ZSET).when(connection).type(taggedDelayedQueue);
+    Set<Tuple> tuples = new LinkedHashSet<>();
+    tuples.add(new DefaultTuple(toBytes("message"), 100.0));
+    doReturn(tuples).when(connection).zRangeWithScores(plainDelayedQueue, 0, -1);
+    assertEquals(1, keyNameMigrator.migrate(Collections.singletonList("job")));
+    verify(connection).zAdd(taggedDelayedQueue, tuples);
+    verify(connection).del(plainDelayedQueue);
+    verify(connection, never()).restore(any(), anyLong(), any());
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatenessHistogramTest {
+  @Test
+  public void emptyHistogram() {
+    LatenessHistogram histogram = new LatenessHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0.0, histogram.getMean(), 0.0);
+    assertEquals(0, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void record() {
+    LatenessHistogram histogram = new LatenessHistogram();
+    histogram.record(-5);
+    histogram.record(20);
+    histogram.record(80);
+    histogram.record(10000);
+    assertEquals(4, histogram.getCount());
+    assertEquals(10000, histogram.getMax());
+    assertEquals(2525.0, histogram.getMean(), 0.0);
+    assertArrayEquals(new long[] {1, 1, 0, 1, 0, 0, 0, 0, 0, 1}, histogram.getBucketCounts());
+    assertEquals(25, histogram.getPercentile(50));
+    assertEquals(100, histogram.getPercentile(75));
+    assertEquals(10000, histogram.getPercentile(99));
+  }
+}
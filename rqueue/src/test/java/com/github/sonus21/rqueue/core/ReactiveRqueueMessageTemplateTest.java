@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.reactivestreams.Subscription;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+@SuppressWarnings("unchecked")
+public class ReactiveRqueueMessageTemplateTest {
+  private ReactiveRedisTemplate<String, RqueueMessage> redisTemplate =
+      mock(ReactiveRedisTemplate.class);
+  private ReactiveZSetOperations<String, RqueueMessage> zsetOperations =
+      mock(ReactiveZSetOperations.class);
+  private ReactiveRqueueMessageTemplate rqueueMessageTemplate =
+      new ReactiveRqueueMessageTemplate(mock(ReactiveRedisConnectionFactory.class));
+  private String key = "test-queue";
+  private RqueueMessage message = new RqueueMessage(key, "This is a message", null, null);
+  private RqueueMessage message2 = new RqueueMessage(key, "This is another message", null, null);
+
+  @Before
+  public void init() throws Exception {
+    FieldUtils.writeField(rqueueMessageTemplate, "redisTemplate", redisTemplate, true);
+  }
+
+  @Test
+  public void add() {
+    doReturn(Flux.just(1L))
+        .when(redisTemplate)
+        .execute(any(RedisScript.class), anyList(), anyList());
+    assertEquals(Long.valueOf(1L), rqueueMessageTemplate.add(key, message).block());
+    verify(redisTemplate, times(1))
+        .execute(
+            any(RedisScript.class),
+            eq(Arrays.asList(key, QueueUtils.getQueueChannelName(key))),
+            eq(Collections.singletonList(message)));
+  }
+
+  @Test
+  public void popListResult() {
+    doReturn(Flux.just(Arrays.asList(message, message2)))
+        .when(redisTemplate)
+        .execute(any(RedisScript.class), anyList(), anyList());
+    assertEquals(
+        Arrays.asList(message, message2), rqueueMessageTemplate.pop(key, 900000L, 10).block());
+  }
+
+  @Test
+  public void popElementWiseResult() {
+    doReturn(Flux.just(message, message2))
+        .when(redisTemplate)
+        .execute(any(RedisScript.class), anyList(), anyList());
+    assertEquals(
+        Arrays.asList(message, message2), rqueueMessageTemplate.pop(key, 900000L, 10).block());
+  }
+
+  @Test
+  public void acknowledge() {
+    doReturn(zsetOperations).when(redisTemplate).opsForZSet();
+    doReturn(Mono.just(1L))
+        .when(zsetOperations)
+        .remove(QueueUtils.getProcessingQueueName(key), message);
+    doReturn(Mono.just(0L))
+        .when(zsetOperations)
+        .remove(QueueUtils.getProcessingQueueName(key), message2);
+    assertTrue(rqueueMessageTemplate.acknowledge(key, message).block());
+    assertFalse(rqueueMessageTemplate.acknowledge(key, message2).block());
+  }
+
+  @Test
+  public void receiveFetchesOnlyRequestedMessages() {
+    doReturn(Flux.just(Arrays.asList(message, message2)), Flux.just(Collections.emptyList()))
+        .when(redisTemplate)
+        .execute(any(RedisScript.class), anyList(), anyList());
+    List<RqueueMessage> received = new ArrayList<>();
+    BaseSubscriber<RqueueMessage> subscriber =
+        new BaseSubscriber<RqueueMessage>() {
+          @Override
+          protected void hookOnSubscribe(Subscription subscription) {
+            request(2);
+          }
+
+          @Override
+          protected void hookOnNext(RqueueMessage value) {
+            received.add(value);
+          }
+        };
+    rqueueMessageTemplate.receive(key, 900000L, 10, Duration.ofHours(1)).subscribe(subscriber);
+    assertEquals(Arrays.asList(message, message2), received);
+    // no more demand so nothing should be fetched
+    ArgumentCaptor<List<Object>> argsCaptor = ArgumentCaptor.forClass(List.class);
+    verify(redisTemplate, times(1))
+        .execute(any(RedisScript.class), anyList(), argsCaptor.capture());
+    assertEquals(2, argsCaptor.getValue().get(2));
+
+    subscriber.request(1);
+    verify(redisTemplate, times(2))
+        .execute(any(RedisScript.class), anyList(), argsCaptor.capture());
+    assertEquals(1, argsCaptor.getValue().get(2));
+    assertEquals(2, received.size());
+    subscriber.dispose();
+  }
+}
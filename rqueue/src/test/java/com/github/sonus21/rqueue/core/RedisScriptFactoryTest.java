@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptFunction;
+import com.github.sonus21.rqueue.core.RedisScriptFactory.ScriptType;
+import java.util.Arrays;
+import org.junit.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+
+public class RedisScriptFactoryTest {
+  @Test
+  public void notificationFunctionIsPrependedToScriptsChangingTheHead() {
+    for (ScriptType type : ScriptType.values()) {
+      String script = RedisScriptFactory.getScript(type).getScriptAsString();
+      assertEquals(
+          type.name(), type.isNotifyingHead(), script.contains("local function notifyHead("));
+      // defined once and called at least once
+      assertEquals(type.name(), type.isNotifyingHead(), script.split("notifyHead\\(").length > 2);
+      // marker hash is updated only by the shared function
+      assertEquals(type.name(), type.isNotifyingHead(), script.contains("'suppressed'"));
+    }
+  }
+
+  @Test
+  public void groupFunctionsArePrependedToGroupScripts() {
+    for (ScriptType type : ScriptType.values()) {
+      String script = RedisScriptFactory.getScript(type).getScriptAsString();
+      boolean grouped = Arrays.asList(type.getFunctions()).contains(ScriptFunction.GROUP);
+      assertEquals(type.name(), grouped, script.contains("local function releaseGroup("));
+      assertEquals(type.name(), grouped, script.contains("pushToQueue(KEYS[1], KEYS[2]"));
+    }
+  }
+
+  @Test
+  public void notificationMarkerExpires() {
+    String script = RedisScriptFactory.getScript(ScriptType.ADD_MESSAGE).getScriptAsString();
+    assertTrue(script.contains("redis.call('PEXPIRE', marker"));
+  }
+
+  @Test
+  public void scriptTextIsReused() {
+    RedisScript<?> script = RedisScriptFactory.getScript(ScriptType.POP_MESSAGES);
+    RedisScript<?> other = RedisScriptFactory.getScript(ScriptType.POP_MESSAGES);
+    assertEquals(script.getSha1(), other.getSha1());
+    assertNotEquals(
+        script.getSha1(), RedisScriptFactory.getScript(ScriptType.ADD_MESSAGE).getSha1());
+  }
+}
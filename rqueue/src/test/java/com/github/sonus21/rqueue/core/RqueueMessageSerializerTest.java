@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class RqueueMessageSerializerTest {
+  private GenericJackson2JsonRedisSerializer jsonSerializer =
+      new GenericJackson2JsonRedisSerializer();
+  private RqueueMessageSerializer binarySerializer = new RqueueMessageSerializer(true);
+  private RqueueMessageSerializer serializer = new RqueueMessageSerializer(false);
+
+  private void assertMessageEquals(RqueueMessage expected, Object actual) {
+    RqueueMessage actualMessage = (RqueueMessage) actual;
+    assertEquals(expected.toString(), actualMessage.toString());
+    assertEquals(expected.getCompression(), actualMessage.getCompression());
+  }
+
+  @Test
+  public void groupedMessage() {
+    RqueueMessage message = new RqueueMessage("job-queue", "message", null, null);
+    message.setGroupKey("user-1");
+    RqueueMessage binaryMessage =
+        (RqueueMessage) binarySerializer.deserialize(binarySerializer.serialize(message));
+    assertMessageEquals(message, binaryMessage);
+    assertEquals("user-1", binaryMessage.getGroupKey());
+    RqueueMessage jsonMessage =
+        (RqueueMessage) serializer.deserialize(serializer.serialize(message));
+    assertEquals("user-1", jsonMessage.getGroupKey());
+  }
+
+  @Test
+  public void compressedMessage() {
+    RqueueMessage message = new RqueueMessage("job-queue", "eJwLSS0uAQAEXQGB", null, null);
+    message.setCompression("deflate");
+    assertMessageEquals(message, binarySerializer.deserialize(binarySerializer.serialize(message)));
+    assertMessageEquals(message, serializer.deserialize(serializer.serialize(message)));
+  }
+
+  @Test
+  public void binaryFormat() {
+    RqueueMessage message = new RqueueMessage("job-queue", "{\"t\":\"Job\",\"p\":{}}", 3, 1000L);
+    message.updateReEnqueuedAt();
+    message.setFailureCount(2);
+    byte[] bytes = binarySerializer.serialize(message);
+    assertTrue(bytes.length < jsonSerializer.serialize(message).length / 2);
+    assertMessageEquals(message, binarySerializer.deserialize(bytes));
+    assertMessageEquals(message, serializer.deserialize(bytes));
+  }
+
+  @Test
+  public void binaryFormatWithoutOptionalFields() {
+    RqueueMessage message = new RqueueMessage("job-queue", "message", null, null);
+    message.setId("custom-id");
+    assertMessageEquals(message, binarySerializer.deserialize(binarySerializer.serialize(message)));
+    RqueueMessage emptyMessage = new RqueueMessage();
+    assertMessageEquals(
+        emptyMessage, binarySerializer.deserialize(binarySerializer.serialize(emptyMessage)));
+  }
+
+  @Test
+  public void jsonFormatIsUnchanged() {
+    RqueueMessage message = new RqueueMessage("job-queue", "message", 3, 1000L);
+    assertArrayEquals(jsonSerializer.serialize(message), serializer.serialize(message));
+    assertNull(serializer.deserialize(new byte[0]));
+  }
+
+  @Test
+  public void messageIsWrittenInTheFormatItWasRead() throws CloneNotSupportedException {
+    RqueueMessage message = new RqueueMessage("job-queue", "message", null, 1000L);
+    byte[] json = jsonSerializer.serialize(message);
+    RqueueMessage jsonMessage = (RqueueMessage) binarySerializer.deserialize(json);
+    assertArrayEquals(json, binarySerializer.serialize(jsonMessage));
+    assertArrayEquals(json, binarySerializer.serialize(jsonMessage.clone()));
+
+    byte[] binary = binarySerializer.serialize(message);
+    assertArrayEquals(binary, serializer.serialize(serializer.deserialize(binary)));
+  }
+
+  @Test
+  public void otherValuesAreWrittenAsJson() {
+    long currentTime = System.currentTimeMillis();
+    assertArrayEquals(
+        jsonSerializer.serialize(currentTime), binarySerializer.serialize(currentTime));
+    assertEquals(currentTime, binarySerializer.deserialize(jsonSerializer.serialize(currentTime)));
+  }
+
+  @Test
+  public void firstVersionOfBinaryFormatIsReadAndWrittenBack() {
+    // written by version 1, flags are stored in a single byte
+    byte[] bytes = {
+      -79, 1, -9, 9, 106, 111, 98, 45, 113, 117, 101, 117, 101, 10, 45, 99, 117, 115, 116, 111, 109,
+      45, 105, 100, 7, 109, 101, 115, 115, 97, 103, 101, 6, -48, 15, 0, -24, 7, 4
+    };
+    RqueueMessage message = new RqueueMessage("job-queue", "message", 3, null);
+    message.setId("job-queue-custom-id");
+    message.setQueuedTime(1000L);
+    message.setProcessAt(1000L);
+    message.setReEnqueuedAt(1500L);
+    message.setFailureCount(2);
+    RqueueMessage readMessage = (RqueueMessage) binarySerializer.deserialize(bytes);
+    assertMessageEquals(message, readMessage);
+    assertArrayEquals(bytes, binarySerializer.serialize(readMessage));
+    // the current version reads the same message written in its own layout
+    assertMessageEquals(message, binarySerializer.deserialize(binarySerializer.serialize(message)));
+  }
+
+  @Test(expected = SerializationException.class)
+  public void unknownVersion() {
+    byte[] bytes = binarySerializer.serialize(new RqueueMessage("job-queue", "message", 3, null));
+    bytes[1] = 3;
+    binarySerializer.deserialize(bytes);
+  }
+
+  @Test(expected = SerializationException.class)
+  public void truncatedMessage() {
+    byte[] bytes = binarySerializer.serialize(new RqueueMessage("job-queue", "message", 3, null));
+    byte[] truncated = new byte[bytes.length - 3];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+    binarySerializer.deserialize(truncated);
+  }
+}
@@ -16,23 +16,36 @@
 
 package com.github.sonus21.rqueue.core;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.github.sonus21.rqueue.utils.Constants;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.QueueUtils;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultScriptExecutor;
@@ -59,9 +72,9 @@ public class RqueueMessageTemplateTest {
 
   @Test
   public void add() {
-    doReturn(listOperations).when(redisTemplate).opsForList();
-    doReturn(1L).when(listOperations).rightPush(key, message);
     rqueueMessageTemplate.add(key, message);
+    verify(scriptExecutor, times(1))
+        .execute(any(), eq(Arrays.asList(key, QueueUtils.getQueueChannelName(key))), eq(message));
   }
 
   @Test
@@ -70,12 +83,324 @@ public class RqueueMessageTemplateTest {
     verify(scriptExecutor, times(1)).execute(any(), any(), any());
   }
 
+  @Test
+  public void popMessages() {
+    doReturn(Collections.singletonList(message))
+        .when(scriptExecutor)
+        .execute(any(), anyList(), any(), any(), eq(10));
+    assertEquals(
+        Collections.singletonList(message),
+        rqueueMessageTemplate.pop(key, Constants.DELTA_BETWEEN_RE_ENQUEUE_TIME, 10));
+  }
+
+  @Test
+  public void popMessagesWhenQueueIsEmpty() {
+    assertTrue(
+        rqueueMessageTemplate.pop(key, Constants.DELTA_BETWEEN_RE_ENQUEUE_TIME, 10).isEmpty());
+  }
+
+  @Test
+  public void popMessagesOfMultipleQueues() {
+    List<List<RqueueMessage>> messages =
+        Arrays.asList(Collections.singletonList(message), Collections.emptyList());
+    doReturn(messages)
+        .when(scriptExecutor)
+        .execute(
+            any(),
+            eq(
+                Arrays.asList(
+                    key,
+                    QueueUtils.getProcessingQueueName(key),
+                    QueueUtils.getProcessingQueueChannelName(key),
+                    QueueUtils.getNotificationName(QueueUtils.getProcessingQueueChannelName(key)),
+                    "other-queue",
+                    QueueUtils.getProcessingQueueName("other-queue"),
+                    QueueUtils.getProcessingQueueChannelName("other-queue"),
+                    QueueUtils.getNotificationName(
+                        QueueUtils.getProcessingQueueChannelName("other-queue")))),
+            any(),
+            any(),
+            eq(10),
+            any(),
+            eq(5));
+    assertEquals(
+        messages,
+        rqueueMessageTemplate.pop(
+            Arrays.asList(key, "other-queue"),
+            Arrays.asList(900000L, 900000L),
+            Arrays.asList(10, 5)));
+  }
+
+  @Test
+  public void popMessagesOfQueuesInDifferentSlots() {
+    rqueueMessageTemplate.setKeyNamingStrategy(KeyNamingStrategy.HASH_TAGGED);
+    doReturn(Collections.singletonList(message))
+        .when(scriptExecutor)
+        .execute(any(), anyList(), any(), any(), any());
+    List<List<RqueueMessage>> messages =
+        rqueueMessageTemplate.pop(
+            Arrays.asList(key, "other-queue"),
+            Arrays.asList(900000L, 900000L),
+            Arrays.asList(10, 5));
+    assertEquals(2, messages.size());
+    verify(scriptExecutor, times(2)).execute(any(), anyList(), any(), any(), any());
+  }
+
+  @Test
+  public void moveToDeadLetterAcrossSlots() throws CloneNotSupportedException {
+    KeyNamingStrategy strategy = KeyNamingStrategy.HASH_TAGGED;
+    rqueueMessageTemplate.setKeyNamingStrategy(strategy);
+    RqueueMessage newMessage = message.clone();
+    newMessage.setFailureCount(3);
+    doReturn(zsetOperations).when(redisTemplate).opsForZSet();
+    doReturn(1L).when(zsetOperations).remove(strategy.getProcessingQueueName(key), message);
+    assertTrue(rqueueMessageTemplate.moveToDeadLetter(key, "dead-" + key, message, newMessage));
+    // message is added to the dead letter queue before it's removed from the processing queue
+    InOrder inOrder = inOrder(scriptExecutor, zsetOperations);
+    inOrder
+        .verify(scriptExecutor)
+        .execute(
+            any(),
+            eq(Arrays.asList("dead-" + key, strategy.getQueueChannelName("dead-" + key))),
+            eq(newMessage));
+    inOrder.verify(zsetOperations).remove(strategy.getProcessingQueueName(key), message);
+  }
+
+  @Test
+  public void moveToDeadLetterInSameSlotIsAtomic() throws CloneNotSupportedException {
+    KeyNamingStrategy strategy = KeyNamingStrategy.HASH_TAGGED;
+    rqueueMessageTemplate.setKeyNamingStrategy(strategy);
+    RqueueMessage newMessage = message.clone();
+    String deadLetterQueueName = "{" + key + "}-dlq";
+    doReturn(1L).when(scriptExecutor).execute(any(), anyList(), any(), any());
+    assertTrue(
+        rqueueMessageTemplate.moveToDeadLetter(key, deadLetterQueueName, message, newMessage));
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            eq(
+                Arrays.asList(
+                    strategy.getProcessingQueueName(key),
+                    deadLetterQueueName,
+                    strategy.getQueueChannelName(deadLetterQueueName))),
+            eq(message),
+            eq(newMessage));
+    verify(redisTemplate, never()).opsForZSet();
+  }
+
+  @Test
+  public void moveMessageAcrossSlots() {
+    rqueueMessageTemplate.setKeyNamingStrategy(KeyNamingStrategy.HASH_TAGGED);
+    RqueueMessage message2 = new RqueueMessage(key, "This is another message", null, 100L);
+    doReturn(listOperations).when(redisTemplate).opsForList();
+    doReturn(message, message2, null).when(listOperations).index(key, 0);
+    assertTrue(rqueueMessageTemplate.moveMessage(key, "dead-" + key, 10));
+    // every message is added to the destination before it's removed from the source
+    InOrder inOrder = inOrder(listOperations);
+    for (RqueueMessage moved : Arrays.asList(message, message2)) {
+      inOrder.verify(listOperations).leftPush("dead-" + key, moved);
+      inOrder.verify(listOperations).remove(key, 1, moved);
+    }
+  }
+
+  @Test
+  public void deleteQueueDeletesAllKeys() {
+    rqueueMessageTemplate.setKeyNamingStrategy(KeyNamingStrategy.HASH_TAGGED);
+    rqueueMessageTemplate.deleteQueue(key);
+    for (String name : KeyNamingStrategy.HASH_TAGGED.getKeyNames(key)) {
+      verify(redisTemplate, times(1)).delete(name);
+    }
+    verify(redisTemplate, times(1)).delete(key);
+    verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+  }
+
+  @Test
+  public void addAllIsChunked() {
+    List<RqueueMessage> messages =
+        Collections.nCopies(2 * Constants.MAX_MESSAGES_PER_CALL + 1, message);
+    List<Integer> chunkSizes = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              assertEquals(
+                  Arrays.asList(key, QueueUtils.getQueueChannelName(key)),
+                  invocation.getArguments()[1]);
+              chunkSizes.add(invocation.getArguments().length - 2);
+              return 1L;
+            })
+        .when(scriptExecutor)
+        .execute(any(), anyList(), any());
+    rqueueMessageTemplate.addAll(key, messages);
+    assertEquals(
+        Arrays.asList(Constants.MAX_MESSAGES_PER_CALL, Constants.MAX_MESSAGES_PER_CALL, 1),
+        chunkSizes);
+  }
+
+  @Test
+  public void addAllWithDelay() {
+    RqueueMessage message2 = new RqueueMessage(key, "This is another message", null, 200L);
+    rqueueMessageTemplate.addAllWithDelay(key, Arrays.asList(message, message2));
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            eq(
+                Arrays.asList(
+                    QueueUtils.getTimeQueueName(key),
+                    QueueUtils.getChannelName(key),
+                    QueueUtils.getNotificationName(QueueUtils.getChannelName(key)))),
+            any(),
+            eq(message.getProcessAt()),
+            eq(message),
+            eq(message2.getProcessAt()),
+            eq(message2));
+  }
+
+  @Test
+  public void returnToQueue() {
+    rqueueMessageTemplate.returnToQueue(key, Collections.singletonList(message));
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(), eq(Arrays.asList(QueueUtils.getProcessingQueueName(key), key)), eq(message));
+  }
+
+  @Test
+  public void removeAllFromZset() {
+    RqueueMessage message2 = new RqueueMessage(key, "This is another message", null, null);
+    doReturn(zsetOperations).when(redisTemplate).opsForZSet();
+    rqueueMessageTemplate.removeAllFromZset(key, Arrays.asList(message, message2));
+    verify(zsetOperations, times(1)).remove(key, message, message2);
+  }
+
+  @Test
+  public void moveToDeadLetter() throws CloneNotSupportedException {
+    RqueueMessage newMessage = message.clone();
+    newMessage.setFailureCount(3);
+    doReturn(1L).when(scriptExecutor).execute(any(), anyList(), any(), any());
+    assertTrue(rqueueMessageTemplate.moveToDeadLetter(key, "dead-" + key, message, newMessage));
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            eq(
+                Arrays.asList(
+                    QueueUtils.getProcessingQueueName(key),
+                    "dead-" + key,
+                    QueueUtils.getQueueChannelName("dead-" + key))),
+            eq(message),
+            eq(newMessage));
+  }
+
+  @Test
+  public void scheduleRetry() throws CloneNotSupportedException {
+    RqueueMessage newMessage = message.clone();
+    newMessage.setProcessAt(System.currentTimeMillis() + 1000L);
+    doReturn(1L).when(scriptExecutor).execute(any(), anyList(), any(), any(), any(), any());
+    assertTrue(rqueueMessageTemplate.scheduleRetry(key, message, newMessage));
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            eq(
+                Arrays.asList(
+                    QueueUtils.getProcessingQueueName(key),
+                    QueueUtils.getTimeQueueName(key),
+                    QueueUtils.getChannelName(key),
+                    QueueUtils.getNotificationName(QueueUtils.getChannelName(key)))),
+            eq(message),
+            eq(newMessage),
+            eq(newMessage.getProcessAt()),
+            any());
+  }
+
+  @Test
+  public void addToGroup() throws CloneNotSupportedException {
+    RqueueMessage groupMessage = message.clone();
+    groupMessage.setGroupKey("user-1");
+    rqueueMessageTemplate.addToGroup(key, groupMessage);
+    verify(scriptExecutor, times(1))
+        .execute(
+            any(),
+            eq(
+                Arrays.asList(
+                    key,
+                    QueueUtils.getQueueChannelName(key),
+                    QueueUtils.getGroupName(key, "user-1"),
+                    QueueUtils.getGroupSetName(key),
+                    QueueUtils.getGroupMessageStoreName(key))),
+            eq(groupMessage.getId()),
+            eq(groupMessage));
+  }
+
+  @Test
+  public void releaseGroup() throws CloneNotSupportedException {
+    RqueueMessage groupMessage = message.clone();
+    groupMessage.setGroupKey("user-1");
+    doReturn(1L).when(scriptExecutor).execute(any(), anyList(), eq(groupMessage.getId()));
+    assertTrue(rqueueMessageTemplate.releaseGroup(key, groupMessage));
+    doReturn(0L).when(scriptExecutor).execute(any(), anyList(), eq(groupMessage.getId()));
+    assertFalse(rqueueMessageTemplate.releaseGroup(key, groupMessage));
+  }
+
+  @Test
+  public void discard() {
+    doReturn(zsetOperations).when(redisTemplate).opsForZSet();
+    doReturn(1L).when(zsetOperations).remove(QueueUtils.getProcessingQueueName(key), message);
+    assertTrue(rqueueMessageTemplate.discard(key, message));
+  }
+
   @Test
   public void addWithDelay() {
     rqueueMessageTemplate.addWithDelay(key, message);
     verify(scriptExecutor, times(1)).execute(any(), any(), any());
   }
 
+  @Test
+  public void getNotificationStats() {
+    List<byte[]> delayed = Arrays.asList("12".getBytes(), "30".getBytes());
+    List<byte[]> processing = Arrays.asList("2".getBytes(), null);
+    doReturn(Arrays.asList(delayed, processing))
+        .when(redisTemplate)
+        .execute(any(RedisCallback.class));
+    NotificationStats stats = rqueueMessageTemplate.getNotificationStats(key);
+    assertEquals(12, stats.getDelayedSent());
+    assertEquals(30, stats.getDelayedSuppressed());
+    assertEquals(2, stats.getProcessingSent());
+    assertEquals(0, stats.getProcessingSuppressed());
+  }
+
+  @Test
+  public void deleteMessageScansQueues() {
+    String processingQueueName = QueueUtils.getProcessingQueueName(key);
+    doReturn(listOperations).when(redisTemplate).opsForList();
+    doReturn(zsetOperations).when(redisTemplate).opsForZSet();
+    doReturn(Collections.emptyList()).when(listOperations).range(key, 0, -1);
+    doReturn(Collections.emptySet())
+        .when(zsetOperations)
+        .range(QueueUtils.getTimeQueueName(key), 0, -1);
+    doReturn(Collections.singleton(message))
+        .when(zsetOperations)
+        .range(processingQueueName, 0, -1);
+    doReturn(1L).when(zsetOperations).remove(processingQueueName, message);
+    assertTrue(rqueueMessageTemplate.deleteMessage(key, message.getId()));
+    assertFalse(rqueueMessageTemplate.deleteMessage(key, "unknown"));
+  }
+
+  @Test
+  public void getMessageStatusScansQueues() {
+    RqueueMessage delayedMessage = new RqueueMessage(key, "Delayed message", null, 100L);
+    doReturn(listOperations).when(redisTemplate).opsForList();
+    doReturn(zsetOperations).when(redisTemplate).opsForZSet();
+    doReturn(Collections.singletonList(message)).when(listOperations).range(key, 0, -1);
+    doReturn(Collections.singleton(delayedMessage))
+        .when(zsetOperations)
+        .range(QueueUtils.getTimeQueueName(key), 0, -1);
+    doReturn(Collections.emptySet())
+        .when(zsetOperations)
+        .range(QueueUtils.getProcessingQueueName(key), 0, -1);
+    assertEquals(
+        MessageStatus.ENQUEUED, rqueueMessageTemplate.getMessageStatus(key, message.getId()));
+    assertEquals(
+        MessageStatus.DELAYED, rqueueMessageTemplate.getMessageStatus(key, delayedMessage.getId()));
+    assertEquals(MessageStatus.NOT_FOUND, rqueueMessageTemplate.getMessageStatus(key, "unknown"));
+  }
+
   @Test
   public void getListLength() {
     doReturn(listOperations).when(redisTemplate).opsForList();
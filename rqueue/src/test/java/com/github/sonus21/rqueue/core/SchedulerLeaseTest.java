@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class SchedulerLeaseTest {
+  @Mock private RedisTemplate<String, Long> redisTemplate;
+  private SchedulerLease schedulerLease;
+  private String zsetName = "rqueue-delay::test-queue";
+
+  @Before
+  public void init() {
+    schedulerLease = new SchedulerLease(redisTemplate, 10000L, 2);
+  }
+
+  @Test
+  public void ownerRenewsAfterHalfOfLeaseTime() {
+    doReturn(0L).when(redisTemplate).execute(any(RedisCallback.class));
+    long currentTime = System.currentTimeMillis();
+    assertTrue(schedulerLease.acquire(zsetName, currentTime));
+    assertEquals(currentTime + 5000L, schedulerLease.getNextCheckTime(zsetName));
+    assertTrue(schedulerLease.acquire(zsetName, currentTime + 4999L));
+    verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+    assertTrue(schedulerLease.acquire(zsetName, currentTime + 5000L));
+    verify(redisTemplate, times(2)).execute(any(RedisCallback.class));
+  }
+
+  @Test
+  public void othersCheckAgainOnceLeaseCouldHaveExpired() {
+    doReturn(3000L).when(redisTemplate).execute(any(RedisCallback.class));
+    long currentTime = System.currentTimeMillis();
+    assertFalse(schedulerLease.acquire(zsetName, currentTime));
+    assertEquals(currentTime + 3000L, schedulerLease.getNextCheckTime(zsetName));
+    assertFalse(schedulerLease.acquire(zsetName, currentTime + 2999L));
+    verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+    doReturn(0L).when(redisTemplate).execute(any(RedisCallback.class));
+    assertTrue(schedulerLease.acquire(zsetName, currentTime + 3000L));
+  }
+
+  @Test
+  public void releaseOnlyOwnedLeases() {
+    doReturn(0L).when(redisTemplate).execute(any(RedisCallback.class));
+    long currentTime = System.currentTimeMillis();
+    assertTrue(schedulerLease.acquire(zsetName, currentTime));
+    doReturn(3000L).when(redisTemplate).execute(any(RedisCallback.class));
+    assertFalse(schedulerLease.acquire("rqueue-delay::other-queue", currentTime));
+    schedulerLease.release();
+    // two acquire calls and a single release call
+    verify(redisTemplate, times(3)).execute(any(RedisCallback.class));
+  }
+}
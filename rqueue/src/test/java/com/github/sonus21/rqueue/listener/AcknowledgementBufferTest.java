@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class AcknowledgementBufferTest {
+  private static final String queueName = "ack-queue";
+  private RqueueMessageListenerContainer container = mock(RqueueMessageListenerContainer.class);
+  private RqueueMessageTemplate messageTemplate = mock(RqueueMessageTemplate.class);
+  private AcknowledgementBuffer acknowledgementBuffer =
+      new AcknowledgementBuffer(container, queueName, 2);
+  private RqueueMessage message1 = new RqueueMessage(queueName, "Message 1", null, null);
+  private RqueueMessage message2 = new RqueueMessage(queueName, "Message 2", null, null);
+  private RqueueMessage message3 = new RqueueMessage(queueName, "Message 3", null, null);
+
+  @Before
+  public void init() {
+    doReturn(messageTemplate).when(container).getRqueueMessageTemplate();
+  }
+
+  @Test
+  public void fullBufferIsFlushed() {
+    acknowledgementBuffer.add(message1);
+    acknowledgementBuffer.add(message2);
+    acknowledgementBuffer.add(message3);
+    verify(messageTemplate, times(1))
+        .acknowledge(queueName, Arrays.asList(message1, message2));
+    assertEquals(1, acknowledgementBuffer.size());
+  }
+
+  @Test
+  public void flushRemovesBufferedMessages() {
+    acknowledgementBuffer.add(message1);
+    acknowledgementBuffer.flush();
+    acknowledgementBuffer.flush();
+    verify(messageTemplate, times(1))
+        .acknowledge(queueName, Arrays.asList(message1));
+    assertEquals(0, acknowledgementBuffer.size());
+  }
+
+  @Test
+  public void failedFlushIsNotPropagated() {
+    doThrow(new RedisConnectionFailureException("Connection refused"))
+        .when(messageTemplate)
+        .acknowledge(anyString(), anyList());
+    acknowledgementBuffer.add(message1);
+    acknowledgementBuffer.add(message2);
+    assertEquals(0, acknowledgementBuffer.size());
+    acknowledgementBuffer.flush();
+    verify(messageTemplate, times(1)).acknowledge(anyString(), anyList());
+    verify(messageTemplate, never()).acknowledge(anyString(), any(RqueueMessage.class));
+  }
+}
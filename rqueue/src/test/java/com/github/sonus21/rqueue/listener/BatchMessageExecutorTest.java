@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import com.github.sonus21.rqueue.processor.MessageProcessor;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.converter.GenericMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class BatchMessageExecutorTest {
+  private static final String queueName = "batch-queue";
+  private RqueueMessageListenerContainer container = mock(RqueueMessageListenerContainer.class);
+  private WeakReference<RqueueMessageListenerContainer> containerWeakReference =
+      new WeakReference<>(container);
+  private TestMessageProcessor deadLetterProcessor = new TestMessageProcessor();
+  private RqueueMessageTemplate messageTemplate = mock(RqueueMessageTemplate.class);
+  private RqueueMessageHandler messageHandler = mock(RqueueMessageHandler.class);
+  private QueueThreadPool queueThreadPool =
+      new QueueThreadPool(mock(AsyncTaskExecutor.class), 1);
+  private List<RqueueMessage> messages =
+      Arrays.asList(
+          new RqueueMessage(queueName, "Message 1", null, null),
+          new RqueueMessage(queueName, "Message 2", null, null),
+          new RqueueMessage(queueName, "Message 3", null, null));
+  private List<Object> payloads = new ArrayList<>();
+
+  private class TestMessageProcessor implements MessageProcessor {
+    private int count;
+
+    @Override
+    public void process(Object message) {
+      count += 1;
+    }
+
+    public int getCount() {
+      return count;
+    }
+  }
+
+  @Before
+  public void init() {
+    List<MessageConverter> messageConverterList =
+        Collections.singletonList(new GenericMessageConverter());
+    doReturn(true).when(container).isQueueActive(anyString());
+    doReturn(messageTemplate).when(container).getRqueueMessageTemplate();
+    doReturn(messageHandler).when(container).getRqueueMessageHandler();
+    doReturn(messageConverterList).when(messageHandler).getMessageConverters();
+  }
+
+  private QueueDetail batchQueueDetail(boolean splitFailedBatch) {
+    return new QueueDetail(
+        queueName, 2, "dead-batch-queue", false, 900000L, null, 3, 100L, splitFailedBatch, null, 1);
+  }
+
+  @Test
+  public void batchIsAcknowledgedAsUnit() throws Exception {
+    assertEquals(1, queueThreadPool.acquire(1, 0L));
+    doAnswer(
+            invocation -> {
+              Message<?> message = invocation.getArgument(0);
+              payloads.add(message.getPayload());
+              return null;
+            })
+        .when(messageHandler)
+        .handleMessage(any());
+    new BatchMessageExecutor(
+            messages, batchQueueDetail(false), containerWeakReference, queueThreadPool)
+        .run();
+    assertEquals(
+        Collections.singletonList(Arrays.asList("Message 1", "Message 2", "Message 3")), payloads);
+    for (RqueueMessage message : messages) {
+      verify(messageTemplate, times(1))
+          .acknowledge(queueName, message);
+    }
+    assertEquals(1, queueThreadPool.availablePermits());
+  }
+
+  @Test
+  public void failedBatchIsMovedToDeadLetterQueue() {
+    doReturn(deadLetterProcessor).when(container).getDlqMessageProcessor();
+    doAnswer(
+            invocation -> {
+              Message<?> message = invocation.getArgument(0);
+              payloads.add(message.getPayload());
+              throw new MessagingException("Failing for some reason.");
+            })
+        .when(messageHandler)
+        .handleMessage(any());
+    new BatchMessageExecutor(
+            messages, batchQueueDetail(false), containerWeakReference, queueThreadPool)
+        .run();
+    // batch is retried as a unit
+    assertEquals(2, payloads.size());
+    assertEquals(3, deadLetterProcessor.getCount());
+    verify(messageTemplate, times(3)).moveToDeadLetter(eq(queueName), eq("dead-batch-queue"), any(), any());
+  }
+
+  @Test
+  public void failedBatchIsRetriedWithBackOff() {
+    QueueDetail queueDetail =
+        new QueueDetail(
+            queueName,
+            2,
+            "dead-batch-queue",
+            false,
+            900000L,
+            null,
+            3,
+            100L,
+            false,
+            new RetryBackOff(1000L, 2, 60000L, 0),
+            1);
+    messages.get(2).setFailureCount(1);
+    doReturn(deadLetterProcessor).when(container).getDlqMessageProcessor();
+    doAnswer(
+            invocation -> {
+              Message<?> message = invocation.getArgument(0);
+              payloads.add(message.getPayload());
+              throw new MessagingException("Failing for some reason.");
+            })
+        .when(messageHandler)
+        .handleMessage(any());
+    long now = System.currentTimeMillis();
+    new BatchMessageExecutor(messages, queueDetail, containerWeakReference, queueThreadPool).run();
+    // batch is not retried by the worker
+    assertEquals(1, payloads.size());
+    ArgumentCaptor<RqueueMessage> retryCaptor = ArgumentCaptor.forClass(RqueueMessage.class);
+    verify(messageTemplate, times(2)).scheduleRetry(eq(queueName), any(), retryCaptor.capture());
+    for (RqueueMessage retry : retryCaptor.getAllValues()) {
+      assertEquals(1, retry.getFailureCount());
+      assertTrue(retry.getProcessAt() >= now + 1000L);
+    }
+    // message without retries left is moved to dead letter queue
+    verify(messageTemplate, times(1))
+        .moveToDeadLetter(eq(queueName), eq("dead-batch-queue"), eq(messages.get(2)), any());
+    verify(messageTemplate, never()).updateProcessingMessage(anyString(), any(), any());
+    assertEquals(1, deadLetterProcessor.getCount());
+  }
+
+  @Test
+  public void failedBatchIsSplit() {
+    doReturn(deadLetterProcessor).when(container).getDlqMessageProcessor();
+    doAnswer(
+            invocation -> {
+              Message<?> message = invocation.getArgument(0);
+              List<?> batch = (List<?>) message.getPayload();
+              payloads.add(batch);
+              if (batch.contains("Message 2")) {
+                throw new MessagingException("Failing for some reason.");
+              }
+              return null;
+            })
+        .when(messageHandler)
+        .handleMessage(any());
+    new BatchMessageExecutor(
+            messages, batchQueueDetail(true), containerWeakReference, queueThreadPool)
+        .run();
+    // one batch call followed by a call for each message
+    assertEquals(4, payloads.size());
+    assertEquals(1, deadLetterProcessor.getCount());
+    verify(messageTemplate, times(1)).moveToDeadLetter(eq(queueName), eq("dead-batch-queue"), any(), any());
+    verify(messageTemplate, times(1))
+        .acknowledge(queueName, messages.get(0));
+    verify(messageTemplate, times(1))
+        .acknowledge(queueName, messages.get(2));
+  }
+}
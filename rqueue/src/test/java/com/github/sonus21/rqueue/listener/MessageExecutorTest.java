@@ -17,25 +17,45 @@
 package com.github.sonus21.rqueue.listener;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import com.github.sonus21.rqueue.compression.DeflateCompressionCodec;
+import com.github.sonus21.rqueue.compression.MessageCompressor;
 import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.processor.MessageProcessor;
+import com.github.sonus21.rqueue.utils.SchedulerFactory;
 import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.converter.GenericMessageConverter;
 import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
 public class MessageExecutorTest {
@@ -47,6 +67,10 @@ public class MessageExecutorTest {
   private RqueueMessageTemplate messageTemplate = mock(RqueueMessageTemplate.class);
   private RqueueMessageHandler messageHandler = mock(RqueueMessageHandler.class);
   private RqueueMessage rqueueMessage = new RqueueMessage();
+  private QueueThreadPool queueThreadPool =
+      new QueueThreadPool(mock(AsyncTaskExecutor.class), 1);
+  private ThreadPoolTaskScheduler completionTimeoutScheduler =
+      SchedulerFactory.createThreadPoolTaskScheduler(1, "completionTimeout-", 1);
 
   private class TestMessageProcessor implements MessageProcessor {
     private int count;
@@ -81,13 +105,19 @@ public class MessageExecutorTest {
         .handleMessage(any());
   }
 
+  @After
+  public void destroy() {
+    completionTimeoutScheduler.destroy();
+  }
+
   @Test
   public void callDiscardProcessor() {
     QueueDetail queueDetail = new QueueDetail("test", 3, "", false, 900000);
     MessageExecutor messageExecutor =
-        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference);
+        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool);
     messageExecutor.run();
     assertEquals(1, discardProcessor.getCount());
+    verify(messageTemplate, times(1)).discard("test", rqueueMessage);
   }
 
   @Test
@@ -95,8 +125,180 @@ public class MessageExecutorTest {
     QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 900000);
 
     MessageExecutor messageExecutor =
-        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference);
+        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool);
     messageExecutor.run();
     assertEquals(1, deadLetterProcessor.getCount());
+    verify(messageTemplate, times(1))
+        .moveToDeadLetter(eq("test"), eq("dead-test"), eq(rqueueMessage), any());
+  }
+
+  @Test
+  public void groupIsReleasedBeforeMessageIsDiscarded() {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "", false, 900000);
+    rqueueMessage.setGroupKey("user-1");
+    new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool).run();
+    InOrder inOrder = inOrder(messageTemplate);
+    inOrder.verify(messageTemplate, times(1)).releaseGroup("test", rqueueMessage);
+    inOrder.verify(messageTemplate, times(1)).discard("test", rqueueMessage);
+  }
+
+  @Test
+  public void groupIsNotReleasedWhenMessageIsRetried() {
+    QueueDetail queueDetail =
+        new QueueDetail(
+            "test",
+            3,
+            "dead-test",
+            false,
+            900000,
+            null,
+            -1,
+            0,
+            false,
+            new RetryBackOff(1000L, 2, 60000L, 0),
+            1);
+    rqueueMessage.setGroupKey("user-1");
+    new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool).run();
+    verify(messageTemplate, times(1)).scheduleRetry(eq("test"), eq(rqueueMessage), any());
+    verify(messageTemplate, never()).releaseGroup(anyString(), any(RqueueMessage.class));
+  }
+
+  @Test
+  public void workerIsReleasedAfterExecution() throws Exception {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 900000);
+    assertEquals(1, queueThreadPool.acquire(1, 0L));
+    assertEquals(0, queueThreadPool.availablePermits());
+    MessageExecutor messageExecutor =
+        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool);
+    messageExecutor.run();
+    assertEquals(1, queueThreadPool.availablePermits());
+  }
+
+  @Test
+  public void failedMessageIsRetriedThroughDelayedQueue() {
+    QueueDetail queueDetail =
+        new QueueDetail(
+            "test",
+            3,
+            "dead-test",
+            false,
+            900000,
+            null,
+            -1,
+            0,
+            false,
+            new RetryBackOff(1000L, 2, 60000L, 0),
+            1);
+    rqueueMessage.setFailureCount(1);
+    MessageExecutor messageExecutor =
+        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool);
+    long startTime = System.currentTimeMillis();
+    messageExecutor.run();
+    ArgumentCaptor<RqueueMessage> argumentCaptor = ArgumentCaptor.forClass(RqueueMessage.class);
+    verify(messageTemplate, times(1))
+        .scheduleRetry(eq("test"), eq(rqueueMessage), argumentCaptor.capture());
+    assertEquals(2, argumentCaptor.getValue().getFailureCount());
+    assertTrue(argumentCaptor.getValue().getProcessAt() >= startTime + 2000L);
+    assertEquals(0, deadLetterProcessor.getCount());
+    verify(messageHandler, times(1)).handleMessage(any());
+  }
+
+  private AtomicReference<Acknowledgment> completeAsynchronously() {
+    AtomicReference<Acknowledgment> acknowledgment = new AtomicReference<>();
+    doReturn(new ConcurrentTaskExecutor(Runnable::run)).when(container).getCompletionExecutor();
+    doReturn(completionTimeoutScheduler).when(container).getCompletionTimeoutScheduler();
+    doAnswer(
+            invocation -> {
+              Message<?> message = invocation.getArgument(0);
+              MessageAcknowledgment messageAcknowledgment =
+                  (MessageAcknowledgment)
+                      message.getHeaders().get(MessageAcknowledgment.HEADER_NAME);
+              messageAcknowledgment.markAsync();
+              acknowledgment.set(messageAcknowledgment);
+              return null;
+            })
+        .when(messageHandler)
+        .handleMessage(any());
+    return acknowledgment;
+  }
+
+  @Test
+  public void workerIsReleasedBeforeAsynchronousCompletion() throws Exception {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 900000);
+    AtomicReference<Acknowledgment> acknowledgment = completeAsynchronously();
+    int inFlightPermits = queueThreadPool.availableInFlightPermits();
+    assertEquals(1, queueThreadPool.acquire(1, 0L));
+    new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool).run();
+    assertEquals(1, queueThreadPool.availablePermits());
+    // the in flight permit acquired before fetching is held until the message is completed
+    assertEquals(inFlightPermits - 1, queueThreadPool.availableInFlightPermits());
+    verify(messageTemplate, never()).acknowledge(anyString(), any(RqueueMessage.class));
+    acknowledgment.get().acknowledge();
+    verify(messageTemplate, times(1)).acknowledge("test", rqueueMessage);
+    assertEquals(inFlightPermits, queueThreadPool.availableInFlightPermits());
+  }
+
+  @Test
+  public void rejectedMessageIsRetriedLater() {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 900000);
+    AtomicReference<Acknowledgment> acknowledgment = completeAsynchronously();
+    new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool).run();
+    acknowledgment.get().nack();
+    ArgumentCaptor<RqueueMessage> argumentCaptor = ArgumentCaptor.forClass(RqueueMessage.class);
+    verify(messageTemplate, times(1))
+        .updateProcessingMessage(eq("test"), eq(rqueueMessage), argumentCaptor.capture());
+    assertEquals(1, argumentCaptor.getValue().getFailureCount());
+    assertEquals(0, deadLetterProcessor.getCount());
+  }
+
+  @Test
+  public void messageNotAcknowledgedInTimeIsRetriedLater() throws Exception {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 100);
+    AtomicReference<Acknowledgment> acknowledgment = completeAsynchronously();
+    int inFlightPermits = queueThreadPool.availableInFlightPermits();
+    assertEquals(1, queueThreadPool.acquire(1, 0L));
+    new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool).run();
+    assertEquals(inFlightPermits - 1, queueThreadPool.availableInFlightPermits());
+    ArgumentCaptor<RqueueMessage> argumentCaptor = ArgumentCaptor.forClass(RqueueMessage.class);
+    verify(messageTemplate, timeout(5000L).times(1))
+        .updateProcessingMessage(eq("test"), eq(rqueueMessage), argumentCaptor.capture());
+    assertEquals(1, argumentCaptor.getValue().getFailureCount());
+    assertEquals(inFlightPermits, queueThreadPool.availableInFlightPermits());
+    // a late acknowledgment is ignored
+    acknowledgment.get().acknowledge();
+    verify(messageTemplate, never()).acknowledge(anyString(), any(RqueueMessage.class));
+  }
+
+  @Test
+  public void executedMessageIsAcknowledgedUsingBuffer() {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 900000);
+    AcknowledgementBuffer acknowledgementBuffer = new AcknowledgementBuffer(container, "test", 2);
+    doReturn(acknowledgementBuffer).when(container).getAcknowledgementBuffer("test");
+    doNothing().when(messageHandler).handleMessage(any());
+    MessageExecutor messageExecutor =
+        new MessageExecutor(rqueueMessage, queueDetail, containerWeakReference, queueThreadPool);
+    messageExecutor.run();
+    assertEquals(1, acknowledgementBuffer.size());
+    verify(messageTemplate, never()).acknowledge(anyString(), any(RqueueMessage.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void compressedMessageIsDecompressed() {
+    QueueDetail queueDetail = new QueueDetail("test", 3, "dead-test", false, 900000);
+    MessageCompressor messageCompressor =
+        new MessageCompressor(new DeflateCompressionCodec(), 10);
+    String payload = String.join(",", Collections.nCopies(20, "test message"));
+    RqueueMessage message = new RqueueMessage("test", payload, null, null);
+    messageCompressor.compress(message);
+    assertEquals("deflate", message.getCompression());
+    doReturn(messageCompressor).when(container).getMessageCompressor();
+    doNothing().when(messageHandler).handleMessage(any());
+    MessageExecutor messageExecutor =
+        new MessageExecutor(message, queueDetail, containerWeakReference, queueThreadPool);
+    messageExecutor.run();
+    ArgumentCaptor<Message<String>> messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messageHandler, times(1)).handleMessage(messageCaptor.capture());
+    assertEquals(payload, messageCaptor.getValue().getPayload());
   }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class QueueSignalTest {
+  private QueueSignal queueSignal = new QueueSignal();
+
+  @Test
+  public void awaitTimesOut() throws Exception {
+    long startTime = System.currentTimeMillis();
+    assertFalse(queueSignal.await(50L));
+    assertTrue(System.currentTimeMillis() - startTime >= 50L);
+  }
+
+  @Test
+  public void signalRaisedBeforeAwaitIsNotLost() throws Exception {
+    queueSignal.signal();
+    assertTrue(queueSignal.await(10000L));
+    assertFalse(queueSignal.await(10L));
+  }
+
+  @Test
+  public void signalWakesUpWaitingThread() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch signalled = new CountDownLatch(1);
+    Thread thread =
+        new Thread(
+            () -> {
+              started.countDown();
+              try {
+                if (queueSignal.await(10000L)) {
+                  signalled.countDown();
+                }
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    thread.start();
+    started.await();
+    queueSignal.signal();
+    assertTrue(signalled.await(5, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+public class QueueThreadPoolTest {
+  private QueueThreadPool queueThreadPool = new QueueThreadPool(mock(AsyncTaskExecutor.class), 3);
+
+  @Test
+  public void acquireAtMostAvailablePermits() throws InterruptedException {
+    assertEquals(2, queueThreadPool.acquire(2, 10L));
+    assertEquals(1, queueThreadPool.acquire(5, 10L));
+    assertEquals(0, queueThreadPool.availablePermits());
+  }
+
+  @Test
+  public void acquireTimesOutWhenNoWorkerIsFree() throws InterruptedException {
+    assertEquals(3, queueThreadPool.acquire(3, 10L));
+    assertEquals(0, queueThreadPool.acquire(1, 10L));
+    queueThreadPool.release(2);
+    assertEquals(2, queueThreadPool.acquire(3, 10L));
+  }
+
+  @Test
+  public void acquireIsLimitedByInFlightMessages() throws InterruptedException {
+    QueueThreadPool pool = new QueueThreadPool(mock(AsyncTaskExecutor.class), 3, 2);
+    assertEquals(2, pool.acquire(3, 10L));
+    // workers are free while their messages are in flight
+    pool.releaseWorker();
+    pool.releaseWorker();
+    assertEquals(3, pool.availablePermits());
+    assertEquals(0, pool.acquire(1, 10L));
+    assertEquals(0, pool.tryAcquire(1));
+    assertEquals(3, pool.availablePermits());
+    pool.releaseInFlight();
+    assertEquals(1, pool.tryAcquire(3));
+    assertEquals(2, pool.availablePermits());
+  }
+
+  @Test
+  public void unusedPermitIsReleased() throws InterruptedException {
+    QueueThreadPool pool = new QueueThreadPool(mock(AsyncTaskExecutor.class), 1, 1);
+    assertEquals(1, pool.acquire(1, 10L));
+    pool.release();
+    assertEquals(1, pool.availablePermits());
+    assertEquals(1, pool.availableInFlightPermits());
+  }
+
+  @Test
+  public void releaseIgnoresNonPositivePermits() {
+    queueThreadPool.release(0);
+    queueThreadPool.release(-1);
+    assertEquals(3, queueThreadPool.availablePermits());
+  }
+}
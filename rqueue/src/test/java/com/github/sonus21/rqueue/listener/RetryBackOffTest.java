@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RetryBackOffTest {
+  @Test
+  public void delayGrowsExponentiallyUpToMaxDelay() {
+    RetryBackOff retryBackOff = new RetryBackOff(100L, 2, 1000L, 0);
+    assertEquals(100L, retryBackOff.getDelay(1));
+    assertEquals(200L, retryBackOff.getDelay(2));
+    assertEquals(800L, retryBackOff.getDelay(4));
+    assertEquals(1000L, retryBackOff.getDelay(5));
+    assertEquals(1000L, retryBackOff.getDelay(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void jitterIncreasesDelay() {
+    RetryBackOff retryBackOff = new RetryBackOff(1000L, 2, 100000L, 0.5);
+    for (int i = 0; i < 100; i++) {
+      long delay = retryBackOff.getDelay(3);
+      assertTrue(delay >= 4000L && delay <= 6000L);
+    }
+  }
+
+  @Test
+  public void jitterIsCappedAtMaxDelay() {
+    RetryBackOff retryBackOff = new RetryBackOff(1000L, 2, 5000L, 0.5);
+    for (int i = 0; i < 100; i++) {
+      long delay = retryBackOff.getDelay(3);
+      assertTrue(delay >= 4000L && delay <= 5000L);
+      assertEquals(5000L, retryBackOff.getDelay(10));
+    }
+  }
+
+  @Test
+  public void validation() {
+    assertTrue(new RetryBackOff(100L, 1, 100L, 1).isValid());
+    assertFalse(new RetryBackOff(0L, 2, 1000L, 0).isValid());
+    assertFalse(new RetryBackOff(100L, 0.5, 1000L, 0).isValid());
+    assertFalse(new RetryBackOff(100L, 2, 10L, 0).isValid());
+    assertFalse(new RetryBackOff(100L, 2, 1000L, 1.5).isValid());
+  }
+}
@@ -18,14 +18,21 @@ package com.github.sonus21.rqueue.listener;
 
 import static com.github.sonus21.rqueue.utils.QueueUtils.QUEUE_NAME;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.github.sonus21.rqueue.annotation.RqueueListener;
 import com.github.sonus21.rqueue.converter.GenericMessageConverter;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -34,13 +41,17 @@ import lombok.Setter;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.support.GenericMessage;
+import reactor.core.publisher.Mono;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
 public class RqueueMessageHandlerTest {
@@ -49,6 +60,10 @@ public class RqueueMessageHandlerTest {
   private static final String smartQueue = "smart-queue";
   private static final String slowQueue = "slow-queue";
   private static final String exceptionQueue = "exception-queue";
+  private static final String batchQueue = "batch-queue";
+  private static final String futureQueue = "future-queue";
+  private static final String monoQueue = "mono-queue";
+  private static final String acknowledgmentQueue = "acknowledgment-queue";
   private String message = "This is a test message.";
   private GenericMessageConverter messageConverter = new GenericMessageConverter();
   private MessagePayload messagePayload = new MessagePayload(message, message);
@@ -72,6 +87,59 @@ public class RqueueMessageHandlerTest {
     assertEquals(message, messageListener.getLastReceivedMessage());
   }
 
+  private Message<String> buildMessage(String queueName, MessageAcknowledgment acknowledgment) {
+    Map<String, Object> headers = new HashMap<>();
+    headers.put(QUEUE_NAME, queueName);
+    headers.put(MessageAcknowledgment.HEADER_NAME, acknowledgment);
+    return new GenericMessage<>(message, headers);
+  }
+
+  private MessageHandler asyncMessageHandler(StaticApplicationContext applicationContext) {
+    applicationContext.registerSingleton("asyncMessageHandler", AsyncMessageHandler.class);
+    applicationContext.registerSingleton("rqueueMessageHandler", RqueueMessageHandler.class);
+    applicationContext.refresh();
+    return applicationContext.getBean(MessageHandler.class);
+  }
+
+  @Test
+  public void testCompletableFutureIsAcknowledgedOnCompletion() {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    MessageHandler messageHandler = asyncMessageHandler(applicationContext);
+    MessageAcknowledgment acknowledgment = new MessageAcknowledgment();
+    messageHandler.handleMessage(buildMessage(futureQueue, acknowledgment));
+    assertTrue(acknowledgment.isAsync());
+    assertFalse(acknowledgment.getResult().isDone());
+    applicationContext.getBean(AsyncMessageHandler.class).getFuture().complete(null);
+    assertTrue(acknowledgment.getResult().join());
+  }
+
+  @Test
+  public void testFailedMonoIsRejected() {
+    MessageHandler messageHandler = asyncMessageHandler(new StaticApplicationContext());
+    MessageAcknowledgment acknowledgment = new MessageAcknowledgment();
+    messageHandler.handleMessage(buildMessage(monoQueue, acknowledgment));
+    assertTrue(acknowledgment.isAsync());
+    assertFalse(acknowledgment.getResult().join());
+  }
+
+  @Test
+  public void testAcknowledgmentArgumentIsResolved() {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    MessageHandler messageHandler = asyncMessageHandler(applicationContext);
+    MessageAcknowledgment acknowledgment = new MessageAcknowledgment();
+    messageHandler.handleMessage(buildMessage(acknowledgmentQueue, acknowledgment));
+    assertTrue(acknowledgment.isAsync());
+    assertSame(
+        acknowledgment,
+        applicationContext.getBean(AsyncMessageHandler.class).getAcknowledgment());
+  }
+
+  @Test(expected = MessagingException.class)
+  public void testFutureIsAwaitedWithoutAcknowledgment() {
+    MessageHandler messageHandler = asyncMessageHandler(new StaticApplicationContext());
+    messageHandler.handleMessage(buildMessage(monoQueue, message));
+  }
+
   @Test
   public void testMethodWithMessagePayloadParameterIsInvoked() {
     StaticApplicationContext applicationContext = new StaticApplicationContext();
@@ -85,6 +153,26 @@ public class RqueueMessageHandlerTest {
     assertEquals(messagePayload, messageListener.getLastReceivedMessage());
   }
 
+  @Test
+  public void testBatchMethodWithMessagePayloadListIsInvoked() {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("incomingMessageHandler", IncomingMessageHandler.class);
+    applicationContext.registerSingleton("rqueueMessageHandler", RqueueMessageHandler.class);
+    applicationContext.refresh();
+    MessageHandler messageHandler = applicationContext.getBean(MessageHandler.class);
+    MessagePayload otherPayload = new MessagePayload("key", "value");
+    String otherPayloadConvertedMessage =
+        ((Message<String>) messageConverter.toMessage(otherPayload, null)).getPayload();
+    messageHandler.handleMessage(
+        new GenericMessage<>(
+            Arrays.asList(payloadConvertedMessage, otherPayloadConvertedMessage),
+            Collections.singletonMap(QUEUE_NAME, batchQueue)));
+    IncomingMessageHandler messageListener =
+        applicationContext.getBean(IncomingMessageHandler.class);
+    assertEquals(
+        Arrays.asList(messagePayload, otherPayload), messageListener.getLastReceivedMessage());
+  }
+
   @Test
   public void testMethodWithStringParameterCallExceptionHandler() {
     StaticApplicationContext applicationContext = new StaticApplicationContext();
@@ -196,6 +284,9 @@ public class RqueueMessageHandlerTest {
     map.put("queue.dead.letter.queue", true);
     map.put("queue.num.retries", 3);
     map.put("dead.letter.queue.name", slowQueue + "-dlq");
+    map.put("queue.concurrency", "5-50");
+    map.put("queue.batch.size", "20");
+    map.put("queue.retry.back.off", "1000");
     applicationContext
         .getEnvironment()
         .getPropertySources()
@@ -208,6 +299,52 @@ public class RqueueMessageHandlerTest {
     assertEquals(
         Collections.singleton(slowQueue), messageHandler.mappingInformation.getQueueNames());
     assertEquals(slowQueue + "-dlq", messageHandler.mappingInformation.getDeadLetterQueueName());
+    assertEquals(5, messageHandler.mappingInformation.getConcurrency().getCorePoolSize());
+    assertEquals(50, messageHandler.mappingInformation.getConcurrency().getMaxPoolSize());
+    assertEquals(20, messageHandler.mappingInformation.getBatchSize());
+    assertEquals(500L, messageHandler.mappingInformation.getBatchTimeout());
+    RetryBackOff retryBackOff = messageHandler.mappingInformation.getRetryBackOff();
+    assertEquals(1000L, retryBackOff.getInitialDelay());
+    assertEquals(1.5, retryBackOff.getMultiplier(), 0.0);
+    assertEquals(600000L, retryBackOff.getMaxDelay());
+    assertEquals(0.1, retryBackOff.getJitter(), 0.0);
+  }
+
+  @Test
+  public void testBatchMethodWithoutListParameterIsRejected() {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", BatchMessageHandlerWithoutList.class);
+    applicationContext.registerSingleton("rqueueMessageHandler", RqueueMessageHandler.class);
+    try {
+      applicationContext.refresh();
+      fail("batch listener without a list parameter has been registered");
+    } catch (BeanCreationException e) {
+      assertTrue(NestedExceptionUtils.getMostSpecificCause(e) instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testMethodHavingConcurrencyUpperLimit() {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", MessageHandlerWithConcurrency.class);
+    applicationContext.registerSingleton("rqueueMessageHandler", DummyMessageHandler.class);
+    applicationContext.refresh();
+
+    DummyMessageHandler messageHandler = applicationContext.getBean(DummyMessageHandler.class);
+    assertEquals(1, messageHandler.mappingInformation.getConcurrency().getCorePoolSize());
+    assertEquals(10, messageHandler.mappingInformation.getConcurrency().getMaxPoolSize());
+  }
+
+  @Test
+  public void testMethodHavingDefaultConcurrency() {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", MessageHandlerWithDefaults.class);
+    applicationContext.registerSingleton("rqueueMessageHandler", DummyMessageHandler.class);
+    applicationContext.refresh();
+
+    DummyMessageHandler messageHandler = applicationContext.getBean(DummyMessageHandler.class);
+    assertNull(messageHandler.mappingInformation.getConcurrency());
+    assertNull(messageHandler.mappingInformation.getRetryBackOff());
   }
 
   @AllArgsConstructor
@@ -234,6 +371,11 @@ public class RqueueMessageHandlerTest {
       lastReceivedMessage = value;
     }
 
+    @RqueueListener(value = batchQueue, batchSize = "10")
+    public void receive(List<MessagePayload> values) {
+      lastReceivedMessage = values;
+    }
+
     @RqueueListener(value = exceptionQueue)
     public void exceptionQueue(String message) {
       lastReceivedMessage = message;
@@ -251,6 +393,28 @@ public class RqueueMessageHandlerTest {
     }
   }
 
+  @Getter
+  private static class AsyncMessageHandler {
+    private CompletableFuture<Void> future;
+    private Acknowledgment acknowledgment;
+
+    @RqueueListener(futureQueue)
+    public CompletableFuture<Void> receive(String value) {
+      future = new CompletableFuture<>();
+      return future;
+    }
+
+    @RqueueListener(monoQueue)
+    public Mono<Void> receiveMono(String value) {
+      return Mono.error(new IllegalStateException("Failing for some reason."));
+    }
+
+    @RqueueListener(acknowledgmentQueue)
+    public void receive(String value, Acknowledgment acknowledgment) {
+      this.acknowledgment = acknowledgment;
+    }
+  }
+
   @Getter
   @Setter
   private static class SpelMessageHandler {
@@ -287,18 +451,38 @@ public class RqueueMessageHandlerTest {
   @Getter
   @Setter
   private static class MessageHandlerWithPlaceHolders {
-    private String lastReceivedMessage;
+    private List<String> lastReceivedMessage;
 
     @RqueueListener(
         value = "${queue.name}",
         delayedQueue = "${queue.dead.letter.queue}",
         numRetries = "${queue.num.retries}",
-        deadLetterQueue = "${dead.letter.queue.name}")
-    public void onMessage(String value) {
-      lastReceivedMessage = value;
+        deadLetterQueue = "${dead.letter.queue.name}",
+        concurrency = "${queue.concurrency}",
+        batchSize = "${queue.batch.size}",
+        batchTimeout = "500",
+        retryBackOff = "${queue.retry.back.off}",
+        retryBackOffMultiplier = "1.5")
+    public void onMessage(List<String> values) {
+      lastReceivedMessage = values;
     }
   }
 
+  private static class BatchMessageHandlerWithoutList {
+    @RqueueListener(value = batchQueue, batchSize = "10")
+    public void onMessage(String value) {}
+  }
+
+  private static class MessageHandlerWithConcurrency {
+    @RqueueListener(value = slowQueue, concurrency = "10")
+    public void onMessage(String value) {}
+  }
+
+  private static class MessageHandlerWithDefaults {
+    @RqueueListener(slowQueue)
+    public void onMessage(String value) {}
+  }
+
   private static class DummyMessageHandler extends RqueueMessageHandler {
     private MappingInformation mappingInformation;
 
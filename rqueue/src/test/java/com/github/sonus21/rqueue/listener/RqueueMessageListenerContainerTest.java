@@ -21,32 +21,67 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.github.sonus21.rqueue.annotation.RqueueListener;
 import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.processor.MessageProcessor;
 import com.github.sonus21.rqueue.processor.NoOpMessageProcessor;
+import com.github.sonus21.rqueue.producer.RqueueMessageSender;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import com.github.sonus21.rqueue.utils.ThreadUtils;
 import io.lettuce.core.RedisCommandExecutionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Getter;
 import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.slf4j.Logger;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
 public class RqueueMessageListenerContainerTest {
   private static final String slowQueue = "slow-queue";
   private static final String fastQueue = "fast-queue";
+  private static final String concurrentQueue = "concurrent-queue";
+  private static final String batchQueue = "batch-queue";
+  private static final String partitionedQueue = "partitioned-queue";
+  private static final String asyncQueue = "async-queue";
   private MessageProcessor deadLetterMessageProcessor = new NoOpMessageProcessor();
   private MessageProcessor discardMessageProcessor = deadLetterMessageProcessor;
   private RqueueMessageListenerContainer container =
@@ -80,6 +115,13 @@ public class RqueueMessageListenerContainerTest {
     assertEquals(Integer.valueOf(1000), container.getMaxNumWorkers());
   }
 
+  @Test
+  public void setBatchSize() {
+    assertEquals(1, container.getBatchSize());
+    container.setBatchSize(10);
+    assertEquals(10, container.getBatchSize());
+  }
+
   @Test
   public void setBackOffTime() {
     container.setBackOffTime(1000L);
@@ -201,7 +243,7 @@ public class RqueueMessageListenerContainerTest {
               return null;
             })
         .when(rqueueMessageTemplate)
-        .pop(fastQueue, 900000L);
+        .pop(fastQueue, 900000L, 1);
 
     doAnswer(
             invocation -> {
@@ -209,7 +251,7 @@ public class RqueueMessageListenerContainerTest {
               return null;
             })
         .when(rqueueMessageTemplate)
-        .pop(slowQueue, 900000L);
+        .pop(slowQueue, 900000L, 1);
     container.afterPropertiesSet();
     container.start();
     waitFor(() -> fastQueueCounter.get() > 1, "fastQueue message call");
@@ -250,12 +292,12 @@ public class RqueueMessageListenerContainerTest {
                 if (fastQueueCounter.incrementAndGet() == 1) {
                   throw new RedisCommandExecutionException("Some error occurred");
                 }
-                return message;
+                return Collections.singletonList(message);
               }
-              return null;
+              return Collections.emptyList();
             })
         .when(rqueueMessageTemplate)
-        .pop(fastQueue, 900000L);
+        .pop(fastQueue, 900000L, 1);
     FastMessageSchedulerListener fastMessageListener =
         applicationContext.getBean("fastMessageListener", FastMessageSchedulerListener.class);
     container.afterPropertiesSet();
@@ -301,23 +343,25 @@ public class RqueueMessageListenerContainerTest {
             invocation -> {
               if (slowQueueCounter.get() == 0) {
                 slowQueueCounter.incrementAndGet();
-                return new RqueueMessage(slowQueue, slowQueueMessage, null, null);
+                return Collections.singletonList(
+                    new RqueueMessage(slowQueue, slowQueueMessage, null, null));
               }
-              return null;
+              return Collections.emptyList();
             })
         .when(rqueueMessageTemplate)
-        .pop(slowQueue, 900000L);
+        .pop(slowQueue, 900000L, 1);
 
     doAnswer(
             invocation -> {
               if (fastQueueCounter.get() == 0) {
                 fastQueueCounter.incrementAndGet();
-                return new RqueueMessage(fastQueue, fastQueueMessage, null, null);
+                return Collections.singletonList(
+                    new RqueueMessage(fastQueue, fastQueueMessage, null, null));
               }
-              return null;
+              return Collections.emptyList();
             })
         .when(rqueueMessageTemplate)
-        .pop(fastQueue, 900000L);
+        .pop(fastQueue, 900000L, 1);
     container.afterPropertiesSet();
     container.start();
     waitFor(() -> slowQueueCounter.get() == 1, "slowQueue message fetch");
@@ -332,6 +376,562 @@ public class RqueueMessageListenerContainerTest {
     container.doDestroy();
   }
 
+  @Test
+  public void testAllMessagesOfBatchAreConsumed() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setBatchSize(3);
+    container.setMaxNumWorkers(3);
+    FastMessageSchedulerListener fastMessageListener =
+        applicationContext.getBean("fastMessageListener", FastMessageSchedulerListener.class);
+    AtomicInteger fastQueueCounter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              if (fastQueueCounter.getAndIncrement() == 0) {
+                return Arrays.asList(
+                    new RqueueMessage(fastQueue, "Message 1", null, null),
+                    new RqueueMessage(fastQueue, "Message 2", null, null),
+                    new RqueueMessage(fastQueue, "Message 3", null, null));
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(fastQueue, 900000L, 3);
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(() -> fastMessageListener.getMessageCount().get() == 3, "all messages of batch");
+    container.stop();
+    container.doDestroy();
+  }
+
+  @Test
+  public void testListenerIsWokenUpByMessageNotification() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    RedisMessageListenerContainer redisMessageListenerContainer =
+        mock(RedisMessageListenerContainer.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    FieldUtils.writeField(
+        container, "redisMessageListenerContainer", redisMessageListenerContainer, true);
+    container.setMessageNotificationEnabled(true);
+    container.setPollingInterval(60000L);
+    FastMessageSchedulerListener fastMessageListener =
+        applicationContext.getBean("fastMessageListener", FastMessageSchedulerListener.class);
+    AtomicInteger fastQueueCounter = new AtomicInteger(0);
+    String fastQueueMessage = "This is fast queue";
+    doAnswer(
+            invocation -> {
+              if (fastQueueCounter.getAndIncrement() == 1) {
+                return Collections.singletonList(
+                    new RqueueMessage(fastQueue, fastQueueMessage, null, null));
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(fastQueue, 900000L, 1);
+    doReturn(KeyNamingStrategy.PLAIN).when(rqueueMessageTemplate).getKeyNamingStrategy();
+    container.afterPropertiesSet();
+    container.start();
+    ArgumentCaptor<MessageListener> listenerCaptor =
+        ArgumentCaptor.forClass(MessageListener.class);
+    verify(redisMessageListenerContainer)
+        .addMessageListener(listenerCaptor.capture(), anyCollection());
+    waitFor(() -> fastQueueCounter.get() == 1, "fastQueue message fetch");
+    String channel = QueueUtils.getQueueChannelName(fastQueue);
+    listenerCaptor
+        .getValue()
+        .onMessage(new DefaultMessage(channel.getBytes(), "1".getBytes()), null);
+    waitFor(
+        () -> fastQueueMessage.equals(fastMessageListener.getLastMessage()),
+        5000L,
+        "message to be consumed after notification");
+    container.stop();
+    verify(redisMessageListenerContainer).removeMessageListener(listenerCaptor.getValue());
+    container.doDestroy();
+  }
+
+  @Test
+  public void fetchIsLimitedByFreeWorkers() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setBatchSize(3);
+    container.setMaxNumWorkers(1);
+    FastMessageSchedulerListener fastMessageListener =
+        applicationContext.getBean("fastMessageListener", FastMessageSchedulerListener.class);
+    AtomicInteger fastQueueCounter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              if (fastQueueCounter.getAndIncrement() < 2) {
+                return Collections.singletonList(
+                    new RqueueMessage(fastQueue, "Message", null, null));
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(fastQueue, 900000L, 1);
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(() -> fastMessageListener.getMessageCount().get() == 2, "messages to be consumed");
+    container.stop();
+    container.doDestroy();
+    verify(rqueueMessageTemplate, never()).pop(fastQueue, 900000L, 3);
+  }
+
+  @Test
+  public void rejectedMessagesAreReturnedToQueue() throws Exception {
+    class RejectingTaskExecutor extends ThreadPoolTaskExecutor {
+      private static final long serialVersionUID = -1719476449224004765L;
+
+      @Override
+      public void execute(Runnable task) {
+        throw new TaskRejectedException("Rejected");
+      }
+    }
+
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setTaskExecutor(new RejectingTaskExecutor());
+    container.setBatchSize(2);
+    List<RqueueMessage> messages =
+        Arrays.asList(
+            new RqueueMessage(fastQueue, "Message 1", null, null),
+            new RqueueMessage(fastQueue, "Message 2", null, null));
+    AtomicInteger fastQueueCounter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              if (fastQueueCounter.getAndIncrement() == 0) {
+                return messages;
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(fastQueue, 900000L, 2);
+    CountDownLatch returned = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              returned.countDown();
+              return 2L;
+            })
+        .when(rqueueMessageTemplate)
+        .returnToQueue(fastQueue, messages);
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(() -> returned.getCount() == 0, "messages to be returned");
+    container.stop();
+    container.doDestroy();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMessagesOfAllQueuesAreFetchedByPoller() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("slowMessageListener", SlowMessageSchedulerListener.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setPollerCount(1);
+    SlowMessageSchedulerListener slowMessageListener =
+        applicationContext.getBean("slowMessageListener", SlowMessageSchedulerListener.class);
+    FastMessageSchedulerListener fastMessageListener =
+        applicationContext.getBean("fastMessageListener", FastMessageSchedulerListener.class);
+    AtomicInteger pollCounter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              List<String> queueNames = invocation.getArgument(0);
+              List<List<RqueueMessage>> messages = new ArrayList<>();
+              for (String queueName : queueNames) {
+                if (pollCounter.get() == 0) {
+                  messages.add(
+                      Collections.singletonList(
+                          new RqueueMessage(queueName, "Message of " + queueName, null, null)));
+                } else {
+                  messages.add(Collections.emptyList());
+                }
+              }
+              pollCounter.incrementAndGet();
+              return messages;
+            })
+        .when(rqueueMessageTemplate)
+        .pop(anyList(), anyList(), anyList());
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(
+        () ->
+            fastMessageListener.getMessageCount().get() == 1
+                && slowMessageListener.getLastMessage() != null,
+        "messages of all queues");
+    container.stop();
+    container.doDestroy();
+    assertEquals("Message of " + slowQueue, slowMessageListener.getLastMessage());
+    assertEquals("Message of " + fastQueue, fastMessageListener.getLastMessage());
+    verify(rqueueMessageTemplate, never()).pop(anyString(), anyLong(), anyInt());
+  }
+
+  @Test
+  public void queueWithConcurrencyHasItsOwnWorkers() throws Exception {
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("slowMessageListener", SlowMessageSchedulerListener.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    applicationContext.registerSingleton(
+        "concurrentMessageListener", ConcurrentMessageListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            mock(RqueueMessageTemplate.class),
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    container.afterPropertiesSet();
+    QueueThreadPool concurrentQueueThreadPool = container.getQueueThreadPool(concurrentQueue);
+    QueueThreadPool slowQueueThreadPool = container.getQueueThreadPool(slowQueue);
+    assertEquals(10, concurrentQueueThreadPool.availablePermits());
+    // workers of the shared pool are only for the two queues without concurrency
+    assertEquals(4, slowQueueThreadPool.availablePermits());
+    assertSame(slowQueueThreadPool, container.getQueueThreadPool(fastQueue));
+    ThreadPoolTaskExecutor taskExecutor = (ThreadPoolTaskExecutor) container.getTaskExecutor();
+    assertEquals(5, taskExecutor.getCorePoolSize());
+    assertEquals(7, taskExecutor.getMaxPoolSize());
+    container.doDestroy();
+  }
+
+  @Test
+  public void testBatchIsCollectedOverMultipleFetches() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("batchMessageListener", BatchMessageListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setPollingInterval(10L);
+    BatchMessageListener batchMessageListener =
+        applicationContext.getBean("batchMessageListener", BatchMessageListener.class);
+    AtomicInteger batchQueueCounter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              if (batchQueueCounter.getAndIncrement() == 0) {
+                return Arrays.asList(
+                    new RqueueMessage(batchQueue, "Message 1", null, null),
+                    new RqueueMessage(batchQueue, "Message 2", null, null));
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(batchQueue, 900000L, 3);
+    doAnswer(
+            invocation -> {
+              if (batchQueueCounter.getAndIncrement() == 2) {
+                return Collections.singletonList(
+                    new RqueueMessage(batchQueue, "Message 3", null, null));
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(batchQueue, 900000L, 1);
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(() -> batchMessageListener.getBatches().size() == 1, "batch to be consumed");
+    container.stop();
+    container.doDestroy();
+    assertEquals(
+        Arrays.asList("Message 1", "Message 2", "Message 3"),
+        batchMessageListener.getBatches().get(0));
+  }
+
+  @Test
+  public void messagesOfAllPartitionsAreDelivered() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton(
+        "partitionedMessageListener", PartitionedMessageListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setPollingInterval(10L);
+    RqueueMessageSender rqueueMessageSender = mock(RqueueMessageSender.class);
+    container.setRqueueMessageSender(rqueueMessageSender);
+    PartitionedMessageListener partitionedMessageListener =
+        applicationContext.getBean("partitionedMessageListener", PartitionedMessageListener.class);
+    for (int partition = 0; partition < 3; partition++) {
+      String partitionName = QueueUtils.getPartitionName(partitionedQueue, partition);
+      AtomicBoolean fetched = new AtomicBoolean(false);
+      RqueueMessage rqueueMessage =
+          new RqueueMessage(partitionedQueue, "Message " + partition, null, null);
+      doAnswer(
+              invocation ->
+                  fetched.getAndSet(true)
+                      ? Collections.emptyList()
+                      : Collections.singletonList(rqueueMessage))
+          .when(rqueueMessageTemplate)
+          .pop(partitionName, 900000L, 1);
+    }
+    container.afterPropertiesSet();
+    assertEquals(3, container.getRegisteredQueues().size());
+    QueueThreadPool queueThreadPool =
+        container.getQueueThreadPool(QueueUtils.getPartitionName(partitionedQueue, 0));
+    for (String partitionName : QueueUtils.getPartitionNames(partitionedQueue, 3)) {
+      QueueDetail queueDetail = container.getRegisteredQueues().get(partitionName);
+      assertEquals(partitionedQueue, queueDetail.getLogicalQueueName());
+      assertSame(queueThreadPool, container.getQueueThreadPool(partitionName));
+    }
+    container.start();
+    verify(rqueueMessageSender, times(1)).setPartitions(partitionedQueue, 3);
+    waitFor(
+        () -> partitionedMessageListener.getMessages().size() == 3,
+        "messages of all partitions to be consumed");
+    container.stop();
+    container.doDestroy();
+    assertEquals(
+        new HashSet<>(Arrays.asList("Message 0", "Message 1", "Message 2")),
+        new HashSet<>(partitionedMessageListener.getMessages()));
+  }
+
+  @Test
+  public void messagesAreNotFetchedWhileTooManyMessagesAreInFlight() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("asyncMessageListener", AsyncMessageListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setPollingInterval(10L);
+    container.setMaxInFlightMessages(2);
+    AsyncMessageListener asyncMessageListener =
+        applicationContext.getBean("asyncMessageListener", AsyncMessageListener.class);
+    doAnswer(
+            invocation ->
+                Collections.singletonList(new RqueueMessage(asyncQueue, "Message", null, null)))
+        .when(rqueueMessageTemplate)
+        .pop(asyncQueue, 900000L, 1);
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(
+        () -> asyncMessageListener.getAcknowledgments().size() == 2, "messages to be in flight");
+    Thread.sleep(200);
+    // nothing is fetched while the in flight messages are incomplete, and no worker is blocked
+    verify(rqueueMessageTemplate, times(2)).pop(asyncQueue, 900000L, 1);
+    QueueThreadPool queueThreadPool = container.getQueueThreadPool(asyncQueue);
+    assertEquals(4, queueThreadPool.availablePermits());
+    assertEquals(0, queueThreadPool.availableInFlightPermits());
+    asyncMessageListener.getAcknowledgments().get(0).acknowledge();
+    waitFor(
+        () -> asyncMessageListener.getAcknowledgments().size() == 3,
+        "message to be fetched once an in flight message has been completed");
+    verify(rqueueMessageTemplate, times(3)).pop(asyncQueue, 900000L, 1);
+    container.stop();
+    container.doDestroy();
+  }
+
+  @Test
+  public void crossSlotDeadLetterQueueIsReported() throws Exception {
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    doReturn(KeyNamingStrategy.HASH_TAGGED).when(rqueueMessageTemplate).getKeyNamingStrategy();
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton(
+        "deadLetterQueueListener", DeadLetterQueueListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    Logger logger = RqueueMessageListenerContainer.logger;
+    Logger mockLogger = mock(Logger.class);
+    RqueueMessageListenerContainer.logger = mockLogger;
+    try {
+      container.afterPropertiesSet();
+    } finally {
+      RqueueMessageListenerContainer.logger = logger;
+    }
+    verify(mockLogger, times(1))
+        .warn(anyString(), eq(slowQueue + "-dlq"), eq(slowQueue), eq("{" + slowQueue + "}-dlq"));
+    verify(mockLogger, never()).warn(anyString(), eq("{" + fastQueue + "}-dlq"), any(), any());
+    container.doDestroy();
+  }
+
+  @Test
+  public void virtualThreadsAreNotSupported() throws Exception {
+    Assume.assumeFalse(ThreadUtils.isVirtualThreadSupported());
+    container.setVirtualThreadsEnabled(true);
+    try {
+      container.afterPropertiesSet();
+      fail("virtual threads are not supported");
+    } catch (IllegalStateException e) {
+      assertNull(container.getTaskExecutor());
+    }
+  }
+
+  @Test
+  public void virtualThreadsCanNotBeUsedWithTaskExecutor() throws Exception {
+    Assume.assumeTrue(ThreadUtils.isVirtualThreadSupported());
+    container.setVirtualThreadsEnabled(true);
+    container.setTaskExecutor(new ThreadPoolTaskExecutor());
+    try {
+      container.afterPropertiesSet();
+      fail("virtual threads can not be used with a task executor");
+    } catch (IllegalStateException e) {
+      assertNull(container.getSpinningTaskExecutor());
+    }
+  }
+
+  @Test
+  public void testMessageHandlersAreInvokedOnVirtualThreads() throws Exception {
+    Assume.assumeTrue(ThreadUtils.isVirtualThreadSupported());
+    RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
+    StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("messageHandler", RqueueMessageHandler.class);
+    applicationContext.registerSingleton("fastMessageListener", FastMessageSchedulerListener.class);
+    RqueueMessageHandler messageHandler =
+        applicationContext.getBean("messageHandler", RqueueMessageHandler.class);
+    messageHandler.setApplicationContext(applicationContext);
+    messageHandler.afterPropertiesSet();
+
+    RqueueMessageListenerContainer container =
+        new RqueueMessageListenerContainer(
+            messageHandler,
+            rqueueMessageTemplate,
+            new NoOpMessageProcessor(),
+            new NoOpMessageProcessor());
+    FieldUtils.writeField(
+        container, "applicationEventPublisher", mock(ApplicationEventPublisher.class), true);
+    container.setVirtualThreadsEnabled(true);
+    container.setVirtualThreadCountPerQueue(10);
+    container.setBatchSize(10);
+    FastMessageSchedulerListener fastMessageListener =
+        applicationContext.getBean("fastMessageListener", FastMessageSchedulerListener.class);
+    AtomicInteger fastQueueCounter = new AtomicInteger(0);
+    doAnswer(
+            invocation -> {
+              if (fastQueueCounter.getAndIncrement() == 0) {
+                return Arrays.asList(
+                    new RqueueMessage(fastQueue, "Message 1", null, null),
+                    new RqueueMessage(fastQueue, "Message 2", null, null));
+              }
+              return Collections.emptyList();
+            })
+        .when(rqueueMessageTemplate)
+        .pop(fastQueue, 900000L, 10);
+    container.afterPropertiesSet();
+    container.start();
+    waitFor(() -> fastMessageListener.getMessageCount().get() == 2, "messages to be consumed");
+    container.stop();
+    container.doDestroy();
+  }
+
   @Test
   public void internalTasksAreNotSharedWithTaskExecutor() throws Exception {
     @Getter
@@ -413,13 +1013,58 @@ public class RqueueMessageListenerContainerTest {
     }
   }
 
+  @Getter
+  private static class BatchMessageListener {
+    private List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @RqueueListener(value = batchQueue, batchSize = "3", batchTimeout = "5000")
+    public void onMessage(List<String> messages) {
+      batches.add(messages);
+    }
+  }
+
+  @Getter
+  private static class PartitionedMessageListener {
+    private List<String> messages = new CopyOnWriteArrayList<>();
+
+    @RqueueListener(value = partitionedQueue, partitions = "3", concurrency = "4")
+    public void onMessage(String message) {
+      messages.add(message);
+    }
+  }
+
+  @Getter
+  private static class AsyncMessageListener {
+    private List<Acknowledgment> acknowledgments = new CopyOnWriteArrayList<>();
+
+    @RqueueListener(value = asyncQueue, concurrency = "4")
+    public void onMessage(String message, Acknowledgment acknowledgment) {
+      acknowledgments.add(acknowledgment);
+    }
+  }
+
+  private static class DeadLetterQueueListener {
+    @RqueueListener(value = slowQueue, deadLetterQueue = slowQueue + "-dlq")
+    public void onSlowMessage(String message) {}
+
+    @RqueueListener(value = fastQueue, deadLetterQueue = "{" + fastQueue + "}-dlq")
+    public void onFastMessage(String message) {}
+  }
+
+  private static class ConcurrentMessageListener {
+    @RqueueListener(value = concurrentQueue, concurrency = "2-10")
+    public void onMessage(String message) {}
+  }
+
   @Getter
   private static class FastMessageSchedulerListener {
     private String lastMessage;
+    private AtomicInteger messageCount = new AtomicInteger(0);
 
     @RqueueListener(fastQueue)
     public void onMessage(String message) {
       lastMessage = message;
+      messageCount.incrementAndGet();
     }
   }
 }
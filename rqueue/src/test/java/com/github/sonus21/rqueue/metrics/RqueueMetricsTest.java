@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -29,6 +30,7 @@ import static org.mockito.Mockito.verify;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import com.github.sonus21.rqueue.event.QueueInitializationEvent;
 import com.github.sonus21.rqueue.listener.QueueDetail;
+import com.github.sonus21.rqueue.utils.KeyNamingStrategy;
 import com.github.sonus21.rqueue.utils.QueueUtils;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
@@ -54,6 +56,7 @@ public class RqueueMetricsTest {
 
   @Before
   public void init() {
+    doReturn(KeyNamingStrategy.PLAIN).when(template).getKeyNamingStrategy();
     queueDetails.put(simpleQueue, new QueueDetail(simpleQueue, -1, deadLetterQueue, false, 900000));
     queueDetails.put(delayedQueue, new QueueDetail(delayedQueue, -1, "", true, 900000));
     doAnswer(
@@ -145,6 +148,25 @@ public class RqueueMetricsTest {
     verifyQueueStatistics(meterRegistry, delayedQueue, 200, 15, 0, 5);
   }
 
+  @Test
+  public void partitionStatisticsAreAddedUp() {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    RqueueMetrics metrics =
+        new RqueueMetrics(template, metricsProperties, meterRegistry, queueCounter);
+    QueueDetail queueDetail = new QueueDetail(simpleQueue, -1, "", false, 900000);
+    Map<String, QueueDetail> partitionDetails = new HashMap<>();
+    for (int partition = 0; partition < 2; partition++) {
+      QueueDetail partitionDetail = queueDetail.getPartition(partition);
+      partitionDetails.put(partitionDetail.getQueueName(), partitionDetail);
+    }
+    doAnswer(invocation -> 7L).when(template).getListLength(anyString());
+    metrics.onApplicationEvent(new QueueInitializationEvent("Test", partitionDetails, true));
+    verifyQueueStatistics(meterRegistry, simpleQueue, 14, 0, 0, 0);
+    verify(queueCounter, times(1))
+        .registerQueue(
+            metricsProperties, Tags.of("queue", simpleQueue), meterRegistry, simpleQueue);
+  }
+
   private void verifyCounterRegisterMethodIsCalled(Tags tags) {
     MeterRegistry meterRegistry = new SimpleMeterRegistry();
     metricsProperties.setMetricTags(tags);
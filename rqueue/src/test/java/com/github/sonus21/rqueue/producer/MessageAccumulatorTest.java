@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.producer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class MessageAccumulatorTest {
+  private RqueueMessageTemplate messageTemplate = mock(RqueueMessageTemplate.class);
+  private String queueName = "test-queue";
+  private RqueueMessage message1 = new RqueueMessage(queueName, "Message 1", null, null);
+  private RqueueMessage message2 = new RqueueMessage(queueName, "Message 2", null, null);
+  private MessageAccumulator messageAccumulator;
+
+  @After
+  public void destroy() {
+    messageAccumulator.close();
+  }
+
+  @Test
+  public void fullBatchIsSent() throws Exception {
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 2, 60000L, 10, BackPressurePolicy.BLOCK);
+    CompletableFuture<String> future1 = messageAccumulator.add(queueName, message1, false);
+    CompletableFuture<String> future2 = messageAccumulator.add(queueName, message2, false);
+    assertEquals(message1.getId(), future1.get(1, TimeUnit.SECONDS));
+    assertEquals(message2.getId(), future2.get(1, TimeUnit.SECONDS));
+    verify(messageTemplate, times(1)).addAll(queueName, Arrays.asList(message1, message2));
+  }
+
+  @Test
+  public void batchIsSentOnceLingerTimeHasElapsed() throws Exception {
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 100, 10L, 10, BackPressurePolicy.BLOCK);
+    CompletableFuture<String> future = messageAccumulator.add(queueName, message1, true);
+    assertEquals(message1.getId(), future.get(1, TimeUnit.SECONDS));
+    verify(messageTemplate, times(1))
+        .addAllWithDelay(queueName, Collections.singletonList(message1));
+    verify(messageTemplate, never()).addAll(eq(queueName), anyList());
+  }
+
+  @Test
+  public void failedSendCompletesExceptionally() throws Exception {
+    doThrow(new RedisConnectionFailureException("Connection refused"))
+        .when(messageTemplate)
+        .addAll(eq(queueName), anyList());
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 1, 60000L, 10, BackPressurePolicy.BLOCK);
+    CompletableFuture<String> future = messageAccumulator.add(queueName, message1, false);
+    try {
+      future.get(1, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RedisConnectionFailureException);
+    }
+    // buffer space is released
+    messageAccumulator.add(queueName, message2, false);
+    verify(messageTemplate, timeout(1000).times(2)).addAll(eq(queueName), anyList());
+  }
+
+  @Test
+  public void messageIsRejectedWhenBufferIsFull() throws Exception {
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 100, 60000L, 1, BackPressurePolicy.REJECT);
+    CompletableFuture<String> future1 = messageAccumulator.add(queueName, message1, false);
+    CompletableFuture<String> future2 = messageAccumulator.add(queueName, message2, false);
+    try {
+      future2.get(1, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+    assertFalse(future1.isDone());
+  }
+
+  @Test
+  public void bufferedMessagesAreSentOnClose() throws Exception {
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 100, 60000L, 10, BackPressurePolicy.BLOCK);
+    CompletableFuture<String> future = messageAccumulator.add(queueName, message1, false);
+    messageAccumulator.close();
+    assertEquals(message1.getId(), future.get(1, TimeUnit.SECONDS));
+    verify(messageTemplate, times(1)).addAll(queueName, Collections.singletonList(message1));
+  }
+
+  @Test
+  public void messageAddedAfterCloseIsFailed() throws Exception {
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 100, 60000L, 10, BackPressurePolicy.BLOCK);
+    messageAccumulator.close();
+    CompletableFuture<String> future = messageAccumulator.add(queueName, message1, false);
+    try {
+      future.get(1, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    verify(messageTemplate, never()).addAll(eq(queueName), anyList());
+  }
+
+  @Test
+  public void messagesAddedWhileClosingAreCompleted() throws Exception {
+    messageAccumulator =
+        new MessageAccumulator(messageTemplate, 2, 60000L, 1000, BackPressurePolicy.REJECT);
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 500; i++) {
+                futures.add(messageAccumulator.add(queueName, message1, false));
+              }
+            });
+    producer.start();
+    messageAccumulator.close();
+    producer.join();
+    for (CompletableFuture<String> future : futures) {
+      try {
+        assertEquals(message1.getId(), future.get(1, TimeUnit.SECONDS));
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    }
+  }
+}
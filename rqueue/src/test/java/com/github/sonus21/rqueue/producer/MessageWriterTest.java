@@ -17,25 +17,34 @@
 package com.github.sonus21.rqueue.producer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.support.MessageBuilder;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
+@SuppressWarnings("unchecked")
 public class MessageWriterTest {
   private RqueueMessageTemplate rqueueMessageTemplate = mock(RqueueMessageTemplate.class);
   private CompositeMessageConverter messageConverter = mock(CompositeMessageConverter.class);
@@ -118,4 +127,42 @@ public class MessageWriterTest {
     assertTrue(rqueueMessage.getQueuedTime() <= System.currentTimeMillis());
     assertNull(rqueueMessage.getReEnqueuedAt());
   }
+
+  @Test
+  public void pushMessagesWithDelay() {
+    String queueName = "test-queue";
+    List<String> messages = Arrays.asList("Message 1", "Message 2");
+    for (String message : messages) {
+      doReturn(MessageBuilder.withPayload(message).build())
+          .when(messageConverter)
+          .toMessage(message, null);
+    }
+    List<RqueueMessage> rqueueMessages = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              rqueueMessages.addAll((List<RqueueMessage>) invocation.getArguments()[1]);
+              return null;
+            })
+        .when(rqueueMessageTemplate)
+        .addAllWithDelay(anyString(), anyList());
+    assertTrue(messageWriter.pushMessages(queueName, messages, null, 1200L));
+    assertEquals(2, rqueueMessages.size());
+    for (int i = 0; i < messages.size(); i++) {
+      assertEquals(messages.get(i), rqueueMessages.get(i).getMessage());
+      assertTrue(rqueueMessages.get(i).getProcessAt() >= rqueueMessages.get(i).getQueuedTime());
+    }
+    verify(rqueueMessageTemplate, never()).addAll(anyString(), anyList());
+  }
+
+  @Test
+  public void pushMessagesFailure() {
+    doReturn(MessageBuilder.withPayload("Message").build())
+        .when(messageConverter)
+        .toMessage("Message", null);
+    doThrow(new RedisConnectionFailureException("Connection refused"))
+        .when(rqueueMessageTemplate)
+        .addAll(anyString(), anyList());
+    assertFalse(
+        messageWriter.pushMessages("test-queue", Collections.singletonList("Message"), null, null));
+  }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.producer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.github.sonus21.rqueue.core.ReactiveRqueueMessageTemplate;
+import com.github.sonus21.rqueue.core.RqueueMessage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class ReactiveRqueueMessageSenderTest {
+  @Rule public ExpectedException expectedException = ExpectedException.none();
+  private ReactiveRqueueMessageTemplate messageTemplate = mock(ReactiveRqueueMessageTemplate.class);
+  private ReactiveRqueueMessageSender messageSender =
+      new ReactiveRqueueMessageSender(messageTemplate);
+  private String queueName = "test-queue";
+  private String message = "Test Message";
+
+  @Test
+  public void putWithNullMessage() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("message cannot be null");
+    messageSender.put(queueName, null);
+  }
+
+  @Test
+  public void put() {
+    doReturn(Mono.just(1L)).when(messageTemplate).add(eq(queueName), any());
+    assertTrue(messageSender.put(queueName, message, 3).block());
+    ArgumentCaptor<RqueueMessage> messageCaptor = ArgumentCaptor.forClass(RqueueMessage.class);
+    verify(messageTemplate).add(eq(queueName), messageCaptor.capture());
+    assertEquals(Integer.valueOf(3), messageCaptor.getValue().getRetryCount());
+  }
+
+  @Test
+  public void putWithDelay() {
+    doReturn(Mono.just(1L)).when(messageTemplate).addWithDelay(eq(queueName), any());
+    assertTrue(messageSender.put(queueName, message, 1000L).block());
+  }
+
+  @Test
+  public void putFailure() {
+    doReturn(Mono.error(new IllegalStateException("connection closed")))
+        .when(messageTemplate)
+        .add(eq(queueName), any());
+    assertFalse(messageSender.put(queueName, message).block());
+  }
+}
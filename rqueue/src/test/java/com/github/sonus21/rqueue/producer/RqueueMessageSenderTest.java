@@ -18,11 +18,31 @@ package com.github.sonus21.rqueue.producer;
 
 import static org.apache.commons.lang3.reflect.FieldUtils.writeField;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import com.github.sonus21.rqueue.core.RqueueMessage;
 import com.github.sonus21.rqueue.core.RqueueMessageTemplate;
+import com.github.sonus21.rqueue.utils.Constants;
+import com.github.sonus21.rqueue.utils.QueueUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -63,31 +83,174 @@ public class RqueueMessageSenderTest {
   @Test
   public void put() {
     boolean returnValue = random.nextBoolean();
-    doReturn(returnValue).when(messageWriter).pushMessage(queueName, message, null, null);
+    doReturn(returnValue)
+        .when(messageWriter)
+        .pushMessage(queueName, queueName, message, null, null);
     assertEquals(returnValue, rqueueMessageSender.put(queueName, message));
   }
 
   @Test
   public void putWithRetry() {
     boolean returnValue = random.nextBoolean();
-    doReturn(returnValue).when(messageWriter).pushMessage(queueName, message, 3, null);
+    doReturn(returnValue).when(messageWriter).pushMessage(queueName, queueName, message, 3, null);
     assertEquals(returnValue, rqueueMessageSender.put(queueName, message, 3));
   }
 
   @Test
   public void putWithDelay() {
     boolean returnValue = random.nextBoolean();
-    doReturn(returnValue).when(messageWriter).pushMessage(queueName, message, null, 1000L);
+    doReturn(returnValue)
+        .when(messageWriter)
+        .pushMessage(queueName, queueName, message, null, 1000L);
     assertEquals(returnValue, rqueueMessageSender.put(queueName, message, 1000L));
   }
 
   @Test
   public void putWithDelayAndRetry() {
     boolean returnValue = random.nextBoolean();
-    doReturn(returnValue).when(messageWriter).pushMessage(queueName, message, 3, 1000L);
+    doReturn(returnValue).when(messageWriter).pushMessage(queueName, queueName, message, 3, 1000L);
     assertEquals(returnValue, rqueueMessageSender.put(queueName, message, 3, 1000L));
   }
 
+  @Test
+  public void putIsSpreadAcrossPartitions() {
+    rqueueMessageSender.setPartitions(queueName, 3);
+    for (int i = 0; i < 6; i++) {
+      rqueueMessageSender.put(queueName, message);
+    }
+    for (int partition = 0; partition < 3; partition++) {
+      verify(messageWriter, times(2))
+          .pushMessage(queueName, queueName + "#" + partition, message, null, null);
+    }
+  }
+
+  @Test
+  public void putWithKeyIsSentToSamePartition() {
+    rqueueMessageSender.setPartitions(queueName, 4);
+    String partitionName = queueName + "#" + Math.floorMod("user-1".hashCode(), 4);
+    doReturn(true).when(messageWriter).pushMessage(queueName, partitionName, message, null, null);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(rqueueMessageSender.put(queueName, message, "user-1"));
+    }
+    verify(messageWriter, times(3)).pushMessage(queueName, partitionName, message, null, null);
+    verify(messageWriter, times(0)).pushGroupMessage(any(), any(), any(), any());
+  }
+
+  @Test
+  public void putInGroupIsSentToPartitionOfGroup() {
+    rqueueMessageSender.setPartitions(queueName, 4);
+    String partitionName = queueName + "#" + Math.floorMod("user-1".hashCode(), 4);
+    doReturn(true)
+        .when(messageWriter)
+        .pushGroupMessage(queueName, partitionName, message, "user-1");
+    for (int i = 0; i < 3; i++) {
+      assertTrue(rqueueMessageSender.putInGroup(queueName, message, "user-1"));
+    }
+    verify(messageWriter, times(3)).pushGroupMessage(queueName, partitionName, message, "user-1");
+  }
+
+  @Test
+  public void putInGroupWithoutGroupKey() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("groupKey cannot be null");
+    rqueueMessageSender.putInGroup(queueName, message, null);
+  }
+
+  @Test
+  public void deleteAllMessagesOfPartitionedQueue() {
+    rqueueMessageSender.setPartitions(queueName, 2);
+    rqueueMessageSender.deleteAllMessages(queueName);
+    verify(rqueueMessageTemplate, times(1)).deleteQueue(queueName + "#0");
+    verify(rqueueMessageTemplate, times(1)).deleteQueue(queueName + "#1");
+  }
+
+  @Test
+  public void putAllWithNullMessage() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("message cannot be null");
+    rqueueMessageSender.putAll(queueName, Arrays.asList(message, null));
+  }
+
+  @Test
+  public void putAll() {
+    boolean returnValue = random.nextBoolean();
+    List<String> messages = Arrays.asList(message, message);
+    doReturn(returnValue)
+        .when(messageWriter)
+        .pushMessages(queueName, queueName, messages, null, null);
+    assertEquals(returnValue, rqueueMessageSender.putAll(queueName, messages));
+  }
+
+  @Test
+  public void putAllWithDelay() {
+    boolean returnValue = random.nextBoolean();
+    List<String> messages = Arrays.asList(message, message);
+    doReturn(returnValue)
+        .when(messageWriter)
+        .pushMessages(queueName, queueName, messages, null, 1000L);
+    assertEquals(returnValue, rqueueMessageSender.putAllWithDelay(queueName, messages, 1000L));
+  }
+
+  @Test
+  public void putAllIsSpreadAcrossPartitions() {
+    rqueueMessageSender.setPartitions(queueName, 3);
+    List<String> messages = Collections.nCopies(7, message);
+    List<String> partitionNames = new ArrayList<>();
+    List<Integer> chunkSizes = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              partitionNames.add(invocation.getArgument(1));
+              chunkSizes.add(((Collection<?>) invocation.getArgument(2)).size());
+              return true;
+            })
+        .when(messageWriter)
+        .pushMessages(eq(queueName), anyString(), anyCollection(), isNull(), isNull());
+    assertTrue(rqueueMessageSender.putAll(queueName, messages));
+    assertEquals(QueueUtils.getPartitionNames(queueName, 3), partitionNames);
+    assertEquals(Arrays.asList(3, 3, 1), chunkSizes);
+  }
+
+  @Test
+  public void putAllWithDelayIsSpreadAcrossPartitions() {
+    rqueueMessageSender.setPartitions(queueName, 2);
+    List<String> messages = Collections.nCopies(Constants.MAX_MESSAGES_PER_CALL * 3, message);
+    List<String> partitionNames = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              partitionNames.add(invocation.getArgument(1));
+              return partitionNames.size() < 3;
+            })
+        .when(messageWriter)
+        .pushMessages(eq(queueName), anyString(), anyCollection(), isNull(), eq(1000L));
+    // messages of a failed call and the following calls are not sent
+    assertFalse(rqueueMessageSender.putAllWithDelay(queueName, messages, 1000L));
+    assertEquals(
+        Arrays.asList(queueName + "#0", queueName + "#1", queueName + "#0"), partitionNames);
+  }
+
+  @Test
+  public void putAsync() throws Exception {
+    RqueueMessage rqueueMessage = new RqueueMessage(queueName, message, null, null);
+    doReturn(rqueueMessage).when(messageWriter).buildMessage(queueName, message, null, null);
+    rqueueMessageSender.setAsyncLingerTime(0L);
+    CompletableFuture<String> future = rqueueMessageSender.putAsync(queueName, message);
+    assertEquals(rqueueMessage.getId(), future.get(1, TimeUnit.SECONDS));
+    verify(rqueueMessageTemplate, times(1))
+        .addAll(queueName, Collections.singletonList(rqueueMessage));
+    rqueueMessageSender.destroy();
+  }
+
+  @Test
+  public void asyncConfigurationCanNotBeChangedOnceUsed() {
+    doReturn(new RqueueMessage(queueName, message, null, null))
+        .when(messageWriter)
+        .buildMessage(queueName, message, null, null);
+    rqueueMessageSender.putAsync(queueName, message);
+    rqueueMessageSender.destroy();
+    expectedException.expect(IllegalStateException.class);
+    rqueueMessageSender.setAsyncBatchSize(10);
+  }
+
   @Test
   public void moveMessageFromQueueExceptions() {
     try {
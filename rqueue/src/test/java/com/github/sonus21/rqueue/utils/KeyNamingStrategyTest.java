@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 Sonu Kumar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.sonus21.rqueue.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class KeyNamingStrategyTest {
+  private KeyNamingStrategy plain = KeyNamingStrategy.PLAIN;
+  private KeyNamingStrategy hashTagged = KeyNamingStrategy.HASH_TAGGED;
+
+  @Test
+  public void plainNames() {
+    assertEquals("rqueue-delay::job", plain.getTimeQueueName("job"));
+    assertEquals("rqueue-processing::job", plain.getProcessingQueueName("job"));
+    assertEquals("rqueue-channel::job", plain.getChannelName("job"));
+    assertFalse(plain.isCrossSlot(Arrays.asList("job", "other-job")));
+    // the static helpers use plain names
+    assertEquals("rqueue-delay::job", QueueUtils.getTimeQueueName("job"));
+  }
+
+  @Test
+  public void hashTaggedNames() {
+    assertEquals("rqueue-delay::{job}", hashTagged.getTimeQueueName("job"));
+    assertEquals("rqueue-processing::{job}", hashTagged.getProcessingQueueName("job"));
+    assertEquals(
+        "rqueue-processing-channel::{job}", hashTagged.getProcessingQueueChannelName("job"));
+    assertEquals("rqueue-queue-channel::{job}", hashTagged.getQueueChannelName("job"));
+    assertEquals("rqueue-message::{job}", hashTagged.getMessageStoreName("job"));
+    assertEquals(
+        "rqueue-notification::rqueue-channel::{job}",
+        QueueUtils.getNotificationName(hashTagged.getChannelName("job")));
+    // a queue that has a hash tag keeps it
+    assertEquals("rqueue-delay::{tenant}.job", hashTagged.getTimeQueueName("{tenant}.job"));
+  }
+
+  @Test
+  public void isCrossSlot() {
+    assertTrue(hashTagged.isCrossSlot(Arrays.asList("job", "other-job")));
+    assertFalse(hashTagged.isCrossSlot(Arrays.asList("job", "job")));
+    assertFalse(hashTagged.isCrossSlot(Arrays.asList("{tenant}.job", "{tenant}.other-job")));
+    assertFalse(hashTagged.isCrossSlot(Arrays.asList("{tenant}.job", "tenant")));
+  }
+
+  @Test
+  public void getKeyNames() {
+    assertEquals(
+        Arrays.asList(
+            "rqueue-delay::{job}",
+            "rqueue-processing::{job}",
+            "rqueue-message::{job}",
+            "rqueue-notification::rqueue-channel::{job}",
+            "rqueue-notification::rqueue-processing-channel::{job}"),
+        hashTagged.getKeyNames("job"));
+    assertEquals("rqueue-delay::job", plain.getKeyNames("job").get(0));
+  }
+}